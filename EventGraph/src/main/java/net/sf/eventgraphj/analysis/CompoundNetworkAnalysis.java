@@ -1,7 +1,19 @@
 package net.sf.eventgraphj.analysis;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.eventgraphj.analysis.VertexScoreAnalysis.ShortestPathAnalysis;
+import net.sf.eventgraphj.centrality.ShortestPathCentrality;
+import net.sf.eventgraphj.comparable.NavigableGraph;
 
 import org.apache.commons.math.linear.RealVector;
 
@@ -10,14 +22,28 @@ import edu.uci.ics.jung.graph.Graph;
 /**
  * A single {@code NetworkAnalysis} that simply combines multiple other analyses
  * into a single analysis.
- * 
+ *
  * Child analyses, added through {@code addAnalysis(...)} have their analysis
  * once for each subGraph analyzed. However, "coAnalysis" objects of type
  * {@code IterableNetworkAnalysis} instead have their {@code subAnalysis(..)}
  * run for each subGraph.
- * 
+ *
+ * Given an {@code ExecutorService}, the child analyses of each graph run
+ * concurrently on it rather than one after another. A {@code NavigableGraph}
+ * is frozen while they run so none of them can modify it under the others;
+ * analyses must otherwise only read the graph. The freeze is a hold released
+ * when they finish, so analyses of the same graph, or of views of one graph,
+ * may run at once without thawing it under each other. Either way the time each
+ * analysis took is reported with the results.
+ *
+ * When both closeness and betweenness are registered (as
+ * {@code VertexScoreAnalysis.ShortestPathAnalysis}), they are computed together
+ * from one {@code ShortestPathCentrality} pass, since the searches from each
+ * vertex are the expensive part of both; each reports the time of the shared
+ * pass.
+ *
  * @author jfolson
- * 
+ *
  * @param <K>
  * @param <V>
  * @param <E>
@@ -25,19 +51,177 @@ import edu.uci.ics.jung.graph.Graph;
 public class CompoundNetworkAnalysis<V, E, G extends Graph<V, E>> implements
         NetworkAnalysis<V, E, G, HashMap<String, RealVector>> {
 
+	/**
+	 * Results of each child analysis, along with the wall clock time in
+	 * nanoseconds each one took
+	 */
+	public static class CompoundResults extends HashMap<String, RealVector> {
+		private static final long serialVersionUID = 1L;
+		protected final HashMap<String, Long> timings = new HashMap<String, Long>();
+
+		public HashMap<String, Long> getTimings() {
+			return this.timings;
+		}
+	}
+
 	HashMap<String, NetworkAnalysis<V, E, ? super G, RealVector>> analyses;
+	protected ExecutorService executor;
 
 	public CompoundNetworkAnalysis() {
+		this(null);
+	}
+
+	/**
+	 * @param executor
+	 *            service to run child analyses on concurrently, or null to run
+	 *            them in turn on the calling thread
+	 */
+	public CompoundNetworkAnalysis(ExecutorService executor) {
 		analyses = new HashMap<String, NetworkAnalysis<V, E, ? super G, RealVector>>();
+		this.executor = executor;
+	}
+
+	public ExecutorService getExecutor() {
+		return this.executor;
+	}
+
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
 	}
 
 	@Override
-	public HashMap<String, RealVector> analyze(G graph) {
-		HashMap<String, RealVector> compoundResults = new HashMap<String, RealVector>();
+	public CompoundResults analyze(G graph) {
+		List<Callable<CompoundResults>> tasks = this.createTasks(graph);
+		if (this.executor == null || tasks.size() < 2) {
+			CompoundResults compoundResults = new CompoundResults();
+			for (Callable<CompoundResults> task : tasks) {
+				try {
+					CompoundResults results = task.call();
+					compoundResults.putAll(results);
+					compoundResults.timings.putAll(results.timings);
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return compoundResults;
+		}
+
+		NavigableGraph<?, ?, ?> frozen = null;
+		if (graph instanceof NavigableGraph) {
+			frozen = (NavigableGraph<?, ?, ?>) graph;
+			frozen.freeze();
+		}
+		try {
+			return this.analyzeConcurrently(tasks);
+		} finally {
+			if (frozen != null) {
+				frozen.thaw();
+			}
+		}
+	}
+
+	/**
+	 * One task per analysis, except that closeness and betweenness share a
+	 * task when both are present
+	 */
+	protected List<Callable<CompoundResults>> createTasks(final G graph) {
+		List<Callable<CompoundResults>> tasks = new ArrayList<Callable<CompoundResults>>(analyses.size());
+		final Map<String, ShortestPathAnalysis<V, E>> shared = this.sharedShortestPaths();
+		for (Entry<String, NetworkAnalysis<V, E, ? super G, RealVector>> entry : analyses.entrySet()) {
+			if (shared.containsKey(entry.getKey())) {
+				continue;
+			}
+			final String id = entry.getKey();
+			final NetworkAnalysis<V, E, ? super G, RealVector> analysis = entry.getValue();
+			tasks.add(new Callable<CompoundResults>() {
+				@Override
+				public CompoundResults call() {
+					CompoundResults results = new CompoundResults();
+					long begin = System.nanoTime();
+					results.put(id, analysis.analyze(graph));
+					results.timings.put(id, System.nanoTime() - begin);
+					return results;
+				}
+			});
+		}
+		if (!shared.isEmpty()) {
+			tasks.add(new Callable<CompoundResults>() {
+				@Override
+				public CompoundResults call() {
+					CompoundResults results = new CompoundResults();
+					long begin = System.nanoTime();
+					ShortestPathCentrality<V> centrality = ShortestPathCentrality.compute(graph);
+					for (Entry<String, ShortestPathAnalysis<V, E>> entry : shared.entrySet()) {
+						results.put(entry.getKey(), entry.getValue().analyze(centrality));
+					}
+					long elapsed = System.nanoTime() - begin;
+					for (String id : shared.keySet()) {
+						results.timings.put(id, elapsed);
+					}
+					return results;
+				}
+			});
+		}
+		return tasks;
+	}
+
+	/**
+	 * @return the closeness and betweenness analyses, if there are both
+	 */
+	@SuppressWarnings("unchecked")
+	protected Map<String, ShortestPathAnalysis<V, E>> sharedShortestPaths() {
+		Map<String, ShortestPathAnalysis<V, E>> shared = new LinkedHashMap<String, ShortestPathAnalysis<V, E>>();
+		boolean closeness = false;
+		boolean betweenness = false;
 		for (Entry<String, NetworkAnalysis<V, E, ? super G, RealVector>> entry : analyses.entrySet()) {
-			NetworkAnalysis<V, E, ? super G, RealVector> analysis = entry.getValue();
-			RealVector result = analysis.analyze(graph);
-			compoundResults.put(entry.getKey(), result);
+			if (entry.getValue() instanceof ShortestPathAnalysis) {
+				ShortestPathAnalysis<V, E> analysis = (ShortestPathAnalysis<V, E>) entry.getValue();
+				shared.put(entry.getKey(), analysis);
+				if (analysis.getMeasure() == ShortestPathAnalysis.Measure.CLOSENESS) {
+					closeness = true;
+				} else {
+					betweenness = true;
+				}
+			}
+		}
+		if (!closeness || !betweenness) {
+			shared.clear();
+		}
+		return shared;
+	}
+
+	protected CompoundResults analyzeConcurrently(List<Callable<CompoundResults>> tasks) {
+		List<Future<CompoundResults>> futures = new ArrayList<Future<CompoundResults>>(tasks.size());
+		for (Callable<CompoundResults> task : tasks) {
+			futures.add(this.executor.submit(task));
+		}
+
+		CompoundResults compoundResults = new CompoundResults();
+		try {
+			for (Future<CompoundResults> future : futures) {
+				CompoundResults results = future.get();
+				compoundResults.putAll(results);
+				compoundResults.timings.putAll(results.timings);
+			}
+		} catch (InterruptedException e) {
+			for (Future<CompoundResults> future : futures) {
+				future.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for analyses", e);
+		} catch (ExecutionException e) {
+			for (Future<CompoundResults> future : futures) {
+				future.cancel(true);
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
 		}
 		return compoundResults;
 	}
@@ -0,0 +1,26 @@
+package net.sf.eventgraphj.analysis;
+
+import java.util.BitSet;
+
+import net.sf.eventgraphj.compact.VertexIndex;
+
+/**
+ * A scorer that can write the scores of many vertices at once into a plain
+ * array laid out by a {@code VertexIndex}, rather than answering one boxed
+ * {@code getVertexScore(...)} at a time. {@code VertexScoreAnalysis} prefers
+ * this when a scorer offers it.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public interface DenseVertexScorer<V> {
+
+	/**
+	 * For each vertex of <code>index</code> that is in the scored graph, sets
+	 * <code>scores[index.indexOf(vertex)]</code> to its score and sets that bit
+	 * of <code>present</code>; the slots of other vertices are left alone.
+	 */
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present);
+
+}
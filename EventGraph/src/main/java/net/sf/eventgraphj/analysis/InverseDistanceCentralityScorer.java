@@ -12,6 +12,9 @@ package net.sf.eventgraphj.analysis;
 import java.util.HashMap;
 import java.util.Map;
 
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.MultiSourceBfs;
+
 import org.apache.commons.collections15.Transformer;
 
 import edu.uci.ics.jung.algorithms.scoring.DistanceCentralityScorer;
@@ -19,6 +22,7 @@ import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
 import edu.uci.ics.jung.algorithms.shortestpath.DijkstraDistance;
 import edu.uci.ics.jung.algorithms.shortestpath.Distance;
 import edu.uci.ics.jung.algorithms.shortestpath.UnweightedShortestPath;
+import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.Hypergraph;
 
 /**
@@ -36,12 +40,24 @@ import edu.uci.ics.jung.graph.Hypergraph;
  * <average over all other vertices, u, of>: 1 / (distance from v to u). This is
  * sometimes called <i>inverse closeness centrality</i>.
  * 
+ * Without edge weights on a {@code Graph}, the inverse distance sums of every
+ * vertex are found together with a {@code MultiSourceBfs} the first time a
+ * score is asked for.
+ * 
  * 
  * @see DistanceCentralityScorer
  */
 public class InverseDistanceCentralityScorer<V, E> extends DistanceCentralityScorer<V, E> implements
         VertexScorer<V, Double> {
 
+	/**
+	 * Inverse distance sums from every vertex, when distances are unweighted;
+	 * null until the first score is calculated.
+	 */
+	protected MultiSourceBfs<V> bfs;
+
+	protected boolean unweighted;
+
 	/**
 	 * Creates an instance with the specified graph, distance metric, and
 	 * averaging behavior.
@@ -98,6 +114,7 @@ public class InverseDistanceCentralityScorer<V, E> extends DistanceCentralitySco
 	 */
 	public InverseDistanceCentralityScorer(Hypergraph<V, E> graph) {
 		this(graph, new UnweightedShortestPath<V, E>(graph), true);
+		this.unweighted = true;
 	}
 
 	/**
@@ -114,6 +131,20 @@ public class InverseDistanceCentralityScorer<V, E> extends DistanceCentralitySco
 			return value;
 		}
 
+		if (this.unweighted && this.graph instanceof Graph) {
+			if (this.bfs == null) {
+				this.bfs = new MultiSourceBfs<V>(CompactGraph.fromGraph((Graph<V, E>) this.graph));
+			}
+			int i = this.bfs.getGraph().indexOf(v);
+			if (i >= 0) {
+				// missing distances add nothing but still count as others
+				int others = this.graph.getVertexCount() - 1;
+				value = others > 0 ? this.bfs.getInverseDistanceSum(i) / others : 0.0;
+				this.output.put(v, value);
+				return value;
+			}
+		}
+
 		Map<V, Number> v_distances = new HashMap<V, Number>(this.distance.getDistanceMap(v));
 		if (this.ignore_self_distances) {
 			v_distances.remove(v);
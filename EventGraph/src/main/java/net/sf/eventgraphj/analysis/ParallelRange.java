@@ -0,0 +1,87 @@
+package net.sf.eventgraphj.analysis;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join loop over an integer range. The range is split in halves until it
+ * is no larger than the grain, then each piece is handed to the {@code Body}.
+ * Bodies only ever see disjoint ranges, so they may write to disjoint slots of
+ * shared arrays without locking; anything they need to accumulate should go
+ * into per thread state that is merged once the loop returns.
+ *
+ * @author jfolson
+ *
+ */
+public class ParallelRange extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private static ForkJoinPool defaultPool = null;
+
+	public static interface Body {
+		public void run(int from, int to);
+	}
+
+	protected final int from, to, grain;
+	protected final Body body;
+
+	public ParallelRange(int from, int to, int grain, Body body) {
+		this.from = from;
+		this.to = to;
+		this.grain = Math.max(1, grain);
+		this.body = body;
+	}
+
+	@Override
+	protected void compute() {
+		if (this.to - this.from <= this.grain) {
+			this.body.run(this.from, this.to);
+		} else {
+			int middle = (this.from + this.to) >>> 1;
+			invokeAll(new ParallelRange(this.from, middle, this.grain, this.body), new ParallelRange(middle, this.to,
+			        this.grain, this.body));
+		}
+	}
+
+	/**
+	 * A pool sized to the available processors, shared by every analysis that
+	 * was not given its own.
+	 */
+	public static synchronized ForkJoinPool defaultPool() {
+		if (defaultPool == null) {
+			defaultPool = new ForkJoinPool();
+		}
+		return defaultPool;
+	}
+
+	/**
+	 * A grain giving each worker of <code>pool</code> several pieces of a range
+	 * of length <code>n</code>, so uneven pieces still balance.
+	 */
+	public static int grain(int n, ForkJoinPool pool) {
+		int parallelism = (pool == null ? defaultPool() : pool).getParallelism();
+		return Math.max(1, n / (parallelism * 8));
+	}
+
+	/**
+	 * Run <code>body</code> over <code>[from, to)</code> on <code>pool</code>,
+	 * or on the default pool if <code>pool</code> is null.
+	 */
+	public static void run(ForkJoinPool pool, int from, int to, int grain, Body body) {
+		if (to <= from) {
+			return;
+		}
+		if (pool == null) {
+			pool = defaultPool();
+		}
+		if (to - from <= grain) {
+			body.run(from, to);
+		} else {
+			pool.invoke(new ParallelRange(from, to, grain, body));
+		}
+	}
+
+	public static void run(ForkJoinPool pool, int from, int to, Body body) {
+		run(pool, from, to, grain(to - from, pool), body);
+	}
+}
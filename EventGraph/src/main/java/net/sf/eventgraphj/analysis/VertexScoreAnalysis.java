@@ -1,7 +1,23 @@
 package net.sf.eventgraphj.analysis;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.sf.eventgraphj.centrality.ApproximateBetweennessCentrality;
+import net.sf.eventgraphj.centrality.ClusteringCoefficient;
+import net.sf.eventgraphj.centrality.CompactPageRank;
+import net.sf.eventgraphj.centrality.CoreNumber;
+import net.sf.eventgraphj.centrality.HyperBallCentrality;
+import net.sf.eventgraphj.centrality.ShortestPathCentrality;
+import net.sf.eventgraphj.centrality.TemporalBetweennessCentrality;
+import net.sf.eventgraphj.centrality.TemporalClosenessCentrality;
+import net.sf.eventgraphj.compact.VertexIndex;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
 
 import org.apache.commons.math.linear.ArrayRealVector;
 import org.apache.commons.math.linear.RealVector;
@@ -22,6 +38,13 @@ import edu.uci.ics.jung.graph.Graph;
  * that the same position for different network analysis results refers to the
  * same vertex.
  * 
+ * The nodes are numbered once by a {@code VertexIndex}, and scores are written
+ * straight into a <code>double[]</code> in that order: by the scorer itself if
+ * it is a {@code DenseVertexScorer}, otherwise one vertex at a time, skipping
+ * nodes missing from the graph rather than asking the scorer about them.
+ * Missing nodes score 0; {@code scoreInto(...)} also reports which nodes were
+ * present.
+ * 
  * @author jfolson
  * 
  * @param <V>
@@ -31,6 +54,10 @@ import edu.uci.ics.jung.graph.Graph;
 public abstract class VertexScoreAnalysis<V, E> implements NetworkAnalysis<V, E, Graph<V, E>, RealVector> {
 
 	final private List<V> nodes;
+	/**
+	 * Numbering of <code>nodes</code>, or null if a node is listed twice
+	 */
+	final private VertexIndex<V> index;
 
 	/**
 	 * Creates a network analysis that computes the vertex scores for vertices
@@ -44,6 +71,7 @@ public abstract class VertexScoreAnalysis<V, E> implements NetworkAnalysis<V, E,
 	 */
 	public VertexScoreAnalysis(List<V> nodes) {
 		this.nodes = nodes;
+		this.index = new HashSet<V>(nodes).size() == nodes.size() ? new VertexIndex<V>(nodes) : null;
 	}
 
 	/**
@@ -58,10 +86,47 @@ public abstract class VertexScoreAnalysis<V, E> implements NetworkAnalysis<V, E,
 
 	@Override
 	public RealVector analyze(Graph<V, E> graph) {
-		VertexScorer<V, ? extends Number> scorer = createScorer(graph);
-		RealVector values = new ArrayRealVector(nodes.size());
+		double[] values = new double[nodes.size()];
+		this.scoreInto(graph, createScorer(graph), values, new BitSet(values.length));
+		return new ArrayRealVector(values, false);
+	}
+
+	/**
+	 * Writes the score of each node in {@code graph} to the same position of
+	 * {@code scores} and sets that bit of {@code present}, leaving the
+	 * positions of the other nodes (and of nodes without a score) alone, so
+	 * one buffer can be reused across many graphs.
+	 */
+	public void scoreInto(Graph<V, E> graph, double[] scores, BitSet present) {
+		this.scoreInto(graph, createScorer(graph), scores, present);
+	}
+
+	/**
+	 * Scores of each of the nodes from an existing {@code scorer}
+	 */
+	protected RealVector analyze(VertexScorer<V, ? extends Number> scorer) {
+		double[] values = new double[nodes.size()];
+		this.scoreInto(null, scorer, values, new BitSet(values.length));
+		return new ArrayRealVector(values, false);
+	}
+
+	/**
+	 * Scores from an existing {@code scorer}; nodes missing from
+	 * {@code graph}, if it is given, are not asked for
+	 */
+	@SuppressWarnings("unchecked")
+	protected void scoreInto(Graph<V, E> graph, VertexScorer<V, ? extends Number> scorer, double[] scores,
+	        BitSet present) {
+		if (scorer instanceof DenseVertexScorer && this.index != null) {
+			((DenseVertexScorer<V>) scorer).scoreInto(this.index, scores, present);
+			return;
+		}
 		int nodeIdx = 0;
 		for (V vertex : nodes) {
+			if (graph != null && !graph.containsVertex(vertex)) {
+				nodeIdx++;
+				continue;
+			}
 
 			Number score = null;
 			try {
@@ -72,25 +137,103 @@ public abstract class VertexScoreAnalysis<V, E> implements NetworkAnalysis<V, E,
 				// graph
 				e.printStackTrace();
 			}
-			if (score == null) {
-				values.setEntry(nodeIdx, 0);
-			} else {
+			if (score != null) {
 				//System.out.println(score + ", ");
-				values.setEntry(nodeIdx, score.doubleValue());
+				scores[nodeIdx] = score.doubleValue();
+				present.set(nodeIdx);
 			}
 			nodeIdx++;
 		}
-
-		return values;
 	}
 
 	public abstract VertexScorer<V, ? extends Number> createScorer(Graph<V, E> graph);
 
+	/**
+	 * A closeness or betweenness analysis. On its own it uses the usual JUNG
+	 * scorers, but {@code CompoundNetworkAnalysis} computes every one of these
+	 * registered with it from a single {@code ShortestPathCentrality} pass.
+	 */
+	public static class ShortestPathAnalysis<V, E> extends VertexScoreAnalysis<V, E> {
+		public static enum Measure {
+			CLOSENESS, BETWEENNESS
+		}
+
+		protected final Measure measure;
+
+		public ShortestPathAnalysis(Graph<V, E> graph, Measure measure) {
+			super(graph);
+			this.measure = measure;
+		}
+
+		public ShortestPathAnalysis(List<V> nodes, Measure measure) {
+			super(nodes);
+			this.measure = measure;
+		}
+
+		public Measure getMeasure() {
+			return this.measure;
+		}
+
+		@Override
+		public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
+			if (this.measure == Measure.CLOSENESS) {
+				return new InverseDistanceCentralityScorer<V, E>(graph);
+			}
+			return new BetweennessCentrality<V, E>(graph);
+		}
+
+		/**
+		 * Scores from a pass already made over the graph
+		 */
+		public RealVector analyze(ShortestPathCentrality<V> centrality) {
+			if (this.measure == Measure.CLOSENESS) {
+				return this.analyze(centrality.getClosenessScorer());
+			}
+			return this.analyze(centrality.getBetweennessScorer());
+		}
+	}
+
 	public static <V, E> VertexScoreAnalysis<V, E> newBetweennessAnalysis(Graph<V, E> graph) {
+		return new ShortestPathAnalysis<V, E>(graph, ShortestPathAnalysis.Measure.BETWEENNESS);
+	}
+
+	/**
+	 * Betweenness estimated from a sample of sources, within
+	 * <code>epsilon * n * (n - 2)</code> of the exact scores with probability
+	 * at least <code>1 - delta</code>
+	 *
+	 * @see ApproximateBetweennessCentrality
+	 */
+	public static <V, E> VertexScoreAnalysis<V, E> newApproxBetweennessAnalysis(Graph<V, E> graph,
+	        final double epsilon, final double delta, final long seed) {
+		// reject bad parameters up front rather than on the first snapshot
+		ApproximateBetweennessCentrality.samplesFor(graph.getVertexCount(), epsilon, delta);
 		return new VertexScoreAnalysis<V, E>(graph) {
 			@Override
 			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
-				return new BetweennessCentrality<V, E>(graph);
+				return ApproximateBetweennessCentrality.forError(graph, epsilon, delta, new Random(seed));
+			}
+
+		};
+	}
+
+	public static <V, E> VertexScoreAnalysis<V, E> newApproxBetweennessAnalysis(Graph<V, E> graph,
+	        double epsilon, double delta) {
+		return newApproxBetweennessAnalysis(graph, epsilon, delta, 0l);
+	}
+
+	/**
+	 * Betweenness estimated from a fixed budget of sampled sources
+	 */
+	public static <V, E> VertexScoreAnalysis<V, E> newApproxBetweennessAnalysis(Graph<V, E> graph,
+	        final int samples, final long seed) {
+		if (samples < 1) {
+			throw new IllegalArgumentException("at least one sample is needed: " + samples);
+		}
+		return new VertexScoreAnalysis<V, E>(graph) {
+			@Override
+			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
+				return ApproximateBetweennessCentrality.forSamples(graph, samples, new Random(seed));
 			}
 
 		};
@@ -100,28 +243,108 @@ public abstract class VertexScoreAnalysis<V, E> implements NetworkAnalysis<V, E,
 		return new VertexScoreAnalysis<V, E>(graph) {
 			@Override
 			public VertexScorer<V, Integer> createScorer(Graph<V, E> graph) {
-				return new DegreeScorer<V>(graph);
+				return new DenseDegreeScorer<V, E>(graph);
 			}
 
 		};
 	}
 
+	/**
+	 * {@code DegreeScorer} that writes degrees straight into a dense array
+	 */
+	protected static class DenseDegreeScorer<V, E> extends DegreeScorer<V> implements DenseVertexScorer<V> {
+		protected final Graph<V, E> graph;
+
+		public DenseDegreeScorer(Graph<V, E> graph) {
+			super(graph);
+			this.graph = graph;
+		}
+
+		@Override
+		public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+			for (V vertex : this.graph.getVertices()) {
+				int i = index.indexOf(vertex);
+				if (i >= 0) {
+					scores[i] = this.graph.degree(vertex);
+					present.set(i);
+				}
+			}
+		}
+	}
+
 	public static <V, E> VertexScoreAnalysis<V, E> newClosenessAnalysis(Graph<V, E> graph) {
+		return new ShortestPathAnalysis<V, E>(graph, ShortestPathAnalysis.Measure.CLOSENESS);
+	}
+
+	/**
+	 * Harmonic (or, by {@code measure}, closeness) centrality estimated from
+	 * HyperLogLog balls of <code>2^log2m</code> registers per vertex
+	 *
+	 * @see HyperBallCentrality
+	 */
+	public static <V, E> VertexScoreAnalysis<V, E> newApproxClosenessAnalysis(Graph<V, E> graph, final int log2m,
+	        final HyperBallCentrality.Measure measure) {
+		if (log2m < 4 || log2m > 16) {
+			throw new IllegalArgumentException("log2m must be between 4 and 16: " + log2m);
+		}
 		return new VertexScoreAnalysis<V, E>(graph) {
 			@Override
 			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
-				return new InverseDistanceCentralityScorer<V, E>(graph);
+				return HyperBallCentrality.compute(graph, log2m, measure);
 			}
 
 		};
 	}
 
+	public static <V, E> VertexScoreAnalysis<V, E> newApproxClosenessAnalysis(Graph<V, E> graph, int log2m) {
+		return newApproxClosenessAnalysis(graph, log2m, HyperBallCentrality.Measure.HARMONIC);
+	}
+
 	public static <V, E> VertexScoreAnalysis<V, E> newPageRankAnalysis(Graph<V, E> graph,
 	        final double restartProbability) {
 		return new VertexScoreAnalysis<V, E>(graph) {
 			@Override
 			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
-				return new PageRank<V, E>(graph, restartProbability);
+				PageRank<V, E> pageRank = new PageRank<V, E>(graph, restartProbability);
+				pageRank.evaluate();
+				return pageRank;
+			}
+
+		};
+	}
+
+	/**
+	 * PageRank on a {@code CompactGraph}, starting each graph analyzed from the
+	 * scores of the one analyzed before it, which for consecutive windows of a
+	 * series are already close.
+	 *
+	 * Only valid when the windows are analyzed one at a time and in order, as
+	 * by an {@code IterableNetworkAnalysis}: analyzing two graphs at once, as
+	 * the concurrent snapshot tasks of {@code SnapshotStatistics} would, throws
+	 * an {@code IllegalStateException} rather than start either from whichever
+	 * window happened to finish last. Use
+	 * {@link #newPageRankAnalysis(Graph, double)} there instead.
+	 *
+	 * @see CompactPageRank
+	 */
+	public static <V, E> VertexScoreAnalysis<V, E> newWarmPageRankAnalysis(Graph<V, E> graph,
+	        final double restartProbability) {
+		return new VertexScoreAnalysis<V, E>(graph) {
+			private final AtomicBoolean busy = new AtomicBoolean();
+			private volatile CompactPageRank<V> previous;
+
+			@Override
+			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
+				if (!this.busy.compareAndSet(false, true)) {
+					throw new IllegalStateException("warm started PageRank analyzes one window at a time");
+				}
+				try {
+					CompactPageRank<V> pageRank = CompactPageRank.compute(graph, restartProbability, this.previous);
+					this.previous = pageRank;
+					return pageRank;
+				} finally {
+					this.busy.set(false);
+				}
 			}
 
 		};
@@ -130,4 +353,103 @@ public abstract class VertexScoreAnalysis<V, E> implements NetworkAnalysis<V, E,
 	public static <V, E> VertexScoreAnalysis<V, E> newPageRankAnalysis(Graph<V, E> graph) {
 		return newPageRankAnalysis(graph, .15);
 	}
+
+	/**
+	 * Local clustering coefficients (or, by {@code measure}, triangle counts)
+	 * from sorted adjacency intersections on a {@code CompactGraph}
+	 *
+	 * @see ClusteringCoefficient
+	 */
+	public static <V, E> VertexScoreAnalysis<V, E> newClusteringAnalysis(Graph<V, E> graph,
+	        final ClusteringCoefficient.Measure measure) {
+		return new VertexScoreAnalysis<V, E>(graph) {
+			@Override
+			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
+				return ClusteringCoefficient.compute(graph, measure);
+			}
+
+		};
+	}
+
+	public static <V, E> VertexScoreAnalysis<V, E> newClusteringAnalysis(Graph<V, E> graph) {
+		return newClusteringAnalysis(graph, ClusteringCoefficient.Measure.CLUSTERING);
+	}
+
+	/**
+	 * Core numbers by bucketed peeling of a {@code CompactGraph}; see
+	 * {@code IncrementalCoreAnalysis} to keep them up to date over a sliding
+	 * window instead
+	 *
+	 * @see CoreNumber
+	 */
+	public static <V, E> VertexScoreAnalysis<V, E> newCoreAnalysis(Graph<V, E> graph) {
+		return new VertexScoreAnalysis<V, E>(graph) {
+			@Override
+			public VertexScorer<V, Double> createScorer(Graph<V, E> graph) {
+				return CoreNumber.compute(graph);
+			}
+
+		};
+	}
+
+	/**
+	 * Closeness along time-respecting paths through the events of each
+	 * {@code NavigableGraph} analyzed, from its lower bound (or first event)
+	 *
+	 * @see TemporalClosenessCentrality
+	 */
+	public static <K extends Number & Comparable<K>, V, E> VertexScoreAnalysis<V, EdgeEntry<K, V, E>> newTemporalClosenessAnalysis(
+	        Graph<V, EdgeEntry<K, V, E>> graph, final long duration) {
+		return new VertexScoreAnalysis<V, EdgeEntry<K, V, E>>(graph) {
+			@Override
+			public VertexScorer<V, Double> createScorer(Graph<V, EdgeEntry<K, V, E>> graph) {
+				NavigableGraph<K, V, E> events = asNavigable(graph);
+				return TemporalClosenessCentrality.compute(events, events.getLowerBound(), events.getUpperBound(),
+				        duration);
+			}
+
+		};
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> VertexScoreAnalysis<V, EdgeEntry<K, V, E>> newTemporalClosenessAnalysis(
+	        Graph<V, EdgeEntry<K, V, E>> graph) {
+		return newTemporalClosenessAnalysis(graph, TemporalClosenessCentrality.DEFAULT_DURATION);
+	}
+
+	/**
+	 * Betweenness along prefix-foremost time-respecting paths through the
+	 * events of each {@code NavigableGraph} analyzed
+	 *
+	 * @see TemporalBetweennessCentrality
+	 */
+	public static <K extends Number & Comparable<K>, V, E> VertexScoreAnalysis<V, EdgeEntry<K, V, E>> newTemporalBetweennessAnalysis(
+	        Graph<V, EdgeEntry<K, V, E>> graph, final long duration) {
+		return new VertexScoreAnalysis<V, EdgeEntry<K, V, E>>(graph) {
+			@Override
+			public VertexScorer<V, Double> createScorer(Graph<V, EdgeEntry<K, V, E>> graph) {
+				NavigableGraph<K, V, E> events = asNavigable(graph);
+				return TemporalBetweennessCentrality.compute(events, events.getLowerBound(),
+				        events.getUpperBound(), duration);
+			}
+
+		};
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> VertexScoreAnalysis<V, EdgeEntry<K, V, E>> newTemporalBetweennessAnalysis(
+	        Graph<V, EdgeEntry<K, V, E>> graph) {
+		return newTemporalBetweennessAnalysis(graph, TemporalClosenessCentrality.DEFAULT_DURATION);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if <code>graph</code> has no event times
+	 */
+	protected static <K extends Comparable<K>, V, E> NavigableGraph<K, V, E> asNavigable(
+	        Graph<V, EdgeEntry<K, V, E>> graph) {
+		if (!(graph instanceof NavigableGraph)) {
+			throw new IllegalArgumentException("temporal scores need a NavigableGraph, not a "
+			        + graph.getClass().getName());
+		}
+		return (NavigableGraph<K, V, E>) graph;
+	}
 }
@@ -0,0 +1,235 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.comparable.EventKeys;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Inter-event times (survival times): the gaps between consecutive events of
+ * the whole graph, of each sender, or of each dyad, as plain
+ * <code>long[]</code>.
+ *
+ * Keys are read in order from the per dyad and per node maps of the graph
+ * through {@code EventKeys}, as for {@code SessionWindows}, so nothing is
+ * sorted or boxed unless the graph keeps no index, and senders are processed
+ * in parallel on a fork/join pool. For graphs whose gaps do not all fit in
+ * memory at once, the <code>stream...</code> methods hand the gaps of one
+ * sender (or dyad) at a time to a {@link GapSink}, working through the senders
+ * a block at a time so only one block's gaps are held, and calling the sink
+ * in order from the calling thread.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class InterEventTimes<K extends Number & Comparable<K>, V, E> {
+	/**
+	 * Senders worked on at once by the <code>stream...</code> methods
+	 */
+	public static final int DEFAULT_BLOCK = 1024;
+
+	/**
+	 * Receives the gaps of one sender or dyad
+	 *
+	 * @param <V>
+	 */
+	public static interface GapSink<V> {
+		/**
+		 * @param to
+		 *            receiver of the later event of each gap
+		 */
+		public void gaps(V from, List<V> to, long[] gaps);
+	}
+
+	protected final ForkJoinPool pool;
+	protected final int block;
+
+	public InterEventTimes() {
+		this(null, DEFAULT_BLOCK);
+	}
+
+	/**
+	 * @param pool
+	 *            pool to run on, or null for the shared default pool
+	 * @param block
+	 *            number of senders whose gaps the <code>stream...</code>
+	 *            methods hold at once
+	 */
+	public InterEventTimes(ForkJoinPool pool, int block) {
+		if (block < 1) {
+			throw new IllegalArgumentException("block must be positive: " + block);
+		}
+		this.pool = pool;
+		this.block = block;
+	}
+
+	/**
+	 * @return the differences between consecutive <code>keys</code>, one fewer
+	 *         than there are keys
+	 */
+	public static long[] gaps(long[] keys) {
+		if (keys.length < 2) {
+			return EventKeys.EMPTY;
+		}
+		long[] gaps = new long[keys.length - 1];
+		for (int i = 0; i < gaps.length; i++) {
+			gaps[i] = keys[i + 1] - keys[i];
+		}
+		return gaps;
+	}
+
+	/**
+	 * Gaps between consecutive events of the whole graph
+	 */
+	public long[] anyGaps(NavigableGraph<K, V, E> graph) {
+		return gaps(new EventKeys<K, V, E>(graph).allKeys());
+	}
+
+	/**
+	 * Gaps between the consecutive outgoing events of each vertex
+	 *
+	 * @return gaps aligned with <code>nodes</code>
+	 */
+	public long[][] vertexGaps(NavigableGraph<K, V, E> graph, final List<V> nodes) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		final long[][] gaps = new long[nodes.size()][];
+		ParallelRange.run(this.pool, 0, nodes.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					gaps[i] = gaps(keys.vertexKeys(nodes.get(i)));
+				}
+			}
+		});
+		return gaps;
+	}
+
+	public long[][] vertexGaps(NavigableGraph<K, V, E> graph) {
+		return this.vertexGaps(graph, new ArrayList<V>(graph.getVertices()));
+	}
+
+	/**
+	 * Gaps between the consecutive events of every dyad with at least one
+	 * event, keyed by (sender, receiver)
+	 */
+	public Map<Pair<V>, long[]> dyadGaps(NavigableGraph<K, V, E> graph) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		final List<V> nodes = new ArrayList<V>(graph.getVertices());
+		final List<Map<V, long[]>> perSender = new ArrayList<Map<V, long[]>>(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			perSender.add(null);
+		}
+		ParallelRange.run(this.pool, 0, nodes.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					perSender.set(i, dyadGaps(keys, nodes.get(i)));
+				}
+			}
+		});
+		Map<Pair<V>, long[]> result = new LinkedHashMap<Pair<V>, long[]>();
+		for (int i = 0; i < nodes.size(); i++) {
+			for (Entry<V, long[]> entry : perSender.get(i).entrySet()) {
+				result.put(new Pair<V>(nodes.get(i), entry.getKey()), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	protected static <K extends Number & Comparable<K>, V, E> Map<V, long[]> dyadGaps(EventKeys<K, V, E> keys,
+	        V from) {
+		Map<V, long[]> gaps = new LinkedHashMap<V, long[]>();
+		for (Entry<V, long[]> dyad : keys.dyadKeys(from).entrySet()) {
+			gaps.put(dyad.getKey(), gaps(dyad.getValue()));
+		}
+		return gaps;
+	}
+
+	/**
+	 * Hands the gaps between the consecutive outgoing events of each of
+	 * <code>nodes</code> to <code>sink</code>, in order, with the receiver of
+	 * each gap's later event
+	 */
+	public void streamVertexGaps(NavigableGraph<K, V, E> graph, final List<V> nodes, GapSink<V> sink) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		for (int start = 0; start < nodes.size(); start += this.block) {
+			final int offset = start;
+			int size = Math.min(this.block, nodes.size() - start);
+			final long[][] gaps = new long[size][];
+			final List<List<V>> receivers = new ArrayList<List<V>>(Collections.<List<V>> nCopies(size, null));
+			ParallelRange.run(this.pool, 0, size, new ParallelRange.Body() {
+				@Override
+				public void run(int from, int to) {
+					for (int i = from; i < to; i++) {
+						Map<V, long[]> dyads = keys.dyadKeys(nodes.get(offset + i));
+						final List<V> others = new ArrayList<V>(dyads.keySet());
+						final int[] labels = new int[count(dyads.values())];
+						gaps[i] = gaps(EventKeys.merge(new ArrayList<long[]>(dyads.values()), labels));
+						receivers.set(i, new AbstractList<V>() {
+							@Override
+							public V get(int index) {
+								return others.get(labels[index + 1]);
+							}
+
+							@Override
+							public int size() {
+								return Math.max(0, labels.length - 1);
+							}
+						});
+					}
+				}
+			});
+			for (int i = 0; i < size; i++) {
+				sink.gaps(nodes.get(offset + i), receivers.get(i), gaps[i]);
+			}
+		}
+	}
+
+	/**
+	 * Hands the gaps between the consecutive events of each dyad sent by each
+	 * of <code>nodes</code> to <code>sink</code>, in order
+	 */
+	public void streamDyadGaps(NavigableGraph<K, V, E> graph, final List<V> nodes, GapSink<V> sink) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		for (int start = 0; start < nodes.size(); start += this.block) {
+			final int offset = start;
+			int size = Math.min(this.block, nodes.size() - start);
+			final List<Map<V, long[]>> perSender = new ArrayList<Map<V, long[]>>(Collections
+			        .<Map<V, long[]>> nCopies(size, null));
+			ParallelRange.run(this.pool, 0, size, new ParallelRange.Body() {
+				@Override
+				public void run(int from, int to) {
+					for (int i = from; i < to; i++) {
+						perSender.set(i, dyadGaps(keys, nodes.get(offset + i)));
+					}
+				}
+			});
+			for (int i = 0; i < size; i++) {
+				for (Entry<V, long[]> dyad : perSender.get(i).entrySet()) {
+					sink.gaps(nodes.get(offset + i), Collections.nCopies(dyad.getValue().length, dyad.getKey()),
+					        dyad.getValue());
+				}
+			}
+		}
+	}
+
+	private static int count(Iterable<long[]> runs) {
+		int total = 0;
+		for (long[] run : runs) {
+			total += run.length;
+		}
+		return total;
+	}
+}
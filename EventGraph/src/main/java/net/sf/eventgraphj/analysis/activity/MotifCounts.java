@@ -0,0 +1,116 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Counts of small temporal motifs, keyed by a code for the order of their
+ * events. The nodes of a motif are numbered by when they first appear, the
+ * sender of an event before its receiver, and each event is written as its
+ * sender's and receiver's numbers, e.g. <code>"01 12 20"</code> for a
+ * message passed around a triangle back to its first sender. Codes of two
+ * events count pairs of events and codes of three events count triples, each
+ * within the window of the counting {@code TemporalMotifs}.
+ *
+ * @author jfolson
+ *
+ */
+public class MotifCounts {
+	/**
+	 * The same message sent again
+	 */
+	public static final String REPEAT = "01 01";
+	/**
+	 * A reply to the sender
+	 */
+	public static final String REPLY = "01 10";
+	/**
+	 * A second message from the sender to someone else
+	 */
+	public static final String BROADCAST = "01 02";
+	/**
+	 * The receiver passing a message on
+	 */
+	public static final String FORWARD = "01 12";
+	/**
+	 * A second message to the receiver, from someone else
+	 */
+	public static final String GATHER = "01 21";
+
+	protected final SortedMap<String, Long> counts;
+
+	public MotifCounts(Map<String, Long> counts) {
+		this.counts = Collections.unmodifiableSortedMap(new TreeMap<String, Long>(counts));
+	}
+
+	/**
+	 * @return the count of the motif written as <code>code</code>, 0 if it
+	 *         never occurred
+	 */
+	public long getCount(String code) {
+		Long count = this.counts.get(code);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * @return the count of every motif that occurred, by code
+	 */
+	public SortedMap<String, Long> getCounts() {
+		return this.counts;
+	}
+
+	/**
+	 * @return the counts of the motifs of <code>events</code> events
+	 */
+	public SortedMap<String, Long> getCounts(int events) {
+		SortedMap<String, Long> result = new TreeMap<String, Long>();
+		for (Entry<String, Long> entry : this.counts.entrySet()) {
+			if (events(entry.getKey()) == events) {
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of events in the motif written as <code>code</code>
+	 */
+	public static int events(String code) {
+		return (code.length() + 1) / 3;
+	}
+
+	/**
+	 * @return the code of the motif formed by events from
+	 *         <code>sources[i]</code> to <code>targets[i]</code>, with nodes
+	 *         given by any numbers
+	 */
+	public static String code(int[] sources, int[] targets) {
+		int[] seen = new int[2 * sources.length];
+		int size = 0;
+		StringBuilder code = new StringBuilder(3 * sources.length);
+		for (int i = 0; i < sources.length; i++) {
+			if (i > 0) {
+				code.append(' ');
+			}
+			for (int node : new int[] { sources[i], targets[i] }) {
+				int label = 0;
+				while (label < size && seen[label] != node) {
+					label++;
+				}
+				if (label == size) {
+					seen[size++] = node;
+				}
+				code.append(label);
+			}
+		}
+		return code.toString();
+	}
+
+	@Override
+	public String toString() {
+		return this.counts.toString();
+	}
+}
@@ -0,0 +1,128 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.sf.eventgraphj.comparable.EventKeys;
+
+/**
+ * Reply latencies of a set of sent events: for each sent event that was
+ * answered, the time to the first answer after it, in order of the sent
+ * events, and how many sent events were never answered.
+ *
+ * @author jfolson
+ *
+ */
+public class Replies {
+	public static final Replies EMPTY = new Replies(EventKeys.EMPTY, 0);
+
+	protected final long[] latencies;
+	protected final int unanswered;
+
+	public Replies(long[] latencies, int unanswered) {
+		this.latencies = latencies;
+		this.unanswered = unanswered;
+	}
+
+	/**
+	 * Pair each of <code>sent</code> with the first of <code>answers</code>
+	 * strictly after it, walking both in a single pass.
+	 *
+	 * @param sent
+	 *            ascending keys of the events from u to v
+	 * @param answers
+	 *            ascending keys of the events from v to u
+	 */
+	public static Replies fromKeys(long[] sent, long[] answers) {
+		if (sent.length == 0) {
+			return EMPTY;
+		}
+		long[] latencies = new long[sent.length];
+		int size = 0;
+		int j = 0;
+		for (int i = 0; i < sent.length; i++) {
+			long key = sent[i];
+			while (j < answers.length && answers[j] <= key) {
+				j++;
+			}
+			if (j == answers.length) {
+				break;
+			}
+			latencies[size++] = answers[j] - key;
+		}
+		if (size < latencies.length) {
+			latencies = Arrays.copyOf(latencies, size);
+		}
+		return new Replies(latencies, sent.length - size);
+	}
+
+	/**
+	 * @return the latencies and unanswered events of all of
+	 *         <code>replies</code>, in order
+	 */
+	public static Replies concat(Collection<Replies> replies) {
+		int size = 0;
+		int unanswered = 0;
+		for (Replies reply : replies) {
+			size += reply.latencies.length;
+			unanswered += reply.unanswered;
+		}
+		long[] latencies = new long[size];
+		int offset = 0;
+		for (Replies reply : replies) {
+			System.arraycopy(reply.latencies, 0, latencies, offset, reply.latencies.length);
+			offset += reply.latencies.length;
+		}
+		return new Replies(latencies, unanswered);
+	}
+
+	/**
+	 * @return the number of answered events
+	 */
+	public int size() {
+		return this.latencies.length;
+	}
+
+	public long getLatency(int reply) {
+		return this.latencies[reply];
+	}
+
+	public long[] getLatencies() {
+		return this.latencies.clone();
+	}
+
+	public int getUnanswered() {
+		return this.unanswered;
+	}
+
+	/**
+	 * @return the fraction of sent events that were answered, NaN if none were
+	 *         sent
+	 */
+	public double getReplyRate() {
+		int sent = this.latencies.length + this.unanswered;
+		return sent == 0 ? Double.NaN : (double) this.latencies.length / sent;
+	}
+
+	/**
+	 * @return the number of latencies in each power of two: bucket 0 counts
+	 *         latencies of 0 and bucket <code>b</code> those from
+	 *         <code>2^(b-1)</code> up to <code>2^b - 1</code>, up to the
+	 *         highest bucket used
+	 */
+	public int[] histogram() {
+		int[] buckets = new int[65];
+		int top = -1;
+		for (long latency : this.latencies) {
+			int bucket = 64 - Long.numberOfLeadingZeros(latency);
+			buckets[bucket]++;
+			top = Math.max(top, bucket);
+		}
+		return Arrays.copyOf(buckets, top + 1);
+	}
+
+	@Override
+	public String toString() {
+		return "Replies: " + Arrays.toString(this.latencies) + ", unanswered " + this.unanswered;
+	}
+}
@@ -0,0 +1,164 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.comparable.EventKeys;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Reply (reciprocation) latencies: for each event from u to v, the time to
+ * the first event from v to u strictly after it, by dyad, by vertex and over
+ * the whole graph, as {@link Replies}.
+ *
+ * The keys of each direction of a dyad are read in order from the graph's per
+ * dyad maps through {@code EventKeys}, and the two directions are walked
+ * together in one pass, so nothing is sorted unless the graph keeps no index.
+ * Senders are processed in parallel on a fork/join pool. Self loops are left
+ * out. Undirected events count in both directions, as for
+ * <code>findEdgeSet</code>; one answers earlier events either way but never
+ * itself.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class ReplyTimes<K extends Number & Comparable<K>, V, E> {
+	protected final ForkJoinPool pool;
+
+	public ReplyTimes() {
+		this(null);
+	}
+
+	/**
+	 * @param pool
+	 *            pool to run on, or null for the shared default pool
+	 */
+	public ReplyTimes(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Replies to the events of every dyad with at least one event, keyed by
+	 * (sender, responder)
+	 */
+	public Map<Pair<V>, Replies> dyadReplies(NavigableGraph<K, V, E> graph) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		final List<V> nodes = new ArrayList<V>(graph.getVertices());
+		final Map<V, Integer> index = new HashMap<V, Integer>();
+		final List<Map<V, long[]>> sent = new ArrayList<Map<V, long[]>>(nodes.size());
+		final List<Map<V, Replies>> perSender = new ArrayList<Map<V, Replies>>(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			index.put(nodes.get(i), i);
+			sent.add(null);
+			perSender.add(null);
+		}
+		ParallelRange.run(this.pool, 0, nodes.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					sent.set(i, keys.dyadKeys(nodes.get(i)));
+				}
+			}
+		});
+		ParallelRange.run(this.pool, 0, nodes.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					V sender = nodes.get(i);
+					Map<V, Replies> replies = new LinkedHashMap<V, Replies>();
+					for (Entry<V, long[]> dyad : sent.get(i).entrySet()) {
+						V responder = dyad.getKey();
+						if (responder.equals(sender)) {
+							continue;
+						}
+						long[] answers = sent.get(index.get(responder)).get(sender);
+						replies.put(responder, Replies.fromKeys(dyad.getValue(), answers == null ? EventKeys.EMPTY
+						        : answers));
+					}
+					perSender.set(i, replies);
+				}
+			}
+		});
+		Map<Pair<V>, Replies> result = new LinkedHashMap<Pair<V>, Replies>();
+		for (int i = 0; i < nodes.size(); i++) {
+			for (Entry<V, Replies> entry : perSender.get(i).entrySet()) {
+				result.put(new Pair<V>(nodes.get(i), entry.getKey()), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replies from <code>to</code> to the events from <code>from</code> to
+	 * <code>to</code>
+	 */
+	public Replies dyadReplies(NavigableGraph<K, V, E> graph, V from, V to) {
+		if (from.equals(to)) {
+			return Replies.EMPTY;
+		}
+		EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		return Replies.fromKeys(keys.dyadKeys(from, to), keys.dyadKeys(to, from));
+	}
+
+	/**
+	 * How quickly each of <code>nodes</code> answers the events sent to it
+	 *
+	 * @return replies aligned with <code>nodes</code>
+	 */
+	public Replies[] responderReplies(NavigableGraph<K, V, E> graph, List<V> nodes) {
+		return group(this.dyadReplies(graph), nodes, true);
+	}
+
+	public Replies[] responderReplies(NavigableGraph<K, V, E> graph) {
+		return this.responderReplies(graph, new ArrayList<V>(graph.getVertices()));
+	}
+
+	/**
+	 * How quickly the events sent by each of <code>nodes</code> are answered
+	 *
+	 * @return replies aligned with <code>nodes</code>
+	 */
+	public Replies[] senderReplies(NavigableGraph<K, V, E> graph, List<V> nodes) {
+		return group(this.dyadReplies(graph), nodes, false);
+	}
+
+	public Replies[] senderReplies(NavigableGraph<K, V, E> graph) {
+		return this.senderReplies(graph, new ArrayList<V>(graph.getVertices()));
+	}
+
+	/**
+	 * Replies to every event of the graph
+	 */
+	public Replies allReplies(NavigableGraph<K, V, E> graph) {
+		return Replies.concat(this.dyadReplies(graph).values());
+	}
+
+	private static <V> Replies[] group(Map<Pair<V>, Replies> dyads, List<V> nodes, boolean byResponder) {
+		Map<V, List<Replies>> groups = new HashMap<V, List<Replies>>();
+		for (V node : nodes) {
+			groups.put(node, new ArrayList<Replies>());
+		}
+		for (Entry<Pair<V>, Replies> entry : dyads.entrySet()) {
+			V vertex = byResponder ? entry.getKey().getSecond() : entry.getKey().getFirst();
+			List<Replies> group = groups.get(vertex);
+			if (group != null) {
+				group.add(entry.getValue());
+			}
+		}
+		Replies[] replies = new Replies[nodes.size()];
+		for (int i = 0; i < replies.length; i++) {
+			replies[i] = Replies.concat(groups.get(nodes.get(i)));
+		}
+		return replies;
+	}
+}
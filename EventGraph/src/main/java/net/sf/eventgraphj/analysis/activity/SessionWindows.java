@@ -0,0 +1,116 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.comparable.EventKeys;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Gap based session windows per vertex or per dyad. A session ends once more
+ * than <code>gap</code> has passed without an event, e.g. an emailing session
+ * ends after 30 minutes of silence.
+ *
+ * Keys are read in order from the per dyad and per node maps of the graph
+ * through {@code EventKeys}, so each vertex costs one pass over its keys and
+ * nothing is sorted unless the graph keeps no index. Vertices are processed in
+ * parallel on a fork/join pool.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class SessionWindows<K extends Number & Comparable<K>, V, E> {
+	protected final long gap;
+	protected final ForkJoinPool pool;
+
+	public SessionWindows(long gap) {
+		this(gap, null);
+	}
+
+	/**
+	 * @param pool
+	 *            pool to run on, or null for the shared default pool
+	 */
+	public SessionWindows(long gap, ForkJoinPool pool) {
+		if (gap < 0) {
+			throw new IllegalArgumentException("session gap must not be negative: " + gap);
+		}
+		this.gap = gap;
+		this.pool = pool;
+	}
+
+	public long getGap() {
+		return this.gap;
+	}
+
+	/**
+	 * Sessions of the outgoing events of each vertex
+	 *
+	 * @return sessions aligned with <code>nodes</code>
+	 */
+	public Sessions[] vertexSessions(NavigableGraph<K, V, E> graph, final List<V> nodes) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		final Sessions[] sessions = new Sessions[nodes.size()];
+		ParallelRange.run(this.pool, 0, nodes.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					sessions[i] = Sessions.fromKeys(keys.vertexKeys(nodes.get(i)), SessionWindows.this.gap);
+				}
+			}
+		});
+		return sessions;
+	}
+
+	public Sessions[] vertexSessions(NavigableGraph<K, V, E> graph) {
+		return this.vertexSessions(graph, new ArrayList<V>(graph.getVertices()));
+	}
+
+	/**
+	 * Sessions of the events of every dyad with at least one event, keyed by
+	 * (sender, receiver)
+	 */
+	public Map<Pair<V>, Sessions> dyadSessions(NavigableGraph<K, V, E> graph) {
+		final EventKeys<K, V, E> keys = new EventKeys<K, V, E>(graph);
+		final List<V> nodes = new ArrayList<V>(graph.getVertices());
+		final List<Map<V, Sessions>> perSender = new ArrayList<Map<V, Sessions>>(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			perSender.add(null);
+		}
+		ParallelRange.run(this.pool, 0, nodes.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					Map<V, Sessions> sessions = new LinkedHashMap<V, Sessions>();
+					for (Entry<V, long[]> dyad : keys.dyadKeys(nodes.get(i)).entrySet()) {
+						sessions.put(dyad.getKey(), Sessions.fromKeys(dyad.getValue(), SessionWindows.this.gap));
+					}
+					perSender.set(i, sessions);
+				}
+			}
+		});
+		Map<Pair<V>, Sessions> result = new LinkedHashMap<Pair<V>, Sessions>();
+		for (int i = 0; i < nodes.size(); i++) {
+			for (Entry<V, Sessions> entry : perSender.get(i).entrySet()) {
+				result.put(new Pair<V>(nodes.get(i), entry.getKey()), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sessions of the events from <code>from</code> to <code>to</code>
+	 */
+	public Sessions dyadSessions(NavigableGraph<K, V, E> graph, V from, V to) {
+		return Sessions.fromKeys(new EventKeys<K, V, E>(graph).dyadKeys(from, to), this.gap);
+	}
+}
@@ -0,0 +1,110 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.Arrays;
+
+/**
+ * Gap based sessions over one ascending key sequence, stored as parallel
+ * primitive arrays: session <code>i</code> runs from <code>getStart(i)</code>
+ * to <code>getEnd(i)</code> inclusive and holds <code>getCount(i)</code>
+ * events.
+ *
+ * @author jfolson
+ *
+ */
+public class Sessions {
+	public static final Sessions EMPTY = new Sessions(new long[0], new long[0], new int[0], 0);
+
+	protected final long[] start, end;
+	protected final int[] count;
+	protected final int size;
+
+	public Sessions(long[] start, long[] end, int[] count, int size) {
+		this.start = start;
+		this.end = end;
+		this.count = count;
+		this.size = size;
+	}
+
+	/**
+	 * Split <code>keys</code> into sessions wherever two consecutive keys are
+	 * more than <code>gap</code> apart, in a single pass.
+	 *
+	 * @param keys
+	 *            ascending keys
+	 */
+	public static Sessions fromKeys(long[] keys, long gap) {
+		if (keys.length == 0) {
+			return EMPTY;
+		}
+		long[] start = new long[8];
+		long[] end = new long[8];
+		int[] count = new int[8];
+		int size = 0;
+		start[0] = keys[0];
+		count[0] = 1;
+		long last = keys[0];
+		for (int i = 1; i < keys.length; i++) {
+			long key = keys[i];
+			if (key - last > gap) {
+				end[size] = last;
+				size++;
+				if (size == start.length) {
+					start = Arrays.copyOf(start, size * 2);
+					end = Arrays.copyOf(end, size * 2);
+					count = Arrays.copyOf(count, size * 2);
+				}
+				start[size] = key;
+			}
+			count[size]++;
+			last = key;
+		}
+		end[size] = last;
+		size++;
+		return new Sessions(start, end, count, size);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public long getStart(int session) {
+		return this.start[session];
+	}
+
+	public long getEnd(int session) {
+		return this.end[session];
+	}
+
+	public int getCount(int session) {
+		return this.count[session];
+	}
+
+	public long getDuration(int session) {
+		return this.end[session] - this.start[session];
+	}
+
+	public long[] getStarts() {
+		return Arrays.copyOf(this.start, this.size);
+	}
+
+	public long[] getEnds() {
+		return Arrays.copyOf(this.end, this.size);
+	}
+
+	public int[] getCounts() {
+		return Arrays.copyOf(this.count, this.size);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("Sessions: ");
+		for (int i = 0; i < this.size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append("[").append(this.start[i]).append(" to ").append(this.end[i]).append(" : ")
+			        .append(this.count[i]).append("]");
+		}
+		return builder.toString();
+	}
+}
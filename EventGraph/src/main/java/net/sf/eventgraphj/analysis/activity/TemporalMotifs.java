@@ -0,0 +1,521 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.EventStream;
+import net.sf.eventgraphj.compact.TemporalPathSearch;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Counts of every temporal motif of two or three events on at most three
+ * nodes whose events all fall within <code>delta</code> of the first, e.g.
+ * replies, forwards and broadcasts, over the events of any
+ * {@code NavigableGraph}. Motifs are reported by the codes of
+ * {@code MotifCounts}; an instance is a set of events in time order, sharing
+ * nodes as the motif does, so events of one motif may be any others apart.
+ *
+ * As in Paranjape et al., motifs are counted by kind without listing their
+ * instances:
+ * <ul>
+ * <li>motifs on one dyad, and stars (events all through one center node), in
+ * one pass over the events sorted by time. Each event enters the window of
+ * both its ends; every center keeps, per direction, running counts of the
+ * events and same-neighbor pairs in its window, and per neighbor the same
+ * counts plus the sums needed to count the pairs starting or ending at that
+ * neighbor. Each new event then closes every pattern of the window in
+ * constant time. The events are split into time partitions counted in
+ * parallel, each starting <code>delta</code> early to fill its windows but
+ * only counting motifs ending in it.</li>
+ * <li>triangles, by listing the static triangles of the dyads (oriented by
+ * degree, as {@code ClusteringCoefficient} does) and sliding a window over
+ * the merged events of each triangle's three dyads, split across a pool by
+ * each triangle's lowest vertex.</li>
+ * </ul>
+ * Events at the same time are taken in the order they were sorted into.
+ * Undirected events are read from their first endpoint to their second, and
+ * self loops are left out.
+ *
+ * @see "Ashwin Paranjape, Austin R. Benson and Jure Leskovec: Motifs in Temporal Networks. WSDM 2017."
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class TemporalMotifs<K extends Number & Comparable<K>, V, E> {
+	/**
+	 * Offsets of each kind of count: pairs and triples on one dyad, pairs and
+	 * triples through a center (the odd event first, last or in the middle),
+	 * and triples around a triangle
+	 */
+	protected static final int DYAD2 = 0, STAR2 = 4, DYAD3 = 8, PRE = 16, POST = 24, MID = 32, TRIANGLE = 40,
+	        SIZE = TRIANGLE + 216;
+	/**
+	 * Events per time partition below which the events are not split
+	 */
+	protected static final int PARTITION = 4096;
+
+	protected final long delta;
+	protected final ForkJoinPool pool;
+
+	public TemporalMotifs(long delta) {
+		this(delta, null);
+	}
+
+	/**
+	 * @param delta
+	 *            longest time from the first event of a motif to its last
+	 * @param pool
+	 *            pool to run on, or null for the shared default pool
+	 */
+	public TemporalMotifs(long delta, ForkJoinPool pool) {
+		if (delta < 0) {
+			throw new IllegalArgumentException("delta must not be negative: " + delta);
+		}
+		this.delta = delta;
+		this.pool = pool;
+	}
+
+	public long getDelta() {
+		return this.delta;
+	}
+
+	/**
+	 * Motifs among the events from <code>start</code> (inclusive) to
+	 * <code>stop</code> (exclusive)
+	 *
+	 * @param start
+	 *            beginning of the interval, or null for no lower limit
+	 * @param stop
+	 *            end of the interval, or null for no upper limit
+	 */
+	public MotifCounts count(NavigableGraph<K, V, E> graph, K start, K stop) {
+		Map<V, Integer> index = new HashMap<V, Integer>(2 * graph.getVertexCount());
+		for (V vertex : graph.getVertices()) {
+			index.put(vertex, index.size());
+		}
+		int[] sources = new int[16];
+		int[] targets = new int[16];
+		long[] times = new long[16];
+		int size = 0;
+		for (V vertex : graph.getVertices()) {
+			for (EdgeEntry<K, V, E> edge : graph.getOutEdges(vertex, start, stop)) {
+				// undirected events are listed under both ends
+				if (!vertex.equals(edge.getFrom()) || edge.getFrom().equals(edge.getTo())) {
+					continue;
+				}
+				if (size == sources.length) {
+					sources = Arrays.copyOf(sources, 2 * size);
+					targets = Arrays.copyOf(targets, 2 * size);
+					times = Arrays.copyOf(times, 2 * size);
+				}
+				sources[size] = index.get(vertex);
+				targets[size] = index.get(edge.getTo());
+				times[size] = edge.getKey().longValue();
+				size++;
+			}
+		}
+		int[] order = EventStream.sortByTime(times, size);
+		int[] sortedSources = new int[size];
+		int[] sortedTargets = new int[size];
+		long[] sortedTimes = new long[size];
+		for (int a = 0; a < size; a++) {
+			sortedSources[a] = sources[order[a]];
+			sortedTargets[a] = targets[order[a]];
+			sortedTimes[a] = times[order[a]];
+		}
+		return this.count(index.size(), sortedSources, sortedTargets, sortedTimes);
+	}
+
+	public MotifCounts count(NavigableGraph<K, V, E> graph) {
+		return this.count(graph, null, null);
+	}
+
+	/**
+	 * Motifs among the events from <code>sources[a]</code> to
+	 * <code>targets[a]</code> at <code>times[a]</code>, vertices numbered
+	 * below <code>n</code> and times ascending
+	 */
+	public MotifCounts count(int n, int[] sources, int[] targets, long[] times) {
+		long[] counts = new long[SIZE];
+		this.countStars(sources, targets, times, counts);
+		this.countTriangles(n, sources, targets, times, counts);
+		return toMotifCounts(counts);
+	}
+
+	protected void countStars(final int[] sources, final int[] targets, final long[] times, final long[] counts) {
+		final int m = times.length;
+		int parallelism = (this.pool == null ? ParallelRange.defaultPool() : this.pool).getParallelism();
+		final int parts = Math.max(1, Math.min(m / PARTITION, 4 * parallelism));
+		ParallelRange.run(this.pool, 0, parts, 1, new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				long[] partial = new long[SIZE];
+				for (int part = from; part < to; part++) {
+					TemporalMotifs.this.countStars(sources, targets, times, (int) ((long) m * part / parts),
+					        (int) ((long) m * (part + 1) / parts), partial);
+				}
+				synchronized (counts) {
+					for (int i = 0; i < SIZE; i++) {
+						counts[i] += partial[i];
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Counts the motifs on one dyad or star whose last event is in
+	 * <code>[begin, end)</code>
+	 */
+	protected void countStars(int[] sources, int[] targets, long[] times, int begin, int end, long[] counts) {
+		if (begin >= end) {
+			return;
+		}
+		Map<Integer, Center> centers = new HashMap<Integer, Center>();
+		for (int a = TemporalPathSearch.firstAt(times, times[begin] - this.delta); a < end; a++) {
+			int u = sources[a];
+			int v = targets[a];
+			boolean counting = a >= begin;
+			this.center(centers, u).push(v, 0, times[a], counting, u < v, counts);
+			this.center(centers, v).push(u, 1, times[a], counting, v < u, counts);
+		}
+	}
+
+	protected Center center(Map<Integer, Center> centers, int vertex) {
+		Center center = centers.get(vertex);
+		if (center == null) {
+			center = new Center(this.delta);
+			centers.put(vertex, center);
+		}
+		return center;
+	}
+
+	/**
+	 * Window of the events through one center node. Direction 0 is an event
+	 * leaving the center and 1 one arriving at it; pairs are indexed by
+	 * <code>2 * first + second</code> direction.
+	 */
+	protected static class Center {
+		protected final long delta;
+		/**
+		 * Events in the window, oldest first, as time, neighbor, direction and
+		 * the number of events of each direction added before it
+		 */
+		protected final ArrayDeque<long[]> window = new ArrayDeque<long[]>();
+		/**
+		 * Per neighbor in the window: events per direction, pairs of its
+		 * events per pair of directions, and per direction and direction the
+		 * sum over its events of the number of events added before each
+		 */
+		protected final Map<Integer, long[]> neighbors = new HashMap<Integer, long[]>();
+		protected final long[] count = new long[2];
+		protected final long[] added = new long[2];
+		protected final long[] removed = new long[2];
+		protected final long[] same = new long[4];
+
+		protected Center(long delta) {
+			this.delta = delta;
+		}
+
+		protected void push(int neighbor, int direction, long time, boolean counting, boolean ownsDyad,
+		        long[] counts) {
+			while (!this.window.isEmpty() && this.window.peekFirst()[0] < time - this.delta) {
+				this.pop();
+			}
+			long[] stats = this.neighbors.get(neighbor);
+			if (stats == null) {
+				stats = new long[10];
+				this.neighbors.put(neighbor, stats);
+			}
+			if (counting) {
+				for (int d1 = 0; d1 < 2; d1++) {
+					// dyads are counted from their lower end
+					if (ownsDyad) {
+						counts[DYAD2 + 2 * d1 + direction] += stats[d1];
+					}
+					counts[STAR2 + 2 * d1 + direction] += this.count[d1] - stats[d1];
+					for (int d2 = 0; d2 < 2; d2++) {
+						int pair = 2 * d1 + d2;
+						int triple = 2 * pair + direction;
+						long sameHere = stats[2 + pair];
+						if (ownsDyad) {
+							counts[DYAD3 + triple] += sameHere;
+						}
+						counts[POST + triple] += this.same[pair] - sameHere;
+						long endingHere = stats[6 + 2 * d2 + d1] - stats[d2] * this.removed[d1];
+						counts[PRE + triple] += endingHere - sameHere;
+						long startingHere = stats[d1] * this.added[d2] - stats[6 + pair] - (d1 == d2 ? stats[d1] : 0);
+						counts[MID + triple] += startingHere - sameHere;
+					}
+				}
+			}
+			for (int d = 0; d < 2; d++) {
+				this.same[2 * d + direction] += stats[d];
+				stats[2 + 2 * d + direction] += stats[d];
+				stats[6 + 2 * direction + d] += this.added[d];
+			}
+			this.window.addLast(new long[] { time, neighbor, direction, this.added[0], this.added[1] });
+			stats[direction]++;
+			this.count[direction]++;
+			this.added[direction]++;
+		}
+
+		protected void pop() {
+			long[] event = this.window.pollFirst();
+			int neighbor = (int) event[1];
+			int direction = (int) event[2];
+			long[] stats = this.neighbors.get(neighbor);
+			stats[direction]--;
+			this.count[direction]--;
+			this.removed[direction]++;
+			for (int d = 0; d < 2; d++) {
+				this.same[2 * direction + d] -= stats[d];
+				stats[2 + 2 * direction + d] -= stats[d];
+				stats[6 + 2 * direction + d] -= event[3 + d];
+			}
+			if (stats[0] == 0 && stats[1] == 0) {
+				this.neighbors.remove(neighbor);
+			}
+		}
+	}
+
+	protected void countTriangles(int n, final int[] sources, final int[] targets, final long[] times,
+	        final long[] counts) {
+		int m = times.length;
+		// group the events by dyad, lower end first, in time order within each
+		long[] keys = new long[m];
+		for (int a = 0; a < m; a++) {
+			keys[a] = dyadKey(sources[a], targets[a]);
+		}
+		final int[] events = EventStream.sortByTime(keys, m);
+		int dyads = 0;
+		int[] starts = new int[m + 1];
+		for (int i = 0; i < m; i++) {
+			if (i == 0 || keys[events[i]] != keys[events[i - 1]]) {
+				starts[dyads++] = i;
+			}
+		}
+		starts[dyads] = m;
+		final int[] dyadStarts = Arrays.copyOf(starts, dyads + 1);
+
+		// both ends of each dyad, each row ascending since dyads are sorted
+		int[] degrees = new int[n];
+		for (int d = 0; d < dyads; d++) {
+			long key = keys[events[dyadStarts[d]]];
+			degrees[(int) (key >>> 32)]++;
+			degrees[(int) key]++;
+		}
+		final int[] offsets = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			offsets[u + 1] = offsets[u] + degrees[u];
+		}
+		int[] fill = Arrays.copyOf(offsets, n);
+		final int[] neighbors = new int[2 * dyads];
+		final int[] neighborDyads = new int[2 * dyads];
+		for (int d = 0; d < dyads; d++) {
+			long key = keys[events[dyadStarts[d]]];
+			int low = (int) (key >>> 32);
+			int high = (int) key;
+			neighbors[fill[low]] = high;
+			neighborDyads[fill[low]++] = d;
+			neighbors[fill[high]] = low;
+			neighborDyads[fill[high]++] = d;
+		}
+		// keep only the dyads towards higher degree
+		final int[] forward = new int[n + 1];
+		final int[] heads = new int[dyads];
+		final int[] headDyads = new int[dyads];
+		int arcs = 0;
+		for (int u = 0; u < n; u++) {
+			for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+				int v = neighbors[a];
+				if (degrees[u] < degrees[v] || (degrees[u] == degrees[v] && u < v)) {
+					heads[arcs] = v;
+					headDyads[arcs++] = neighborDyads[a];
+				}
+			}
+			forward[u + 1] = arcs;
+		}
+
+		ParallelRange.run(this.pool, 0, n, new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				long[] partial = new long[SIZE];
+				int[] merged = new int[16];
+				int[] labels = new int[16];
+				for (int u = from; u < to; u++) {
+					for (int a = forward[u]; a < forward[u + 1]; a++) {
+						int v = heads[a];
+						int i = forward[u];
+						int j = forward[v];
+						while (i < forward[u + 1] && j < forward[v + 1]) {
+							if (heads[i] < heads[j]) {
+								i++;
+							} else if (heads[j] < heads[i]) {
+								j++;
+							} else {
+								int[] dyadsOf = new int[] { headDyads[a], headDyads[j], headDyads[i] };
+								int[] ends = new int[] { u, v, v, heads[i], u, heads[i] };
+								int size = 0;
+								for (int k = 0; k < 3; k++) {
+									size += dyadStarts[dyadsOf[k] + 1] - dyadStarts[dyadsOf[k]];
+								}
+								if (merged.length < size) {
+									merged = new int[size];
+									labels = new int[size];
+								}
+								size = merge(events, dyadStarts, dyadsOf, sources, ends, merged, labels);
+								TemporalMotifs.this.countTriangle(merged, labels, size, times, partial);
+								i++;
+								j++;
+							}
+						}
+					}
+				}
+				synchronized (counts) {
+					for (int k = TRIANGLE; k < SIZE; k++) {
+						counts[k] += partial[k];
+					}
+				}
+			}
+		});
+	}
+
+	protected static long dyadKey(int u, int v) {
+		return u < v ? ((long) u << 32) | v : ((long) v << 32) | u;
+	}
+
+	/**
+	 * Merges the events of the three dyads of a triangle into time order,
+	 * labelling each by its dyad and whether it runs from the first listed
+	 * end of the dyad (label <code>2 * dyad</code>) or to it
+	 *
+	 * @return number of events merged
+	 */
+	protected static int merge(int[] events, int[] dyadStarts, int[] dyadsOf, int[] sources, int[] ends,
+	        int[] merged, int[] labels) {
+		int[] next = new int[3];
+		for (int k = 0; k < 3; k++) {
+			next[k] = dyadStarts[dyadsOf[k]];
+		}
+		int size = 0;
+		while (true) {
+			int best = -1;
+			for (int k = 0; k < 3; k++) {
+				if (next[k] < dyadStarts[dyadsOf[k] + 1]
+				        && (best < 0 || events[next[k]] < events[next[best]])) {
+					best = k;
+				}
+			}
+			if (best < 0) {
+				return size;
+			}
+			int event = events[next[best]++];
+			merged[size] = event;
+			labels[size] = 2 * best + (sources[event] == ends[2 * best] ? 0 : 1);
+			size++;
+		}
+	}
+
+	/**
+	 * Slides the window over the merged events of one triangle, counting the
+	 * triples that use all three of its dyads
+	 */
+	protected void countTriangle(int[] merged, int[] labels, int size, long[] times, long[] counts) {
+		long[] singles = new long[6];
+		long[] pairs = new long[36];
+		int oldest = 0;
+		for (int i = 0; i < size; i++) {
+			long time = times[merged[i]];
+			while (times[merged[oldest]] < time - this.delta) {
+				int x = labels[oldest++];
+				singles[x]--;
+				for (int y = 0; y < 6; y++) {
+					pairs[6 * x + y] -= singles[y];
+				}
+			}
+			int z = labels[i];
+			for (int x = 0; x < 6; x++) {
+				for (int y = 0; y < 6; y++) {
+					if (x / 2 != y / 2 && x / 2 != z / 2 && y / 2 != z / 2) {
+						counts[TRIANGLE + 36 * x + 6 * y + z] += pairs[6 * x + y];
+					}
+				}
+			}
+			for (int x = 0; x < 6; x++) {
+				pairs[6 * x + z] += singles[x];
+			}
+			singles[z]++;
+		}
+	}
+
+	/**
+	 * Names each count by its motif code
+	 */
+	protected static MotifCounts toMotifCounts(long[] counts) {
+		Map<String, Long> codes = new HashMap<String, Long>();
+		// center 0, neighbors 1 and 2
+		for (int d1 = 0; d1 < 2; d1++) {
+			for (int d2 = 0; d2 < 2; d2++) {
+				int pair = 2 * d1 + d2;
+				add(codes, star(new int[] { 1, 1 }, d1, d2), counts[DYAD2 + pair]);
+				add(codes, star(new int[] { 1, 2 }, d1, d2), counts[STAR2 + pair]);
+				for (int d3 = 0; d3 < 2; d3++) {
+					int triple = 2 * pair + d3;
+					add(codes, star(new int[] { 1, 1, 1 }, d1, d2, d3), counts[DYAD3 + triple]);
+					add(codes, star(new int[] { 1, 2, 2 }, d1, d2, d3), counts[PRE + triple]);
+					add(codes, star(new int[] { 1, 1, 2 }, d1, d2, d3), counts[POST + triple]);
+					add(codes, star(new int[] { 1, 2, 1 }, d1, d2, d3), counts[MID + triple]);
+				}
+			}
+		}
+		// the dyads of a triangle on 0, 1 and 2 run from 0 to 1, 1 to 2 and
+		// 0 to 2
+		int[][] ends = { { 0, 1 }, { 1, 2 }, { 0, 2 } };
+		for (int label = 0; label < 216; label++) {
+			int[] sources = new int[3];
+			int[] targets = new int[3];
+			int rest = label;
+			for (int k = 2; k >= 0; k--) {
+				int x = rest % 6;
+				rest /= 6;
+				sources[k] = ends[x / 2][x % 2];
+				targets[k] = ends[x / 2][1 - x % 2];
+			}
+			if (counts[TRIANGLE + label] > 0) {
+				add(codes, MotifCounts.code(sources, targets), counts[TRIANGLE + label]);
+			}
+		}
+		return new MotifCounts(codes);
+	}
+
+	/**
+	 * @return the code of events between center 0 and the given neighbors,
+	 *         leaving the center in direction 0 and arriving in direction 1
+	 */
+	protected static String star(int[] neighbors, int... directions) {
+		int[] sources = new int[neighbors.length];
+		int[] targets = new int[neighbors.length];
+		for (int i = 0; i < neighbors.length; i++) {
+			sources[i] = directions[i] == 0 ? 0 : neighbors[i];
+			targets[i] = directions[i] == 0 ? neighbors[i] : 0;
+		}
+		return MotifCounts.code(sources, targets);
+	}
+
+	protected static void add(Map<String, Long> codes, String code, long count) {
+		if (count == 0) {
+			return;
+		}
+		Long old = codes.get(code);
+		codes.put(code, old == null ? count : old + count);
+	}
+}
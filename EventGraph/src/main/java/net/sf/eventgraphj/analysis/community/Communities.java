@@ -0,0 +1,70 @@
+package net.sf.eventgraphj.analysis.community;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A partition of the vertices of one snapshot into communities numbered from
+ * 0, largest first, with the modularity it scores on that snapshot.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class Communities<V> {
+	protected final Map<V, Integer> membership;
+	protected final int count;
+	protected final double modularity;
+
+	public Communities(Map<V, Integer> membership, int count, double modularity) {
+		this.membership = Collections.unmodifiableMap(membership);
+		this.count = count;
+		this.modularity = modularity;
+	}
+
+	/**
+	 * @return the community of <code>vertex</code>, or null if it is not in
+	 *         the snapshot
+	 */
+	public Integer getCommunity(V vertex) {
+		return this.membership.get(vertex);
+	}
+
+	/**
+	 * @return the community of every vertex of the snapshot
+	 */
+	public Map<V, Integer> getMembership() {
+		return this.membership;
+	}
+
+	public int getCommunityCount() {
+		return this.count;
+	}
+
+	public double getModularity() {
+		return this.modularity;
+	}
+
+	/**
+	 * @return the members of each community, by number
+	 */
+	public List<Set<V>> getCommunities() {
+		List<Set<V>> communities = new ArrayList<Set<V>>(this.count);
+		for (int c = 0; c < this.count; c++) {
+			communities.add(new HashSet<V>());
+		}
+		for (Map.Entry<V, Integer> entry : this.membership.entrySet()) {
+			communities.get(entry.getValue()).add(entry.getKey());
+		}
+		return communities;
+	}
+
+	@Override
+	public String toString() {
+		return this.count + " communities, modularity " + this.modularity;
+	}
+}
@@ -0,0 +1,541 @@
+package net.sf.eventgraphj.analysis.community;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.NetworkAnalysis;
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.CompactGraph;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Communities of each snapshot by Louvain modularity optimization over a
+ * {@code CompactGraph} taken without direction, each pair of vertices
+ * weighted by its number of events (an undirected event in a graph that also
+ * has directed ones leaves both its ends, and so counts twice, as in
+ * {@code CompactGraph.toUndirected()}). Self loops are left out.
+ *
+ * Each level moves single vertices to the neighboring community that gains the
+ * most modularity until no move gains any, then merges each community into
+ * one vertex of the next level, until a level merges nothing. On levels of at
+ * least {@link #PARALLEL_MIN} vertices the moves are made in rounds: every
+ * vertex's best move is found in parallel against the communities as the
+ * round found them, then the moves are made one at a time, each checked
+ * again against the communities as they are by then (from the weights
+ * already found, unless a neighbor has moved in the round, in which case the
+ * vertex is looked at afresh), so every move still gains modularity and the
+ * rounds end. Finally communities that fell apart are split into their
+ * connected pieces, which never loses modularity.
+ *
+ * With a warm start, as by default, each snapshot starts from the partition
+ * found for the one before: vertices seen before start in their old
+ * community and new vertices alone, so a series of windows that change a
+ * little at a time only pays for the vertices that move. One instance
+ * therefore analyzes one series at a time; {@link #reset()} starts another.
+ *
+ * @see "Vincent D. Blondel, Jean-Loup Guillaume, Renaud Lambiotte and Etienne Lefebvre: Fast unfolding of communities in large networks. J. Stat. Mech. 2008."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ * @param <E>
+ */
+public class LouvainCommunities<V, E> implements NetworkAnalysis<V, E, Graph<V, E>, Communities<V>> {
+	/**
+	 * Levels with fewer vertices than this move them one at a time
+	 */
+	public static final int PARALLEL_MIN = 4096;
+	/**
+	 * Smallest gain, in units of edge weight, worth a move
+	 */
+	protected static final double EPSILON = 1e-10;
+
+	protected final ForkJoinPool pool;
+	protected final boolean warmStart;
+	protected int parallelMin = PARALLEL_MIN;
+	protected Communities<V> previous;
+
+	public LouvainCommunities() {
+		this(null, true);
+	}
+
+	/**
+	 * @param pool
+	 *            pool to move vertices on, or null for the default pool
+	 */
+	public LouvainCommunities(ForkJoinPool pool) {
+		this(pool, true);
+	}
+
+	/**
+	 * @param pool
+	 *            pool to move vertices on, or null for the default pool
+	 * @param warmStart
+	 *            whether each snapshot starts from the communities found for
+	 *            the one before
+	 */
+	public LouvainCommunities(ForkJoinPool pool, boolean warmStart) {
+		this.pool = pool;
+		this.warmStart = warmStart;
+	}
+
+	/**
+	 * Forget the last partition, so the next snapshot starts from every vertex
+	 * alone
+	 */
+	public void reset() {
+		this.previous = null;
+	}
+
+	@Override
+	public Communities<V> analyze(Graph<V, E> graph) {
+		CompactGraph<V> compact = CompactGraph.fromGraph(graph).toUndirected();
+		int n = compact.size();
+		int[] seed = null;
+		if (this.warmStart && this.previous != null) {
+			seed = new int[n];
+			int fresh = this.previous.getCommunityCount();
+			for (int u = 0; u < n; u++) {
+				Integer community = this.previous.getCommunity(compact.getVertex(u));
+				seed[u] = community == null ? fresh++ : community;
+			}
+		}
+		Level level = new Level(compact);
+		int[] membership = this.detect(level, seed);
+		Map<V, Integer> communities = new HashMap<V, Integer>(2 * n);
+		int count = 0;
+		for (int u = 0; u < n; u++) {
+			communities.put(compact.getVertex(u), membership[u]);
+			count = Math.max(count, membership[u] + 1);
+		}
+		Communities<V> result = new Communities<V>(communities, count, modularity(level, membership));
+		if (this.warmStart) {
+			this.previous = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @param seed
+	 *            community each vertex starts in, or null for each alone
+	 * @return the community of each vertex, numbered from the largest
+	 */
+	protected int[] detect(Level first, int[] seed) {
+		int n = first.n;
+		int[] membership = identity(n);
+		int[] start = seed == null ? identity(n) : Arrays.copyOf(seed, n);
+		Level level = first;
+		if (level.total > 0) {
+			while (true) {
+				int[] communities = this.move(level, start);
+				int count = renumber(communities);
+				for (int u = 0; u < n; u++) {
+					membership[u] = communities[membership[u]];
+				}
+				if (count == level.n) {
+					break;
+				}
+				level = level.aggregate(communities, count);
+				start = identity(level.n);
+			}
+		}
+		split(first, membership);
+		return bySize(membership);
+	}
+
+	/**
+	 * Local moves on one level, from the communities <code>start</code>
+	 *
+	 * @return the community of each vertex of the level
+	 */
+	protected int[] move(final Level level, int[] start) {
+		final int n = level.n;
+		final int[] communities = Arrays.copyOf(start, n);
+		renumber(communities);
+		final double[] totals = new double[n];
+		for (int u = 0; u < n; u++) {
+			totals[communities[u]] += level.degrees[u];
+		}
+
+		if (n < this.parallelMin) {
+			Scratch scratch = new Scratch(n);
+			boolean moved = true;
+			while (moved) {
+				moved = false;
+				for (int u = 0; u < n; u++) {
+					moved |= relocate(level, u, communities, totals, scratch);
+				}
+			}
+			return communities;
+		}
+
+		final ThreadLocal<Scratch> scratches = new ThreadLocal<Scratch>() {
+			@Override
+			protected Scratch initialValue() {
+				return new Scratch(n);
+			}
+		};
+		final int[] targets = new int[n];
+		final double[] toTarget = new double[n];
+		final double[] toOwn = new double[n];
+		int[] movedIn = new int[n];
+		Arrays.fill(movedIn, -1);
+		Scratch scratch = new Scratch(n);
+		int grain = ParallelRange.grain(n, this.pool);
+		for (int round = 0;; round++) {
+			ParallelRange.run(this.pool, 0, n, grain, new ParallelRange.Body() {
+				@Override
+				public void run(int from, int to) {
+					Scratch own = scratches.get();
+					for (int u = from; u < to; u++) {
+						propose(level, u, communities, totals, own, targets, toTarget, toOwn);
+					}
+				}
+			});
+			int moves = 0;
+			for (int u = 0; u < n; u++) {
+				if (targets[u] < 0) {
+					continue;
+				}
+				boolean stale = false;
+				for (int a = level.offsets[u]; a < level.offsets[u + 1] && !stale; a++) {
+					stale = movedIn[level.targets[a]] == round;
+				}
+				boolean moved;
+				if (stale) {
+					moved = relocate(level, u, communities, totals, scratch);
+				} else {
+					double degree = level.degrees[u];
+					int own = communities[u];
+					int target = targets[u];
+					double stay = toOwn[u] - (totals[own] - degree) * degree / level.total;
+					double go = toTarget[u] - totals[target] * degree / level.total;
+					moved = go > stay + EPSILON;
+					if (moved) {
+						totals[own] -= degree;
+						totals[target] += degree;
+						communities[u] = target;
+					}
+				}
+				if (moved) {
+					movedIn[u] = round;
+					moves++;
+				}
+			}
+			if (moves == 0) {
+				return communities;
+			}
+		}
+	}
+
+	/**
+	 * Adds up the weight from <code>u</code> to each neighboring community
+	 * into <code>scratch</code>
+	 */
+	protected static void gather(Level level, int u, int[] communities, Scratch scratch) {
+		for (int a = level.offsets[u]; a < level.offsets[u + 1]; a++) {
+			int community = communities[level.targets[a]];
+			if (scratch.weights[community] == 0) {
+				scratch.touched[scratch.size++] = community;
+			}
+			scratch.weights[community] += level.weights[a];
+		}
+	}
+
+	/**
+	 * Moves <code>u</code> to the community that gains the most, if any gains
+	 * more than staying
+	 *
+	 * @return whether it moved
+	 */
+	protected static boolean relocate(Level level, int u, int[] communities, double[] totals, Scratch scratch) {
+		gather(level, u, communities, scratch);
+		double degree = level.degrees[u];
+		int own = communities[u];
+		totals[own] -= degree;
+		int best = own;
+		double bestGain = scratch.weights[own] - totals[own] * degree / level.total;
+		for (int i = 0; i < scratch.size; i++) {
+			int community = scratch.touched[i];
+			double gain = scratch.weights[community] - totals[community] * degree / level.total;
+			if (gain > bestGain + EPSILON) {
+				best = community;
+				bestGain = gain;
+			}
+		}
+		totals[best] += degree;
+		communities[u] = best;
+		scratch.clear();
+		return best != own;
+	}
+
+	/**
+	 * Finds the best move of <code>u</code> without making it: the target
+	 * community, or -1 to stay, and the weight from <code>u</code> to it and
+	 * to its own community
+	 */
+	protected static void propose(Level level, int u, int[] communities, double[] totals, Scratch scratch,
+	        int[] targets, double[] toTarget, double[] toOwn) {
+		gather(level, u, communities, scratch);
+		double degree = level.degrees[u];
+		int own = communities[u];
+		int best = own;
+		double bestGain = scratch.weights[own] - (totals[own] - degree) * degree / level.total;
+		for (int i = 0; i < scratch.size; i++) {
+			int community = scratch.touched[i];
+			if (community == own) {
+				continue;
+			}
+			double gain = scratch.weights[community] - totals[community] * degree / level.total;
+			if (gain > bestGain + EPSILON) {
+				best = community;
+				bestGain = gain;
+			}
+		}
+		targets[u] = best == own ? -1 : best;
+		toTarget[u] = scratch.weights[best];
+		toOwn[u] = scratch.weights[own];
+		scratch.clear();
+	}
+
+	/**
+	 * Splits each community of <code>membership</code> into its connected
+	 * pieces in <code>level</code>, in place
+	 */
+	protected static void split(Level level, int[] membership) {
+		int n = level.n;
+		int[] pieces = new int[n];
+		Arrays.fill(pieces, -1);
+		int[] stack = new int[n];
+		int count = 0;
+		for (int s = 0; s < n; s++) {
+			if (pieces[s] >= 0) {
+				continue;
+			}
+			int size = 0;
+			pieces[s] = count;
+			stack[size++] = s;
+			while (size > 0) {
+				int u = stack[--size];
+				for (int a = level.offsets[u]; a < level.offsets[u + 1]; a++) {
+					int v = level.targets[a];
+					if (pieces[v] < 0 && membership[v] == membership[s]) {
+						pieces[v] = count;
+						stack[size++] = v;
+					}
+				}
+			}
+			count++;
+		}
+		System.arraycopy(pieces, 0, membership, 0, n);
+	}
+
+	/**
+	 * Numbers the communities of <code>communities</code> from 0 in order of
+	 * first appearance, in place
+	 *
+	 * @return number of communities
+	 */
+	protected static int renumber(int[] communities) {
+		Map<Integer, Integer> numbers = new HashMap<Integer, Integer>();
+		for (int u = 0; u < communities.length; u++) {
+			Integer number = numbers.get(communities[u]);
+			if (number == null) {
+				number = numbers.size();
+				numbers.put(communities[u], number);
+			}
+			communities[u] = number;
+		}
+		return numbers.size();
+	}
+
+	/**
+	 * @return <code>membership</code> renumbered from the largest community,
+	 *         ties by first appearance
+	 */
+	protected static int[] bySize(int[] membership) {
+		int[] result = Arrays.copyOf(membership, membership.length);
+		int count = renumber(result);
+		long[] order = new long[count];
+		for (int u = 0; u < result.length; u++) {
+			order[result[u]] += 1l << 32;
+		}
+		for (int c = 0; c < count; c++) {
+			// largest first, then lowest number
+			order[c] = ((long) (Integer.MAX_VALUE - (int) (order[c] >>> 32)) << 32) | c;
+		}
+		Arrays.sort(order);
+		int[] rank = new int[count];
+		for (int r = 0; r < count; r++) {
+			rank[(int) order[r]] = r;
+		}
+		for (int u = 0; u < result.length; u++) {
+			result[u] = rank[result[u]];
+		}
+		return result;
+	}
+
+	/**
+	 * @return modularity of the partition <code>membership</code> of the
+	 *         vertices of <code>level</code>
+	 */
+	protected static double modularity(Level level, int[] membership) {
+		if (level.total == 0) {
+			return 0;
+		}
+		double[] inside = new double[level.n];
+		double[] totals = new double[level.n];
+		for (int u = 0; u < level.n; u++) {
+			totals[membership[u]] += level.degrees[u];
+			inside[membership[u]] += 2 * level.loops[u];
+			for (int a = level.offsets[u]; a < level.offsets[u + 1]; a++) {
+				if (membership[level.targets[a]] == membership[u]) {
+					inside[membership[u]] += level.weights[a];
+				}
+			}
+		}
+		double modularity = 0;
+		for (int c = 0; c < level.n; c++) {
+			double share = totals[c] / level.total;
+			modularity += inside[c] / level.total - share * share;
+		}
+		return modularity;
+	}
+
+	protected static int[] identity(int n) {
+		int[] identity = new int[n];
+		for (int u = 0; u < n; u++) {
+			identity[u] = u;
+		}
+		return identity;
+	}
+
+	/**
+	 * Weight from one vertex to each neighboring community, cleared after
+	 * each vertex by the communities it touched
+	 */
+	protected static class Scratch {
+		final double[] weights;
+		final int[] touched;
+		int size;
+
+		Scratch(int n) {
+			this.weights = new double[n];
+			this.touched = new int[n];
+		}
+
+		void clear() {
+			for (int i = 0; i < this.size; i++) {
+				this.weights[this.touched[i]] = 0;
+			}
+			this.size = 0;
+		}
+	}
+
+	/**
+	 * One level: a symmetric weighted adjacency, with the weight of the edges
+	 * merged inside each vertex
+	 */
+	protected static class Level {
+		final int n;
+		final int[] offsets;
+		final int[] targets;
+		final double[] weights;
+		final double[] loops;
+		/**
+		 * Weight of the arcs of each vertex, with its loops counted twice
+		 */
+		final double[] degrees;
+		/**
+		 * Sum of the degrees, twice the total weight
+		 */
+		final double total;
+
+		Level(CompactGraph<?> graph) {
+			this(graph.size(), graph.getOffsets(), graph.getTargets(), toDouble(graph.getCounts()), new double[graph
+			        .size()]);
+		}
+
+		Level(int n, int[] offsets, int[] targets, double[] weights, double[] loops) {
+			this.n = n;
+			this.offsets = offsets;
+			this.targets = targets;
+			this.weights = weights;
+			this.loops = loops;
+			this.degrees = new double[n];
+			double total = 0;
+			for (int u = 0; u < n; u++) {
+				double degree = 2 * loops[u];
+				for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+					degree += weights[a];
+				}
+				this.degrees[u] = degree;
+				total += degree;
+			}
+			this.total = total;
+		}
+
+		static double[] toDouble(int[] counts) {
+			double[] weights = new double[counts.length];
+			for (int a = 0; a < counts.length; a++) {
+				weights[a] = counts[a];
+			}
+			return weights;
+		}
+
+		/**
+		 * @return the level with one vertex per community
+		 */
+		Level aggregate(int[] communities, int count) {
+			double[] loops = new double[count];
+			int[] starts = new int[count + 1];
+			for (int u = 0; u < this.n; u++) {
+				starts[communities[u] + 1] += this.offsets[u + 1] - this.offsets[u];
+			}
+			for (int c = 0; c < count; c++) {
+				starts[c + 1] += starts[c];
+			}
+			int[] fill = Arrays.copyOf(starts, count);
+			int[] heads = new int[starts[count]];
+			double[] amounts = new double[starts[count]];
+			for (int u = 0; u < this.n; u++) {
+				int c = communities[u];
+				loops[c] += this.loops[u];
+				for (int a = this.offsets[u]; a < this.offsets[u + 1]; a++) {
+					int d = communities[this.targets[a]];
+					if (d == c) {
+						// seen once from each end
+						loops[c] += this.weights[a] / 2;
+					} else {
+						heads[fill[c]] = d;
+						amounts[fill[c]++] = this.weights[a];
+					}
+				}
+			}
+
+			int[] offsets = new int[count + 1];
+			int[] targets = new int[heads.length];
+			double[] weights = new double[heads.length];
+			Scratch row = new Scratch(count);
+			int arcs = 0;
+			for (int c = 0; c < count; c++) {
+				for (int i = starts[c]; i < fill[c]; i++) {
+					if (row.weights[heads[i]] == 0) {
+						row.touched[row.size++] = heads[i];
+					}
+					row.weights[heads[i]] += amounts[i];
+				}
+				Arrays.sort(row.touched, 0, row.size);
+				for (int i = 0; i < row.size; i++) {
+					targets[arcs] = row.touched[i];
+					weights[arcs++] = row.weights[row.touched[i]];
+				}
+				row.clear();
+				offsets[c + 1] = arcs;
+			}
+			return new Level(count, offsets, Arrays.copyOf(targets, arcs), Arrays.copyOf(weights, arcs), loops);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Weak components of one snapshot, as the number of components of each size.
+ * Vertices of the snapshot without edges to other vertices count as
+ * components of size 1.
+ *
+ * @author jfolson
+ *
+ */
+public class ComponentSizes {
+	protected final int vertexCount;
+	protected final SortedMap<Integer, Integer> sizes;
+	protected final int componentCount;
+
+	/**
+	 * @param vertexCount
+	 *            number of vertices in the snapshot
+	 * @param sizes
+	 *            number of components of each size larger than 1
+	 */
+	public ComponentSizes(int vertexCount, Map<Integer, Integer> sizes) {
+		SortedMap<Integer, Integer> all = new TreeMap<Integer, Integer>();
+		int covered = 0;
+		int components = 0;
+		for (Map.Entry<Integer, Integer> entry : sizes.entrySet()) {
+			if (entry.getKey() > 1 && entry.getValue() > 0) {
+				all.put(entry.getKey(), entry.getValue());
+				covered += entry.getKey() * entry.getValue();
+				components += entry.getValue();
+			}
+		}
+		if (covered > vertexCount) {
+			throw new IllegalArgumentException("components cover " + covered + " of " + vertexCount + " vertices");
+		}
+		if (covered < vertexCount) {
+			all.put(1, vertexCount - covered);
+			components += vertexCount - covered;
+		}
+		this.vertexCount = vertexCount;
+		this.sizes = Collections.unmodifiableSortedMap(all);
+		this.componentCount = components;
+	}
+
+	public int getVertexCount() {
+		return this.vertexCount;
+	}
+
+	public int getComponentCount() {
+		return this.componentCount;
+	}
+
+	/**
+	 * @return number of vertices in the largest component, 0 for an empty
+	 *         snapshot
+	 */
+	public int getLargest() {
+		return this.sizes.isEmpty() ? 0 : this.sizes.lastKey();
+	}
+
+	/**
+	 * @return the number of components of each size that occurs
+	 */
+	public SortedMap<Integer, Integer> getSizes() {
+		return this.sizes;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ComponentSizes)) {
+			return false;
+		}
+		ComponentSizes other = (ComponentSizes) obj;
+		return this.vertexCount == other.vertexCount && this.sizes.equals(other.sizes);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.vertexCount + this.sizes.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.componentCount + " components of " + this.vertexCount + " vertices: " + this.sizes;
+	}
+}
@@ -0,0 +1,130 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import net.sf.eventgraphj.analysis.NetworkAnalysis;
+import net.sf.eventgraphj.comparable.DyadNavigableGraph;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+import org.apache.commons.collections15.Factory;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Performs the specified analysis on the graph as of each checkpoint, ie on
+ * {@code headNetwork(finish)} for the finish of each {@code Interval<K>}
+ * produced by an {@code Iterable<Interval<K>>}.
+ * 
+ * Rather than copying the whole prefix again at each checkpoint, a single
+ * growing graph is kept and only the slice of edges since the previous
+ * checkpoint is appended to it, so the whole series costs time linear in the
+ * number of edges. An {@code IncrementalNetworkAnalysis} is handed just the
+ * appended slice; a plain {@code NetworkAnalysis} is run on the growing graph.
+ * 
+ * @author jfolson
+ * 
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ * @param <R>
+ */
+public class CumulativeNetworkAnalysis<K extends Comparable<K>, V, E, R> extends IterableNetworkAnalysis<K, V, E, R> {
+	protected final Factory<NavigableGraph<K, V, E>> graphFactory;
+	protected final NetworkAnalysis<V, EdgeEntry<K, V, E>, Graph<V, EdgeEntry<K, V, E>>, R> analysis;
+	protected final IncrementalNetworkAnalysis<K, V, E, R> incrementalAnalysis;
+
+	public CumulativeNetworkAnalysis(NetworkAnalysis<V, EdgeEntry<K, V, E>, Graph<V, EdgeEntry<K, V, E>>, R> analysis,
+	        Iterable<Interval<K>> iterator) {
+		this(analysis, iterator, DyadNavigableGraph.<V, K, E> getFactory());
+	}
+
+	public CumulativeNetworkAnalysis(NetworkAnalysis<V, EdgeEntry<K, V, E>, Graph<V, EdgeEntry<K, V, E>>, R> analysis,
+	        Iterable<Interval<K>> iterator, Factory<NavigableGraph<K, V, E>> graphFactory) {
+		super(iterator);
+		this.analysis = analysis;
+		this.incrementalAnalysis = null;
+		this.graphFactory = graphFactory;
+	}
+
+	public CumulativeNetworkAnalysis(IncrementalNetworkAnalysis<K, V, E, R> analysis, Iterable<Interval<K>> iterator) {
+		this(analysis, iterator, DyadNavigableGraph.<V, K, E> getFactory());
+	}
+
+	public CumulativeNetworkAnalysis(IncrementalNetworkAnalysis<K, V, E, R> analysis, Iterable<Interval<K>> iterator,
+	        Factory<NavigableGraph<K, V, E>> graphFactory) {
+		super(iterator);
+		this.analysis = null;
+		this.incrementalAnalysis = analysis;
+		this.graphFactory = graphFactory;
+	}
+
+	@Override
+	public List<R> analyze(NavigableGraph<K, V, E> graph) {
+		List<R> results = new ArrayList<R>();
+		if (this.incrementalAnalysis != null) {
+			this.incrementalAnalysis.reset();
+		}
+		NavigableGraph<K, V, E> cumulative = this.graphFactory.create();
+		Collection<EdgeEntry<K, V, E>> removed = Collections.emptyList();
+		K graphStart = graph.getLowerBound();
+		K graphStop = graph.getUpperBound();
+		K previous = null;
+
+		Iterator<Interval<K>> iterator = this.iterable.iterator();
+		while (iterator.hasNext()) {
+			Interval<K> interval = iterator.next();
+			if (interval == null || interval.getFinish() == null) {
+				break;
+			}
+			K finish = interval.getFinish();
+			if (graphStart != null && finish.compareTo(graphStart) <= 0) {
+				continue;
+			}
+			if (graphStop != null && finish.compareTo(graphStop) > 0) {
+				finish = graphStop;
+			}
+			if (previous != null && finish.compareTo(previous) <= 0) {
+				if (graphStop != null && previous.compareTo(graphStop) >= 0) {
+					break;
+				}
+				continue;
+			}
+
+			NavigableGraph<K, V, E> slice = (previous == null) ? graph.headNetwork(finish) : graph.subNetwork(
+			        previous, finish);
+			for (V vertex : slice.getVertices()) {
+				if (!cumulative.containsVertex(vertex)) {
+					cumulative.addVertex(vertex);
+				}
+			}
+			Collection<EdgeEntry<K, V, E>> added = slice.getEdges();
+			for (EdgeEntry<K, V, E> edge : added) {
+				cumulative.addEdge(edge, edge.getFrom(), edge.getTo(), edge.getEdgetype());
+			}
+
+			R result;
+			if (this.incrementalAnalysis != null) {
+				result = this.incrementalAnalysis.update(cumulative, added, removed);
+			} else {
+				result = this.doSubAnalysis(cumulative, graphStart, finish);
+			}
+			results.add(result);
+			previous = finish;
+		}
+		return results;
+	}
+
+	/**
+	 * Analyze the growing graph as of {@code stop}
+	 */
+	@Override
+	protected R doSubAnalysis(NavigableGraph<K, V, E> graph, K start, K stop) {
+		return this.analysis.analyze(graph);
+	}
+}
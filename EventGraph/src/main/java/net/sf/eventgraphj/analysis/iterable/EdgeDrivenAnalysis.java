@@ -0,0 +1,16 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+/**
+ * An {@code IncrementalNetworkAnalysis} that reads only the edges that entered
+ * and left the snapshot, never the snapshot itself, so that a driver such as
+ * {@code SlidingNetworkAnalysis} can hand it null instead of building one.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ * @param <R>
+ */
+public interface EdgeDrivenAnalysis<K extends Comparable<K>, V, E, R> extends IncrementalNetworkAnalysis<K, V, E, R> {
+}
@@ -0,0 +1,257 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Sizes of the weak components of the vertices with events in the snapshot,
+ * kept in a {@code RollbackUnionFind} from the edges that entered and left it.
+ *
+ * Edges are kept in the order they entered, by key within each update, and
+ * are united in a stack whose unions can be undone from the top. Edges that
+ * leave in the order they entered, as under a sliding window, are taken off
+ * the bottom of that order by undoing only the unions above the oldest edge
+ * and doing them again: the edges still to leave are kept above those that
+ * entered since, and each undo takes off no more newer edges than older ones,
+ * which costs O(log n) unions per edge amortized, each O(log n). A series that
+ * only grows, as under a {@code CumulativeNetworkAnalysis}, never undoes any.
+ * Only an update that removes an edge while an older one stays, e.g. when
+ * edges enter out of key order, unites the remaining edges again from
+ * scratch.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class IncrementalComponentAnalysis<K extends Comparable<K>, V, E> implements
+        EdgeDrivenAnalysis<K, V, E, ComponentSizes> {
+	/**
+	 * One edge between two distinct vertices
+	 */
+	private static final class Link {
+		final int u, v;
+		final long order;
+		/**
+		 * Whether the edge is among those to leave next, kept above the rest
+		 */
+		boolean old;
+		/**
+		 * Mark of the union-find before this edge was united
+		 */
+		int mark;
+
+		Link(int u, int v, long order) {
+			this.u = u;
+			this.v = v;
+			this.order = order;
+		}
+	}
+
+	final private Map<V, Integer> index = new HashMap<V, Integer>();
+	/**
+	 * Links of the edges in the snapshot, by edge
+	 */
+	final private Map<EdgeEntry<K, V, E>, ArrayDeque<Link>> links = new HashMap<EdgeEntry<K, V, E>, ArrayDeque<Link>>();
+	/**
+	 * Links in the order they entered
+	 */
+	final private ArrayDeque<Link> queue = new ArrayDeque<Link>();
+	/**
+	 * Links in the order they were united
+	 */
+	final private List<Link> stack = new ArrayList<Link>();
+	private RollbackUnionFind components = new RollbackUnionFind(0);
+	/**
+	 * Number of events of each vertex in the snapshot
+	 */
+	private int[] events = new int[16];
+	private int present;
+	private int olds;
+	private long entered;
+
+	@Override
+	public void reset() {
+		this.index.clear();
+		this.links.clear();
+		this.queue.clear();
+		this.stack.clear();
+		this.components = new RollbackUnionFind(0);
+		Arrays.fill(this.events, 0);
+		this.present = 0;
+		this.olds = 0;
+		this.entered = 0;
+	}
+
+	@Override
+	public ComponentSizes update(NavigableGraph<K, V, E> graph, Collection<EdgeEntry<K, V, E>> added,
+	        Collection<EdgeEntry<K, V, E>> removed) {
+		List<Link> leaving = new ArrayList<Link>(removed.size());
+		for (EdgeEntry<K, V, E> edge : removed) {
+			this.count(edge, -1);
+			ArrayDeque<Link> same = this.links.get(edge);
+			if (same == null) {
+				continue;
+			}
+			leaving.add(same.poll());
+			if (same.isEmpty()) {
+				this.links.remove(edge);
+			}
+		}
+		Collections.sort(leaving, new Comparator<Link>() {
+			@Override
+			public int compare(Link o1, Link o2) {
+				return o1.order < o2.order ? -1 : (o1.order == o2.order ? 0 : 1);
+			}
+		});
+		if (this.isOldest(leaving)) {
+			for (int i = 0; i < leaving.size(); i++) {
+				this.popOldest();
+			}
+		} else {
+			this.queue.removeAll(new HashSet<Link>(leaving));
+			this.unite();
+		}
+
+		List<EdgeEntry<K, V, E>> entering = new ArrayList<EdgeEntry<K, V, E>>(added);
+		Collections.sort(entering, new Comparator<EdgeEntry<K, V, E>>() {
+			@Override
+			public int compare(EdgeEntry<K, V, E> o1, EdgeEntry<K, V, E> o2) {
+				return o1.getKey().compareTo(o2.getKey());
+			}
+		});
+		for (EdgeEntry<K, V, E> edge : entering) {
+			this.count(edge, 1);
+			if (edge.getFrom().equals(edge.getTo())) {
+				continue;
+			}
+			Link link = new Link(this.indexOf(edge.getFrom()), this.indexOf(edge.getTo()), this.entered++);
+			ArrayDeque<Link> same = this.links.get(edge);
+			if (same == null) {
+				same = new ArrayDeque<Link>(1);
+				this.links.put(edge, same);
+			}
+			same.add(link);
+			this.queue.add(link);
+			this.push(link, false);
+		}
+		return new ComponentSizes(this.present, this.components.getSizes());
+	}
+
+	private void count(EdgeEntry<K, V, E> edge, int delta) {
+		this.count(this.indexOf(edge.getFrom()), delta);
+		if (!edge.getFrom().equals(edge.getTo())) {
+			this.count(this.indexOf(edge.getTo()), delta);
+		}
+	}
+
+	private void count(int vertex, int delta) {
+		int old = this.events[vertex];
+		this.events[vertex] += delta;
+		if (old == 0) {
+			this.present++;
+		} else if (this.events[vertex] == 0) {
+			this.present--;
+		}
+	}
+
+	/**
+	 * @return whether <code>leaving</code>, in order, are the oldest links
+	 */
+	private boolean isOldest(List<Link> leaving) {
+		Iterator<Link> oldest = this.queue.iterator();
+		for (Link link : leaving) {
+			if (oldest.next() != link) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void push(Link link, boolean old) {
+		link.old = old;
+		link.mark = this.components.mark();
+		this.components.union(link.u, link.v);
+		this.stack.add(link);
+		if (old) {
+			this.olds++;
+		}
+	}
+
+	private Link pop() {
+		Link link = this.stack.remove(this.stack.size() - 1);
+		this.components.rollback(link.mark);
+		if (link.old) {
+			this.olds--;
+		}
+		return link;
+	}
+
+	/**
+	 * Takes the oldest link out of the union-find
+	 */
+	private void popOldest() {
+		this.queue.poll();
+		if (this.olds == 0) {
+			// turn the stack over so the oldest link is on top
+			List<Link> all = new ArrayList<Link>(this.stack);
+			this.components.rollback(0);
+			this.stack.clear();
+			for (int i = all.size() - 1; i >= 0; i--) {
+				this.push(all.get(i), true);
+			}
+		}
+		// take links off until as many old as new ones are off, or all old
+		List<Link> olderOff = new ArrayList<Link>();
+		List<Link> newerOff = new ArrayList<Link>();
+		do {
+			Link link = this.pop();
+			(link.old ? olderOff : newerOff).add(link);
+		} while ((olderOff.isEmpty() || olderOff.size() < newerOff.size()) && this.olds > 0);
+		for (int i = newerOff.size() - 1; i >= 0; i--) {
+			this.push(newerOff.get(i), false);
+		}
+		for (int i = olderOff.size() - 1; i >= 0; i--) {
+			this.push(olderOff.get(i), true);
+		}
+		this.pop();
+	}
+
+	/**
+	 * Unites the links still in the snapshot from scratch
+	 */
+	private void unite() {
+		this.components.rollback(0);
+		this.stack.clear();
+		this.olds = 0;
+		for (Link link : this.queue) {
+			this.push(link, false);
+		}
+	}
+
+	private int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		if (i == null) {
+			i = this.index.size();
+			this.index.put(vertex, i);
+			this.components.grow(i + 1);
+			if (i == this.events.length) {
+				this.events = Arrays.copyOf(this.events, 2 * i);
+			}
+		}
+		return i;
+	}
+}
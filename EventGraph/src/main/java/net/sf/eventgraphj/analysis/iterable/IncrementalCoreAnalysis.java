@@ -0,0 +1,216 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+import org.apache.commons.math.linear.ArrayRealVector;
+import org.apache.commons.math.linear.RealVector;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Core numbers of a fixed, ordered list of nodes, as
+ * {@code VertexScoreAnalysis.newCoreAnalysis(...)} reports them, kept up to
+ * date from the edges that entered and left the snapshot. Only a pair of
+ * vertices that gains its first edge or loses its last changes any core
+ * number, and then by at most one and only for vertices with the smaller core
+ * number <code>r</code> of its two ends that are joined to them through
+ * vertices of core number <code>r</code> (the subcore). That subcore is
+ * peeled by how many neighbors of core number <code>r</code> or more each of
+ * its vertices keeps. The snapshot itself is never read, so under a
+ * {@code SlidingNetworkAnalysis} a step of a fine sliding window costs about
+ * the size of the subcores its edges touch, counted by
+ * {@link #getVisited()}, rather than that of the snapshot.
+ *
+ * @see "Ahmet Erdem Sariyuce, Bugra Gedik, Gabriela Jacques-Silva, Kun-Lung Wu and Umit V. Catalyurek: Streaming Algorithms for k-core Decomposition. VLDB 2013."
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class IncrementalCoreAnalysis<K extends Comparable<K>, V, E> implements
+        EdgeDrivenAnalysis<K, V, E, RealVector> {
+	final private List<V> nodes;
+	final private Map<V, Integer> index = new HashMap<V, Integer>();
+	/**
+	 * Per vertex, the number of edges to each neighbor
+	 */
+	final private List<Map<Integer, Integer>> links = new ArrayList<Map<Integer, Integer>>();
+	private int[] cores = new int[16];
+	private long visited;
+
+	public IncrementalCoreAnalysis(List<V> nodes) {
+		this.nodes = nodes;
+		this.reset();
+	}
+
+	public IncrementalCoreAnalysis(Graph<V, EdgeEntry<K, V, E>> graph) {
+		this(new ArrayList<V>(graph.getVertices()));
+	}
+
+	public List<V> getNodes() {
+		return this.nodes;
+	}
+
+	@Override
+	public void reset() {
+		this.index.clear();
+		this.links.clear();
+		Arrays.fill(this.cores, 0);
+		this.visited = 0;
+		for (V vertex : this.nodes) {
+			this.indexOf(vertex);
+		}
+	}
+
+	@Override
+	public RealVector update(NavigableGraph<K, V, E> graph, Collection<EdgeEntry<K, V, E>> added,
+	        Collection<EdgeEntry<K, V, E>> removed) {
+		for (EdgeEntry<K, V, E> edge : removed) {
+			this.count(edge, -1);
+		}
+		for (EdgeEntry<K, V, E> edge : added) {
+			this.count(edge, 1);
+		}
+		double[] scores = new double[this.nodes.size()];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = this.cores[this.index.get(this.nodes.get(i))];
+		}
+		return new ArrayRealVector(scores, false);
+	}
+
+	/**
+	 * @return the number of subcore vertices looked at since the last reset,
+	 *         which bounds the work done
+	 */
+	public long getVisited() {
+		return this.visited;
+	}
+
+	/**
+	 * @return the core number of <code>vertex</code> in the last snapshot, 0
+	 *         if it had no edges
+	 */
+	public int getCoreNumber(V vertex) {
+		Integer i = this.index.get(vertex);
+		return i == null ? 0 : this.cores[i];
+	}
+
+	private int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		if (i == null) {
+			i = this.index.size();
+			this.index.put(vertex, i);
+			this.links.add(new HashMap<Integer, Integer>());
+			if (i == this.cores.length) {
+				this.cores = Arrays.copyOf(this.cores, 2 * i);
+			}
+		}
+		return i;
+	}
+
+	private void count(EdgeEntry<K, V, E> edge, int delta) {
+		if (edge.getFrom().equals(edge.getTo())) {
+			return;
+		}
+		int u = this.indexOf(edge.getFrom());
+		int v = this.indexOf(edge.getTo());
+		Map<Integer, Integer> fromU = this.links.get(u);
+		Integer old = fromU.get(v);
+		int count = (old == null ? 0 : old) + delta;
+		if (count == 0) {
+			fromU.remove(v);
+			this.links.get(v).remove(u);
+			this.update(u, v, false);
+		} else {
+			fromU.put(v, count);
+			this.links.get(v).put(u, count);
+			if (old == null) {
+				this.update(u, v, true);
+			}
+		}
+	}
+
+	/**
+	 * Brings the core numbers up to date after the pair <code>u</code>,
+	 * <code>v</code> was joined or parted
+	 */
+	private void update(int u, int v, boolean joined) {
+		int r = Math.min(this.cores[u], this.cores[v]);
+		if (!joined && r == 0) {
+			return;
+		}
+		// the subcore of r through the ends with core number r, and how many
+		// neighbors of core number r or more each has
+		Map<Integer, Integer> support = new HashMap<Integer, Integer>();
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+		for (int root : new int[] { u, v }) {
+			if (this.cores[root] == r && !support.containsKey(root)) {
+				support.put(root, 0);
+				queue.add(root);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int w = queue.poll();
+			int degree = 0;
+			for (int x : this.links.get(w).keySet()) {
+				if (this.cores[x] >= r) {
+					degree++;
+				}
+				if (this.cores[x] == r && !support.containsKey(x)) {
+					support.put(x, 0);
+					queue.add(x);
+				}
+			}
+			support.put(w, degree);
+		}
+		this.visited += support.size();
+
+		// peel the vertices that cannot stay at (after joining, rise above) r
+		int bound = joined ? r + 1 : r;
+		Set<Integer> peeled = new HashSet<Integer>();
+		for (Map.Entry<Integer, Integer> entry : support.entrySet()) {
+			if (entry.getValue() < bound) {
+				peeled.add(entry.getKey());
+				queue.add(entry.getKey());
+			}
+		}
+		while (!queue.isEmpty()) {
+			int w = queue.poll();
+			for (int x : this.links.get(w).keySet()) {
+				Integer degree = support.get(x);
+				if (degree != null && !peeled.contains(x)) {
+					support.put(x, degree - 1);
+					if (degree - 1 < bound) {
+						peeled.add(x);
+						queue.add(x);
+					}
+				}
+			}
+		}
+
+		if (joined) {
+			for (int w : support.keySet()) {
+				if (!peeled.contains(w)) {
+					this.cores[w]++;
+				}
+			}
+		} else {
+			for (int w : peeled) {
+				this.cores[w]--;
+			}
+		}
+	}
+}
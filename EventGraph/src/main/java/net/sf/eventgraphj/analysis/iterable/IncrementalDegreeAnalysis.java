@@ -0,0 +1,82 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+import org.apache.commons.math.linear.ArrayRealVector;
+import org.apache.commons.math.linear.RealVector;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Degree (number of incident edges) of a fixed, ordered list of nodes, kept up
+ * to date from the edges added to and removed from a snapshot. Reports the
+ * same values as {@code VertexScoreAnalysis.newDegreeAnalysis(...)} without
+ * looking at the snapshot itself.
+ * 
+ * @author jfolson
+ * 
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class IncrementalDegreeAnalysis<K extends Comparable<K>, V, E> implements
+        EdgeDrivenAnalysis<K, V, E, RealVector> {
+	final private List<V> nodes;
+	final private HashMap<V, Integer> index;
+	final private double[] degrees;
+
+	public IncrementalDegreeAnalysis(List<V> nodes) {
+		this.nodes = nodes;
+		this.index = new HashMap<V, Integer>();
+		for (V vertex : nodes) {
+			this.index.put(vertex, this.index.size());
+		}
+		this.degrees = new double[nodes.size()];
+	}
+
+	public IncrementalDegreeAnalysis(Graph<V, EdgeEntry<K, V, E>> graph) {
+		this(new ArrayList<V>(graph.getVertices()));
+	}
+
+	public List<V> getNodes() {
+		return this.nodes;
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < this.degrees.length; i++) {
+			this.degrees[i] = 0;
+		}
+	}
+
+	@Override
+	public RealVector update(NavigableGraph<K, V, E> graph, Collection<EdgeEntry<K, V, E>> added,
+	        Collection<EdgeEntry<K, V, E>> removed) {
+		for (EdgeEntry<K, V, E> edge : added) {
+			this.count(edge, 1);
+		}
+		for (EdgeEntry<K, V, E> edge : removed) {
+			this.count(edge, -1);
+		}
+		return new ArrayRealVector(this.degrees);
+	}
+
+	private void count(EdgeEntry<K, V, E> edge, int delta) {
+		Integer from = this.index.get(edge.getFrom());
+		if (from != null) {
+			this.degrees[from] += delta;
+		}
+		if (!edge.getFrom().equals(edge.getTo())) {
+			Integer to = this.index.get(edge.getTo());
+			if (to != null) {
+				this.degrees[to] += delta;
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.Collection;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * An analysis that keeps state between successive snapshots of a series and
+ * brings its result up to date from the edges that entered and left the
+ * snapshot, rather than recomputing from the whole snapshot.
+ * 
+ * @author jfolson
+ * 
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ * @param <R>
+ */
+public interface IncrementalNetworkAnalysis<K extends Comparable<K>, V, E, R> {
+
+	/**
+	 * Forget any state so that the next {@code update(...)} starts a new
+	 * series from an empty graph.
+	 */
+	public void reset();
+
+	/**
+	 * @param graph
+	 *            the snapshot after the change, or null for an
+	 *            {@code EdgeDrivenAnalysis}
+	 * @param added
+	 *            edges that entered the snapshot since the last update
+	 * @param removed
+	 *            edges that left the snapshot since the last update
+	 * @return the result for {@code graph}
+	 */
+	public R update(NavigableGraph<K, V, E> graph, Collection<EdgeEntry<K, V, E>> added,
+	        Collection<EdgeEntry<K, V, E>> removed);
+}
@@ -0,0 +1,88 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.eventgraphj.centrality.CompactPageRank;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.compact.VertexIndex;
+
+import org.apache.commons.math.linear.ArrayRealVector;
+import org.apache.commons.math.linear.RealVector;
+
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * PageRank of a fixed, ordered list of nodes, brought up to date from the
+ * previous snapshot's scores by {@code CompactPageRank.update(...)}, which
+ * pushes only the residual caused by the edges that entered and left the
+ * snapshot. The first snapshot after a reset is computed from scratch.
+ * 
+ * @author jfolson
+ * 
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class IncrementalPageRankAnalysis<K extends Comparable<K>, V, E> implements
+        IncrementalNetworkAnalysis<K, V, E, RealVector> {
+	final private VertexIndex<V> index;
+	final private double alpha;
+	private CompactPageRank<V> pageRank;
+
+	/**
+	 * @param alpha
+	 *            restart probability
+	 */
+	public IncrementalPageRankAnalysis(List<V> nodes, double alpha) {
+		this.index = new VertexIndex<V>(nodes);
+		this.alpha = alpha;
+	}
+
+	public IncrementalPageRankAnalysis(Graph<V, EdgeEntry<K, V, E>> graph, double alpha) {
+		this(new ArrayList<V>(graph.getVertices()), alpha);
+	}
+
+	public List<V> getNodes() {
+		return this.index.getVertices();
+	}
+
+	/**
+	 * @return the result of the last update, or null after a reset
+	 */
+	public CompactPageRank<V> getPageRank() {
+		return this.pageRank;
+	}
+
+	@Override
+	public void reset() {
+		this.pageRank = null;
+	}
+
+	@Override
+	public RealVector update(NavigableGraph<K, V, E> graph, Collection<EdgeEntry<K, V, E>> added,
+	        Collection<EdgeEntry<K, V, E>> removed) {
+		if (this.pageRank == null) {
+			this.pageRank = CompactPageRank.compute(graph, this.alpha);
+		} else {
+			Set<V> changed = new HashSet<V>();
+			for (EdgeEntry<K, V, E> edge : added) {
+				changed.add(edge.getFrom());
+				changed.add(edge.getTo());
+			}
+			for (EdgeEntry<K, V, E> edge : removed) {
+				changed.add(edge.getFrom());
+				changed.add(edge.getTo());
+			}
+			this.pageRank = this.pageRank.update(graph, changed);
+		}
+		double[] scores = new double[this.index.size()];
+		this.pageRank.scoreInto(this.index, scores, new BitSet(scores.length));
+		return new ArrayRealVector(scores, false);
+	}
+}
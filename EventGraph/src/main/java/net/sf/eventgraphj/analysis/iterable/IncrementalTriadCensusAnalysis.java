@@ -0,0 +1,201 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.analysis.TriadCensus;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+import org.apache.commons.math.linear.ArrayRealVector;
+import org.apache.commons.math.linear.RealVector;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Directed triad census, as {@code TriadCensus} reports it, kept up to date
+ * from the edges that entered and left the snapshot. Only a dyad that gains
+ * its first arc in a direction or loses its last changes any triad, and then
+ * only the triads it forms with the neighbors of its two ends, so each change
+ * costs the degrees of its ends.
+ *
+ * The triads with two or three dyads are counted directly; those with one
+ * dyad follow from the number of asymmetric and mutual dyads, and the empty
+ * triads from the number of vertices with events in the snapshot, counted from
+ * the edges too, so the snapshot itself is never read.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class IncrementalTriadCensusAnalysis<K extends Comparable<K>, V, E> implements
+        EdgeDrivenAnalysis<K, V, E, RealVector> {
+	final private Map<V, Integer> index = new HashMap<V, Integer>();
+	/**
+	 * Per vertex, the dyad code with each neighbor: bit 0 for an arc to it and
+	 * bit 1 for an arc from it
+	 */
+	final private List<Map<Integer, Integer>> links = new ArrayList<Map<Integer, Integer>>();
+	/**
+	 * Number of edges behind each arc
+	 */
+	final private Map<Long, Integer> arcs = new HashMap<Long, Integer>();
+	final private long[] connected = new long[TriadCensus.TYPES.length];
+	private long asymmetric, mutual;
+	/**
+	 * Number of events of each vertex in the snapshot
+	 */
+	private int[] events = new int[16];
+	private long present;
+
+	@Override
+	public void reset() {
+		this.index.clear();
+		this.links.clear();
+		this.arcs.clear();
+		for (int t = 0; t < this.connected.length; t++) {
+			this.connected[t] = 0;
+		}
+		this.asymmetric = 0;
+		this.mutual = 0;
+		Arrays.fill(this.events, 0);
+		this.present = 0;
+	}
+
+	@Override
+	public RealVector update(NavigableGraph<K, V, E> graph, Collection<EdgeEntry<K, V, E>> added,
+	        Collection<EdgeEntry<K, V, E>> removed) {
+		for (EdgeEntry<K, V, E> edge : removed) {
+			this.count(edge, -1);
+		}
+		for (EdgeEntry<K, V, E> edge : added) {
+			this.count(edge, 1);
+		}
+		long n = this.present;
+		double[] census = new double[this.connected.length];
+		double linked = 0;
+		double asymmetricLeft = this.asymmetric * (n - 2);
+		double mutualLeft = this.mutual * (n - 2);
+		for (int t = 0; t < census.length; t++) {
+			if (this.connected[t] != 0) {
+				census[t] = this.connected[t];
+				linked += census[t];
+				asymmetricLeft -= this.connected[t] * TriadCensus.asymmetricDyads(t);
+				mutualLeft -= this.connected[t] * TriadCensus.mutualDyads(t);
+			}
+		}
+		census[1] = asymmetricLeft;
+		census[2] = mutualLeft;
+		census[0] = n * (n - 1) * (n - 2) / 6 - linked - asymmetricLeft - mutualLeft;
+		return new ArrayRealVector(census, false);
+	}
+
+	private void count(EdgeEntry<K, V, E> edge, int delta) {
+		int u = this.indexOf(edge.getFrom());
+		this.countEvent(u, delta);
+		if (edge.getFrom().equals(edge.getTo())) {
+			return;
+		}
+		int v = this.indexOf(edge.getTo());
+		this.countEvent(v, delta);
+		this.countArc(u, v, delta);
+		if (edge.getEdgetype() == EdgeType.UNDIRECTED) {
+			this.countArc(v, u, delta);
+		}
+	}
+
+	private void countEvent(int vertex, int delta) {
+		int old = this.events[vertex];
+		this.events[vertex] += delta;
+		if (old == 0) {
+			this.present++;
+		} else if (this.events[vertex] == 0) {
+			this.present--;
+		}
+	}
+
+	private int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		if (i == null) {
+			i = this.index.size();
+			this.index.put(vertex, i);
+			this.links.add(new HashMap<Integer, Integer>());
+			if (i == this.events.length) {
+				this.events = Arrays.copyOf(this.events, 2 * i);
+			}
+		}
+		return i;
+	}
+
+	private void countArc(int u, int v, int delta) {
+		Long key = ((long) u << 32) | v;
+		Integer old = this.arcs.get(key);
+		int count = (old == null ? 0 : old) + delta;
+		if (count == 0) {
+			this.arcs.remove(key);
+		} else {
+			this.arcs.put(key, count);
+		}
+		if ((old == null || old == 0) != (count == 0)) {
+			Integer code = this.links.get(u).get(v);
+			int before = code == null ? 0 : code;
+			this.relink(u, v, before, before ^ 1);
+		}
+	}
+
+	/**
+	 * Moves every triad on <code>u</code> and <code>v</code> to its type with
+	 * the dyad code <code>after</code> instead of <code>before</code>
+	 */
+	private void relink(int u, int v, int before, int after) {
+		this.countDyad(before, -1);
+		this.countDyad(after, 1);
+		Map<Integer, Integer> fromU = this.links.get(u);
+		Map<Integer, Integer> fromV = this.links.get(v);
+		for (Map.Entry<Integer, Integer> entry : fromU.entrySet()) {
+			int w = entry.getKey();
+			if (w != v) {
+				Integer vw = fromV.get(w);
+				this.move(before, after, entry.getValue(), vw == null ? 0 : vw);
+			}
+		}
+		for (Map.Entry<Integer, Integer> entry : fromV.entrySet()) {
+			int w = entry.getKey();
+			if (w != u && !fromU.containsKey(w)) {
+				this.move(before, after, 0, entry.getValue());
+			}
+		}
+		if (after == 0) {
+			fromU.remove(v);
+			fromV.remove(u);
+		} else {
+			fromU.put(v, after);
+			fromV.put(u, TriadCensus.reverse(after));
+		}
+	}
+
+	private void countDyad(int code, int delta) {
+		if (code == 3) {
+			this.mutual += delta;
+		} else if (code != 0) {
+			this.asymmetric += delta;
+		}
+	}
+
+	private void move(int before, int after, int uw, int vw) {
+		int from = TriadCensus.type(before, uw, vw);
+		int to = TriadCensus.type(after, uw, vw);
+		if (TriadCensus.asymmetricDyads(from) + TriadCensus.mutualDyads(from) > 1) {
+			this.connected[from]--;
+		}
+		if (TriadCensus.asymmetricDyads(to) + TriadCensus.mutualDyads(to) > 1) {
+			this.connected[to]++;
+		}
+	}
+}
@@ -59,7 +59,7 @@ public abstract class IterableNetworkAnalysis<K extends Comparable<K>, V, E, R>
 			// System.out.println("Compare " + start + "-" + finish + " within "
 			// + graphStart + "-" + graphStop);
 			long t1 = System.nanoTime();
-			R result = this.doSubAnalysis(graph.subNetwork(start, finish), start, finish);
+			R result = this.doSubAnalysis(this.window(graph, start, finish), start, finish);
 			long t2 = System.nanoTime();
 			// System.out.println((t2 - t1) / 1000000000.0);
 			results.add(result);
@@ -71,6 +71,15 @@ public abstract class IterableNetworkAnalysis<K extends Comparable<K>, V, E, R>
 		return results;
 	}
 
+	/**
+	 * The snapshot handed to {@link #doSubAnalysis(NavigableGraph, Comparable, Comparable)}
+	 * 
+	 * @return <code>graph.subNetwork(start, stop)</code>
+	 */
+	protected NavigableGraph<K, V, E> window(NavigableGraph<K, V, E> graph, K start, K stop) {
+		return graph.subNetwork(start, stop);
+	}
+
 	/**
 	 * The analysis to perform on each subGraph "snapshot"
 	 * 
@@ -0,0 +1,285 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Sizes of the weak components of the vertices with events in every window
+ * of a series, e.g. from an {@code IntervalWindowIterable}, as
+ * {@code IncrementalComponentAnalysis} finds them but offline: the windows are listed
+ * first, and since both their starts and their stops move forward, every
+ * event lies in a run of consecutive windows, so each pair of vertices is
+ * linked over a few runs of windows. Each run is put on the nodes of a segment
+ * tree over the windows that cover it, and one walk of the tree unites the
+ * pairs of a node on the way down and takes them back out on the way up, with
+ * a union-find that can be rolled back. Each window's sizes are read at its
+ * leaf.
+ *
+ * A pair linked over a run of windows costs O(log(windows) log(vertices))
+ * however many events link it, instead of the whole window being rebuilt at
+ * every step as with {@code SimpleIterableNetworkAnalysis} and a
+ * {@code WeakComponentClusterer}. No snapshot is built: the vertices of each
+ * window are counted from the runs of windows of each vertex's events, read
+ * in one pass over the events of the graph.
+ *
+ * @see "David Eppstein: Offline algorithms for dynamic minimum spanning tree problems. WADS 1991."
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class OfflineComponentAnalysis<K extends Comparable<K>, V, E> extends
+        IterableNetworkAnalysis<K, V, E, ComponentSizes> {
+	protected List<K> starts, stops;
+	protected int[] vertexCounts;
+
+	public OfflineComponentAnalysis(Iterable<Interval<K>> iterator) {
+		super(iterator);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the start or stop of a window is before that of the
+	 *             window before it
+	 */
+	@Override
+	public List<ComponentSizes> analyze(NavigableGraph<K, V, E> graph) {
+		this.starts = new ArrayList<K>();
+		this.stops = new ArrayList<K>();
+		try {
+			super.analyze(graph);
+			return this.solve(graph);
+		} finally {
+			this.starts = null;
+			this.stops = null;
+			this.vertexCounts = null;
+		}
+	}
+
+	/**
+	 * @return null, the windows are only listed
+	 */
+	@Override
+	protected NavigableGraph<K, V, E> window(NavigableGraph<K, V, E> graph, K start, K stop) {
+		return null;
+	}
+
+	/**
+	 * Only lists the window; the components are found once all are known
+	 */
+	@Override
+	protected ComponentSizes doSubAnalysis(NavigableGraph<K, V, E> window, K start, K stop) {
+		int last = this.starts.size() - 1;
+		if (last >= 0 && (start.compareTo(this.starts.get(last)) < 0 || stop.compareTo(this.stops.get(last)) < 0)) {
+			throw new IllegalArgumentException("window " + start + " - " + stop + " moves back from "
+			        + this.starts.get(last) + " - " + this.stops.get(last));
+		}
+		this.starts.add(start);
+		this.stops.add(stop);
+		return null;
+	}
+
+	protected List<ComponentSizes> solve(NavigableGraph<K, V, E> graph) {
+		int windows = this.starts.size();
+		List<ComponentSizes> results = new ArrayList<ComponentSizes>(windows);
+		if (windows == 0) {
+			return results;
+		}
+
+		// the run of windows holding each event
+		Map<V, Integer> index = new HashMap<V, Integer>();
+		int events = 0;
+		int[] froms = new int[16];
+		int[] tos = new int[16];
+		long[] order = new long[16];
+		int[] lasts = new int[16];
+		for (EdgeEntry<K, V, E> edge : graph.getEdges()) {
+			int first = this.firstStoppingAfter(edge.getKey());
+			int last = this.lastStartingBy(edge.getKey());
+			if (first > last) {
+				continue;
+			}
+			if (events == froms.length) {
+				froms = Arrays.copyOf(froms, 2 * events);
+				tos = Arrays.copyOf(tos, 2 * events);
+				order = Arrays.copyOf(order, 2 * events);
+				lasts = Arrays.copyOf(lasts, 2 * events);
+			}
+			froms[events] = indexOf(index, edge.getFrom());
+			tos[events] = indexOf(index, edge.getTo());
+			order[events] = ((long) first << 32) | events;
+			lasts[events] = last;
+			events++;
+		}
+
+		// merge the runs of each pair and of each vertex, taken by first
+		// window; a vertex is in the windows of its runs
+		Arrays.sort(order, 0, events);
+		Segments segments = new Segments(windows);
+		Map<Long, int[]> open = new HashMap<Long, int[]>();
+		int n = index.size();
+		int[] vertexFirst = new int[n];
+		int[] vertexLast = new int[n];
+		Arrays.fill(vertexLast, -2);
+		int[] counts = new int[windows + 1];
+		for (int i = 0; i < events; i++) {
+			int event = (int) order[i];
+			int first = (int) (order[i] >>> 32);
+			int u = froms[event];
+			int v = tos[event];
+			for (int w : new int[] { u, v }) {
+				if (first <= vertexLast[w] + 1) {
+					vertexLast[w] = Math.max(vertexLast[w], lasts[event]);
+				} else {
+					if (vertexLast[w] >= 0) {
+						counts[vertexFirst[w]]++;
+						counts[vertexLast[w] + 1]--;
+					}
+					vertexFirst[w] = first;
+					vertexLast[w] = lasts[event];
+				}
+			}
+			if (u == v) {
+				continue;
+			}
+			long pair = ((long) Math.min(u, v) << 32) | Math.max(u, v);
+			int[] run = open.get(pair);
+			if (run != null && first <= run[1] + 1) {
+				run[1] = Math.max(run[1], lasts[event]);
+			} else {
+				if (run != null) {
+					segments.add(pair, run[0], run[1]);
+				}
+				open.put(pair, new int[] { first, lasts[event] });
+			}
+		}
+		for (Map.Entry<Long, int[]> entry : open.entrySet()) {
+			segments.add(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+		}
+		for (int w = 0; w < n; w++) {
+			if (vertexLast[w] >= 0) {
+				counts[vertexFirst[w]]++;
+				counts[vertexLast[w] + 1]--;
+			}
+		}
+		this.vertexCounts = new int[windows];
+		int present = 0;
+		for (int i = 0; i < windows; i++) {
+			present += counts[i];
+			this.vertexCounts[i] = present;
+		}
+
+		ComponentSizes[] sizes = new ComponentSizes[windows];
+		segments.walk(new RollbackUnionFind(n), 1, 0, windows - 1, sizes);
+		results.addAll(Arrays.asList(sizes));
+		return results;
+	}
+
+	/**
+	 * @return the first window that stops after <code>key</code>
+	 */
+	protected int firstStoppingAfter(K key) {
+		int low = 0;
+		int high = this.stops.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.stops.get(middle).compareTo(key) > 0) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the last window that starts at or before <code>key</code>
+	 */
+	protected int lastStartingBy(K key) {
+		int low = 0;
+		int high = this.starts.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.starts.get(middle).compareTo(key) > 0) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low - 1;
+	}
+
+	protected static <V> int indexOf(Map<V, Integer> index, V vertex) {
+		Integer i = index.get(vertex);
+		if (i == null) {
+			i = index.size();
+			index.put(vertex, i);
+		}
+		return i;
+	}
+
+	/**
+	 * Segment tree over the windows, holding at each node the pairs linked
+	 * over all of its windows but not over all of its parent's
+	 */
+	protected class Segments {
+		final int windows;
+		final long[][] pairs;
+		final int[] sizes;
+
+		Segments(int windows) {
+			this.windows = windows;
+			this.pairs = new long[4 * windows][];
+			this.sizes = new int[4 * windows];
+		}
+
+		void add(long pair, int first, int last) {
+			this.add(1, 0, this.windows - 1, pair, first, last);
+		}
+
+		void add(int node, int low, int high, long pair, int first, int last) {
+			if (first <= low && high <= last) {
+				if (this.pairs[node] == null) {
+					this.pairs[node] = new long[4];
+				} else if (this.sizes[node] == this.pairs[node].length) {
+					this.pairs[node] = Arrays.copyOf(this.pairs[node], 2 * this.sizes[node]);
+				}
+				this.pairs[node][this.sizes[node]++] = pair;
+				return;
+			}
+			int middle = (low + high) >>> 1;
+			if (first <= middle) {
+				this.add(2 * node, low, middle, pair, first, last);
+			}
+			if (last > middle) {
+				this.add(2 * node + 1, middle + 1, high, pair, first, last);
+			}
+		}
+
+		void walk(RollbackUnionFind components, int node, int low, int high, ComponentSizes[] results) {
+			int mark = components.mark();
+			for (int i = 0; i < this.sizes[node]; i++) {
+				long pair = this.pairs[node][i];
+				components.union((int) (pair >>> 32), (int) pair);
+			}
+			if (low == high) {
+				results[low] = new ComponentSizes(OfflineComponentAnalysis.this.vertexCounts[low],
+				        components.getSizes());
+			} else {
+				int middle = (low + high) >>> 1;
+				this.walk(components, 2 * node, low, middle, results);
+				this.walk(components, 2 * node + 1, middle + 1, high, results);
+			}
+			components.rollback(mark);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Union-find by size without path compression, so that the unions since any
+ * mark can be undone, latest first, at O(log n) per find. Keeps the number of
+ * components of each size larger than 1 as it goes.
+ *
+ * @author jfolson
+ *
+ */
+public class RollbackUnionFind {
+	private int[] parent;
+	private int[] size;
+	/**
+	 * Roots attached to another, in order
+	 */
+	private int[] attached;
+	private int n, unions;
+	/**
+	 * Number of components of each size larger than 1
+	 */
+	private final Map<Integer, Integer> sizes = new HashMap<Integer, Integer>();
+
+	public RollbackUnionFind(int n) {
+		this.parent = new int[Math.max(n, 16)];
+		this.size = new int[this.parent.length];
+		this.attached = new int[this.parent.length];
+		this.grow(n);
+	}
+
+	/**
+	 * @return the number of elements
+	 */
+	public int size() {
+		return this.n;
+	}
+
+	/**
+	 * Adds singletons until there are <code>n</code> elements
+	 */
+	public void grow(int n) {
+		if (n > this.parent.length) {
+			int capacity = Math.max(n, 2 * this.parent.length);
+			this.parent = Arrays.copyOf(this.parent, capacity);
+			this.size = Arrays.copyOf(this.size, capacity);
+			this.attached = Arrays.copyOf(this.attached, capacity);
+		}
+		for (int u = this.n; u < n; u++) {
+			this.parent[u] = u;
+			this.size[u] = 1;
+		}
+		this.n = Math.max(this.n, n);
+	}
+
+	public int find(int u) {
+		while (this.parent[u] != u) {
+			u = this.parent[u];
+		}
+		return u;
+	}
+
+	public void union(int u, int v) {
+		int a = this.find(u);
+		int b = this.find(v);
+		if (a == b) {
+			return;
+		}
+		if (this.size[a] < this.size[b]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		this.count(this.size[a], -1);
+		this.count(this.size[b], -1);
+		this.parent[b] = a;
+		this.size[a] += this.size[b];
+		this.count(this.size[a], 1);
+		this.attached[this.unions++] = b;
+	}
+
+	/**
+	 * @return a mark to roll back to
+	 */
+	public int mark() {
+		return this.unions;
+	}
+
+	/**
+	 * Undoes the unions since <code>mark</code>, latest first
+	 */
+	public void rollback(int mark) {
+		while (this.unions > mark) {
+			int b = this.attached[--this.unions];
+			int a = this.parent[b];
+			this.count(this.size[a], -1);
+			this.size[a] -= this.size[b];
+			this.parent[b] = b;
+			this.count(this.size[a], 1);
+			this.count(this.size[b], 1);
+		}
+	}
+
+	/**
+	 * @return the number of components of each size larger than 1
+	 */
+	public Map<Integer, Integer> getSizes() {
+		return this.sizes;
+	}
+
+	private void count(int componentSize, int delta) {
+		if (componentSize > 1) {
+			Integer old = this.sizes.get(componentSize);
+			int count = (old == null ? 0 : old) + delta;
+			if (count == 0) {
+				this.sizes.remove(componentSize);
+			} else {
+				this.sizes.put(componentSize, count);
+			}
+		}
+	}
+}
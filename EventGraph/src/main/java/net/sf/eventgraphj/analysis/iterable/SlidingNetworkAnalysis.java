@@ -0,0 +1,137 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Runs an {@code IncrementalNetworkAnalysis} over the snapshots of a series of
+ * windows, e.g. from an {@code IntervalWindowIterable}, handing it only the
+ * edges that entered the window since the previous one and those that left
+ * it, rather than the whole window. The events of the graph analyzed are read
+ * once, in key order, and the two slices of each step are found in them by
+ * binary search, so a step costs the log of the number of events plus the
+ * edges that entered and left. A window that moves back starts the analysis
+ * over from its events.
+ *
+ * An {@code EdgeDrivenAnalysis} is handed null for the snapshot; any other
+ * analysis is handed <code>subNetwork(start, stop)</code> of the graph
+ * analyzed, which costs as much as the graph's dyads at every step.
+ *
+ * The analysis keeps state between windows, so one instance only analyzes
+ * one graph at a time.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ * @param <R>
+ */
+public class SlidingNetworkAnalysis<K extends Comparable<K>, V, E, R> extends IterableNetworkAnalysis<K, V, E, R> {
+	protected final IncrementalNetworkAnalysis<K, V, E, R> incrementalAnalysis;
+	protected K lastStart, lastStop;
+	/**
+	 * Events of the graph analyzed, by key
+	 */
+	protected List<EdgeEntry<K, V, E>> events;
+
+	public SlidingNetworkAnalysis(IncrementalNetworkAnalysis<K, V, E, R> analysis, Iterable<Interval<K>> iterator) {
+		super(iterator);
+		this.incrementalAnalysis = analysis;
+	}
+
+	@Override
+	public List<R> analyze(NavigableGraph<K, V, E> graph) {
+		this.incrementalAnalysis.reset();
+		this.graph = graph;
+		this.lastStart = null;
+		this.lastStop = null;
+		this.events = new ArrayList<EdgeEntry<K, V, E>>(graph.getEdges());
+		Collections.sort(this.events, new Comparator<EdgeEntry<K, V, E>>() {
+			@Override
+			public int compare(EdgeEntry<K, V, E> o1, EdgeEntry<K, V, E> o2) {
+				return o1.getKey().compareTo(o2.getKey());
+			}
+		});
+		try {
+			return super.analyze(graph);
+		} finally {
+			this.graph = null;
+			this.events = null;
+		}
+	}
+
+	/**
+	 * @return null, the snapshot is only built by
+	 *         {@link #doSubAnalysis(NavigableGraph, Comparable, Comparable)}
+	 *         for analyses that read it
+	 */
+	@Override
+	protected NavigableGraph<K, V, E> window(NavigableGraph<K, V, E> graph, K start, K stop) {
+		return null;
+	}
+
+	/**
+	 * Update the analysis from the window before to the window from
+	 * <code>start</code> to <code>stop</code>
+	 */
+	@Override
+	protected R doSubAnalysis(NavigableGraph<K, V, E> window, K start, K stop) {
+		List<EdgeEntry<K, V, E>> added;
+		List<EdgeEntry<K, V, E>> removed = Collections.emptyList();
+		if (this.lastStart == null || start.compareTo(this.lastStart) < 0 || stop.compareTo(this.lastStop) < 0) {
+			this.incrementalAnalysis.reset();
+			added = this.slice(start, stop);
+		} else if (start.compareTo(this.lastStop) >= 0) {
+			removed = this.slice(this.lastStart, this.lastStop);
+			added = this.slice(start, stop);
+		} else {
+			removed = this.slice(this.lastStart, start);
+			added = this.slice(this.lastStop, stop);
+		}
+		this.lastStart = start;
+		this.lastStop = stop;
+		if (!(this.incrementalAnalysis instanceof EdgeDrivenAnalysis)) {
+			window = this.graph.subNetwork(start, stop);
+		}
+		return this.incrementalAnalysis.update(window, added, removed);
+	}
+
+	/**
+	 * @return the events from <code>start</code> (inclusive) to
+	 *         <code>stop</code> (exclusive), empty if <code>stop</code> is not
+	 *         after <code>start</code>
+	 */
+	protected List<EdgeEntry<K, V, E>> slice(K start, K stop) {
+		int from = this.firstFrom(start);
+		int to = this.firstFrom(stop);
+		if (from >= to) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(this.events.subList(from, to));
+	}
+
+	/**
+	 * @return the index of the first event whose key is not before
+	 *         <code>key</code>
+	 */
+	protected int firstFrom(K key) {
+		int low = 0;
+		int high = this.events.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.events.get(middle).getKey().compareTo(key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
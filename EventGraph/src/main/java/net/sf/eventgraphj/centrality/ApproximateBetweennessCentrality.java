@@ -0,0 +1,213 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.VertexIndex;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Estimates unweighted betweenness from the Brandes dependencies of a uniform
+ * sample of source vertices, scaled up by <code>n / samples</code>, which is an
+ * unbiased estimate of the exact score.
+ *
+ * The dependency of a vertex on a single source is at most <code>n - 2</code>,
+ * so by Hoeffding's inequality and a union bound over the vertices,
+ * <code>ln(2n / delta) / (2 epsilon^2)</code> samples put every estimate
+ * within <code>epsilon * n * (n - 2)</code> of the exact score with
+ * probability at least <code>1 - delta</code>; see
+ * {@link #forError(Graph, double, double, Random)}. A sample budget at least as
+ * large as the graph computes the exact scores from every source instead.
+ *
+ * Scores follow JUNG's {@code BetweennessCentrality}: parallel edges count as
+ * separate paths and scores of {@code UndirectedGraph}s are halved.
+ *
+ * @see "Ulrik Brandes and Christian Pich: Centrality Estimation in Large Networks. International Journal of Bifurcation and Chaos 17(7):2303-2318, 2007."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class ApproximateBetweennessCentrality<V> implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+	protected final CompactGraph<V> graph;
+	protected final int samples;
+	protected final double[] scores;
+
+	/**
+	 * @param samples
+	 *            number of sources to search from
+	 * @param random
+	 *            source of the sample
+	 * @param pool
+	 *            pool to search on, or null for the default pool
+	 */
+	public ApproximateBetweennessCentrality(CompactGraph<V> graph, int samples, Random random, ForkJoinPool pool) {
+		if (samples < 1) {
+			throw new IllegalArgumentException("at least one sample is needed: " + samples);
+		}
+		this.graph = graph;
+		int n = graph.size();
+		this.samples = Math.min(samples, n);
+		this.scores = new double[n];
+		if (n > 0) {
+			this.compute(this.chooseSources(random), pool);
+		}
+	}
+
+	public static <V, E> ApproximateBetweennessCentrality<V> forSamples(Graph<V, E> graph, int samples, Random random) {
+		return new ApproximateBetweennessCentrality<V>(CompactGraph.fromGraph(graph), samples, random, null);
+	}
+
+	/**
+	 * Estimates within <code>epsilon * n * (n - 2)</code> of every exact score
+	 * with probability at least <code>1 - delta</code>
+	 */
+	public static <V, E> ApproximateBetweennessCentrality<V> forError(Graph<V, E> graph, double epsilon,
+	        double delta, Random random) {
+		return forSamples(graph, samplesFor(graph.getVertexCount(), epsilon, delta), random);
+	}
+
+	/**
+	 * @return the number of samples needed for an additive error of
+	 *         <code>epsilon</code> on normalized scores, with probability
+	 *         <code>1 - delta</code>, among <code>n</code> vertices
+	 */
+	public static int samplesFor(int n, double epsilon, double delta) {
+		if (epsilon <= 0 || delta <= 0 || delta >= 1) {
+			throw new IllegalArgumentException("need epsilon > 0 and 0 < delta < 1: " + epsilon + ", " + delta);
+		}
+		double samples = Math.ceil(Math.log(2.0 * Math.max(n, 1) / delta) / (2 * epsilon * epsilon));
+		return (int) Math.min(Integer.MAX_VALUE, Math.max(1, samples));
+	}
+
+	/**
+	 * Draws the sources without replacement, or takes every vertex if the
+	 * budget covers them all
+	 */
+	protected int[] chooseSources(Random random) {
+		int n = this.graph.size();
+		int[] vertices = new int[n];
+		for (int i = 0; i < n; i++) {
+			vertices[i] = i;
+		}
+		if (this.samples < n) {
+			for (int i = 0; i < this.samples; i++) {
+				int j = i + random.nextInt(n - i);
+				int swap = vertices[i];
+				vertices[i] = vertices[j];
+				vertices[j] = swap;
+			}
+		}
+		return Arrays.copyOf(vertices, this.samples);
+	}
+
+	protected void compute(final int[] sources, ForkJoinPool pool) {
+		final int n = this.graph.size();
+		final int[] offsets = this.graph.getOffsets();
+		final int[] targets = this.graph.getTargets();
+		final int[] counts = this.graph.getCounts();
+		ParallelRange.run(pool, 0, sources.length, new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				int[] distance = new int[n];
+				Arrays.fill(distance, -1);
+				double[] sigma = new double[n];
+				double[] delta = new double[n];
+				int[] order = new int[n];
+				double[] partial = new double[n];
+				for (int s = from; s < to; s++) {
+					int source = sources[s];
+					distance[source] = 0;
+					sigma[source] = 1;
+					order[0] = source;
+					int head = 0;
+					int tail = 1;
+					while (head < tail) {
+						int w = order[head++];
+						int next = distance[w] + 1;
+						for (int a = offsets[w]; a < offsets[w + 1]; a++) {
+							int x = targets[a];
+							if (distance[x] < 0) {
+								distance[x] = next;
+								order[tail++] = x;
+							}
+							if (distance[x] == next) {
+								sigma[x] += sigma[w] * counts[a];
+							}
+						}
+					}
+					for (int i = tail - 1; i > 0; i--) {
+						int w = order[i];
+						int next = distance[w] + 1;
+						double dependency = 0;
+						for (int a = offsets[w]; a < offsets[w + 1]; a++) {
+							int x = targets[a];
+							if (distance[x] == next) {
+								dependency += counts[a] * sigma[w] / sigma[x] * (1 + delta[x]);
+							}
+						}
+						delta[w] = dependency;
+						partial[w] += dependency;
+					}
+					for (int i = 0; i < tail; i++) {
+						int v = order[i];
+						distance[v] = -1;
+						sigma[v] = 0;
+						delta[v] = 0;
+					}
+				}
+				synchronized (ApproximateBetweennessCentrality.this.scores) {
+					for (int v = 0; v < n; v++) {
+						ApproximateBetweennessCentrality.this.scores[v] += partial[v];
+					}
+				}
+			}
+		});
+		double scale = (double) n / sources.length;
+		if (this.graph.isUndirected()) {
+			scale /= 2;
+		}
+		for (int v = 0; v < n; v++) {
+			this.scores[v] *= scale;
+		}
+	}
+
+	public int getSamples() {
+		return this.samples;
+	}
+
+	/**
+	 * @return whether every vertex was used as a source, so the scores are
+	 *         exact
+	 */
+	public boolean isExact() {
+		return this.samples == this.graph.size();
+	}
+
+	/**
+	 * @return the estimated betweenness of <code>vertex</code>, or null if it
+	 *         is not in the graph
+	 */
+	@Override
+	public Double getVertexScore(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.scores[i];
+	}
+
+	@Override
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+		int[] slots = index.slotsOf(this.graph);
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] >= 0) {
+				scores[slots[i]] = this.scores[i];
+				present.set(slots[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.VertexIndex;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * PageRank over a {@code CompactGraph}, meant for a series of snapshots that
+ * differ little from one to the next, where starting from the previous
+ * snapshot's scores saves most of the work.
+ *
+ * Scores are those of JUNG's {@code PageRank} with the same restart
+ * probability <code>alpha</code>: each event (parallel edge) leaving a vertex
+ * is followed with equal probability, and the scores of vertices without
+ * out-edges are spread over every vertex. Self loops are left out, as in
+ * {@code CompactGraph}. Iteration stops once the scores move less than
+ * <code>tolerance</code> in total (L1).
+ *
+ * There are two ways to start from an earlier result:
+ * <ul>
+ * <li>{@link #compute(Graph, double, CompactPageRank)} runs the usual power
+ * iteration (in parallel, pulling along in-arcs) from the earlier scores
+ * rather than from uniform scores;</li>
+ * <li>{@link #update(Graph, Collection)} keeps the earlier scores and pushes
+ * only the residual, the amount by which they fail the PageRank equations on
+ * the new snapshot, through the graph until every vertex's residual is below
+ * <code>tolerance / n</code>. When the vertices are unchanged and the
+ * vertices whose out-edges changed are given, the residual is carried over
+ * from the earlier result and corrected only along the rows that changed,
+ * so a small change costs little more than the edges it touched.</li>
+ * </ul>
+ * Since restarts and the scores of vertices without out-edges are both spread
+ * uniformly, pushing lets the latter leak away instead and scales the result
+ * to sum to one afterwards, which gives the same scores without touching every
+ * vertex whenever a vertex without out-edges is pushed.
+ *
+ * @see "Frank McSherry: A Uniform Approach to Accelerated PageRank Computation. WWW 2005."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class CompactPageRank<V> implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+	public static final double DEFAULT_TOLERANCE = 1e-8;
+	public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+	protected final CompactGraph<V> graph;
+	protected final double alpha;
+	protected final double tolerance;
+	/**
+	 * The scores, up to a factor of <code>scale</code>
+	 */
+	protected final double[] scores;
+	protected double scale = 1;
+	protected final double[] outWeights;
+	/**
+	 * What the scores fail the equations by, if it is known (after a push)
+	 */
+	protected double[] residual;
+	/**
+	 * The arcs turned around, for pulling scores; null until first needed
+	 */
+	protected int[] inOffsets;
+	protected int[] inSources;
+	protected int[] inCounts;
+	protected int iterations;
+	protected long pushes;
+
+	/**
+	 * @param scores
+	 *            starting scores, which become the results
+	 */
+	protected CompactPageRank(CompactGraph<V> graph, double alpha, double tolerance, double[] scores) {
+		if (alpha <= 0 || alpha > 1) {
+			throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+		}
+		this.graph = graph;
+		this.alpha = alpha;
+		this.tolerance = tolerance;
+		this.scores = scores;
+		int n = graph.size();
+		int[] offsets = graph.getOffsets();
+		int[] counts = graph.getCounts();
+		this.outWeights = new double[n];
+		for (int v = 0; v < n; v++) {
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				this.outWeights[v] += counts[a];
+			}
+		}
+	}
+
+	/**
+	 * From uniform scores
+	 */
+	public static <V, E> CompactPageRank<V> compute(Graph<V, E> graph, double alpha) {
+		return compute(graph, alpha, null);
+	}
+
+	/**
+	 * From the scores of <code>previous</code> where it has them, and
+	 * <code>1 / n</code> for new vertices
+	 */
+	public static <V, E> CompactPageRank<V> compute(Graph<V, E> graph, double alpha, CompactPageRank<V> previous) {
+		CompactGraph<V> compact = CompactGraph.fromGraph(graph);
+		CompactPageRank<V> pageRank = new CompactPageRank<V>(compact, alpha, DEFAULT_TOLERANCE, startFrom(compact,
+		        previous));
+		pageRank.iterate(DEFAULT_MAX_ITERATIONS, null);
+		return pageRank;
+	}
+
+	/**
+	 * Scores of <code>previous</code> laid out for <code>graph</code>, scaled
+	 * to sum to one
+	 */
+	protected static <V> double[] startFrom(CompactGraph<V> graph, CompactPageRank<V> previous) {
+		int n = graph.size();
+		double[] start = new double[n];
+		double total = 0;
+		for (int v = 0; v < n; v++) {
+			int old = previous == null ? -1 : previous.graph.indexOf(graph.getVertex(v));
+			start[v] = old < 0 ? 1.0 / n : previous.scores[old] * previous.scale;
+			total += start[v];
+		}
+		for (int v = 0; v < n && total > 0; v++) {
+			start[v] /= total;
+		}
+		return start;
+	}
+
+	/**
+	 * Scores for <code>graph</code> found by pushing residuals from these
+	 * scores, treating any vertex as possibly changed
+	 */
+	public <E> CompactPageRank<V> update(Graph<V, E> graph) {
+		return this.update(graph, null);
+	}
+
+	/**
+	 * Scores for <code>graph</code> found by pushing residuals from these
+	 * scores
+	 *
+	 * @param changed
+	 *            the vertices whose out-edges differ from those of this
+	 *            result's graph (for example both ends of every edge added or
+	 *            removed), or null if unknown
+	 */
+	public <E> CompactPageRank<V> update(Graph<V, E> graph, Collection<? extends V> changed) {
+		CompactGraph<V> compact = CompactGraph.fromGraph(graph);
+		int n = compact.size();
+		CompactPageRank<V> next;
+		if (changed != null && this.residual != null && compact.getVertices().equals(this.graph.getVertices())) {
+			next = new CompactPageRank<V>(compact, this.alpha, this.tolerance, this.scores.clone());
+			next.residual = this.residual.clone();
+			next.correctResidual(this, changed);
+		} else {
+			next = new CompactPageRank<V>(compact, this.alpha, this.tolerance, startFrom(compact, this));
+			// the leaky equations are solved by the scores scaled down by
+			// the mass the vertices without out-arcs would have spread
+			double dangling = 0;
+			for (int v = 0; v < n; v++) {
+				if (next.outWeights[v] == 0) {
+					dangling += next.scores[v];
+				}
+			}
+			double shrink = 1 / (1 + (1 - this.alpha) * dangling / this.alpha);
+			for (int v = 0; v < n; v++) {
+				next.scores[v] *= shrink;
+			}
+			next.residual = new double[n];
+			next.pull(next.scores, next.residual, false, null);
+			for (int v = 0; v < n; v++) {
+				next.residual[v] -= next.scores[v];
+			}
+		}
+		next.push();
+		double total = 0;
+		for (int v = 0; v < n; v++) {
+			total += next.scores[v];
+		}
+		next.scale = total > 0 ? 1 / total : 1;
+		return next;
+	}
+
+	/**
+	 * One step of the power iteration, <code>to = alpha / n + (1 - alpha) *
+	 * (M from)</code>, in parallel over the vertices
+	 *
+	 * @param spreadDangling
+	 *            whether the scores of vertices without out-arcs are spread
+	 *            over every vertex, rather than leaking away
+	 */
+	protected void pull(final double[] from, final double[] to, boolean spreadDangling, ForkJoinPool pool) {
+		final int n = this.graph.size();
+		double dangling = 0;
+		final double[] shares = new double[n];
+		for (int v = 0; v < n; v++) {
+			if (this.outWeights[v] == 0) {
+				dangling += from[v];
+			} else {
+				shares[v] = from[v] / this.outWeights[v];
+			}
+		}
+		final double base = (this.alpha + (spreadDangling ? (1 - this.alpha) * dangling : 0)) / n;
+		final int[] inOffsets = this.getInOffsets();
+		final int[] inSources = this.inSources;
+		final int[] inCounts = this.inCounts;
+		ParallelRange.run(pool, 0, n, new ParallelRange.Body() {
+			@Override
+			public void run(int begin, int end) {
+				for (int v = begin; v < end; v++) {
+					double sum = 0;
+					for (int a = inOffsets[v]; a < inOffsets[v + 1]; a++) {
+						sum += shares[inSources[a]] * inCounts[a];
+					}
+					to[v] = base + (1 - CompactPageRank.this.alpha) * sum;
+				}
+			}
+		});
+	}
+
+	/**
+	 * The arcs of the graph turned around, built on first use
+	 */
+	protected int[] getInOffsets() {
+		if (this.inOffsets == null) {
+			int n = this.graph.size();
+			int[] offsets = this.graph.getOffsets();
+			int[] targets = this.graph.getTargets();
+			int[] counts = this.graph.getCounts();
+			int[] inOffsets = new int[n + 1];
+			for (int a = 0; a < targets.length; a++) {
+				inOffsets[targets[a] + 1]++;
+			}
+			for (int v = 0; v < n; v++) {
+				inOffsets[v + 1] += inOffsets[v];
+			}
+			int[] fill = new int[n];
+			this.inSources = new int[targets.length];
+			this.inCounts = new int[targets.length];
+			for (int u = 0; u < n; u++) {
+				for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+					int slot = inOffsets[targets[a]] + fill[targets[a]]++;
+					this.inSources[slot] = u;
+					this.inCounts[slot] = counts[a];
+				}
+			}
+			this.inOffsets = inOffsets;
+		}
+		return this.inOffsets;
+	}
+
+	/**
+	 * Power iteration from the current scores
+	 */
+	protected void iterate(int maxIterations, ForkJoinPool pool) {
+		int n = this.graph.size();
+		double[] current = this.scores;
+		double[] next = new double[n];
+		for (this.iterations = 0; this.iterations < maxIterations;) {
+			this.pull(current, next, true, pool);
+			this.iterations++;
+			double change = 0;
+			for (int v = 0; v < n; v++) {
+				change += Math.abs(next[v] - current[v]);
+			}
+			double[] swap = current;
+			current = next;
+			next = swap;
+			if (change < this.tolerance) {
+				break;
+			}
+		}
+		if (current != this.scores) {
+			System.arraycopy(current, 0, this.scores, 0, n);
+		}
+	}
+
+	/**
+	 * Moves the residual inherited from <code>previous</code>, which has the
+	 * same vertices, over to this graph by taking away the old rows of the
+	 * <code>changed</code> vertices and adding their new rows
+	 */
+	protected void correctResidual(CompactPageRank<V> previous, Collection<? extends V> changed) {
+		int n = this.graph.size();
+		boolean[] done = new boolean[n];
+		for (V vertex : changed) {
+			int w = this.graph.indexOf(vertex);
+			if (w < 0 || done[w]) {
+				continue;
+			}
+			done[w] = true;
+			previous.spread(w, -this.scores[w], this.residual);
+			this.spread(w, this.scores[w], this.residual);
+		}
+	}
+
+	/**
+	 * Adds the share of <code>mass</code> leaving <code>w</code> along each of
+	 * its out-arcs to <code>into</code>, damped by <code>1 - alpha</code>
+	 */
+	protected void spread(int w, double mass, double[] into) {
+		if (this.outWeights[w] == 0) {
+			return;
+		}
+		int[] offsets = this.graph.getOffsets();
+		int[] targets = this.graph.getTargets();
+		int[] counts = this.graph.getCounts();
+		double share = (1 - this.alpha) * mass / this.outWeights[w];
+		for (int a = offsets[w]; a < offsets[w + 1]; a++) {
+			into[targets[a]] += share * counts[a];
+		}
+	}
+
+	/**
+	 * Pushes residuals above <code>tolerance / n</code> into the scores until
+	 * there are none left
+	 */
+	protected void push() {
+		int n = this.graph.size();
+		if (n == 0) {
+			return;
+		}
+		double threshold = this.tolerance / n;
+		double[] r = this.residual;
+		int[] offsets = this.graph.getOffsets();
+		int[] targets = this.graph.getTargets();
+		int[] counts = this.graph.getCounts();
+		int[] queue = new int[n];
+		boolean[] queued = new boolean[n];
+		int head = 0;
+		int size = 0;
+		for (int v = 0; v < n; v++) {
+			if (Math.abs(r[v]) > threshold) {
+				queue[size++] = v;
+				queued[v] = true;
+			}
+		}
+		double damping = 1 - this.alpha;
+		while (size > 0) {
+			int v = queue[head];
+			head = (head + 1) % n;
+			size--;
+			queued[v] = false;
+			double mass = r[v];
+			this.scores[v] += mass;
+			r[v] = 0;
+			this.pushes++;
+			if (this.outWeights[v] == 0) {
+				// leaks away
+				continue;
+			}
+			double share = damping * mass / this.outWeights[v];
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				int x = targets[a];
+				r[x] += share * counts[a];
+				if (!queued[x] && Math.abs(r[x]) > threshold) {
+					queue[(head + size) % n] = x;
+					size++;
+					queued[x] = true;
+				}
+			}
+		}
+	}
+
+	public CompactGraph<V> getGraph() {
+		return this.graph;
+	}
+
+	public double getAlpha() {
+		return this.alpha;
+	}
+
+	/**
+	 * @return the number of power iterations run, 0 after an update
+	 */
+	public int getIterations() {
+		return this.iterations;
+	}
+
+	/**
+	 * @return the number of residual pushes made by an update
+	 */
+	public long getPushes() {
+		return this.pushes;
+	}
+
+	/**
+	 * @return the PageRank of <code>vertex</code>, or null if it is not in
+	 *         the graph
+	 */
+	@Override
+	public Double getVertexScore(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.scores[i] * this.scale;
+	}
+
+	@Override
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+		int[] slots = index.slotsOf(this.graph);
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] >= 0) {
+				scores[slots[i]] = this.scores[i] * this.scale;
+				present.set(slots[i]);
+			}
+		}
+	}
+}
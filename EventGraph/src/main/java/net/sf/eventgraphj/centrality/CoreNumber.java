@@ -0,0 +1,131 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.BitSet;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.VertexIndex;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Core number (coreness) of each vertex: the largest <code>k</code> such that
+ * the vertex is in a subgraph where every vertex has at least <code>k</code>
+ * neighbors. Neighborhoods are those of a {@code CompactGraph} taken without
+ * direction, counting each neighbor once and leaving self loops out.
+ *
+ * Vertices are peeled in order of their remaining degree, kept sorted in an
+ * array of buckets by degree, so that moving a neighbor down a bucket is a
+ * swap and the whole decomposition is O(n + m).
+ *
+ * @see "Vladimir Batagelj and Matjaz Zaversnik: An O(m) Algorithm for Cores Decomposition of Networks. 2003."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class CoreNumber<V> implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+	protected final CompactGraph<V> graph;
+	protected final int[] cores;
+
+	public CoreNumber(CompactGraph<V> graph) {
+		this.graph = graph.toUndirected();
+		this.cores = decompose(this.graph.size(), this.graph.getOffsets(), this.graph.getTargets());
+	}
+
+	public static <V, E> CoreNumber<V> compute(Graph<V, E> graph) {
+		return new CoreNumber<V>(CompactGraph.fromGraph(graph));
+	}
+
+	/**
+	 * @return the core number of each vertex of the symmetric adjacency
+	 *         <code>offsets</code>, <code>targets</code>
+	 */
+	public static int[] decompose(int n, int[] offsets, int[] targets) {
+		int[] degrees = new int[n];
+		int max = 0;
+		for (int u = 0; u < n; u++) {
+			for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+				if (targets[a] != u) {
+					degrees[u]++;
+				}
+			}
+			max = Math.max(max, degrees[u]);
+		}
+		// vertices sorted by degree, and where each degree's bucket starts
+		int[] starts = new int[max + 2];
+		for (int u = 0; u < n; u++) {
+			starts[degrees[u] + 1]++;
+		}
+		for (int d = 0; d <= max; d++) {
+			starts[d + 1] += starts[d];
+		}
+		int[] order = new int[n];
+		int[] positions = new int[n];
+		int[] fill = new int[max + 1];
+		System.arraycopy(starts, 0, fill, 0, max + 1);
+		for (int u = 0; u < n; u++) {
+			positions[u] = fill[degrees[u]]++;
+			order[positions[u]] = u;
+		}
+
+		for (int i = 0; i < n; i++) {
+			int v = order[i];
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				int u = targets[a];
+				if (degrees[u] > degrees[v]) {
+					// swap u to the front of its bucket and shrink the bucket
+					int degree = degrees[u];
+					int first = starts[degree];
+					int w = order[first];
+					if (u != w) {
+						order[positions[u]] = w;
+						positions[w] = positions[u];
+						order[first] = u;
+						positions[u] = first;
+					}
+					starts[degree]++;
+					degrees[u]--;
+				}
+			}
+		}
+		return degrees;
+	}
+
+	/**
+	 * @return the core number of <code>vertex</code>, or null if it is not in
+	 *         the graph
+	 */
+	public Integer getCoreNumber(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.cores[i];
+	}
+
+	/**
+	 * @return the largest core number, 0 for a graph without edges
+	 */
+	public int getDegeneracy() {
+		int max = 0;
+		for (int core : this.cores) {
+			max = Math.max(max, core);
+		}
+		return max;
+	}
+
+	@Override
+	public Double getVertexScore(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : (double) this.cores[i];
+	}
+
+	@Override
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+		int[] slots = index.slotsOf(this.graph);
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] >= 0) {
+				scores[slots[i]] = this.cores[i];
+				present.set(slots[i]);
+			}
+		}
+	}
+}
@@ -12,16 +12,21 @@
 package net.sf.eventgraphj.centrality;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.DijkstraSearch;
+import net.sf.eventgraphj.compact.WeightedCompactGraph;
 
 import org.apache.commons.collections15.Transformer;
-import org.apache.commons.collections15.functors.ConstantTransformer;
 
 import edu.uci.ics.jung.algorithms.scoring.EdgeScorer;
 import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
@@ -45,41 +50,57 @@ public class EgoNetworkBetweennessCentrality<V, E>
 		
 	/**
 	 * Calculates betweenness scores based on the all-pairs unweighted shortest paths
-	 * in the graph.
+	 * in the graph, searching from the sources in parallel on the default pool.
 	 * @param graph the graph for which the scores are to be calculated
 	 */
-	@SuppressWarnings("unchecked")
 	public EgoNetworkBetweennessCentrality(Graph<V, E> graph,double egoNetworkSize) 
+	{
+		this(graph, egoNetworkSize, null);
+	}
+
+	/**
+	 * Calculates betweenness scores based on the all-pairs unweighted shortest paths
+	 * in the graph, searching from the sources in parallel.
+	 * @param graph the graph for which the scores are to be calculated
+	 * @param pool the pool to search on, or null for the default pool
+	 */
+	public EgoNetworkBetweennessCentrality(Graph<V, E> graph, double egoNetworkSize, ForkJoinPool pool) 
 	{
 		this.egoNetworkSize = egoNetworkSize;
 		initialize(graph);
-		computeBetweenness(new LinkedList<V>(), new ConstantTransformer(1));
+		computeBetweennessParallel(pool);
 	}
 
 	/**
 	 * Calculates betweenness scores based on the all-pairs weighted shortest paths in the
-	 * graph.
-	 * 
-	 * <p>NOTE: This version of the algorithm may not work correctly on all graphs; we're still
-	 * working out the bugs.  Use at your own risk.
+	 * graph, following only paths no longer than the default ego network size.
 	 * @param graph the graph for which the scores are to be calculated
 	 * @param edge_weights the edge weights to be used in the path length calculations
 	 */
 	public EgoNetworkBetweennessCentrality(Graph<V, E> graph, 
 			Transformer<E, ? extends Number> edge_weights) 
 	{
-		// reject negative-weight edges up front
-		for (E e : graph.getEdges())
-		{
-			double e_weight = edge_weights.transform(e).doubleValue();
-        	if (e_weight < 0)
-        		throw new IllegalArgumentException(String.format(
-        				"Weight for edge '%s' is < 0: %d", e, e_weight)); 
-		}
-			
+		this(graph, edge_weights, 1, null);
+	}
+
+	/**
+	 * Calculates betweenness scores based on the all-pairs weighted shortest paths in the
+	 * graph, following only paths no longer than <code>egoNetworkSize</code>. The
+	 * weights are read once into a {@code WeightedCompactGraph} and the sources are
+	 * searched in parallel.
+	 * @param graph the graph for which the scores are to be calculated
+	 * @param edge_weights the edge weights to be used in the path length calculations
+	 * @param pool the pool to search on, or null for the default pool
+	 * @throws IllegalArgumentException if an edge has a negative weight
+	 */
+	public EgoNetworkBetweennessCentrality(Graph<V, E> graph, 
+			Transformer<E, ? extends Number> edge_weights, double egoNetworkSize, ForkJoinPool pool) 
+	{
+		this.egoNetworkSize = egoNetworkSize;
+		// rejects negative-weight edges up front
+		WeightedCompactGraph<V, E> weighted = WeightedCompactGraph.fromGraph(graph, edge_weights);
 		initialize(graph);
-		computeBetweenness(new MapBinaryHeap<V>(new BetweennessComparator()), 
-			edge_weights);
+		computeWeightedBetweennessParallel(weighted, pool);
 	}
 
 	protected void initialize(Graph<V,E> graph)
@@ -96,6 +117,13 @@ public class EgoNetworkBetweennessCentrality<V, E>
 			this.edge_scores.put(e, 0.0);
 	}
 	
+	/**
+	 * Sequential betweenness from every source, taking vertices off
+	 * <code>queue</code> in order: a FIFO queue for unweighted paths, or a
+	 * {@code MapBinaryHeap} over {@code BetweennessComparator} for weighted ones.
+	 * The constructors use {@code computeBetweennessParallel} and
+	 * {@code computeWeightedBetweennessParallel} instead.
+	 */
 	protected void computeBetweenness(Queue<V> queue, 
 			Transformer<E, ? extends Number> edge_weights)
 	{
@@ -250,66 +278,269 @@ public class EgoNetworkBetweennessCentrality<V, E>
         vertex_data.clear();
 	}
 
-//	protected void computeWeightedBetweenness(Transformer<E, ? extends Number> edge_weights)
-//	{
-//		for (V v : graph.getVertices())
-//		{
-//			// initialize the betweenness data for this new vertex
-//			for (V s : graph.getVertices()) 
-//				this.vertex_data.put(s, new BetweennessData());
-//            vertex_data.get(v).numSPs = 1;
-//            vertex_data.get(v).distance = 0;
-//
-//            Stack<V> stack = new Stack<V>();
-////            Buffer<V> queue = new UnboundedFifoBuffer<V>();
-//            SortedSet<V> pqueue = new TreeSet<V>(new BetweennessComparator());
-////          queue.add(v);
-//            pqueue.add(v);
-//
-////            while (!queue.isEmpty()) 
-//            while (!pqueue.isEmpty()) 
-//            {
-////              V w = queue.remove();
-//            	V w = pqueue.first();
-//            	pqueue.remove(w);
-//                stack.push(w);
-//
-////                for(V x : graph.getSuccessors(w)) 
-//                for (E e : graph.getOutEdges(w))
-//                {
-//                	// TODO (jrtom): change this to getOtherVertices(w, e)
-//                	V x = graph.getOpposite(w, e);
-//                	if (x.equals(w))
-//                		continue;
-//                	double e_weight = edge_weights.transform(e).doubleValue();
-//                	
-//                    if (vertex_data.get(x).distance < 0) 
-//                    {
-////                        queue.add(x);
-//                    	pqueue.add(v);
-////                        vertex_data.get(x).distance = vertex_data.get(w).distance + 1;
-//                        vertex_data.get(x).distance = 
-//                        	vertex_data.get(w).distance + e_weight;
-//                    }
-//
-////                    if (vertex_data.get(x).distance == vertex_data.get(w).distance + 1) 
-//                    if (vertex_data.get(x).distance == 
-//                    	vertex_data.get(w).distance + e_weight)
-//                    {
-//                        vertex_data.get(x).numSPs += vertex_data.get(w).numSPs;
-//                        vertex_data.get(x).predecessors.add(w);
-//                    }
-//                }
-//            }
-//            updateScores(v, stack);
-//        }
-//
-//        if(graph instanceof UndirectedGraph) 
-//            adjustUndirectedScores();
-//
-//        vertex_data.clear();
-//	}
-	
+	/**
+	 * Unweighted betweenness with the sources split across a fork/join pool.
+	 * Vertices and edges are numbered densely and the adjacency is copied into
+	 * arrays once; each piece of the sources runs in a workspace of its own
+	 * distance, path count and dependency arrays, reset after each source only
+	 * where the search reached, and partial scores, which are summed at the
+	 * end. Workspaces are handed from piece to piece within the call and
+	 * dropped when it returns.
+	 */
+	protected void computeBetweennessParallel(ForkJoinPool pool)
+	{
+		List<V> vertices = new ArrayList<V>(graph.getVertices());
+		final List<E> edges = new ArrayList<E>(graph.getEdges());
+		final int n = vertices.size();
+		Map<V, Integer> vertexIndex = new HashMap<V, Integer>(2 * n);
+		for (int i = 0; i < n; i++)
+			vertexIndex.put(vertices.get(i), i);
+		Map<E, Integer> edgeIndex = new HashMap<E, Integer>(2 * edges.size());
+		for (int i = 0; i < edges.size(); i++)
+			edgeIndex.put(edges.get(i), i);
+
+		// one arc per outgoing edge, self loops left out
+		final int[] offsets = new int[n + 1];
+		int[] targets = new int[Math.max(16, edges.size())];
+		int[] arcEdges = new int[targets.length];
+		int arcs = 0;
+		for (int w = 0; w < n; w++)
+		{
+			V vertex = vertices.get(w);
+			for (E e : graph.getOutEdges(vertex))
+			{
+				V x = graph.getOpposite(vertex, e);
+				if (x.equals(vertex))
+					continue;
+				if (arcs == targets.length)
+				{
+					targets = Arrays.copyOf(targets, 2 * arcs);
+					arcEdges = Arrays.copyOf(arcEdges, 2 * arcs);
+				}
+				targets[arcs] = vertexIndex.get(x);
+				arcEdges[arcs] = edgeIndex.get(e);
+				arcs++;
+			}
+			offsets[w + 1] = arcs;
+		}
+		final int[] finalTargets = targets;
+		final int[] finalArcEdges = arcEdges;
+
+		// a piece takes an idle workspace, or makes one if all are in use, and
+		// gives it back when done, so there are only as many as run at once
+		final ConcurrentLinkedQueue<Workspace> idle = new ConcurrentLinkedQueue<Workspace>();
+		final ConcurrentLinkedQueue<Workspace> workspaces = new ConcurrentLinkedQueue<Workspace>();
+		ParallelRange.run(pool, 0, n, new ParallelRange.Body()
+		{
+			@Override
+			public void run(int from, int to)
+			{
+				Workspace workspace = idle.poll();
+				if (workspace == null)
+				{
+					workspace = new Workspace(n, edges.size());
+					workspaces.add(workspace);
+				}
+				for (int source = from; source < to; source++)
+					workspace.search(source, offsets, finalTargets, finalArcEdges, egoNetworkSize);
+				idle.add(workspace);
+			}
+		});
+
+		double[] vertexTotals = new double[n];
+		double[] edgeTotals = new double[edges.size()];
+		for (Workspace workspace : workspaces)
+		{
+			for (int i = 0; i < n; i++)
+				vertexTotals[i] += workspace.vertexScores[i];
+			for (int i = 0; i < edgeTotals.length; i++)
+				edgeTotals[i] += workspace.edgeScores[i];
+		}
+		double scale = graph instanceof UndirectedGraph ? 0.5 : 1.0;
+		for (int i = 0; i < n; i++)
+			vertex_scores.put(vertices.get(i), vertexTotals[i] * scale);
+		for (int i = 0; i < edgeTotals.length; i++)
+			edge_scores.put(edges.get(i), edgeTotals[i] * scale);
+	}
+
+	/**
+	 * Search state and partial scores for one piece at a time of
+	 * {@code computeBetweennessParallel}
+	 */
+	protected static class Workspace
+	{
+		final int[] distance;
+		final double[] sigma;
+		final double[] delta;
+		final int[] order;
+		final double[] vertexScores;
+		final double[] edgeScores;
+
+		Workspace(int n, int m)
+		{
+			distance = new int[n];
+			Arrays.fill(distance, -1);
+			sigma = new double[n];
+			delta = new double[n];
+			order = new int[n];
+			vertexScores = new double[n];
+			edgeScores = new double[m];
+		}
+
+		void search(int source, int[] offsets, int[] targets, int[] arcEdges, double maxDistance)
+		{
+			distance[source] = 0;
+			sigma[source] = 1;
+			order[0] = source;
+			int head = 0;
+			int tail = 1;
+			while (head < tail)
+			{
+				int w = order[head++];
+				int next = distance[w] + 1;
+				if (next > maxDistance)
+					continue;
+				for (int a = offsets[w]; a < offsets[w + 1]; a++)
+				{
+					int x = targets[a];
+					if (distance[x] < 0)
+					{
+						distance[x] = next;
+						order[tail++] = x;
+					}
+					if (distance[x] == next)
+						sigma[x] += sigma[w];
+				}
+			}
+			for (int i = tail - 1; i >= 0; i--)
+			{
+				int w = order[i];
+				int next = distance[w] + 1;
+				double dependency = 0;
+				for (int a = offsets[w]; a < offsets[w + 1]; a++)
+				{
+					int x = targets[a];
+					if (distance[x] == next)
+					{
+						double partialDependency = sigma[w] / sigma[x] * (1.0 + delta[x]);
+						dependency += partialDependency;
+						edgeScores[arcEdges[a]] += partialDependency;
+					}
+				}
+				delta[w] = dependency;
+				if (w != source)
+					vertexScores[w] += dependency;
+			}
+			for (int i = 0; i < tail; i++)
+			{
+				int v = order[i];
+				distance[v] = -1;
+				sigma[v] = 0;
+				delta[v] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Weighted betweenness with the sources split across a fork/join pool, as
+	 * {@code computeBetweennessParallel} but with each workspace reusing a
+	 * {@code DijkstraSearch} over the arcs of <code>weighted</code>.
+	 */
+	protected void computeWeightedBetweennessParallel(final WeightedCompactGraph<V, E> weighted, ForkJoinPool pool)
+	{
+		final int n = weighted.size();
+		final int m = weighted.getEdges().size();
+		final ConcurrentLinkedQueue<WeightedWorkspace> idle = new ConcurrentLinkedQueue<WeightedWorkspace>();
+		final ConcurrentLinkedQueue<WeightedWorkspace> workspaces = new ConcurrentLinkedQueue<WeightedWorkspace>();
+		ParallelRange.run(pool, 0, n, new ParallelRange.Body()
+		{
+			@Override
+			public void run(int from, int to)
+			{
+				WeightedWorkspace workspace = idle.poll();
+				if (workspace == null)
+				{
+					workspace = new WeightedWorkspace(weighted, m);
+					workspaces.add(workspace);
+				}
+				for (int source = from; source < to; source++)
+					workspace.search(source, egoNetworkSize);
+				idle.add(workspace);
+			}
+		});
+
+		double[] vertexTotals = new double[n];
+		double[] edgeTotals = new double[m];
+		for (WeightedWorkspace workspace : workspaces)
+		{
+			for (int i = 0; i < n; i++)
+				vertexTotals[i] += workspace.vertexScores[i];
+			for (int i = 0; i < m; i++)
+				edgeTotals[i] += workspace.edgeScores[i];
+		}
+		double scale = graph instanceof UndirectedGraph ? 0.5 : 1.0;
+		for (int i = 0; i < n; i++)
+			vertex_scores.put(weighted.getVertex(i), vertexTotals[i] * scale);
+		for (int i = 0; i < m; i++)
+			edge_scores.put(weighted.getEdges().get(i), edgeTotals[i] * scale);
+	}
+
+	/**
+	 * Search state and partial scores for one piece at a time of
+	 * {@code computeWeightedBetweennessParallel}
+	 */
+	protected static class WeightedWorkspace
+	{
+		final DijkstraSearch dijkstra;
+		final int[] offsets;
+		final int[] targets;
+		final double[] weights;
+		final int[] edgeIds;
+		final double[] delta;
+		final double[] vertexScores;
+		final double[] edgeScores;
+
+		WeightedWorkspace(WeightedCompactGraph<?, ?> graph, int m)
+		{
+			dijkstra = new DijkstraSearch(graph);
+			offsets = graph.getOffsets();
+			targets = graph.getTargets();
+			weights = graph.getWeights();
+			edgeIds = graph.getEdgeIds();
+			delta = new double[graph.size()];
+			vertexScores = new double[graph.size()];
+			edgeScores = new double[m];
+		}
+
+		void search(int source, double maxDistance)
+		{
+			int settled = dijkstra.search(source, maxDistance);
+			for (int i = settled - 1; i >= 0; i--)
+			{
+				int w = dijkstra.getSettledVertex(i);
+				double base = dijkstra.getDistance(w);
+				double sigma = dijkstra.getPathCount(w);
+				double dependency = 0;
+				for (int a = offsets[w]; a < offsets[w + 1]; a++)
+				{
+					int x = targets[a];
+					if (dijkstra.getDistance(x) == base + weights[a])
+					{
+						double partialDependency = 
+							sigma / dijkstra.getPathCount(x) * (1.0 + delta[x]);
+						dependency += partialDependency;
+						edgeScores[edgeIds[a]] += partialDependency;
+					}
+				}
+				delta[w] = dependency;
+				if (w != source)
+					vertexScores[w] += dependency;
+			}
+			for (int i = 0; i < settled; i++)
+				delta[dijkstra.getSettledVertex(i)] = 0;
+		}
+	}
+
 	public Double getVertexScore(V v) 
 	{
 		return vertex_scores.get(v);
@@ -11,21 +11,37 @@
  */
 package net.sf.eventgraphj.centrality;
 
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.MultiSourceBfs;
+
 import org.apache.commons.collections15.Transformer;
 
 import edu.uci.ics.jung.algorithms.scoring.DistanceCentralityScorer;
 import edu.uci.ics.jung.algorithms.shortestpath.Distance;
+import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.Hypergraph;
 
 /**
  * Assigns scores to each vertex based on the mean distance to each other vertex.
  * 
+ * Without edge weights on a {@code Graph}, the mean distances of every vertex
+ * are found together with a {@code MultiSourceBfs} the first time a score is
+ * asked for.
+ * 
  * @author Joshua O'Madadhain
  */
 public class EgoNetworkClosenessCentrality<V,E> extends DistanceCentralityScorer<V,E>
 {
 	protected double egoNetworkSize = 1;
 	
+	/**
+	 * Distance sums from every vertex, when distances are unweighted; null
+	 * until the first score is calculated.
+	 */
+	protected MultiSourceBfs<V> bfs;
+	
+	protected boolean unweighted;
+	
     /**
      * Creates an instance using the specified vertex/vertex distance metric.
      * @param graph the input
@@ -53,5 +69,23 @@ public class EgoNetworkClosenessCentrality<V,E> extends DistanceCentralityScorer
     public EgoNetworkClosenessCentrality(Hypergraph<V,E> graph)
     {
         super(graph, true);
+        this.unweighted = true;
+    }
+
+    @Override
+    public Double getVertexScore(V v)
+    {
+        if (!unweighted || !(graph instanceof Graph) || output.containsKey(v))
+            return super.getVertexScore(v);
+        if (bfs == null)
+            bfs = new MultiSourceBfs<V>(CompactGraph.fromGraph((Graph<V,E>) graph));
+        int i = bfs.getGraph().indexOf(v);
+        if (i < 0)
+            return super.getVertexScore(v);
+        
+        double value = (double) bfs.getDistanceSum(i) / bfs.getReached(i);
+        double score = value == 0 ? Double.POSITIVE_INFINITY : 1.0 / value;
+        output.put(v, score);
+        return score;
     }
 }
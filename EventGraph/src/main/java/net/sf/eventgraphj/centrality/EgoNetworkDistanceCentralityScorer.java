@@ -14,12 +14,18 @@ package net.sf.eventgraphj.centrality;
 import java.util.HashMap;
 import java.util.Map;
 
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.MultiSourceBfs;
+import net.sf.eventgraphj.compact.WeightedCompactGraph;
+import net.sf.eventgraphj.compact.WeightedDistanceSums;
+
 import org.apache.commons.collections15.Transformer;
 
 import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
 import edu.uci.ics.jung.algorithms.shortestpath.DijkstraDistance;
 import edu.uci.ics.jung.algorithms.shortestpath.Distance;
 import edu.uci.ics.jung.algorithms.shortestpath.UnweightedShortestPath;
+import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.Hypergraph;
 
 /**
@@ -34,6 +40,12 @@ import edu.uci.ics.jung.graph.Hypergraph;
  * v to all other vertices); this is sometimes referred to as <i>barycenter centrality</i>.
  * (If the average/total distance is 0, the value returned is {@code Double.POSITIVE_INFINITY}.)
  * 
+ * When the graph is a {@code Graph}, the distance sums of every vertex are 
+ * found together the first time a score is asked for, rather than through a 
+ * map of distances per vertex: with a {@code MultiSourceBfs} when distances 
+ * are unweighted, and with {@code WeightedDistanceSums} over edge weights read
+ * once into a {@code WeightedCompactGraph} otherwise.
+ * 
  * @see BarycenterScorer
  * @see ClosenessCentrality
  */
@@ -77,6 +89,28 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
     
     protected double egoNetworkSize = 1;
     
+    /**
+     * Whether distances are unweighted, so they may come from <code>bfs</code>.
+     */
+    protected boolean unweighted;
+    
+    /**
+     * Distance sums from every vertex, for unweighted distances; null until 
+     * the first score is calculated.
+     */
+    protected MultiSourceBfs<V> bfs;
+    
+    /**
+     * The edge weights given to the constructor, if any.
+     */
+    protected Transformer<E, ? extends Number> edge_weights;
+    
+    /**
+     * Distance sums from every vertex, for weighted distances; null until 
+     * the first score is calculated.
+     */
+    protected WeightedDistanceSums<V,E> weighted;
+    
     /**
      * Creates an instance with the specified graph, distance metric, and 
      * averaging behavior.
@@ -145,6 +179,7 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
         this(graph, new DijkstraDistance<V,E>(graph, edge_weights), egoNetworkSize,
         		averaging,
         	ignore_missing, ignore_self_distances);
+        this.edge_weights = edge_weights;
     }
     
     /**
@@ -161,6 +196,7 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
     {
         this(graph, new DijkstraDistance<V,E>(graph, edge_weights), egoNetworkSize,averaging,
         	true, true);
+        this.edge_weights = edge_weights;
     }
     
     /**
@@ -181,6 +217,7 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
     {
         this(graph, new UnweightedShortestPath<V,E>(graph), egoNetworkSize, averaging, 
         	ignore_missing, ignore_self_distances);
+        this.unweighted = true;
     }
 
     /**
@@ -193,6 +230,7 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
     public EgoNetworkDistanceCentralityScorer(Hypergraph<V,E> graph, double egoNetworkSize, boolean averaging)
     {
         this(graph, new UnweightedShortestPath<V,E>(graph), egoNetworkSize,averaging, true, true);
+        this.unweighted = true;
     }
 
 	/**
@@ -209,6 +247,24 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
 	        return value;
 	    }
 	    
+	    if (unweighted && graph instanceof Graph)
+	    {
+	        if (bfs == null)
+	            bfs = new MultiSourceBfs<V>(CompactGraph.fromGraph((Graph<V,E>) graph));
+	        int i = bfs.getGraph().indexOf(v);
+	        if (i >= 0)
+	            return getScore(v, bfs.getReached(i), bfs.getDistanceSum(i));
+	    }
+	    if (edge_weights != null && graph instanceof Graph)
+	    {
+	        if (weighted == null)
+	            weighted = new WeightedDistanceSums<V,E>(
+	            	WeightedCompactGraph.fromGraph((Graph<V,E>) graph, edge_weights));
+	        int i = weighted.getGraph().indexOf(v);
+	        if (i >= 0)
+	            return getScore(v, weighted.getReached(i), weighted.getDistanceSum(i));
+	    }
+	    
 	    Map<V, Number> v_distances = new HashMap<V, Number>(distance.getDistanceMap(v));
 	    if (ignore_self_distances)
 	        v_distances.remove(v);
@@ -254,4 +310,27 @@ public class EgoNetworkDistanceCentralityScorer<V,E> implements VertexScorer<V,
 		   
 		return score;
 	}
+
+	/**
+	 * The score of <code>v</code>, which reaches <code>reached</code> other
+	 * vertices at a total distance of <code>distanceSum</code>, as 
+	 * {@link #getVertexScore(Object)} would calculate it.
+	 */
+	protected Double getScore(V v, int reached, double distanceSum)
+	{
+		if (!ignore_missing && reached != graph.getVertexCount() - 1)
+		{
+			output.put(v, -1.0);
+			return null;
+		}
+		double value = distanceSum;
+		if (averaging)
+			value /= reached + (ignore_self_distances ? 0 : 1);
+		
+		double score = value == 0 ? 
+			Double.POSITIVE_INFINITY : 
+			1.0 / value;
+		output.put(v, score);
+		return score;
+	}
 }
@@ -0,0 +1,222 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.HyperLogLogCounters;
+import net.sf.eventgraphj.compact.VertexIndex;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Approximate harmonic and closeness centrality from the neighborhood function
+ * of each vertex, in the manner of HyperBall.
+ *
+ * Every vertex keeps a {@code HyperLogLogCounters} counter for the ball of
+ * vertices within distance <code>t</code> of it along out-arcs. The ball at
+ * <code>t + 1</code> is the union of the vertex's own ball with the balls of
+ * its out-neighbors at <code>t</code>, so each iteration is one pass over the
+ * arcs of the {@code CompactGraph} with a register-wise maximum per arc, and the
+ * iterations stop once no counter changes (after the diameter). A vertex whose
+ * out-neighbors all kept their counters in the last iteration is only copied.
+ *
+ * The growth of the estimated ball size at <code>t</code> estimates how many
+ * vertices are at distance exactly <code>t</code>, which gives the sum of
+ * inverse distances, the sum of distances and the number of vertices reached.
+ * By default scores are harmonic centrality averaged over the other vertices,
+ * as {@code InverseDistanceCentralityScorer} (averaged, ignoring self
+ * distances) computes exactly; with {@link Measure#CLOSENESS} they are instead
+ * the inverse of the mean distance to the vertices reached. The relative error
+ * of each ball size is about <code>1.04 / sqrt(2^log2m)</code>.
+ *
+ * @see "Paolo Boldi and Sebastiano Vigna: In-Core Computation of Geometric Centralities with HyperBall: A Hundred Billion Nodes and Beyond. ICDMW 2013."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class HyperBallCentrality<V> implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+	public static enum Measure {
+		HARMONIC, CLOSENESS
+	}
+
+	public static final int DEFAULT_LOG2M = 7;
+
+	protected final CompactGraph<V> graph;
+	protected final int log2m;
+	protected final Measure measure;
+	protected final double[] harmonic;
+	protected final double[] distances;
+	protected final double[] reached;
+	protected int iterations;
+
+	/**
+	 * @param log2m
+	 *            base 2 logarithm of the number of registers per vertex, from 4
+	 *            to 16
+	 * @param maxIterations
+	 *            largest distance to follow paths to
+	 * @param seed
+	 *            seed of the counters' hash
+	 * @param pool
+	 *            pool to run the iterations on, or null for the default pool
+	 */
+	public HyperBallCentrality(CompactGraph<V> graph, int log2m, Measure measure, int maxIterations, long seed,
+	        ForkJoinPool pool) {
+		if (maxIterations < 0) {
+			throw new IllegalArgumentException("maxIterations must not be negative: " + maxIterations);
+		}
+		this.graph = graph;
+		this.log2m = log2m;
+		this.measure = measure;
+		int n = graph.size();
+		this.harmonic = new double[n];
+		this.distances = new double[n];
+		this.reached = new double[n];
+		this.compute(new HyperLogLogCounters(n, log2m, seed), maxIterations, pool);
+	}
+
+	public static <V, E> HyperBallCentrality<V> compute(Graph<V, E> graph, int log2m, Measure measure) {
+		return new HyperBallCentrality<V>(CompactGraph.fromGraph(graph), log2m, measure, Integer.MAX_VALUE, 0l, null);
+	}
+
+	public static <V, E> HyperBallCentrality<V> compute(Graph<V, E> graph, int log2m) {
+		return compute(graph, log2m, Measure.HARMONIC);
+	}
+
+	public static <V, E> HyperBallCentrality<V> compute(Graph<V, E> graph) {
+		return compute(graph, DEFAULT_LOG2M);
+	}
+
+	protected void compute(HyperLogLogCounters initial, int maxIterations, ForkJoinPool pool) {
+		final int n = this.graph.size();
+		final int[] offsets = this.graph.getOffsets();
+		final int[] targets = this.graph.getTargets();
+		final double[] size = new double[n];
+		final boolean[] changed = new boolean[n];
+		final boolean[] changing = new boolean[n];
+		HyperLogLogCounters current = initial;
+		HyperLogLogCounters next = new HyperLogLogCounters(initial);
+		for (int v = 0; v < n; v++) {
+			current.add(v, v);
+			size[v] = current.count(v);
+			changed[v] = true;
+		}
+
+		boolean any = n > 0;
+		for (int t = 1; any && t <= maxIterations; t++) {
+			final HyperLogLogCounters from = current;
+			final HyperLogLogCounters to = next;
+			final double distance = t;
+			ParallelRange.run(pool, 0, n, new ParallelRange.Body() {
+				@Override
+				public void run(int begin, int end) {
+					for (int v = begin; v < end; v++) {
+						to.copy(v, from, v);
+						boolean grew = false;
+						for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+							int w = targets[a];
+							if (changed[w] && to.union(v, from, w)) {
+								grew = true;
+							}
+						}
+						changing[v] = grew;
+						if (grew) {
+							// estimates can wobble where the small set
+							// correction hands over; balls never shrink
+							double count = Math.max(size[v], to.count(v));
+							double delta = count - size[v];
+							HyperBallCentrality.this.harmonic[v] += delta / distance;
+							HyperBallCentrality.this.distances[v] += delta * distance;
+							HyperBallCentrality.this.reached[v] += delta;
+							size[v] = count;
+						}
+					}
+				}
+			});
+			any = false;
+			for (int v = 0; v < n; v++) {
+				changed[v] = changing[v];
+				any |= changing[v];
+			}
+			current = next;
+			next = from;
+			this.iterations = t;
+		}
+	}
+
+	/**
+	 * @return the number of iterations run, which is the largest distance
+	 *         followed
+	 */
+	public int getIterations() {
+		return this.iterations;
+	}
+
+	public int getLog2m() {
+		return this.log2m;
+	}
+
+	public Measure getMeasure() {
+		return this.measure;
+	}
+
+	/**
+	 * @return estimated sum of the inverse distances from <code>vertex</code>
+	 *         to every other vertex, or null if it is not in the graph
+	 */
+	public Double getHarmonic(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.harmonic[i];
+	}
+
+	/**
+	 * @return estimated sum of the distances from <code>vertex</code> to the
+	 *         vertices it reaches, or null if it is not in the graph
+	 */
+	public Double getDistanceSum(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.distances[i];
+	}
+
+	/**
+	 * @return estimated number of other vertices <code>vertex</code> reaches,
+	 *         or null if it is not in the graph
+	 */
+	public Double getReachable(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.reached[i];
+	}
+
+	/**
+	 * @return the estimated score of <code>vertex</code> by the chosen
+	 *         {@code Measure}, or null if it is not in the graph
+	 */
+	@Override
+	public Double getVertexScore(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.score(i);
+	}
+
+	protected double score(int i) {
+		if (this.measure == Measure.CLOSENESS) {
+			return this.distances[i] > 0 ? this.reached[i] / this.distances[i] : 0;
+		}
+		int others = this.graph.size() - 1;
+		return others > 0 ? this.harmonic[i] / others : 0;
+	}
+
+	@Override
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+		int[] slots = index.slotsOf(this.graph);
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] >= 0) {
+				scores[slots[i]] = this.score(i);
+				present.set(slots[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,345 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+
+/**
+ * Personalized PageRank queries for a few vertices over the events of a
+ * {@code NavigableGraph} from <code>start</code> (inclusive) to
+ * <code>stop</code> (exclusive), answered by pushing residuals out from the
+ * query vertex. Edges are read with
+ * {@link NavigableGraph#getOutEdges(Object, Comparable, Comparable)} and
+ * {@link NavigableGraph#getInEdges(Object, Comparable, Comparable)}, so no
+ * sub-network is built and the work depends only on the neighborhood the push
+ * reaches, which shrinks as <code>epsilon</code> grows.
+ *
+ * The walk is that of JUNG's {@code PageRankWithPriors} with all of the prior
+ * on the query vertex: each event leaving a vertex in the interval is followed
+ * with equal probability, the walk restarts at the query vertex with
+ * probability <code>alpha</code>, and restarts there from vertices with no
+ * events leaving them. Self loops are left out, as in {@code CompactPageRank}.
+ * <ul>
+ * <li>{@link #forward(Object)} estimates the scores of every vertex for walks
+ * restarting at the query vertex, under by at most <code>epsilon</code> times
+ * each vertex's out-degree;</li>
+ * <li>{@link #backward(Object)} estimates, for every vertex, the score of the
+ * query vertex for walks restarting there (how much each vertex contributes
+ * to it). The push leaves walks that reach a vertex with no events leaving it
+ * out, and each estimate is then scaled up by the share of walks from its
+ * vertex that are left out, found by a push forward from that vertex alone,
+ * so only the vertices with no events leaving them that those pushes reach
+ * are ever looked at.</li>
+ * </ul>
+ *
+ * @see "Reid Andersen, Fan Chung and Kevin Lang: Local Graph Partitioning using PageRank Vectors. FOCS 2006."
+ * @see "Reid Andersen, Christian Borgs, Jennifer Chayes, John Hopcroft, Vahab Mirrokni and Shang-Hua Teng: Local Computation of PageRank Contributions. WAW 2007."
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class LocalPersonalizedPageRank<K extends Comparable<K>, V, E> {
+	/**
+	 * Scores found by one query, with the residual left at each vertex
+	 *
+	 * @param <V>
+	 */
+	public static class Estimate<V> implements VertexScorer<V, Double> {
+		protected final V query;
+		protected final Map<V, Double> scores;
+		protected final Map<V, Double> residuals;
+		protected final long pushes;
+
+		protected Estimate(V query, Map<V, Double> scores, Map<V, Double> residuals, long pushes) {
+			this.query = query;
+			this.scores = Collections.unmodifiableMap(scores);
+			this.residuals = Collections.unmodifiableMap(residuals);
+			this.pushes = pushes;
+		}
+
+		public V getQuery() {
+			return this.query;
+		}
+
+		/**
+		 * @return the estimate for <code>vertex</code>, 0 if the push never
+		 *         reached it
+		 */
+		@Override
+		public Double getVertexScore(V vertex) {
+			Double score = this.scores.get(vertex);
+			return score == null ? 0.0 : score;
+		}
+
+		/**
+		 * @return the vertices reached with a non-zero estimate
+		 */
+		public Map<V, Double> getScores() {
+			return this.scores;
+		}
+
+		public Map<V, Double> getResiduals() {
+			return this.residuals;
+		}
+
+		/**
+		 * @return the number of residuals pushed, which bounds the work done
+		 */
+		public long getPushes() {
+			return this.pushes;
+		}
+
+		/**
+		 * @return up to <code>k</code> vertices with the highest estimates,
+		 *         highest first
+		 */
+		public List<Entry<V, Double>> getTop(int k) {
+			List<Entry<V, Double>> entries = new ArrayList<Entry<V, Double>>(this.scores.entrySet());
+			Collections.sort(entries, new Comparator<Entry<V, Double>>() {
+				@Override
+				public int compare(Entry<V, Double> o1, Entry<V, Double> o2) {
+					return Double.compare(o2.getValue(), o1.getValue());
+				}
+			});
+			return entries.subList(0, Math.min(k, entries.size()));
+		}
+	}
+
+	protected final NavigableGraph<K, V, E> graph;
+	protected final K start, stop;
+	protected final double alpha;
+	protected final double epsilon;
+
+	/**
+	 * @param start
+	 *            beginning of the interval, or null for no lower limit
+	 * @param stop
+	 *            end of the interval, or null for no upper limit
+	 * @param alpha
+	 *            restart probability
+	 * @param epsilon
+	 *            residual left unpushed, per event for
+	 *            {@link #forward(Object)}
+	 */
+	public LocalPersonalizedPageRank(NavigableGraph<K, V, E> graph, K start, K stop, double alpha, double epsilon) {
+		if (alpha <= 0 || alpha > 1) {
+			throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+		}
+		if (epsilon <= 0) {
+			throw new IllegalArgumentException("epsilon must be positive: " + epsilon);
+		}
+		this.graph = graph;
+		this.start = start;
+		this.stop = stop;
+		this.alpha = alpha;
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * Scores of the vertices near <code>source</code> for walks that restart
+	 * at <code>source</code>
+	 *
+	 * @throws IllegalArgumentException
+	 *             if <code>source</code> is not in the graph
+	 */
+	public Estimate<V> forward(V source) {
+		this.checkVertex(source);
+		Map<V, Double> scores = new HashMap<V, Double>();
+		Map<V, Double> residuals = new HashMap<V, Double>();
+		Map<V, Integer> degrees = new HashMap<V, Integer>();
+		ArrayDeque<V> queue = new ArrayDeque<V>();
+		residuals.put(source, 1.0);
+		queue.add(source);
+		long pushes = 0;
+		while (!queue.isEmpty()) {
+			V u = queue.poll();
+			double mass = residuals.remove(u);
+			List<V> out = this.successors(u);
+			degrees.put(u, out.size());
+			pushes++;
+			add(scores, u, this.alpha * mass);
+			double rest = (1 - this.alpha) * mass;
+			if (out.isEmpty()) {
+				// the walk starts over
+				this.addResidual(residuals, queue, source, rest, this.epsilon
+				        * Math.max(1, this.outDegree(source, degrees)));
+				continue;
+			}
+			double share = rest / out.size();
+			for (V w : out) {
+				this.addResidual(residuals, queue, w, share, this.epsilon * Math.max(1, this.outDegree(w, degrees)));
+			}
+		}
+		return new Estimate<V>(source, scores, residuals, pushes);
+	}
+
+	/**
+	 * For the vertices near <code>target</code>, the score of
+	 * <code>target</code> for walks that restart at them
+	 *
+	 * @throws IllegalArgumentException
+	 *             if <code>target</code> is not in the graph
+	 */
+	public Estimate<V> backward(V target) {
+		this.checkVertex(target);
+		Map<V, Double> scores = new HashMap<V, Double>();
+		Map<V, Double> residuals = new HashMap<V, Double>();
+		Map<V, Integer> degrees = new HashMap<V, Integer>();
+		ArrayDeque<V> queue = new ArrayDeque<V>();
+		residuals.put(target, 1.0);
+		queue.add(target);
+		long pushes = this.pushBackward(scores, residuals, degrees, queue);
+		// walks from u that reach a vertex with no events leaving it start
+		// over at u, which scales every score for u by the same factor
+		double[] lost = new double[1];
+		for (Entry<V, Double> entry : scores.entrySet()) {
+			V u = entry.getKey();
+			if (this.outDegree(u, degrees) == 0) {
+				lost[0] = 1 - this.alpha;
+			} else {
+				pushes += this.pushDropped(u, degrees, lost);
+			}
+			entry.setValue(entry.getValue() / (1 - lost[0]));
+		}
+		return new Estimate<V>(target, scores, residuals, pushes);
+	}
+
+	/**
+	 * Pushes the queued residuals back along the events into each vertex,
+	 * following walks that stop at vertices with no events leaving them
+	 *
+	 * @return the number of residuals pushed
+	 */
+	protected long pushBackward(Map<V, Double> scores, Map<V, Double> residuals, Map<V, Integer> degrees,
+	        ArrayDeque<V> queue) {
+		long pushes = 0;
+		while (!queue.isEmpty()) {
+			V v = queue.poll();
+			double mass = residuals.remove(v);
+			pushes++;
+			add(scores, v, this.alpha * mass);
+			double rest = (1 - this.alpha) * mass;
+			for (V u : this.neighbors(v, this.graph.getInEdges(v, this.start, this.stop))) {
+				this.addResidual(residuals, queue, u, rest / this.outDegree(u, degrees), this.epsilon);
+			}
+		}
+		return pushes;
+	}
+
+	/**
+	 * Pushes forward from <code>source</code>, without restarts, the walks
+	 * that go on from a vertex with no events leaving it, writing to
+	 * <code>lost[0]</code> the share of them
+	 *
+	 * @return the number of residuals pushed
+	 */
+	protected long pushDropped(V source, Map<V, Integer> degrees, double[] lost) {
+		Map<V, Double> residuals = new HashMap<V, Double>();
+		ArrayDeque<V> queue = new ArrayDeque<V>();
+		residuals.put(source, 1.0);
+		queue.add(source);
+		lost[0] = 0;
+		long pushes = 0;
+		while (!queue.isEmpty()) {
+			V u = queue.poll();
+			double rest = (1 - this.alpha) * residuals.remove(u);
+			pushes++;
+			if (this.outDegree(u, degrees) == 0) {
+				lost[0] += rest;
+				continue;
+			}
+			List<V> out = this.successors(u);
+			for (V w : out) {
+				this.addResidual(residuals, queue, w, rest / out.size(), this.epsilon
+				        * Math.max(1, this.outDegree(w, degrees)));
+			}
+		}
+		return pushes;
+	}
+
+	protected void checkVertex(V vertex) {
+		if (!this.graph.containsVertex(vertex)) {
+			throw new IllegalArgumentException(vertex + " is not in the graph");
+		}
+	}
+
+	protected int outDegree(V vertex, Map<V, Integer> degrees) {
+		Integer degree = degrees.get(vertex);
+		if (degree == null) {
+			degree = this.successors(vertex).size();
+			degrees.put(vertex, degree);
+		}
+		return degree;
+	}
+
+	/**
+	 * The other ends of the events leaving <code>vertex</code> in the
+	 * interval, once per event
+	 */
+	protected List<V> successors(V vertex) {
+		return this.neighbors(vertex, this.graph.getOutEdges(vertex, this.start, this.stop));
+	}
+
+	protected List<V> neighbors(V vertex, Collection<EdgeEntry<K, V, E>> edges) {
+		List<V> neighbors = new ArrayList<V>(edges.size());
+		for (EdgeEntry<K, V, E> edge : edges) {
+			V other = this.graph.getOpposite(vertex, edge);
+			if (!vertex.equals(other)) {
+				neighbors.add(other);
+			}
+		}
+		return neighbors;
+	}
+
+	/**
+	 * Adds to the residual of <code>vertex</code>, queueing it when the
+	 * residual first exceeds <code>threshold</code>; residuals only grow
+	 * until they are pushed, so a queued vertex is one already over it
+	 */
+	protected void addResidual(Map<V, Double> residuals, ArrayDeque<V> queue, V vertex, double mass, double threshold) {
+		Double old = residuals.get(vertex);
+		double residual = (old == null ? 0 : old) + mass;
+		residuals.put(vertex, residual);
+		if (residual > threshold && (old == null || old <= threshold)) {
+			queue.add(vertex);
+		}
+	}
+
+	protected static <V> void add(Map<V, Double> map, V vertex, double amount) {
+		Double old = map.get(vertex);
+		map.put(vertex, old == null ? amount : old + amount);
+	}
+
+	public NavigableGraph<K, V, E> getGraph() {
+		return this.graph;
+	}
+
+	public K getStart() {
+		return this.start;
+	}
+
+	public K getStop() {
+		return this.stop;
+	}
+
+	public double getAlpha() {
+		return this.alpha;
+	}
+
+	public double getEpsilon() {
+		return this.epsilon;
+	}
+}
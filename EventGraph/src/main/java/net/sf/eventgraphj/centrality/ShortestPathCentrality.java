@@ -0,0 +1,178 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.compact.CompactGraph;
+import net.sf.eventgraphj.compact.VertexIndex;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.graph.Graph;
+
+/**
+ * Closeness and betweenness from a single breadth first search per source.
+ *
+ * Each search counts shortest paths as in Brandes' algorithm, adds up the
+ * inverse distances to every vertex it reaches for closeness, then walks back
+ * through the vertices in reverse order of distance accumulating dependencies
+ * for betweenness. The scores match those of
+ * {@code InverseDistanceCentralityScorer} (averaged, ignoring self distances)
+ * and JUNG's unweighted {@code BetweennessCentrality}, with parallel edges
+ * counted as separate shortest paths, at the cost of one search instead of
+ * two and with the graph held as a {@code CompactGraph}.
+ *
+ * @see "Ulrik Brandes: A Faster Algorithm for Betweenness Centrality. Journal of Mathematical Sociology 25(2):163-177, 2001."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class ShortestPathCentrality<V> {
+	protected final CompactGraph<V> graph;
+	protected final double[] closeness;
+	protected final double[] betweenness;
+
+	public ShortestPathCentrality(CompactGraph<V> graph) {
+		this.graph = graph;
+		int n = graph.size();
+		this.closeness = new double[n];
+		this.betweenness = new double[n];
+		this.compute();
+	}
+
+	public static <V, E> ShortestPathCentrality<V> compute(Graph<V, E> graph) {
+		return new ShortestPathCentrality<V>(CompactGraph.fromGraph(graph));
+	}
+
+	protected void compute() {
+		int n = this.graph.size();
+		int[] distance = new int[n];
+		double[] sigma = new double[n];
+		double[] delta = new double[n];
+		int[] order = new int[n];
+		Arrays.fill(distance, -1);
+		for (int source = 0; source < n; source++) {
+			int reached = this.search(source, distance, sigma, delta, order);
+			for (int i = 0; i < reached; i++) {
+				int v = order[i];
+				distance[v] = -1;
+				sigma[v] = 0;
+				delta[v] = 0;
+			}
+		}
+		if (this.graph.isUndirected()) {
+			for (int v = 0; v < n; v++) {
+				this.betweenness[v] /= 2;
+			}
+		}
+	}
+
+	/**
+	 * One search from <code>source</code>, leaving the vertices it reached in
+	 * <code>order</code>; the scratch arrays must be reset for them afterwards
+	 *
+	 * @return the number of vertices reached
+	 */
+	protected int search(int source, int[] distance, double[] sigma, double[] delta, int[] order) {
+		int[] offsets = this.graph.getOffsets();
+		int[] targets = this.graph.getTargets();
+		int[] counts = this.graph.getCounts();
+
+		distance[source] = 0;
+		sigma[source] = 1;
+		order[0] = source;
+		int head = 0;
+		int tail = 1;
+		double inverseDistances = 0;
+		while (head < tail) {
+			int w = order[head++];
+			int next = distance[w] + 1;
+			for (int a = offsets[w]; a < offsets[w + 1]; a++) {
+				int x = targets[a];
+				if (distance[x] < 0) {
+					distance[x] = next;
+					order[tail++] = x;
+					inverseDistances += 1.0 / next;
+				}
+				if (distance[x] == next) {
+					sigma[x] += sigma[w] * counts[a];
+				}
+			}
+		}
+		int others = this.graph.size() - 1;
+		this.closeness[source] = others > 0 ? inverseDistances / others : 0;
+
+		for (int i = tail - 1; i > 0; i--) {
+			int w = order[i];
+			int next = distance[w] + 1;
+			double dependency = 0;
+			for (int a = offsets[w]; a < offsets[w + 1]; a++) {
+				int x = targets[a];
+				if (distance[x] == next) {
+					dependency += counts[a] * sigma[w] / sigma[x] * (1 + delta[x]);
+				}
+			}
+			delta[w] = dependency;
+			this.betweenness[w] += dependency;
+		}
+		return tail;
+	}
+
+	public CompactGraph<V> getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * @return closeness of <code>vertex</code>, or null if it is not in the
+	 *         graph
+	 */
+	public Double getCloseness(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.closeness[i];
+	}
+
+	/**
+	 * @return betweenness of <code>vertex</code>, or null if it is not in the
+	 *         graph
+	 */
+	public Double getBetweenness(V vertex) {
+		int i = this.graph.indexOf(vertex);
+		return i < 0 ? null : this.betweenness[i];
+	}
+
+	public VertexScorer<V, Double> getClosenessScorer() {
+		return new Scorer(this.closeness);
+	}
+
+	public VertexScorer<V, Double> getBetweennessScorer() {
+		return new Scorer(this.betweenness);
+	}
+
+	/**
+	 * One of the two measures, as a scorer
+	 */
+	protected class Scorer implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+		protected final double[] scores;
+
+		protected Scorer(double[] scores) {
+			this.scores = scores;
+		}
+
+		@Override
+		public Double getVertexScore(V vertex) {
+			int i = ShortestPathCentrality.this.graph.indexOf(vertex);
+			return i < 0 ? null : this.scores[i];
+		}
+
+		@Override
+		public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+			int[] slots = index.slotsOf(ShortestPathCentrality.this.graph);
+			for (int i = 0; i < slots.length; i++) {
+				if (slots[i] >= 0) {
+					scores[slots[i]] = this.scores[i];
+					present.set(slots[i]);
+				}
+			}
+		}
+	}
+}
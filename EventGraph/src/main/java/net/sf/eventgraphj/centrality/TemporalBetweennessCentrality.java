@@ -0,0 +1,128 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.analysis.ParallelRange;
+import net.sf.eventgraphj.compact.EventStream;
+import net.sf.eventgraphj.compact.TemporalPathSearch;
+import net.sf.eventgraphj.compact.VertexIndex;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+
+/**
+ * Temporal betweenness over the events of an interval: for each vertex, the
+ * sum over pairs of other vertices of the share of prefix-foremost paths
+ * between them (time-respecting paths reaching every vertex on them as early
+ * as possible) that pass through it. As with Brandes' algorithm, each source
+ * contributes its dependencies, here from
+ * {@link TemporalPathSearch#foremostPaths(int, long)}, which is linear in the
+ * number of events; sources are split across a pool.
+ *
+ * Paths leave their source no earlier than the start of the interval and each
+ * event takes <code>duration</code> to cross (paths move strictly forward in
+ * time when it is zero). Undirected events may be crossed either way, and
+ * scores are not halved.
+ *
+ * @see "Sebastian Bu&szlig;, Hendrik Molter, Rolf Niedermeier and Maciej Rymar: Algorithmic Aspects of Temporal Betweenness. KDD 2020."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class TemporalBetweennessCentrality<V> implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+	protected final EventStream<V> stream;
+	protected final long from;
+	protected final long duration;
+	protected final double[] scores;
+
+	/**
+	 * @param from
+	 *            time paths may leave from
+	 * @param duration
+	 *            time each event takes, not negative
+	 * @param pool
+	 *            pool to search on, or null for the default pool
+	 */
+	public TemporalBetweennessCentrality(EventStream<V> stream, long from, long duration, ForkJoinPool pool) {
+		if (duration < 0) {
+			throw new IllegalArgumentException("duration must not be negative: " + duration);
+		}
+		this.stream = stream;
+		this.from = from;
+		this.duration = duration;
+		this.scores = new double[stream.size()];
+		this.compute(pool);
+	}
+
+	/**
+	 * Over the events from <code>start</code> (inclusive) to
+	 * <code>stop</code> (exclusive), without building a sub-network
+	 */
+	public static <K extends Number & Comparable<K>, V, E> TemporalBetweennessCentrality<V> compute(
+	        NavigableGraph<K, V, E> graph, K start, K stop, long duration) {
+		EventStream<V> stream = EventStream.fromGraph(graph, start, stop);
+		return new TemporalBetweennessCentrality<V>(stream, TemporalClosenessCentrality.startOf(stream, start),
+		        duration, null);
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> TemporalBetweennessCentrality<V> compute(
+	        NavigableGraph<K, V, E> graph, K start, K stop) {
+		return compute(graph, start, stop, TemporalClosenessCentrality.DEFAULT_DURATION);
+	}
+
+	protected void compute(ForkJoinPool pool) {
+		final int n = this.stream.size();
+		ParallelRange.run(pool, 0, n, new ParallelRange.Body() {
+			@Override
+			public void run(int begin, int end) {
+				TemporalPathSearch search = new TemporalPathSearch(TemporalBetweennessCentrality.this.stream,
+				        TemporalBetweennessCentrality.this.duration);
+				double[] partial = new double[n];
+				for (int source = begin; source < end; source++) {
+					search.foremostPaths(source, TemporalBetweennessCentrality.this.from);
+					for (int v = 0; v < n; v++) {
+						if (v != source) {
+							partial[v] += search.getDependency(v);
+						}
+					}
+				}
+				synchronized (TemporalBetweennessCentrality.this.scores) {
+					for (int v = 0; v < n; v++) {
+						TemporalBetweennessCentrality.this.scores[v] += partial[v];
+					}
+				}
+			}
+		});
+	}
+
+	public EventStream<V> getStream() {
+		return this.stream;
+	}
+
+	public long getFrom() {
+		return this.from;
+	}
+
+	/**
+	 * @return the temporal betweenness of <code>vertex</code>, or null if it is
+	 *         not in the graph
+	 */
+	@Override
+	public Double getVertexScore(V vertex) {
+		int i = this.stream.indexOf(vertex);
+		return i < 0 ? null : this.scores[i];
+	}
+
+	@Override
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+		int[] slots = index.slotsOf(this.stream.getVertices());
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] >= 0) {
+				scores[slots[i]] = this.scores[i];
+				present.set(slots[i]);
+			}
+		}
+	}
+}
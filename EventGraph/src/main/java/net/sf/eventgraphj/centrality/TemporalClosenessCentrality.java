@@ -0,0 +1,132 @@
+package net.sf.eventgraphj.centrality;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.DenseVertexScorer;
+import net.sf.eventgraphj.compact.EventStream;
+import net.sf.eventgraphj.compact.TemporalPathSearch;
+import net.sf.eventgraphj.compact.VertexIndex;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+
+/**
+ * Temporal closeness over the events of an interval: for each vertex, the
+ * mean over the other vertices of the inverse of the latency with which a
+ * time-respecting path leaving it at the start of the interval reaches them
+ * (the inverse of the harmonic mean latency), counting vertices never reached
+ * as infinitely far. Latencies are earliest arrivals found by
+ * {@code TemporalPathSearch}, one search per vertex in parallel, measured from
+ * the start of the interval (or the first event if it has none).
+ *
+ * Each event takes <code>duration</code> to cross, which must be positive so
+ * that no latency is zero; for integer keys the default of one makes paths
+ * strictly increasing in time.
+ *
+ * @see "Raj Kumar Pan and Jari Saram&auml;ki: Path lengths, correlations, and centrality in temporal networks. Physical Review E 84, 2011."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class TemporalClosenessCentrality<V> implements VertexScorer<V, Double>, DenseVertexScorer<V> {
+	public static final long DEFAULT_DURATION = 1;
+
+	protected final EventStream<V> stream;
+	protected final long from;
+	protected final long duration;
+	protected final double[] scores;
+
+	/**
+	 * @param from
+	 *            time latencies are measured from, no later than the first
+	 *            event
+	 * @param duration
+	 *            time each event takes, positive
+	 * @param pool
+	 *            pool to search on, or null for the default pool
+	 */
+	public TemporalClosenessCentrality(EventStream<V> stream, long from, long duration, ForkJoinPool pool) {
+		if (duration <= 0) {
+			throw new IllegalArgumentException("duration must be positive: " + duration);
+		}
+		this.stream = stream;
+		this.from = from;
+		this.duration = duration;
+		this.scores = new double[stream.size()];
+		this.compute(pool);
+	}
+
+	/**
+	 * Over the events from <code>start</code> (inclusive) to
+	 * <code>stop</code> (exclusive), without building a sub-network
+	 */
+	public static <K extends Number & Comparable<K>, V, E> TemporalClosenessCentrality<V> compute(
+	        NavigableGraph<K, V, E> graph, K start, K stop, long duration) {
+		EventStream<V> stream = EventStream.fromGraph(graph, start, stop);
+		return new TemporalClosenessCentrality<V>(stream, startOf(stream, start), duration, null);
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> TemporalClosenessCentrality<V> compute(
+	        NavigableGraph<K, V, E> graph, K start, K stop) {
+		return compute(graph, start, stop, DEFAULT_DURATION);
+	}
+
+	/**
+	 * @return <code>start</code>, or the time of the first event if it is null
+	 */
+	static <K extends Number> long startOf(EventStream<?> stream, K start) {
+		if (start != null) {
+			return start.longValue();
+		}
+		return stream.arcCount() > 0 ? stream.getTimes()[0] : 0;
+	}
+
+	protected void compute(ForkJoinPool pool) {
+		final int n = this.stream.size();
+		TemporalPathSearch.forEachSource(this.stream, this.duration, pool, new TemporalPathSearch.SourceBody() {
+			@Override
+			public void run(TemporalPathSearch search, int source) {
+				long from = TemporalClosenessCentrality.this.from;
+				search.earliestArrival(source, from);
+				double inverses = 0;
+				for (int v = 0; v < n; v++) {
+					long arrival = search.getArrival(v);
+					if (v != source && arrival != TemporalPathSearch.UNREACHED_ARRIVAL) {
+						inverses += 1.0 / (arrival - from);
+					}
+				}
+				TemporalClosenessCentrality.this.scores[source] = n > 1 ? inverses / (n - 1) : 0;
+			}
+		});
+	}
+
+	public EventStream<V> getStream() {
+		return this.stream;
+	}
+
+	public long getFrom() {
+		return this.from;
+	}
+
+	/**
+	 * @return the temporal closeness of <code>vertex</code>, or null if it is
+	 *         not in the graph
+	 */
+	@Override
+	public Double getVertexScore(V vertex) {
+		int i = this.stream.indexOf(vertex);
+		return i < 0 ? null : this.scores[i];
+	}
+
+	@Override
+	public void scoreInto(VertexIndex<V> index, double[] scores, BitSet present) {
+		int[] slots = index.slotsOf(this.stream.getVertices());
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] >= 0) {
+				scores[slots[i]] = this.scores[i];
+				present.set(slots[i]);
+			}
+		}
+	}
+}
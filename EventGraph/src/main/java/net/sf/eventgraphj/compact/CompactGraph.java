@@ -0,0 +1,214 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedGraph;
+
+/**
+ * Read only snapshot of the adjacency of a {@code Graph} in compressed sparse
+ * row form, for algorithms that visit every vertex many times and would
+ * otherwise spend most of their time in hash lookups and edge collections.
+ *
+ * Vertices are numbered in the order of <code>getVertices()</code>. The arcs
+ * leaving vertex <code>u</code> are
+ * <code>targets[offsets[u] .. offsets[u + 1])</code>, one per distinct
+ * neighbor reachable over <code>getOutEdges(u)</code>, in ascending order, and
+ * <code>counts</code> holds how many parallel edges (events) each arc stands
+ * for. Self loops are left out.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class CompactGraph<V> {
+	protected final List<V> vertices;
+	protected final Map<V, Integer> index;
+	protected final int[] offsets;
+	protected final int[] targets;
+	protected final int[] counts;
+	protected final boolean undirected;
+
+	protected CompactGraph(List<V> vertices, Map<V, Integer> index, int[] offsets, int[] targets, int[] counts,
+	        boolean undirected) {
+		this.vertices = vertices;
+		this.index = index;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.counts = counts;
+		this.undirected = undirected;
+	}
+
+	public static <V, E> CompactGraph<V> fromGraph(Graph<V, E> graph) {
+		List<V> vertices = Collections.unmodifiableList(new ArrayList<V>(graph.getVertices()));
+		int n = vertices.size();
+		Map<V, Integer> index = new HashMap<V, Integer>(2 * n);
+		for (int i = 0; i < n; i++) {
+			index.put(vertices.get(i), i);
+		}
+
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[Math.max(16, graph.getEdgeCount())];
+		int[] counts = new int[targets.length];
+		int[] scratch = new int[16];
+		int arcs = 0;
+		for (int u = 0; u < n; u++) {
+			V vertex = vertices.get(u);
+			Collection<E> edges = graph.getOutEdges(vertex);
+			int size = 0;
+			if (edges != null) {
+				if (scratch.length < edges.size()) {
+					scratch = new int[edges.size()];
+				}
+				for (E edge : edges) {
+					V other = graph.getOpposite(vertex, edge);
+					if (other == null || other.equals(vertex)) {
+						continue;
+					}
+					Integer target = index.get(other);
+					if (target != null) {
+						scratch[size++] = target;
+					}
+				}
+			}
+			Arrays.sort(scratch, 0, size);
+			if (arcs + size > targets.length) {
+				targets = Arrays.copyOf(targets, Math.max(arcs + size, 2 * targets.length));
+				counts = Arrays.copyOf(counts, targets.length);
+			}
+			for (int i = 0; i < size; i++) {
+				if (i > 0 && scratch[i] == scratch[i - 1]) {
+					counts[arcs - 1]++;
+				} else {
+					targets[arcs] = scratch[i];
+					counts[arcs] = 1;
+					arcs++;
+				}
+			}
+			offsets[u + 1] = arcs;
+		}
+		return new CompactGraph<V>(vertices, index, offsets, Arrays.copyOf(targets, arcs),
+		        Arrays.copyOf(counts, arcs), graph instanceof UndirectedGraph);
+	}
+
+	/**
+	 * The same vertices with an arc each way between every pair joined by an
+	 * arc either way, as the neighborhoods of {@code Graph.getNeighbors(...)};
+	 * counts are summed over both directions. A graph that was already
+	 * undirected is returned as is.
+	 */
+	public CompactGraph<V> toUndirected() {
+		if (this.undirected) {
+			return this;
+		}
+		int n = this.size();
+		int[] offsets = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			for (int a = this.offsets[u]; a < this.offsets[u + 1]; a++) {
+				offsets[u + 1]++;
+				offsets[this.targets[a] + 1]++;
+			}
+		}
+		for (int u = 0; u < n; u++) {
+			offsets[u + 1] += offsets[u];
+		}
+		int[] fill = Arrays.copyOf(offsets, n);
+		int[] targets = new int[offsets[n]];
+		int[] counts = new int[offsets[n]];
+		for (int u = 0; u < n; u++) {
+			for (int a = this.offsets[u]; a < this.offsets[u + 1]; a++) {
+				int v = this.targets[a];
+				targets[fill[u]] = v;
+				counts[fill[u]++] = this.counts[a];
+				targets[fill[v]] = u;
+				counts[fill[v]++] = this.counts[a];
+			}
+		}
+		// rows filled by ascending source are sorted except where both
+		// directions were present, so sort each row and merge the repeats
+		int arcs = 0;
+		int[] merged = new int[n + 1];
+		long[] row = new long[16];
+		for (int u = 0; u < n; u++) {
+			int size = offsets[u + 1] - offsets[u];
+			if (row.length < size) {
+				row = new long[size];
+			}
+			for (int i = 0; i < size; i++) {
+				row[i] = ((long) targets[offsets[u] + i] << 32) | counts[offsets[u] + i];
+			}
+			Arrays.sort(row, 0, size);
+			for (int i = 0; i < size; i++) {
+				int v = (int) (row[i] >>> 32);
+				int count = (int) row[i];
+				if (arcs > merged[u] && targets[arcs - 1] == v) {
+					counts[arcs - 1] += count;
+				} else {
+					targets[arcs] = v;
+					counts[arcs] = count;
+					arcs++;
+				}
+			}
+			merged[u + 1] = arcs;
+		}
+		return new CompactGraph<V>(this.vertices, this.index, merged, Arrays.copyOf(targets, arcs),
+		        Arrays.copyOf(counts, arcs), true);
+	}
+
+	/**
+	 * @return number of vertices
+	 */
+	public int size() {
+		return this.vertices.size();
+	}
+
+	/**
+	 * @return number of distinct arcs
+	 */
+	public int arcCount() {
+		return this.targets.length;
+	}
+
+	public List<V> getVertices() {
+		return this.vertices;
+	}
+
+	public V getVertex(int i) {
+		return this.vertices.get(i);
+	}
+
+	/**
+	 * @return the number of <code>vertex</code>, or -1 if it is not in the
+	 *         graph
+	 */
+	public int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		return i == null ? -1 : i;
+	}
+
+	public int[] getOffsets() {
+		return this.offsets;
+	}
+
+	public int[] getTargets() {
+		return this.targets;
+	}
+
+	public int[] getCounts() {
+		return this.counts;
+	}
+
+	/**
+	 * @return whether the graph was a JUNG {@code UndirectedGraph}, whose
+	 *         paths are each found once from either end
+	 */
+	public boolean isUndirected() {
+		return this.undirected;
+	}
+}
@@ -0,0 +1,109 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.Arrays;
+
+/**
+ * Reusable single source weighted shortest path search over a
+ * {@code WeightedCompactGraph}, using an {@code IndexedDaryHeap}. All state is
+ * held in arrays sized to the graph when the search is made, so repeated
+ * searches (one per source, on one thread) allocate nothing.
+ *
+ * Besides distances, each search counts shortest paths as Brandes' algorithm
+ * does, with parallel edges counted as separate paths, and records the order
+ * vertices were settled in, which is non-decreasing in distance. Weights must
+ * not be negative; with zero weights, paths of equal length may be settled in
+ * either order.
+ *
+ * @author jfolson
+ *
+ */
+public class DijkstraSearch {
+	protected final int[] offsets;
+	protected final int[] targets;
+	protected final double[] weights;
+	protected final double[] distance;
+	protected final double[] sigma;
+	protected final int[] order;
+	protected final IndexedDaryHeap heap;
+	protected int settled;
+
+	public DijkstraSearch(WeightedCompactGraph<?, ?> graph) {
+		int n = graph.size();
+		this.offsets = graph.getOffsets();
+		this.targets = graph.getTargets();
+		this.weights = graph.getWeights();
+		this.distance = new double[n];
+		Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+		this.sigma = new double[n];
+		this.order = new int[n];
+		this.heap = new IndexedDaryHeap(n);
+	}
+
+	/**
+	 * Finds the vertices within <code>maxDistance</code> of
+	 * <code>source</code>, forgetting the previous search
+	 *
+	 * @return the number of vertices settled, including the source
+	 */
+	public int search(int source, double maxDistance) {
+		for (int i = 0; i < this.settled; i++) {
+			int v = this.order[i];
+			this.distance[v] = Double.POSITIVE_INFINITY;
+			this.sigma[v] = 0;
+		}
+		this.settled = 0;
+
+		this.distance[source] = 0;
+		this.sigma[source] = 1;
+		this.heap.offer(source, 0);
+		while (!this.heap.isEmpty()) {
+			int w = this.heap.poll();
+			this.order[this.settled++] = w;
+			double base = this.distance[w];
+			for (int a = this.offsets[w]; a < this.offsets[w + 1]; a++) {
+				int x = this.targets[a];
+				double potential = base + this.weights[a];
+				if (potential > maxDistance) {
+					continue;
+				}
+				if (potential < this.distance[x]) {
+					this.distance[x] = potential;
+					this.sigma[x] = this.sigma[w];
+					this.heap.offer(x, potential);
+				} else if (potential == this.distance[x]) {
+					this.sigma[x] += this.sigma[w];
+				}
+			}
+		}
+		return this.settled;
+	}
+
+	/**
+	 * @return the number of vertices the last search settled
+	 */
+	public int getSettled() {
+		return this.settled;
+	}
+
+	/**
+	 * @return the <code>i</code>th vertex settled by the last search
+	 */
+	public int getSettledVertex(int i) {
+		return this.order[i];
+	}
+
+	/**
+	 * @return distance of <code>v</code> from the last source, or infinity if
+	 *         it was not reached
+	 */
+	public double getDistance(int v) {
+		return this.distance[v];
+	}
+
+	/**
+	 * @return number of shortest paths to <code>v</code> from the last source
+	 */
+	public double getPathCount(int v) {
+		return this.sigma[v];
+	}
+}
@@ -0,0 +1,181 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Read only snapshot of the events of a {@code NavigableGraph} in an interval,
+ * as one stream of arcs sorted by time, for the one pass algorithms over
+ * time-respecting paths. Arc <code>a</code> leaves <code>sources[a]</code> for
+ * <code>targets[a]</code> at <code>times[a]</code>, and
+ * <code>times</code> never decreases. Directed events give one arc and
+ * undirected events give one in each direction, following
+ * <code>getOutEdges</code>; self loops are left out. Arcs at the same time are
+ * in no particular order.
+ *
+ * Vertices are numbered in the order of <code>getVertices()</code>, as in
+ * {@code CompactGraph}, and keys are read as longs, as in {@code EventKeys}.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class EventStream<V> {
+	protected final List<V> vertices;
+	protected final Map<V, Integer> index;
+	protected final int[] sources;
+	protected final int[] targets;
+	protected final long[] times;
+
+	protected EventStream(List<V> vertices, Map<V, Integer> index, int[] sources, int[] targets, long[] times) {
+		this.vertices = vertices;
+		this.index = index;
+		this.sources = sources;
+		this.targets = targets;
+		this.times = times;
+	}
+
+	/**
+	 * The events with keys from <code>start</code> (inclusive) to
+	 * <code>stop</code> (exclusive), read with
+	 * {@link NavigableGraph#getOutEdges(Object, Comparable, Comparable)} so
+	 * that no sub-network is built
+	 *
+	 * @param start
+	 *            beginning of the interval, or null for no lower limit
+	 * @param stop
+	 *            end of the interval, or null for no upper limit
+	 */
+	public static <K extends Number & Comparable<K>, V, E> EventStream<V> fromGraph(NavigableGraph<K, V, E> graph,
+	        K start, K stop) {
+		List<V> vertices = Collections.unmodifiableList(new ArrayList<V>(graph.getVertices()));
+		int n = vertices.size();
+		Map<V, Integer> index = new HashMap<V, Integer>(2 * n);
+		for (int i = 0; i < n; i++) {
+			index.put(vertices.get(i), i);
+		}
+
+		int[] sources = new int[16];
+		int[] targets = new int[16];
+		long[] times = new long[16];
+		int arcs = 0;
+		for (int u = 0; u < n; u++) {
+			V vertex = vertices.get(u);
+			for (EdgeEntry<K, V, E> edge : graph.getOutEdges(vertex, start, stop)) {
+				V other = graph.getOpposite(vertex, edge);
+				Integer target = other == null ? null : index.get(other);
+				if (target == null || target == u) {
+					continue;
+				}
+				if (arcs == sources.length) {
+					sources = Arrays.copyOf(sources, 2 * arcs);
+					targets = Arrays.copyOf(targets, 2 * arcs);
+					times = Arrays.copyOf(times, 2 * arcs);
+				}
+				sources[arcs] = u;
+				targets[arcs] = target;
+				times[arcs] = edge.getKey().longValue();
+				arcs++;
+			}
+		}
+
+		int[] order = sortByTime(times, arcs);
+		int[] sortedSources = new int[arcs];
+		int[] sortedTargets = new int[arcs];
+		long[] sortedTimes = new long[arcs];
+		for (int a = 0; a < arcs; a++) {
+			sortedSources[a] = sources[order[a]];
+			sortedTargets[a] = targets[order[a]];
+			sortedTimes[a] = times[order[a]];
+		}
+		return new EventStream<V>(vertices, index, sortedSources, sortedTargets, sortedTimes);
+	}
+
+	/**
+	 * The whole graph
+	 */
+	public static <K extends Number & Comparable<K>, V, E> EventStream<V> fromGraph(NavigableGraph<K, V, E> graph) {
+		return fromGraph(graph, null, null);
+	}
+
+	/**
+	 * @return the positions of the first <code>size</code> times in ascending
+	 *         order of time, by a merge sort of primitive indices
+	 */
+	public static int[] sortByTime(long[] times, int size) {
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		int[] buffer = new int[size];
+		for (int width = 1; width < size; width *= 2) {
+			for (int low = 0; low < size; low += 2 * width) {
+				int middle = Math.min(low + width, size);
+				int high = Math.min(low + 2 * width, size);
+				int i = low;
+				int j = middle;
+				for (int k = low; k < high; k++) {
+					if (i < middle && (j >= high || times[order[i]] <= times[order[j]])) {
+						buffer[k] = order[i++];
+					} else {
+						buffer[k] = order[j++];
+					}
+				}
+			}
+			int[] swap = order;
+			order = buffer;
+			buffer = swap;
+		}
+		return order;
+	}
+
+	/**
+	 * @return number of vertices
+	 */
+	public int size() {
+		return this.vertices.size();
+	}
+
+	/**
+	 * @return number of arcs
+	 */
+	public int arcCount() {
+		return this.times.length;
+	}
+
+	public List<V> getVertices() {
+		return this.vertices;
+	}
+
+	public V getVertex(int i) {
+		return this.vertices.get(i);
+	}
+
+	/**
+	 * @return the number of <code>vertex</code>, or -1 if it is not in the
+	 *         graph
+	 */
+	public int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		return i == null ? -1 : i;
+	}
+
+	public int[] getSources() {
+		return this.sources;
+	}
+
+	public int[] getTargets() {
+		return this.targets;
+	}
+
+	public long[] getTimes() {
+		return this.times;
+	}
+}
@@ -0,0 +1,162 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.Arrays;
+
+/**
+ * An array of HyperLogLog counters sharing one block of byte registers, for
+ * estimating the sizes of many sets of vertices (or other longs) at once, e.g.
+ * the balls around every vertex of a graph. Counter <code>i</code> owns
+ * registers <code>[i * m, (i + 1) * m)</code> where <code>m =
+ * 2^log2m</code>; the relative standard error of each estimate is about
+ * <code>1.04 / sqrt(m)</code>.
+ *
+ * Counters are only ever merged by register-wise maximum, so unions are cheap
+ * and a counter can be checked for change while it is merged.
+ *
+ * @see "Philippe Flajolet, Eric Fusy, Olivier Gandouet and Frederic Meunier: HyperLogLog: the analysis of a near-optimal cardinality estimation algorithm. AofA 2007."
+ *
+ * @author jfolson
+ *
+ */
+public class HyperLogLogCounters {
+	protected final int size;
+	protected final int log2m;
+	protected final int m;
+	protected final long seed;
+	protected final byte[] registers;
+	protected final double alphaMM;
+
+	/**
+	 * @param size
+	 *            number of counters
+	 * @param log2m
+	 *            base 2 logarithm of the number of registers per counter,
+	 *            from 4 to 16
+	 * @param seed
+	 *            seed for the hash of the added values; counters are only
+	 *            comparable with counters using the same seed
+	 */
+	public HyperLogLogCounters(int size, int log2m, long seed) {
+		if (log2m < 4 || log2m > 16) {
+			throw new IllegalArgumentException("log2m must be between 4 and 16: " + log2m);
+		}
+		this.size = size;
+		this.log2m = log2m;
+		this.m = 1 << log2m;
+		this.seed = seed;
+		this.registers = new byte[size * this.m];
+		double alpha;
+		switch (this.m) {
+		case 16:
+			alpha = 0.673;
+			break;
+		case 32:
+			alpha = 0.697;
+			break;
+		case 64:
+			alpha = 0.709;
+			break;
+		default:
+			alpha = 0.7213 / (1 + 1.079 / this.m);
+		}
+		this.alphaMM = alpha * this.m * this.m;
+	}
+
+	/**
+	 * Counters with the same shape and hash as <code>other</code>, all empty
+	 */
+	public HyperLogLogCounters(HyperLogLogCounters other) {
+		this(other.size, other.log2m, other.seed);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getLog2m() {
+		return this.log2m;
+	}
+
+	public int getRegisterCount() {
+		return this.m;
+	}
+
+	/**
+	 * 64 bit mix of <code>value</code> and the seed (the splitmix64 finalizer)
+	 */
+	protected long hash(long value) {
+		long z = value + this.seed * 0x9E3779B97F4A7C15L + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	public void add(int counter, long value) {
+		long hash = this.hash(value);
+		int register = (int) (hash >>> (64 - this.log2m));
+		// rank of the first set bit among the remaining bits, capped by a
+		// sentinel so that all zeros still gives a finite rank
+		long rest = (hash << this.log2m) | (1L << (this.log2m - 1));
+		byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+		int index = counter * this.m + register;
+		if (this.registers[index] < rank) {
+			this.registers[index] = rank;
+		}
+	}
+
+	/**
+	 * Merge counter <code>from</code> of <code>source</code> into counter
+	 * <code>to</code> of these counters
+	 *
+	 * @return whether counter <code>to</code> changed
+	 */
+	public boolean union(int to, HyperLogLogCounters source, int from) {
+		byte[] target = this.registers;
+		byte[] other = source.registers;
+		int t = to * this.m;
+		int f = from * this.m;
+		boolean changed = false;
+		for (int j = 0; j < this.m; j++) {
+			if (other[f + j] > target[t + j]) {
+				target[t + j] = other[f + j];
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Overwrite counter <code>to</code> with counter <code>from</code> of
+	 * <code>source</code>
+	 */
+	public void copy(int to, HyperLogLogCounters source, int from) {
+		System.arraycopy(source.registers, from * this.m, this.registers, to * this.m, this.m);
+	}
+
+	public void clear() {
+		Arrays.fill(this.registers, (byte) 0);
+	}
+
+	/**
+	 * @return estimated number of distinct values added to
+	 *         <code>counter</code>
+	 */
+	public double count(int counter) {
+		int offset = counter * this.m;
+		double sum = 0;
+		int zeros = 0;
+		for (int j = 0; j < this.m; j++) {
+			byte register = this.registers[offset + j];
+			if (register == 0) {
+				zeros++;
+			}
+			sum += 1.0 / (1L << register);
+		}
+		double estimate = this.alphaMM / sum;
+		if (estimate <= 2.5 * this.m && zeros > 0) {
+			// linear counting is more accurate for small sets
+			estimate = this.m * Math.log((double) this.m / zeros);
+		}
+		return estimate;
+	}
+}
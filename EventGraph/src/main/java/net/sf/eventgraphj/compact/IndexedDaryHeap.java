@@ -0,0 +1,144 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap of the ints <code>0 .. capacity - 1</code> keyed by doubles, for
+ * priority queues over vertex numbers such as Dijkstra's. Each id's place in
+ * the heap is tracked so its key can be decreased in place, and nothing is
+ * allocated after construction.
+ *
+ * Each node has four children rather than two, which halves the height of the
+ * heap; decreasing a key, the common operation in Dijkstra's algorithm, only
+ * walks up, so gets cheaper, while the extra comparisons on removal stay
+ * within a cache line.
+ *
+ * @author jfolson
+ *
+ */
+public class IndexedDaryHeap {
+	protected static final int ARITY = 4;
+
+	protected final int[] heap;
+	protected final int[] position;
+	protected final double[] keys;
+	protected int size;
+
+	public IndexedDaryHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.position = new int[capacity];
+		this.keys = new double[capacity];
+		Arrays.fill(this.position, -1);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public boolean contains(int id) {
+		return this.position[id] >= 0;
+	}
+
+	/**
+	 * @return the key of <code>id</code>, which must be in the heap
+	 */
+	public double getKey(int id) {
+		return this.keys[id];
+	}
+
+	/**
+	 * Adds <code>id</code> with <code>key</code>, or lowers its key to
+	 * <code>key</code> if it is already in the heap with a higher one
+	 *
+	 * @return whether the heap changed
+	 */
+	public boolean offer(int id, double key) {
+		int i = this.position[id];
+		if (i < 0) {
+			i = this.size++;
+		} else if (key >= this.keys[id]) {
+			return false;
+		}
+		this.keys[id] = key;
+		this.siftUp(id, i);
+		return true;
+	}
+
+	/**
+	 * Removes the id with the least key
+	 *
+	 * @throws IllegalStateException
+	 *             if the heap is empty
+	 */
+	public int poll() {
+		if (this.size == 0) {
+			throw new IllegalStateException("heap is empty");
+		}
+		int top = this.heap[0];
+		this.position[top] = -1;
+		int last = this.heap[--this.size];
+		if (this.size > 0) {
+			this.siftDown(last, 0);
+		}
+		return top;
+	}
+
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.position[this.heap[i]] = -1;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Places <code>id</code> at or above slot <code>i</code>
+	 */
+	protected void siftUp(int id, int i) {
+		double key = this.keys[id];
+		while (i > 0) {
+			int parent = (i - 1) / ARITY;
+			int above = this.heap[parent];
+			if (this.keys[above] <= key) {
+				break;
+			}
+			this.heap[i] = above;
+			this.position[above] = i;
+			i = parent;
+		}
+		this.heap[i] = id;
+		this.position[id] = i;
+	}
+
+	/**
+	 * Places <code>id</code> at or below slot <code>i</code>
+	 */
+	protected void siftDown(int id, int i) {
+		double key = this.keys[id];
+		while (true) {
+			int first = i * ARITY + 1;
+			if (first >= this.size) {
+				break;
+			}
+			int least = first;
+			int end = Math.min(first + ARITY, this.size);
+			for (int c = first + 1; c < end; c++) {
+				if (this.keys[this.heap[c]] < this.keys[this.heap[least]]) {
+					least = c;
+				}
+			}
+			int below = this.heap[least];
+			if (this.keys[below] >= key) {
+				break;
+			}
+			this.heap[i] = below;
+			this.position[below] = i;
+			i = least;
+		}
+		this.heap[i] = id;
+		this.position[id] = i;
+	}
+}
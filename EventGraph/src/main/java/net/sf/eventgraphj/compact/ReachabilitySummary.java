@@ -0,0 +1,205 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Estimated sizes of the sets of vertices each vertex can reach by
+ * time-respecting paths, for departures from each of a list of bucket
+ * boundaries up to the end of an {@code EventStream}, so that repeated queries
+ * cost one {@code HyperLogLogCounters} count instead of a sweep over the
+ * events.
+ *
+ * The counters are filled by one backward sweep over the stream: taking an arc
+ * from <code>u</code> to <code>v</code> at <code>t</code> lets <code>u</code>
+ * reach everything <code>v</code> reaches leaving after <code>t</code>, so the
+ * counter of <code>u</code> takes the union with the counter <code>v</code>
+ * had before the arcs at <code>t</code>. Paths move strictly forward in time,
+ * as {@code TemporalPathSearch} with no duration, and the horizon is the end
+ * of the stream; build the stream up to the horizon wanted. The counters are
+ * copied at each boundary, so memory is the number of boundaries times the
+ * number of vertices times <code>2^log2m</code> bytes.
+ *
+ * @see "Paolo Boldi, Marco Rosa and Sebastiano Vigna: HyperANF: Approximating the Neighbourhood Function of Very Large Graphs on a Budget. WWW 2011."
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class ReachabilitySummary<V> {
+	public static final int DEFAULT_LOG2M = 7;
+
+	protected final EventStream<V> stream;
+	protected final long[] boundaries;
+	/**
+	 * Reachable sets leaving at or after each boundary, each including its own
+	 * vertex
+	 */
+	protected final HyperLogLogCounters[] snapshots;
+
+	/**
+	 * @param boundaries
+	 *            departure times to summarize from, strictly ascending
+	 * @param log2m
+	 *            base 2 logarithm of the number of registers per counter,
+	 *            from 4 to 16
+	 * @param seed
+	 *            seed of the counters' hash
+	 */
+	public ReachabilitySummary(EventStream<V> stream, long[] boundaries, int log2m, long seed) {
+		for (int b = 1; b < boundaries.length; b++) {
+			if (boundaries[b] <= boundaries[b - 1]) {
+				throw new IllegalArgumentException("boundaries must be strictly ascending: "
+				        + Arrays.toString(boundaries));
+			}
+		}
+		this.stream = stream;
+		this.boundaries = boundaries.clone();
+		this.snapshots = new HyperLogLogCounters[boundaries.length];
+		this.compute(log2m, seed);
+	}
+
+	/**
+	 * Over the events from <code>start</code> (inclusive) to
+	 * <code>stop</code> (exclusive), with a boundary every <code>width</code>
+	 * from the first event
+	 */
+	public static <K extends Number & Comparable<K>, V, E> ReachabilitySummary<V> fromGraph(
+	        NavigableGraph<K, V, E> graph, K start, K stop, long width, int log2m) {
+		EventStream<V> stream = EventStream.fromGraph(graph, start, stop);
+		return new ReachabilitySummary<V>(stream, boundaries(stream, width), log2m, 0l);
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> ReachabilitySummary<V> fromGraph(
+	        NavigableGraph<K, V, E> graph, K start, K stop, long width) {
+		return fromGraph(graph, start, stop, width, DEFAULT_LOG2M);
+	}
+
+	/**
+	 * @return a boundary every <code>width</code> from the first event of
+	 *         <code>stream</code> to its last
+	 */
+	public static long[] boundaries(EventStream<?> stream, long width) {
+		if (width <= 0) {
+			throw new IllegalArgumentException("width must be positive: " + width);
+		}
+		long[] times = stream.getTimes();
+		if (times.length == 0) {
+			return new long[0];
+		}
+		long first = times[0];
+		long last = times[times.length - 1];
+		long[] boundaries = new long[(int) ((last - first) / width) + 1];
+		for (int b = 0; b < boundaries.length; b++) {
+			boundaries[b] = first + b * width;
+		}
+		return boundaries;
+	}
+
+	protected void compute(int log2m, long seed) {
+		int n = this.stream.size();
+		int[] sources = this.stream.getSources();
+		int[] targets = this.stream.getTargets();
+		long[] times = this.stream.getTimes();
+		HyperLogLogCounters reach = new HyperLogLogCounters(n, log2m, seed);
+		HyperLogLogCounters before = new HyperLogLogCounters(reach);
+		for (int v = 0; v < n; v++) {
+			reach.add(v, v);
+		}
+		int a = times.length - 1;
+		for (int b = this.boundaries.length - 1; b >= 0; b--) {
+			while (a >= 0 && times[a] >= this.boundaries[b]) {
+				// arcs at the same time may not follow one another
+				int low = a;
+				while (low > 0 && times[low - 1] == times[a]) {
+					low--;
+				}
+				for (int i = low; i <= a; i++) {
+					before.copy(targets[i], reach, targets[i]);
+				}
+				for (int i = low; i <= a; i++) {
+					reach.union(sources[i], before, targets[i]);
+				}
+				a = low - 1;
+			}
+			HyperLogLogCounters snapshot = new HyperLogLogCounters(reach);
+			for (int v = 0; v < n; v++) {
+				snapshot.copy(v, reach, v);
+			}
+			this.snapshots[b] = snapshot;
+		}
+	}
+
+	/**
+	 * @return the position of the first boundary no earlier than
+	 *         <code>from</code>, or the number of boundaries if there is none
+	 */
+	protected int bucketOf(long from) {
+		return TemporalPathSearch.firstAt(this.boundaries, from);
+	}
+
+	/**
+	 * Estimated number of vertices <code>source</code> reaches, including
+	 * itself, leaving no earlier than <code>from</code> rounded up to the
+	 * next boundary; after the last boundary only the source itself is
+	 * counted
+	 *
+	 * @throws IllegalArgumentException
+	 *             if <code>source</code> is not in the stream
+	 */
+	public double estimate(V source, long from) {
+		int v = this.indexOf(source);
+		int b = this.bucketOf(from);
+		return b < this.snapshots.length ? this.snapshots[b].count(v) : 1;
+	}
+
+	/**
+	 * Estimated number of vertices reached by any of <code>sources</code>,
+	 * including themselves, as {@link #estimate(Object, long)}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if one of <code>sources</code> is not in the stream
+	 */
+	public double estimate(Collection<V> sources, long from) {
+		int b = this.bucketOf(from);
+		if (b == this.snapshots.length) {
+			int[] distinct = new int[sources.size()];
+			int size = 0;
+			for (V source : sources) {
+				distinct[size++] = this.indexOf(source);
+			}
+			Arrays.sort(distinct);
+			int count = size > 0 ? 1 : 0;
+			for (int i = 1; i < size; i++) {
+				if (distinct[i] != distinct[i - 1]) {
+					count++;
+				}
+			}
+			return count;
+		}
+		HyperLogLogCounters snapshot = this.snapshots[b];
+		HyperLogLogCounters union = new HyperLogLogCounters(1, snapshot.getLog2m(), snapshot.seed);
+		for (V source : sources) {
+			union.union(0, snapshot, this.indexOf(source));
+		}
+		return union.count(0);
+	}
+
+	protected int indexOf(V vertex) {
+		int i = this.stream.indexOf(vertex);
+		if (i < 0) {
+			throw new IllegalArgumentException(vertex + " is not in the stream");
+		}
+		return i;
+	}
+
+	public EventStream<V> getStream() {
+		return this.stream;
+	}
+
+	public long[] getBoundaries() {
+		return this.boundaries.clone();
+	}
+}
@@ -0,0 +1,472 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+
+/**
+ * Reusable single source searches for time-respecting paths over an
+ * {@code EventStream}, each one pass over the stream's arcs in time order (or
+ * in reverse), in the manner of Wu et al. All state is held in arrays sized to
+ * the stream when the search is made, so repeated searches (one per source, on
+ * one thread) allocate little.
+ *
+ * Taking the arc at time <code>t</code> reaches its target at
+ * <code>t + duration</code>. A path is time-respecting when each arc is taken
+ * no earlier than the previous one arrived, and, when <code>duration</code> is
+ * zero, strictly after it, so that a path never takes two arcs at the same
+ * instant. The source may leave at any time in the stream.
+ * <ul>
+ * <li>{@link #earliestArrival(int, long, long)}: the earliest time each vertex
+ * can be reached, up to a horizon;</li>
+ * <li>{@link #latestDeparture(int, long)}: the latest time each vertex can be
+ * left and still reach the target in time;</li>
+ * <li>{@link #fastest(int, long)}: the shortest time from leaving the source to
+ * arriving at each vertex;</li>
+ * <li>{@link #shortest(int, long)}: the fewest arcs on a time-respecting path
+ * to each vertex;</li>
+ * <li>{@link #foremostPaths(int, long)}: the earliest arrivals, with the number
+ * of prefix-foremost paths to each vertex (paths that reach every vertex on
+ * them as early as possible) and each vertex's dependency on them, as
+ * Brandes' algorithm accumulates for betweenness.</li>
+ * </ul>
+ * Fastest and shortest paths keep, per vertex, only the paths not beaten on both leaving
+ * (or arc count) and arrival time; since arrivals come in time order these
+ * lists are only ever appended to and each is scanned once, so every search
+ * is linear in the number of arcs and vertices.
+ *
+ * @see "Huanhuan Wu, James Cheng, Silu Huang, Yiping Ke, Yi Lu and Yanyan Xu: Path Problems in Temporal Graphs. VLDB 2014."
+ * @see "Sebastian Bu&szlig;, Hendrik Molter, Rolf Niedermeier and Maciej Rymar: Algorithmic Aspects of Temporal Betweenness. KDD 2020."
+ *
+ * @author jfolson
+ *
+ */
+public class TemporalPathSearch {
+	/**
+	 * Work done for each source by
+	 * {@link TemporalPathSearch#forEachSource(EventStream, long, ForkJoinPool, SourceBody)}
+	 */
+	public static interface SourceBody {
+		/**
+		 * Called once per source, possibly on several threads at once, each
+		 * with its own <code>search</code>
+		 */
+		public void run(TemporalPathSearch search, int source);
+	}
+
+	public static final long UNREACHED_ARRIVAL = Long.MAX_VALUE;
+	public static final long UNREACHED_DEPARTURE = Long.MIN_VALUE;
+	public static final long UNREACHED_DURATION = Long.MAX_VALUE;
+	public static final int UNREACHED_HOPS = Integer.MAX_VALUE;
+
+	protected final int[] sources;
+	protected final int[] targets;
+	protected final long[] times;
+	protected final long duration;
+	protected final long[] arrival;
+	protected final long[] departure;
+	protected final long[] fastest;
+	protected final int[] hops;
+	/**
+	 * Per vertex lists of paths, as the leaving time (or minus the arc count)
+	 * and the arrival time, both ascending
+	 */
+	protected final long[][] firsts;
+	protected final long[][] arrivals;
+	protected final int[] sizes;
+	/**
+	 * Last entry of each list whose arrival is ready for the current arc
+	 */
+	protected final int[] ready;
+	/**
+	 * Path counts and dependencies of the last foremost path search, null
+	 * until the first one
+	 */
+	protected double[] sigma;
+	protected double[] delta;
+
+	/**
+	 * @param duration
+	 *            time each arc takes, not negative
+	 */
+	public TemporalPathSearch(EventStream<?> stream, long duration) {
+		if (duration < 0) {
+			throw new IllegalArgumentException("duration must not be negative: " + duration);
+		}
+		int n = stream.size();
+		this.sources = stream.getSources();
+		this.targets = stream.getTargets();
+		this.times = stream.getTimes();
+		this.duration = duration;
+		this.arrival = new long[n];
+		this.departure = new long[n];
+		this.fastest = new long[n];
+		this.hops = new int[n];
+		this.firsts = new long[n][];
+		this.arrivals = new long[n][];
+		this.sizes = new int[n];
+		this.ready = new int[n];
+	}
+
+	public TemporalPathSearch(EventStream<?> stream) {
+		this(stream, 0);
+	}
+
+	/**
+	 * Runs <code>body</code> for every source of <code>stream</code>, with the
+	 * sources split across <code>pool</code> and each piece of the range
+	 * reusing one search
+	 *
+	 * @param pool
+	 *            pool to search on, or null for the default pool
+	 */
+	public static void forEachSource(final EventStream<?> stream, final long duration, ForkJoinPool pool,
+	        final SourceBody body) {
+		ParallelRange.run(pool, 0, stream.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				TemporalPathSearch search = new TemporalPathSearch(stream, duration);
+				for (int source = from; source < to; source++) {
+					body.run(search, source);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Whether an arc at <code>time</code> may follow an arrival at
+	 * <code>arrived</code>
+	 */
+	protected boolean ready(long time, long arrived) {
+		return this.duration > 0 ? time >= arrived : time > arrived;
+	}
+
+	/**
+	 * Earliest arrival at every vertex from <code>source</code>, leaving no
+	 * earlier than <code>from</code> and arriving no later than
+	 * <code>by</code>. The pass starts at the first arc at <code>from</code>,
+	 * found by binary search, and stops at the first arc that would arrive
+	 * after <code>by</code> or once every vertex is reached, so a short
+	 * horizon only reads the arcs within it.
+	 *
+	 * @return the number of vertices reached, including the source
+	 */
+	public int earliestArrival(int source, long from, long by) {
+		Arrays.fill(this.arrival, UNREACHED_ARRIVAL);
+		this.arrival[source] = from;
+		int reached = 1;
+		long last = by - this.duration;
+		for (int a = firstAt(this.times, from); a < this.times.length && reached < this.arrival.length; a++) {
+			long time = this.times[a];
+			if (time > last) {
+				break;
+			}
+			int u = this.sources[a];
+			if (u == source ? time < from : !this.ready(time, this.arrival[u])) {
+				continue;
+			}
+			int v = this.targets[a];
+			long arrived = time + this.duration;
+			if (v != source && arrived < this.arrival[v]) {
+				if (this.arrival[v] == UNREACHED_ARRIVAL) {
+					reached++;
+				}
+				this.arrival[v] = arrived;
+			}
+		}
+		return reached;
+	}
+
+	/**
+	 * Earliest arrival at every vertex from <code>source</code>, leaving no
+	 * earlier than <code>from</code>
+	 *
+	 * @return the number of vertices reached, including the source
+	 */
+	public int earliestArrival(int source, long from) {
+		return this.earliestArrival(source, from, Long.MAX_VALUE);
+	}
+
+	public int earliestArrival(int source) {
+		return this.earliestArrival(source, Long.MIN_VALUE);
+	}
+
+	/**
+	 * @return the position of the first of the ascending <code>times</code>
+	 *         that is no earlier than <code>time</code>, or its length if
+	 *         there is none
+	 */
+	public static int firstAt(long[] times, long time) {
+		int low = 0;
+		int high = times.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Latest departure from every vertex that still reaches
+	 * <code>target</code> by <code>by</code>
+	 *
+	 * @return the number of vertices that reach the target, including itself
+	 */
+	public int latestDeparture(int target, long by) {
+		Arrays.fill(this.departure, UNREACHED_DEPARTURE);
+		this.departure[target] = by;
+		int reached = 1;
+		for (int a = this.times.length - 1; a >= 0; a--) {
+			long time = this.times[a];
+			int v = this.targets[a];
+			long arrived = time + this.duration;
+			if (v == target ? arrived > by : this.departure[v] == UNREACHED_DEPARTURE
+			        || !this.ready(this.departure[v], arrived)) {
+				continue;
+			}
+			int u = this.sources[a];
+			if (u != target && time > this.departure[u]) {
+				if (this.departure[u] == UNREACHED_DEPARTURE) {
+					reached++;
+				}
+				this.departure[u] = time;
+			}
+		}
+		return reached;
+	}
+
+	public int latestDeparture(int target) {
+		return this.latestDeparture(target, Long.MAX_VALUE - this.duration);
+	}
+
+	/**
+	 * Shortest time from leaving <code>source</code> (no earlier than
+	 * <code>from</code>) to arriving at every vertex
+	 *
+	 * @return the number of vertices reached, including the source
+	 */
+	public int fastest(int source, long from) {
+		Arrays.fill(this.fastest, UNREACHED_DURATION);
+		this.fastest[source] = 0;
+		return this.paretoPass(source, from, false);
+	}
+
+	public int fastest(int source) {
+		return this.fastest(source, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Fewest arcs on a time-respecting path from <code>source</code> (leaving
+	 * no earlier than <code>from</code>) to every vertex
+	 *
+	 * @return the number of vertices reached, including the source
+	 */
+	public int shortest(int source, long from) {
+		Arrays.fill(this.hops, UNREACHED_HOPS);
+		this.hops[source] = 0;
+		return this.paretoPass(source, from, true);
+	}
+
+	public int shortest(int source) {
+		return this.shortest(source, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Earliest arrivals from <code>source</code> as
+	 * {@link #earliestArrival(int, long)}, then two more passes: forward in
+	 * time counting the prefix-foremost paths to each vertex, and back again
+	 * accumulating the dependency of <code>source</code> on each vertex.
+	 * Every arc such a path takes leaves a vertex after the earliest arrival
+	 * there and arrives at the earliest arrival of its target, so the arcs
+	 * come in the order of a topological sort of the paths.
+	 *
+	 * @return the number of vertices reached, including the source
+	 */
+	public int foremostPaths(int source, long from) {
+		int reached = this.earliestArrival(source, from);
+		if (this.sigma == null) {
+			this.sigma = new double[this.arrival.length];
+			this.delta = new double[this.arrival.length];
+		}
+		Arrays.fill(this.sigma, 0);
+		Arrays.fill(this.delta, 0);
+		this.sigma[source] = 1;
+		for (int a = 0; a < this.times.length; a++) {
+			if (this.isForemost(a, source, from)) {
+				this.sigma[this.targets[a]] += this.sigma[this.sources[a]];
+			}
+		}
+		for (int a = this.times.length - 1; a >= 0; a--) {
+			if (this.isForemost(a, source, from)) {
+				int u = this.sources[a];
+				int v = this.targets[a];
+				this.delta[u] += this.sigma[u] / this.sigma[v] * (1 + this.delta[v]);
+			}
+		}
+		return reached;
+	}
+
+	public int foremostPaths(int source) {
+		return this.foremostPaths(source, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Whether arc <code>a</code> extends a foremost path to its source into a
+	 * foremost path to its target, by the last earliest arrival search
+	 */
+	protected boolean isForemost(int a, int source, long from) {
+		int u = this.sources[a];
+		int v = this.targets[a];
+		long time = this.times[a];
+		if (v == source || (u == source ? time < from : !this.ready(time, this.arrival[u]))) {
+			return false;
+		}
+		return time + this.duration == this.arrival[v];
+	}
+
+	/**
+	 * One pass keeping, per vertex, the paths that arrive later only if they
+	 * also left later (or took fewer arcs)
+	 */
+	protected int paretoPass(int source, long from, boolean countHops) {
+		Arrays.fill(this.sizes, 0);
+		Arrays.fill(this.ready, -1);
+		int reached = 1;
+		for (int a = 0; a < this.times.length; a++) {
+			long time = this.times[a];
+			int u = this.sources[a];
+			long first;
+			if (u == source) {
+				if (time < from) {
+					continue;
+				}
+				first = countHops ? 0 : time;
+			} else {
+				// entries of the list that can be left from are a prefix
+				// that only grows, and the last of them is the best
+				int r = this.ready[u];
+				while (r + 1 < this.sizes[u] && this.ready(time, this.arrivals[u][r + 1])) {
+					r++;
+				}
+				this.ready[u] = r;
+				if (r < 0) {
+					continue;
+				}
+				first = this.firsts[u][r];
+			}
+			int v = this.targets[a];
+			if (v == source) {
+				continue;
+			}
+			long next = countHops ? first - 1 : first;
+			long arrived = time + this.duration;
+			if (!this.append(v, next, arrived)) {
+				continue;
+			}
+			if (countHops) {
+				if (this.hops[v] == UNREACHED_HOPS) {
+					reached++;
+				}
+				this.hops[v] = (int) Math.min(this.hops[v], -next);
+			} else {
+				if (this.fastest[v] == UNREACHED_DURATION) {
+					reached++;
+				}
+				this.fastest[v] = Math.min(this.fastest[v], arrived - next);
+			}
+		}
+		return reached;
+	}
+
+	/**
+	 * Adds a path to the list of <code>v</code> unless one already there left
+	 * as late and so arrived no later
+	 *
+	 * @return whether the path was kept
+	 */
+	protected boolean append(int v, long first, long arrived) {
+		int size = this.sizes[v];
+		if (size > 0) {
+			int last = size - 1;
+			if (this.firsts[v][last] >= first) {
+				return false;
+			}
+			if (this.arrivals[v][last] == arrived) {
+				this.firsts[v][last] = first;
+				return true;
+			}
+		}
+		if (this.firsts[v] == null) {
+			this.firsts[v] = new long[4];
+			this.arrivals[v] = new long[4];
+		} else if (size == this.firsts[v].length) {
+			this.firsts[v] = Arrays.copyOf(this.firsts[v], 2 * size);
+			this.arrivals[v] = Arrays.copyOf(this.arrivals[v], 2 * size);
+		}
+		this.firsts[v][size] = first;
+		this.arrivals[v][size] = arrived;
+		this.sizes[v] = size + 1;
+		return true;
+	}
+
+	public long getDuration() {
+		return this.duration;
+	}
+
+	/**
+	 * @return earliest arrival at <code>v</code> in the last
+	 *         {@link #earliestArrival(int, long)}, or
+	 *         {@link #UNREACHED_ARRIVAL}
+	 */
+	public long getArrival(int v) {
+		return this.arrival[v];
+	}
+
+	/**
+	 * @return latest departure from <code>v</code> in the last
+	 *         {@link #latestDeparture(int, long)}, or
+	 *         {@link #UNREACHED_DEPARTURE}
+	 */
+	public long getDeparture(int v) {
+		return this.departure[v];
+	}
+
+	/**
+	 * @return shortest travel time to <code>v</code> in the last
+	 *         {@link #fastest(int, long)}, or {@link #UNREACHED_DURATION}
+	 */
+	public long getFastest(int v) {
+		return this.fastest[v];
+	}
+
+	/**
+	 * @return number of prefix-foremost paths to <code>v</code> in the last
+	 *         {@link #foremostPaths(int, long)}
+	 */
+	public double getPathCount(int v) {
+		return this.sigma[v];
+	}
+
+	/**
+	 * @return dependency of the last source of
+	 *         {@link #foremostPaths(int, long)} on <code>v</code>: the sum over
+	 *         targets of the share of prefix-foremost paths through
+	 *         <code>v</code>
+	 */
+	public double getDependency(int v) {
+		return this.delta[v];
+	}
+
+	/**
+	 * @return fewest arcs to <code>v</code> in the last
+	 *         {@link #shortest(int, long)}, or {@link #UNREACHED_HOPS}
+	 */
+	public int getHops(int v) {
+		return this.hops[v];
+	}
+}
@@ -0,0 +1,112 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+/**
+ * Which vertices information leaving a vertex could have reached by a given
+ * time, over the events of an {@code EventStream}. Each query is one forward
+ * sweep of {@link TemporalPathSearch#earliestArrival(int, long, long)}, which
+ * starts at the first event at the time information leaves and stops at the
+ * horizon, so repeated queries over short windows of a long stream only read
+ * those windows; the stream itself is built once.
+ *
+ * Paths follow the rules of {@code TemporalPathSearch}: each event takes
+ * <code>duration</code> to cross, and with no duration paths move strictly
+ * forward in time. For estimates of many reachable sets at once see
+ * {@code ReachabilitySummary}.
+ *
+ * Queries share one search, so an instance is only for one thread at a time.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class TemporalReachability<V> {
+	protected final EventStream<V> stream;
+	protected final TemporalPathSearch search;
+
+	/**
+	 * @param duration
+	 *            time each event takes, not negative
+	 */
+	public TemporalReachability(EventStream<V> stream, long duration) {
+		this.stream = stream;
+		this.search = new TemporalPathSearch(stream, duration);
+	}
+
+	public TemporalReachability(EventStream<V> stream) {
+		this(stream, 0);
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> TemporalReachability<V> fromGraph(
+	        NavigableGraph<K, V, E> graph, long duration) {
+		return new TemporalReachability<V>(EventStream.fromGraph(graph), duration);
+	}
+
+	public static <K extends Number & Comparable<K>, V, E> TemporalReachability<V> fromGraph(
+	        NavigableGraph<K, V, E> graph) {
+		return new TemporalReachability<V>(EventStream.fromGraph(graph));
+	}
+
+	/**
+	 * The vertices reached from <code>source</code>, leaving no earlier than
+	 * <code>from</code> and arriving no later than <code>by</code>
+	 *
+	 * @return each vertex reached (the source first, at <code>from</code>)
+	 *         with its earliest arrival, in order of arrival
+	 * @throws IllegalArgumentException
+	 *             if <code>source</code> is not in the stream
+	 */
+	public Map<V, Long> reachable(V source, long from, long by) {
+		int reached = this.search.earliestArrival(this.indexOf(source), from, by);
+		int n = this.stream.size();
+		int[] vertices = new int[reached];
+		long[] arrivals = new long[reached];
+		int size = 0;
+		for (int v = 0; v < n; v++) {
+			long arrival = this.search.getArrival(v);
+			if (arrival != TemporalPathSearch.UNREACHED_ARRIVAL) {
+				vertices[size] = v;
+				arrivals[size] = arrival;
+				size++;
+			}
+		}
+		int[] order = EventStream.sortByTime(arrivals, size);
+		Map<V, Long> result = new LinkedHashMap<V, Long>(2 * size);
+		for (int i = 0; i < size; i++) {
+			result.put(this.stream.getVertex(vertices[order[i]]), arrivals[order[i]]);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * @return the number of vertices reached from <code>source</code>,
+	 *         including itself, leaving no earlier than <code>from</code> and
+	 *         arriving no later than <code>by</code>
+	 * @throws IllegalArgumentException
+	 *             if <code>source</code> is not in the stream
+	 */
+	public int countReachable(V source, long from, long by) {
+		return this.search.earliestArrival(this.indexOf(source), from, by);
+	}
+
+	protected int indexOf(V vertex) {
+		int i = this.stream.indexOf(vertex);
+		if (i < 0) {
+			throw new IllegalArgumentException(vertex + " is not in the stream");
+		}
+		return i;
+	}
+
+	public EventStream<V> getStream() {
+		return this.stream;
+	}
+
+	public long getDuration() {
+		return this.search.getDuration();
+	}
+}
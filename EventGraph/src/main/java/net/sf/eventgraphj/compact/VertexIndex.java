@@ -0,0 +1,75 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fixed numbering of a population of vertices, such as every vertex seen
+ * across a series of snapshots, so that scores of each snapshot can be written
+ * into arrays in which the same slot always belongs to the same vertex.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ */
+public class VertexIndex<V> {
+	protected final List<V> vertices;
+	protected final Map<V, Integer> index;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if a vertex is listed twice
+	 */
+	public VertexIndex(List<V> vertices) {
+		this.vertices = Collections.unmodifiableList(new ArrayList<V>(vertices));
+		this.index = new HashMap<V, Integer>(2 * vertices.size());
+		for (int i = 0; i < this.vertices.size(); i++) {
+			if (this.index.put(this.vertices.get(i), i) != null) {
+				throw new IllegalArgumentException("vertex listed twice: " + this.vertices.get(i));
+			}
+		}
+	}
+
+	public int size() {
+		return this.vertices.size();
+	}
+
+	public V get(int i) {
+		return this.vertices.get(i);
+	}
+
+	public List<V> getVertices() {
+		return this.vertices;
+	}
+
+	/**
+	 * @return the slot of <code>vertex</code>, or -1 if it is not indexed
+	 */
+	public int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * @return for each vertex of <code>graph</code>, its slot in this index,
+	 *         or -1 if it is not indexed
+	 */
+	public int[] slotsOf(CompactGraph<V> graph) {
+		return this.slotsOf(graph.getVertices());
+	}
+
+	/**
+	 * @return for each of <code>vertices</code>, its slot in this index, or -1
+	 *         if it is not indexed
+	 */
+	public int[] slotsOf(List<V> vertices) {
+		int[] slots = new int[vertices.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = this.indexOf(vertices.get(i));
+		}
+		return slots;
+	}
+}
@@ -0,0 +1,203 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections15.Transformer;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+/**
+ * Read only snapshot of a {@code Graph} with edge weights, for weighted
+ * shortest path searches. Unlike {@code CompactGraph} there is one arc per
+ * edge rather than per neighbor, so parallel edges keep their own weights and
+ * paths through them can be told apart: the arcs leaving vertex <code>u</code>
+ * are <code>[offsets[u], offsets[u + 1])</code>, arc <code>a</code> leads to
+ * <code>targets[a]</code> with weight <code>weights[a]</code> along edge
+ * <code>getEdges().get(edgeIds[a])</code>. Self loops are left out.
+ *
+ * Weights are read from the {@code Transformer} once, when the snapshot is
+ * made, so searches never box or unbox them.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ * @param <E>
+ */
+public class WeightedCompactGraph<V, E> {
+	protected final List<V> vertices;
+	protected final Map<V, Integer> index;
+	protected final List<E> edges;
+	protected final int[] offsets;
+	protected final int[] targets;
+	protected final double[] weights;
+	protected final int[] edgeIds;
+	protected final boolean undirected;
+
+	protected WeightedCompactGraph(List<V> vertices, Map<V, Integer> index, List<E> edges, int[] offsets,
+	        int[] targets, double[] weights, int[] edgeIds, boolean undirected) {
+		this.vertices = vertices;
+		this.index = index;
+		this.edges = edges;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+		this.edgeIds = edgeIds;
+		this.undirected = undirected;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if an edge has a negative weight
+	 */
+	public static <V, E> WeightedCompactGraph<V, E> fromGraph(Graph<V, E> graph,
+	        Transformer<E, ? extends Number> edgeWeights) {
+		List<E> edges = Collections.unmodifiableList(new ArrayList<E>(graph.getEdges()));
+		Map<E, Integer> edgeIndex = new HashMap<E, Integer>(2 * edges.size());
+		double[] edgeWeight = new double[edges.size()];
+		for (int i = 0; i < edges.size(); i++) {
+			E edge = edges.get(i);
+			edgeIndex.put(edge, i);
+			edgeWeight[i] = edgeWeights.transform(edge).doubleValue();
+			if (edgeWeight[i] < 0) {
+				throw new IllegalArgumentException("Weight for edge '" + edge + "' is < 0: " + edgeWeight[i]);
+			}
+		}
+
+		List<V> vertices = Collections.unmodifiableList(new ArrayList<V>(graph.getVertices()));
+		int n = vertices.size();
+		Map<V, Integer> index = new HashMap<V, Integer>(2 * n);
+		for (int i = 0; i < n; i++) {
+			index.put(vertices.get(i), i);
+		}
+
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[Math.max(16, edges.size())];
+		double[] weights = new double[targets.length];
+		int[] edgeIds = new int[targets.length];
+		int arcs = 0;
+		for (int u = 0; u < n; u++) {
+			V vertex = vertices.get(u);
+			Collection<E> out = graph.getOutEdges(vertex);
+			if (out != null) {
+				for (E edge : out) {
+					V other = graph.getOpposite(vertex, edge);
+					Integer target = other == null ? null : index.get(other);
+					if (target == null || target == u) {
+						continue;
+					}
+					if (arcs == targets.length) {
+						targets = Arrays.copyOf(targets, 2 * arcs);
+						weights = Arrays.copyOf(weights, 2 * arcs);
+						edgeIds = Arrays.copyOf(edgeIds, 2 * arcs);
+					}
+					int e = edgeIndex.get(edge);
+					targets[arcs] = target;
+					weights[arcs] = edgeWeight[e];
+					edgeIds[arcs] = e;
+					arcs++;
+				}
+			}
+			offsets[u + 1] = arcs;
+		}
+		return new WeightedCompactGraph<V, E>(vertices, index, edges, offsets, Arrays.copyOf(targets, arcs),
+		        Arrays.copyOf(weights, arcs), Arrays.copyOf(edgeIds, arcs), graph instanceof UndirectedGraph);
+	}
+
+	/**
+	 * Weights each edge by the inverse of the number of events (parallel edges)
+	 * from its source to its destination, as <code>findEdgeSet</code> counts
+	 * them, so that dyads that interact often are close together. The events
+	 * of every dyad are counted in one pass over the edges.
+	 */
+	public static <V, E> WeightedCompactGraph<V, E> fromEventCounts(final Graph<V, E> graph) {
+		final Map<Pair<V>, Integer> counts = new HashMap<Pair<V>, Integer>();
+		for (E edge : graph.getEdges()) {
+			Pair<V> endpoints = graph.getEndpoints(edge);
+			count(counts, endpoints);
+			// an undirected edge is found from either end
+			if (graph.getEdgeType(edge) == EdgeType.UNDIRECTED
+			        && !endpoints.getFirst().equals(endpoints.getSecond())) {
+				count(counts, new Pair<V>(endpoints.getSecond(), endpoints.getFirst()));
+			}
+		}
+		return fromGraph(graph, new Transformer<E, Double>() {
+			@Override
+			public Double transform(E edge) {
+				return 1.0 / counts.get(graph.getEndpoints(edge));
+			}
+		});
+	}
+
+	private static <V> void count(Map<Pair<V>, Integer> counts, Pair<V> dyad) {
+		Integer count = counts.get(dyad);
+		counts.put(dyad, count == null ? 1 : count + 1);
+	}
+
+	/**
+	 * @return number of vertices
+	 */
+	public int size() {
+		return this.vertices.size();
+	}
+
+	/**
+	 * @return number of arcs
+	 */
+	public int arcCount() {
+		return this.targets.length;
+	}
+
+	public List<V> getVertices() {
+		return this.vertices;
+	}
+
+	public V getVertex(int i) {
+		return this.vertices.get(i);
+	}
+
+	/**
+	 * @return the number of <code>vertex</code>, or -1 if it is not in the
+	 *         graph
+	 */
+	public int indexOf(V vertex) {
+		Integer i = this.index.get(vertex);
+		return i == null ? -1 : i;
+	}
+
+	public List<E> getEdges() {
+		return this.edges;
+	}
+
+	public int[] getOffsets() {
+		return this.offsets;
+	}
+
+	public int[] getTargets() {
+		return this.targets;
+	}
+
+	public double[] getWeights() {
+		return this.weights;
+	}
+
+	public int[] getEdgeIds() {
+		return this.edgeIds;
+	}
+
+	/**
+	 * @return whether the graph was a JUNG {@code UndirectedGraph}, whose
+	 *         paths are each found once from either end
+	 */
+	public boolean isUndirected() {
+		return this.undirected;
+	}
+}
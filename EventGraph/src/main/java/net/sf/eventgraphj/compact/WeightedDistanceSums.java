@@ -0,0 +1,96 @@
+package net.sf.eventgraphj.compact;
+
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.ParallelRange;
+
+/**
+ * Weighted distance sums from every vertex of a {@code WeightedCompactGraph},
+ * the weighted counterpart of {@code MultiSourceBfs}: one
+ * {@code DijkstraSearch} per source, with the sources split across a pool and
+ * each piece of the range reusing one search.
+ *
+ * For each source it keeps the number of other vertices reached, the sum of
+ * the distances to them and the sum of their inverses, following out-arcs as
+ * JUNG's {@code DijkstraDistance} does.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ * @param <E>
+ */
+public class WeightedDistanceSums<V, E> {
+	protected final WeightedCompactGraph<V, E> graph;
+	protected final int[] reached;
+	protected final double[] distanceSums;
+	protected final double[] inverseSums;
+
+	/**
+	 * @param maxDistance
+	 *            distance beyond which vertices are not reached
+	 * @param pool
+	 *            pool to search on, or null for the default pool
+	 */
+	public WeightedDistanceSums(WeightedCompactGraph<V, E> graph, double maxDistance, ForkJoinPool pool) {
+		this.graph = graph;
+		int n = graph.size();
+		this.reached = new int[n];
+		this.distanceSums = new double[n];
+		this.inverseSums = new double[n];
+		this.compute(maxDistance, pool);
+	}
+
+	public WeightedDistanceSums(WeightedCompactGraph<V, E> graph) {
+		this(graph, Double.POSITIVE_INFINITY, null);
+	}
+
+	protected void compute(final double maxDistance, ForkJoinPool pool) {
+		ParallelRange.run(pool, 0, this.graph.size(), new ParallelRange.Body() {
+			@Override
+			public void run(int from, int to) {
+				DijkstraSearch search = new DijkstraSearch(WeightedDistanceSums.this.graph);
+				for (int source = from; source < to; source++) {
+					int settled = search.search(source, maxDistance);
+					double distances = 0;
+					double inverses = 0;
+					// the source is settled first
+					for (int i = 1; i < settled; i++) {
+						double distance = search.getDistance(search.getSettledVertex(i));
+						distances += distance;
+						inverses += 1 / distance;
+					}
+					WeightedDistanceSums.this.reached[source] = settled - 1;
+					WeightedDistanceSums.this.distanceSums[source] = distances;
+					WeightedDistanceSums.this.inverseSums[source] = inverses;
+				}
+			}
+		});
+	}
+
+	public WeightedCompactGraph<V, E> getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * @return the number of other vertices vertex <code>i</code> reaches
+	 */
+	public int getReached(int i) {
+		return this.reached[i];
+	}
+
+	/**
+	 * @return the sum of the distances from vertex <code>i</code> to the
+	 *         vertices it reaches
+	 */
+	public double getDistanceSum(int i) {
+		return this.distanceSums[i];
+	}
+
+	/**
+	 * @return the sum of the inverse distances from vertex <code>i</code> to
+	 *         the vertices it reaches
+	 */
+	public double getInverseDistanceSum(int i) {
+		return this.inverseSums[i];
+	}
+}
@@ -128,6 +128,11 @@ public abstract class AbstractDyadNavigableGraph<K extends Comparable<K>, V, E>
 			return this.parent.addEdgeMetadata(edge, endpoints, edgeType);
 		}
 
+		@Override
+		protected NavigableGraph<K, V, E> root() {
+			return this.parent;
+		}
+
 		@Override
 		public V getDest(EdgeEntry<K, V, E> directedEdge) {
 			return this.parent.getDest(directedEdge);
@@ -266,6 +271,7 @@ public abstract class AbstractDyadNavigableGraph<K extends Comparable<K>, V, E>
 
 	@Override
 	public boolean addVertex(V vertex) {
+		this.checkNotFrozen();
 		return this.getMapGraph().addVertex(vertex);
 	}
 
@@ -469,6 +475,61 @@ public abstract class AbstractDyadNavigableGraph<K extends Comparable<K>, V, E>
 		return neighbors;
 	}
 
+	@Override
+	public Collection<EdgeEntry<K, V, E>> getInEdges(V vertex, K start, K stop) {
+		return this.edgesInInterval(this.mapGraph.containsVertex(vertex) ? this.mapGraph.getInEdges(vertex) : null,
+		        start, stop);
+	}
+
+	@Override
+	public Collection<EdgeEntry<K, V, E>> getOutEdges(V vertex, K start, K stop) {
+		return this.edgesInInterval(this.mapGraph.containsVertex(vertex) ? this.mapGraph.getOutEdges(vertex) : null,
+		        start, stop);
+	}
+
+	/**
+	 * The edges of the dyad <code>maps</code> from <code>start</code> to
+	 * <code>stop</code>, each found in log time by its map
+	 */
+	protected Collection<EdgeEntry<K, V, E>> edgesInInterval(Collection<DyadEdgeMap<K, V, E>> maps, K start, K stop) {
+		Collection<EdgeEntry<K, V, E>> edges = new ArrayList<EdgeEntry<K, V, E>>();
+		if (maps != null) {
+			for (DyadEdgeMap<K, V, E> map : maps) {
+				NavigableMap<K, EdgeEntry<K, V, E>> interval = this.interval(map.map, start, stop);
+				if (interval != null) {
+					edges.addAll(interval.values());
+				}
+			}
+		}
+		return edges;
+	}
+
+	/**
+	 * The part of <code>map</code> from <code>start</code> to
+	 * <code>stop</code>, kept within this graph's bounds since the maps of a
+	 * sub-network are views that reject keys outside them
+	 * 
+	 * @return the view, or null if the interval is empty
+	 */
+	protected NavigableMap<K, EdgeEntry<K, V, E>> interval(NavigableMap<K, EdgeEntry<K, V, E>> map, K start, K stop) {
+		if (this.lowerBound != null && (start == null || this.comparator.compare(start, this.lowerBound) < 0)) {
+			start = this.lowerBound;
+		}
+		if (this.upperBound != null && (stop == null || this.comparator.compare(stop, this.upperBound) > 0)) {
+			stop = this.upperBound;
+		}
+		if (start != null) {
+			if (stop != null) {
+				if (this.comparator.compare(start, stop) >= 0) {
+					return null;
+				}
+				return map.subMap(start, true, stop, false);
+			}
+			return map.tailMap(start, true);
+		}
+		return stop == null ? map : map.headMap(stop, false);
+	}
+
 	@Override
 	public EdgeEntry<K, V, E> getLastEdge() {
 		EdgeEntry<K, V, E> lastEdge = null;
@@ -671,6 +732,7 @@ public abstract class AbstractDyadNavigableGraph<K extends Comparable<K>, V, E>
 
 	@Override
 	public boolean removeEdge(EdgeEntry<K, V, E> edge) {
+		this.checkNotFrozen();
 
 		Pair<V> endpoints = this.getEndpoints(edge);
 		V v1 = endpoints.getFirst();
@@ -690,6 +752,7 @@ public abstract class AbstractDyadNavigableGraph<K extends Comparable<K>, V, E>
 	@Override
 	public boolean removeVertex(V vertex) {
 		// TODO Test this
+		this.checkNotFrozen();
 		return this.mapGraph.removeVertex(vertex);
 	}
 
@@ -315,6 +315,7 @@ public abstract class AbstractNavigableCachedGraph<K extends Comparable<K>, V, E
 	 */
 	@Override
 	public boolean addVertex(V vertex) {
+		this.checkNotFrozen();
 		if (this.cachedGraph.addVertex(vertex)) {
 			if (this.addVertexData(vertex)) {
 				return true;
@@ -380,6 +381,7 @@ public abstract class AbstractNavigableCachedGraph<K extends Comparable<K>, V, E
 	 */
 	@Override
 	public boolean removeVertex(V vertex) {
+		this.checkNotFrozen();
 		if (this.cachedGraph.removeVertex(vertex)) {
 			if (this.removeVertexData(vertex)) {
 				return true;
@@ -419,7 +421,7 @@ public abstract class AbstractNavigableCachedGraph<K extends Comparable<K>, V, E
 	 */
 	@Override
 	public boolean removeEdge(EdgeEntry<K, V, E> edge) {
-
+		this.checkNotFrozen();
 		if (!this.containsEdge(edge)) {
 			return false;
 		}
@@ -14,6 +14,11 @@ public abstract class AbstractNavigableSubGraph<K extends Comparable<K>, V, E> e
 		this.stop = stop;
 	}
 
+	@Override
+	protected NavigableGraph<K, V, E> root() {
+		return this.parent;
+	}
+
 	@Override
 	public V getDest(EdgeEntry<K, V, E> directedEdge) {
 		return this.parent.getDest(directedEdge);
@@ -0,0 +1,1074 @@
+package net.sf.eventgraphj.comparable;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * A <code>NavigableMap</code> for keys that mostly arrive in ascending order,
+ * such as the per dyad edge maps of a graph fed from an event stream. Entries
+ * are kept in a pair of sorted arrays: putting a key larger than every other
+ * key is an amortized constant time append, lookups and navigation are binary
+ * searches, and only keys that arrive late pay for shifting the tail of the
+ * arrays. Views returned by <code>subMap</code>, <code>headMap</code>,
+ * <code>tailMap</code> and <code>descendingMap</code> are backed by the map,
+ * as for <code>TreeMap</code>.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class AppendNavigableMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V>, Serializable {
+	private static final long serialVersionUID = 1L;
+
+	protected final Comparator<? super K> comparator;
+	protected Object[] keys;
+	protected Object[] values;
+	protected int size = 0;
+	protected long lateInserts = 0;
+	protected transient int modCount = 0;
+	private transient View whole = null;
+
+	public AppendNavigableMap() {
+		this((Comparator<? super K>) null);
+	}
+
+	public AppendNavigableMap(Comparator<? super K> comparator) {
+		this.comparator = comparator;
+		this.keys = new Object[8];
+		this.values = new Object[8];
+	}
+
+	public AppendNavigableMap(Map<? extends K, ? extends V> map) {
+		this((Comparator<? super K>) null);
+		this.putAll(map);
+	}
+
+	/**
+	 * @return the number of puts that were not appends and had to shift the
+	 *         arrays
+	 */
+	public long getLateInserts() {
+		return this.lateInserts;
+	}
+
+	/**
+	 * Release unused capacity
+	 */
+	public void trimToSize() {
+		this.keys = Arrays.copyOf(this.keys, Math.max(1, this.size));
+		this.values = Arrays.copyOf(this.values, Math.max(1, this.size));
+	}
+
+	@SuppressWarnings("unchecked")
+	final int compare(Object k1, Object k2) {
+		return this.comparator == null ? ((Comparable<Object>) k1).compareTo(k2) : this.comparator.compare((K) k1,
+		        (K) k2);
+	}
+
+	/**
+	 * @return the index of <code>key</code>, or <code>-(insertion point) - 1</code>
+	 */
+	final int indexOf(Object key) {
+		if (key == null && this.comparator == null) {
+			throw new NullPointerException();
+		}
+		int low = 0;
+		int high = this.size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int c = this.compare(this.keys[middle], key);
+			if (c < 0) {
+				low = middle + 1;
+			} else if (c > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * @return index of the first key at or above (above, if not inclusive)
+	 *         <code>key</code>, <code>size</code> if there is none
+	 */
+	final int ceilingIndex(Object key, boolean inclusive) {
+		int index = this.indexOf(key);
+		if (index >= 0) {
+			return inclusive ? index : index + 1;
+		}
+		return -index - 1;
+	}
+
+	/**
+	 * @return index of the last key at or below (below, if not inclusive)
+	 *         <code>key</code>, -1 if there is none
+	 */
+	final int floorIndex(Object key, boolean inclusive) {
+		int index = this.indexOf(key);
+		if (index >= 0) {
+			return inclusive ? index : index - 1;
+		}
+		return -index - 2;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > this.keys.length) {
+			int newCapacity = Math.max(capacity, this.keys.length + (this.keys.length >> 1) + 1);
+			this.keys = Arrays.copyOf(this.keys, newCapacity);
+			this.values = Arrays.copyOf(this.values, newCapacity);
+		}
+	}
+
+	private void insertAt(int index, K key, V value) {
+		this.ensureCapacity(this.size + 1);
+		if (index < this.size) {
+			System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+			System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+		}
+		this.keys[index] = key;
+		this.values[index] = value;
+		this.size++;
+		this.modCount++;
+	}
+
+	@SuppressWarnings("unchecked")
+	final V removeAt(int index) {
+		V old = (V) this.values[index];
+		int moved = this.size - index - 1;
+		if (moved > 0) {
+			System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+			System.arraycopy(this.values, index + 1, this.values, index, moved);
+		}
+		this.size--;
+		this.keys[this.size] = null;
+		this.values[this.size] = null;
+		this.modCount++;
+		return old;
+	}
+
+	final void removeRange(int from, int to) {
+		if (to <= from) {
+			return;
+		}
+		System.arraycopy(this.keys, to, this.keys, from, this.size - to);
+		System.arraycopy(this.values, to, this.values, from, this.size - to);
+		int newSize = this.size - (to - from);
+		Arrays.fill(this.keys, newSize, this.size, null);
+		Arrays.fill(this.values, newSize, this.size, null);
+		this.size = newSize;
+		this.modCount++;
+	}
+
+	@SuppressWarnings("unchecked")
+	final K keyAt(int index) {
+		return index < 0 ? null : (K) this.keys[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	final Entry<K, V> entryAt(int index) {
+		return index < 0 ? null : new SimpleImmutableEntry<K, V>((K) this.keys[index], (V) this.values[index]);
+	}
+
+	private View whole() {
+		if (this.whole == null) {
+			this.whole = new View(true, null, true, true, null, true, false);
+		}
+		return this.whole;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		if (this.size == 0) {
+			if (key == null && this.comparator == null) {
+				throw new NullPointerException();
+			}
+			this.insertAt(0, key, value);
+			return null;
+		}
+		int c = this.compare(key, this.keys[this.size - 1]);
+		if (c > 0) {
+			this.insertAt(this.size, key, value);
+			return null;
+		}
+		if (c == 0) {
+			V old = (V) this.values[this.size - 1];
+			this.values[this.size - 1] = value;
+			return old;
+		}
+		int index = this.indexOf(key);
+		if (index >= 0) {
+			V old = (V) this.values[index];
+			this.values[index] = value;
+			return old;
+		}
+		this.lateInserts++;
+		this.insertAt(-index - 1, key, value);
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		int index = this.indexOf(key);
+		return index >= 0 ? (V) this.values[index] : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.indexOf(key) >= 0;
+	}
+
+	@Override
+	public V remove(Object key) {
+		int index = this.indexOf(key);
+		return index >= 0 ? this.removeAt(index) : null;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.keys, 0, this.size, null);
+		Arrays.fill(this.values, 0, this.size, null);
+		this.size = 0;
+		this.modCount++;
+	}
+
+	@Override
+	public Comparator<? super K> comparator() {
+		return this.comparator;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return this.whole().entrySet();
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return this.whole().navigableKeySet();
+	}
+
+	@Override
+	public Collection<V> values() {
+		return this.whole().values();
+	}
+
+	@Override
+	public Entry<K, V> ceilingEntry(K key) {
+		return this.whole().ceilingEntry(key);
+	}
+
+	@Override
+	public K ceilingKey(K key) {
+		return this.whole().ceilingKey(key);
+	}
+
+	@Override
+	public NavigableSet<K> descendingKeySet() {
+		return this.whole().descendingKeySet();
+	}
+
+	@Override
+	public NavigableMap<K, V> descendingMap() {
+		return this.whole().descendingMap();
+	}
+
+	@Override
+	public Entry<K, V> firstEntry() {
+		return this.entryAt(this.size > 0 ? 0 : -1);
+	}
+
+	@Override
+	public K firstKey() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+		return this.keyAt(0);
+	}
+
+	@Override
+	public Entry<K, V> floorEntry(K key) {
+		return this.whole().floorEntry(key);
+	}
+
+	@Override
+	public K floorKey(K key) {
+		return this.whole().floorKey(key);
+	}
+
+	@Override
+	public SortedMap<K, V> headMap(K toKey) {
+		return this.whole().headMap(toKey, false);
+	}
+
+	@Override
+	public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+		return this.whole().headMap(toKey, inclusive);
+	}
+
+	@Override
+	public Entry<K, V> higherEntry(K key) {
+		return this.whole().higherEntry(key);
+	}
+
+	@Override
+	public K higherKey(K key) {
+		return this.whole().higherKey(key);
+	}
+
+	@Override
+	public Entry<K, V> lastEntry() {
+		return this.entryAt(this.size - 1);
+	}
+
+	@Override
+	public K lastKey() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+		return this.keyAt(this.size - 1);
+	}
+
+	@Override
+	public Entry<K, V> lowerEntry(K key) {
+		return this.whole().lowerEntry(key);
+	}
+
+	@Override
+	public K lowerKey(K key) {
+		return this.whole().lowerKey(key);
+	}
+
+	@Override
+	public NavigableSet<K> navigableKeySet() {
+		return this.whole().navigableKeySet();
+	}
+
+	@Override
+	public Entry<K, V> pollFirstEntry() {
+		return this.whole().pollFirstEntry();
+	}
+
+	@Override
+	public Entry<K, V> pollLastEntry() {
+		return this.whole().pollLastEntry();
+	}
+
+	@Override
+	public SortedMap<K, V> subMap(K fromKey, K toKey) {
+		return this.whole().subMap(fromKey, true, toKey, false);
+	}
+
+	@Override
+	public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+		return this.whole().subMap(fromKey, fromInclusive, toKey, toInclusive);
+	}
+
+	@Override
+	public SortedMap<K, V> tailMap(K fromKey) {
+		return this.whole().tailMap(fromKey, true);
+	}
+
+	@Override
+	public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+		return this.whole().tailMap(fromKey, inclusive);
+	}
+
+	/**
+	 * A range of the backing arrays, bounded by keys rather than indices so it
+	 * stays valid as entries come and go, possibly in descending order.
+	 */
+	protected class View extends AbstractMap<K, V> implements NavigableMap<K, V>, Serializable {
+		private static final long serialVersionUID = 1L;
+		final boolean fromStart, loInclusive, toEnd, hiInclusive, descending;
+		final Object lo, hi;
+
+		View(boolean fromStart, Object lo, boolean loInclusive, boolean toEnd, Object hi, boolean hiInclusive,
+		        boolean descending) {
+			this.fromStart = fromStart;
+			this.lo = lo;
+			this.loInclusive = loInclusive;
+			this.toEnd = toEnd;
+			this.hi = hi;
+			this.hiInclusive = hiInclusive;
+			this.descending = descending;
+		}
+
+		final boolean tooLow(Object key) {
+			if (!this.fromStart) {
+				int c = AppendNavigableMap.this.compare(key, this.lo);
+				if (c < 0 || (c == 0 && !this.loInclusive)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		final boolean tooHigh(Object key) {
+			if (!this.toEnd) {
+				int c = AppendNavigableMap.this.compare(key, this.hi);
+				if (c > 0 || (c == 0 && !this.hiInclusive)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		final boolean inRange(Object key) {
+			return !this.tooLow(key) && !this.tooHigh(key);
+		}
+
+		/**
+		 * whether a new bound may be placed at <code>key</code>
+		 */
+		final boolean inRange(Object key, boolean inclusive) {
+			if (inclusive) {
+				return this.inRange(key);
+			}
+			return (this.fromStart || AppendNavigableMap.this.compare(key, this.lo) >= 0)
+			        && (this.toEnd || AppendNavigableMap.this.compare(this.hi, key) >= 0);
+		}
+
+		final int low() {
+			return this.fromStart ? 0 : AppendNavigableMap.this.ceilingIndex(this.lo, this.loInclusive);
+		}
+
+		final int high() {
+			return this.toEnd ? AppendNavigableMap.this.size : AppendNavigableMap.this.floorIndex(this.hi,
+			        this.hiInclusive) + 1;
+		}
+
+		/*
+		 * navigation in ascending key order, returning indices or -1
+		 */
+		final int absLowest() {
+			int index = this.low();
+			return index < this.high() ? index : -1;
+		}
+
+		final int absHighest() {
+			int index = this.high() - 1;
+			return index >= this.low() ? index : -1;
+		}
+
+		final int absCeiling(Object key, boolean inclusive) {
+			if (this.tooLow(key)) {
+				return this.absLowest();
+			}
+			int index = AppendNavigableMap.this.ceilingIndex(key, inclusive);
+			return (index < AppendNavigableMap.this.size && !this.tooHigh(AppendNavigableMap.this.keys[index])) ? index
+			        : -1;
+		}
+
+		final int absFloor(Object key, boolean inclusive) {
+			if (this.tooHigh(key)) {
+				return this.absHighest();
+			}
+			int index = AppendNavigableMap.this.floorIndex(key, inclusive);
+			return (index >= 0 && !this.tooLow(AppendNavigableMap.this.keys[index])) ? index : -1;
+		}
+
+		/*
+		 * navigation in the order of this view
+		 */
+		final int first() {
+			return this.descending ? this.absHighest() : this.absLowest();
+		}
+
+		final int last() {
+			return this.descending ? this.absLowest() : this.absHighest();
+		}
+
+		final int ceiling(Object key) {
+			return this.descending ? this.absFloor(key, true) : this.absCeiling(key, true);
+		}
+
+		final int higher(Object key) {
+			return this.descending ? this.absFloor(key, false) : this.absCeiling(key, false);
+		}
+
+		final int floor(Object key) {
+			return this.descending ? this.absCeiling(key, true) : this.absFloor(key, true);
+		}
+
+		final int lower(Object key) {
+			return this.descending ? this.absCeiling(key, false) : this.absFloor(key, false);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(Object key) {
+			if (!this.inRange(key)) {
+				return null;
+			}
+			int index = AppendNavigableMap.this.indexOf(key);
+			return index >= 0 ? (V) AppendNavigableMap.this.values[index] : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return this.inRange(key) && AppendNavigableMap.this.indexOf(key) >= 0;
+		}
+
+		@Override
+		public V put(K key, V value) {
+			if (!this.inRange(key)) {
+				throw new IllegalArgumentException("key out of range");
+			}
+			return AppendNavigableMap.this.put(key, value);
+		}
+
+		@Override
+		public V remove(Object key) {
+			if (!this.inRange(key)) {
+				return null;
+			}
+			return AppendNavigableMap.this.remove(key);
+		}
+
+		@Override
+		public int size() {
+			if (this.fromStart && this.toEnd) {
+				return AppendNavigableMap.this.size;
+			}
+			return Math.max(0, this.high() - this.low());
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.size() == 0;
+		}
+
+		@Override
+		public void clear() {
+			AppendNavigableMap.this.removeRange(this.low(), this.high());
+		}
+
+		@Override
+		public Comparator<? super K> comparator() {
+			if (!this.descending) {
+				return AppendNavigableMap.this.comparator;
+			}
+			if (AppendNavigableMap.this.comparator == null) {
+				return (Comparator<? super K>) Collections.reverseOrder();
+			}
+			return Collections.reverseOrder(AppendNavigableMap.this.comparator);
+		}
+
+		@Override
+		public Entry<K, V> ceilingEntry(K key) {
+			return AppendNavigableMap.this.entryAt(this.ceiling(key));
+		}
+
+		@Override
+		public K ceilingKey(K key) {
+			return AppendNavigableMap.this.keyAt(this.ceiling(key));
+		}
+
+		@Override
+		public Entry<K, V> higherEntry(K key) {
+			return AppendNavigableMap.this.entryAt(this.higher(key));
+		}
+
+		@Override
+		public K higherKey(K key) {
+			return AppendNavigableMap.this.keyAt(this.higher(key));
+		}
+
+		@Override
+		public Entry<K, V> floorEntry(K key) {
+			return AppendNavigableMap.this.entryAt(this.floor(key));
+		}
+
+		@Override
+		public K floorKey(K key) {
+			return AppendNavigableMap.this.keyAt(this.floor(key));
+		}
+
+		@Override
+		public Entry<K, V> lowerEntry(K key) {
+			return AppendNavigableMap.this.entryAt(this.lower(key));
+		}
+
+		@Override
+		public K lowerKey(K key) {
+			return AppendNavigableMap.this.keyAt(this.lower(key));
+		}
+
+		@Override
+		public Entry<K, V> firstEntry() {
+			return AppendNavigableMap.this.entryAt(this.first());
+		}
+
+		@Override
+		public Entry<K, V> lastEntry() {
+			return AppendNavigableMap.this.entryAt(this.last());
+		}
+
+		@Override
+		public K firstKey() {
+			int index = this.first();
+			if (index < 0) {
+				throw new NoSuchElementException();
+			}
+			return AppendNavigableMap.this.keyAt(index);
+		}
+
+		@Override
+		public K lastKey() {
+			int index = this.last();
+			if (index < 0) {
+				throw new NoSuchElementException();
+			}
+			return AppendNavigableMap.this.keyAt(index);
+		}
+
+		@Override
+		public Entry<K, V> pollFirstEntry() {
+			int index = this.first();
+			Entry<K, V> entry = AppendNavigableMap.this.entryAt(index);
+			if (index >= 0) {
+				AppendNavigableMap.this.removeAt(index);
+			}
+			return entry;
+		}
+
+		@Override
+		public Entry<K, V> pollLastEntry() {
+			int index = this.last();
+			Entry<K, V> entry = AppendNavigableMap.this.entryAt(index);
+			if (index >= 0) {
+				AppendNavigableMap.this.removeAt(index);
+			}
+			return entry;
+		}
+
+		@Override
+		public NavigableMap<K, V> descendingMap() {
+			return new View(this.fromStart, this.lo, this.loInclusive, this.toEnd, this.hi, this.hiInclusive,
+			        !this.descending);
+		}
+
+		@Override
+		public NavigableSet<K> navigableKeySet() {
+			return new KeySet(this);
+		}
+
+		@Override
+		public Set<K> keySet() {
+			return this.navigableKeySet();
+		}
+
+		@Override
+		public NavigableSet<K> descendingKeySet() {
+			return new KeySet((View) this.descendingMap());
+		}
+
+		@Override
+		public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+			if (this.descending) {
+				K swap = fromKey;
+				fromKey = toKey;
+				toKey = swap;
+				boolean swapInclusive = fromInclusive;
+				fromInclusive = toInclusive;
+				toInclusive = swapInclusive;
+			}
+			if (AppendNavigableMap.this.compare(fromKey, toKey) > 0) {
+				throw new IllegalArgumentException("fromKey > toKey");
+			}
+			if (!this.inRange(fromKey, fromInclusive) || !this.inRange(toKey, toInclusive)) {
+				throw new IllegalArgumentException("key out of range");
+			}
+			return new View(false, fromKey, fromInclusive, false, toKey, toInclusive, this.descending);
+		}
+
+		@Override
+		public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+			if (!this.inRange(toKey, inclusive)) {
+				throw new IllegalArgumentException("key out of range");
+			}
+			if (this.descending) {
+				return new View(false, toKey, inclusive, this.toEnd, this.hi, this.hiInclusive, true);
+			}
+			return new View(this.fromStart, this.lo, this.loInclusive, false, toKey, inclusive, false);
+		}
+
+		@Override
+		public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+			if (!this.inRange(fromKey, inclusive)) {
+				throw new IllegalArgumentException("key out of range");
+			}
+			if (this.descending) {
+				return new View(this.fromStart, this.lo, this.loInclusive, false, fromKey, inclusive, true);
+			}
+			return new View(false, fromKey, inclusive, this.toEnd, this.hi, this.hiInclusive, false);
+		}
+
+		@Override
+		public SortedMap<K, V> subMap(K fromKey, K toKey) {
+			return this.subMap(fromKey, true, toKey, false);
+		}
+
+		@Override
+		public SortedMap<K, V> headMap(K toKey) {
+			return this.headMap(toKey, false);
+		}
+
+		@Override
+		public SortedMap<K, V> tailMap(K fromKey) {
+			return this.tailMap(fromKey, true);
+		}
+
+		@Override
+		public Set<Entry<K, V>> entrySet() {
+			return new AbstractSet<Entry<K, V>>() {
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new RangeIterator<Entry<K, V>>(View.this) {
+						@Override
+						public Entry<K, V> next() {
+							return new ViewEntry(AppendNavigableMap.this.keyAt(this.nextIndex()));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return View.this.size();
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					if (!(o instanceof Entry)) {
+						return false;
+					}
+					Entry<?, ?> entry = (Entry<?, ?>) o;
+					Object key = entry.getKey();
+					if (!View.this.inRange(key)) {
+						return false;
+					}
+					int index = AppendNavigableMap.this.indexOf(key);
+					return index >= 0 && eq(AppendNavigableMap.this.values[index], entry.getValue());
+				}
+
+				@Override
+				public boolean remove(Object o) {
+					if (!this.contains(o)) {
+						return false;
+					}
+					AppendNavigableMap.this.remove(((Entry<?, ?>) o).getKey());
+					return true;
+				}
+
+				@Override
+				public void clear() {
+					View.this.clear();
+				}
+			};
+		}
+
+		@Override
+		public Collection<V> values() {
+			return new AbstractCollection<V>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public Iterator<V> iterator() {
+					return new RangeIterator<V>(View.this) {
+						@Override
+						public V next() {
+							return (V) AppendNavigableMap.this.values[this.nextIndex()];
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return View.this.size();
+				}
+
+				@Override
+				public void clear() {
+					View.this.clear();
+				}
+			};
+		}
+	}
+
+	static boolean eq(Object o1, Object o2) {
+		return o1 == null ? o2 == null : o1.equals(o2);
+	}
+
+	/**
+	 * Entry handed out while iterating, writing values through to the map
+	 */
+	protected class ViewEntry implements Entry<K, V> {
+		final K key;
+
+		ViewEntry(K key) {
+			this.key = key;
+		}
+
+		@Override
+		public K getKey() {
+			return this.key;
+		}
+
+		@Override
+		public V getValue() {
+			return AppendNavigableMap.this.get(this.key);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V setValue(V value) {
+			int index = AppendNavigableMap.this.indexOf(this.key);
+			if (index < 0) {
+				throw new IllegalStateException("entry was removed");
+			}
+			V old = (V) AppendNavigableMap.this.values[index];
+			AppendNavigableMap.this.values[index] = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> entry = (Entry<?, ?>) o;
+			return eq(this.key, entry.getKey()) && eq(this.getValue(), entry.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			V value = this.getValue();
+			return (this.key == null ? 0 : this.key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + this.getValue();
+		}
+	}
+
+	/**
+	 * Walks the indices of a view in the order of the view
+	 */
+	protected abstract class RangeIterator<T> implements Iterator<T> {
+		final boolean descending;
+		int next, fence;
+		int lastReturned = -1;
+		int expectedModCount = AppendNavigableMap.this.modCount;
+
+		RangeIterator(View view) {
+			this.descending = view.descending;
+			if (this.descending) {
+				this.next = view.high() - 1;
+				this.fence = view.low();
+			} else {
+				this.next = view.low();
+				this.fence = view.high();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.descending ? this.next >= this.fence : this.next < this.fence;
+		}
+
+		final int nextIndex() {
+			if (this.expectedModCount != AppendNavigableMap.this.modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.lastReturned = this.next;
+			this.next += this.descending ? -1 : 1;
+			return this.lastReturned;
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastReturned < 0) {
+				throw new IllegalStateException();
+			}
+			if (this.expectedModCount != AppendNavigableMap.this.modCount) {
+				throw new ConcurrentModificationException();
+			}
+			AppendNavigableMap.this.removeAt(this.lastReturned);
+			if (!this.descending) {
+				this.next--;
+				this.fence--;
+			}
+			this.lastReturned = -1;
+			this.expectedModCount = AppendNavigableMap.this.modCount;
+		}
+	}
+
+	/**
+	 * Key set of a view
+	 */
+	protected class KeySet extends AbstractSet<K> implements NavigableSet<K>, Serializable {
+		private static final long serialVersionUID = 1L;
+		final View map;
+
+		KeySet(View map) {
+			this.map = map;
+		}
+
+		@Override
+		public Iterator<K> iterator() {
+			return new RangeIterator<K>(this.map) {
+				@Override
+				public K next() {
+					return AppendNavigableMap.this.keyAt(this.nextIndex());
+				}
+			};
+		}
+
+		@Override
+		public Iterator<K> descendingIterator() {
+			return this.descendingSet().iterator();
+		}
+
+		@Override
+		public int size() {
+			return this.map.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.map.isEmpty();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return this.map.containsKey(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!this.map.containsKey(o)) {
+				return false;
+			}
+			this.map.remove(o);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			this.map.clear();
+		}
+
+		@Override
+		public Comparator<? super K> comparator() {
+			return this.map.comparator();
+		}
+
+		@Override
+		public K first() {
+			return this.map.firstKey();
+		}
+
+		@Override
+		public K last() {
+			return this.map.lastKey();
+		}
+
+		@Override
+		public K lower(K e) {
+			return this.map.lowerKey(e);
+		}
+
+		@Override
+		public K floor(K e) {
+			return this.map.floorKey(e);
+		}
+
+		@Override
+		public K ceiling(K e) {
+			return this.map.ceilingKey(e);
+		}
+
+		@Override
+		public K higher(K e) {
+			return this.map.higherKey(e);
+		}
+
+		@Override
+		public K pollFirst() {
+			Entry<K, V> entry = this.map.pollFirstEntry();
+			return entry == null ? null : entry.getKey();
+		}
+
+		@Override
+		public K pollLast() {
+			Entry<K, V> entry = this.map.pollLastEntry();
+			return entry == null ? null : entry.getKey();
+		}
+
+		@Override
+		public NavigableSet<K> descendingSet() {
+			return new KeySet((View) this.map.descendingMap());
+		}
+
+		@Override
+		public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+			return new KeySet((View) this.map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+		}
+
+		@Override
+		public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+			return new KeySet((View) this.map.headMap(toElement, inclusive));
+		}
+
+		@Override
+		public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+			return new KeySet((View) this.map.tailMap(fromElement, inclusive));
+		}
+
+		@Override
+		public SortedSet<K> subSet(K fromElement, K toElement) {
+			return this.subSet(fromElement, true, toElement, false);
+		}
+
+		@Override
+		public SortedSet<K> headSet(K toElement) {
+			return this.headSet(toElement, false);
+		}
+
+		@Override
+		public SortedSet<K> tailSet(K fromElement) {
+			return this.tailSet(fromElement, true);
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package net.sf.eventgraphj.comparable;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.util.EdgeType;
@@ -11,6 +13,10 @@ public abstract class BaseNavigableGraph<K extends Comparable<K>, V, E> implemen
         Graph<V, EdgeEntry<K, V, E>>, Serializable {
 	protected final K lowerBound, upperBound;
 	protected final boolean isBounded;
+	/**
+	 * Freezes not yet thawed, only kept by a network that is not a view
+	 */
+	private final AtomicInteger holds = new AtomicInteger();
 
 	public BaseNavigableGraph() {
 		this.lowerBound = null;
@@ -40,6 +46,56 @@ public abstract class BaseNavigableGraph<K extends Comparable<K>, V, E> implemen
 		return this.lowerBound;
 	}
 
+	/**
+	 * @return the network whose data this one reads, which is frozen in its
+	 *         place; this network unless it is a view
+	 */
+	protected NavigableGraph<K, V, E> root() {
+		return this;
+	}
+
+	@Override
+	public void freeze() {
+		NavigableGraph<K, V, E> root = this.root();
+		if (root != this) {
+			root.freeze();
+		} else {
+			this.holds.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void thaw() {
+		NavigableGraph<K, V, E> root = this.root();
+		if (root != this) {
+			root.thaw();
+			return;
+		}
+		int held;
+		do {
+			held = this.holds.get();
+			if (held == 0) {
+				throw new IllegalStateException("graph is not frozen");
+			}
+		} while (!this.holds.compareAndSet(held, held - 1));
+	}
+
+	@Override
+	public boolean isFrozen() {
+		NavigableGraph<K, V, E> root = this.root();
+		return root != this ? root.isFrozen() : this.holds.get() > 0;
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             if the graph is frozen
+	 */
+	protected final void checkNotFrozen() {
+		if (this.isFrozen()) {
+			throw new IllegalStateException("graph is frozen");
+		}
+	}
+
 	@Override
 	public final boolean addEdge(EdgeEntry<K, V, E> edge, Collection<? extends V> vertices) {
 		return this.addEdge(edge, vertices, this.getDefaultEdgeType());
@@ -48,6 +104,7 @@ public abstract class BaseNavigableGraph<K extends Comparable<K>, V, E> implemen
 	@Override
 	@SuppressWarnings("unchecked")
 	public final boolean addEdge(EdgeEntry<K, V, E> edge, Collection<? extends V> vertices, EdgeType edgeType) {
+		this.checkNotFrozen();
 		if (vertices == null) {
 			throw new IllegalArgumentException("'vertices' parameter must not be null");
 		}
@@ -69,6 +126,7 @@ public abstract class BaseNavigableGraph<K extends Comparable<K>, V, E> implemen
 	 * @return {@code} true iff the graph was modified as a result of this call
 	 */
 	protected final boolean addEdge(EdgeEntry<K, V, E> edge, Pair<? extends V> endpoints) {
+		this.checkNotFrozen();
 		return this.addEdge(edge, endpoints, this.getDefaultEdgeType());
 	}
 
@@ -87,6 +145,7 @@ public abstract class BaseNavigableGraph<K extends Comparable<K>, V, E> implemen
 
 	@Override
 	public final boolean addEdge(EdgeEntry<K, V, E> e, V v1, V v2, EdgeType edge_type) {
+		this.checkNotFrozen();
 		return this.addEdge(e, new Pair<V>(v1, v2), edge_type);
 	}
 
@@ -132,6 +191,38 @@ public abstract class BaseNavigableGraph<K extends Comparable<K>, V, E> implemen
 		return new_endpoints;
 	}
 
+	/**
+	 * Filters {@code getOutEdges(V)} by key; implementations with edges
+	 * indexed by key should look the interval up instead
+	 */
+	@Override
+	public Collection<EdgeEntry<K, V, E>> getOutEdges(V vertex, K start, K stop) {
+		return this.inInterval(this.containsVertex(vertex) ? this.getOutEdges(vertex) : null, start, stop);
+	}
+
+	/**
+	 * Filters {@code getInEdges(V)} by key
+	 */
+	@Override
+	public Collection<EdgeEntry<K, V, E>> getInEdges(V vertex, K start, K stop) {
+		return this.inInterval(this.containsVertex(vertex) ? this.getInEdges(vertex) : null, start, stop);
+	}
+
+	protected Collection<EdgeEntry<K, V, E>> inInterval(Collection<EdgeEntry<K, V, E>> edges, K start, K stop) {
+		Collection<EdgeEntry<K, V, E>> result = new ArrayList<EdgeEntry<K, V, E>>();
+		if (edges != null) {
+			for (EdgeEntry<K, V, E> edge : edges) {
+				K key = edge.getKey();
+				// null keys sort first
+				if ((start == null || (key != null && key.compareTo(start) >= 0))
+				        && (stop == null || key == null || key.compareTo(stop) < 0)) {
+					result.add(edge);
+				}
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public EdgeType getEdgeType(EdgeEntry<K, V, E> edge) {
 		return edge == null ? null : edge.edgetype;
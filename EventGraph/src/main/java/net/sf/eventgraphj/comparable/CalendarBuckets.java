@@ -0,0 +1,334 @@
+package net.sf.eventgraphj.comparable;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import net.sf.eventgraphj.comparable.AbstractDyadNavigableGraph.DyadEdgeMap;
+
+/**
+ * Precomputed index of calendar aligned buckets over <code>long</code> epoch
+ * millisecond keys. The bucket boundaries are computed once, with a single
+ * <code>Calendar</code> in the requested <code>TimeZone</code>, so daylight
+ * savings transitions and months of different lengths are handled by the
+ * calendar rather than by fixed width arithmetic. Afterwards, mapping a key to
+ * its bucket is a binary search over the boundary array and iterating the
+ * buckets as <code>Interval</code>s allocates no further calendars.
+ *
+ * Bucket <code>i</code> covers <code>[getStart(i), getFinish(i))</code>, the
+ * same half open convention used by <code>NavigableGraph.subNetwork</code>.
+ *
+ * @author jfolson
+ *
+ */
+public class CalendarBuckets implements Iterable<Interval<Long>> {
+	public static DateFormat format = new SimpleDateFormat();
+
+	protected final long[] boundaries;
+	protected final TimeZone zone;
+	protected final int field, amount;
+
+	/**
+	 * Construct buckets of <code>amount</code> units of the calendar
+	 * <code>field</code> covering every key from <code>start</code> to
+	 * <code>stop</code> inclusive. The first bucket is aligned to the start of
+	 * the unit containing <code>start</code>, the last bucket ends after
+	 * <code>stop</code>.
+	 *
+	 * @param start
+	 *            first key to cover
+	 * @param stop
+	 *            last key to cover
+	 * @param zone
+	 *            zone in which buckets are aligned
+	 * @param field
+	 *            one of <code>Calendar.YEAR</code>, <code>Calendar.MONTH</code>,
+	 *            <code>Calendar.WEEK_OF_YEAR</code>,
+	 *            <code>Calendar.DAY_OF_MONTH</code> or
+	 *            <code>Calendar.HOUR_OF_DAY</code>
+	 * @param amount
+	 *            number of units per bucket
+	 */
+	public CalendarBuckets(long start, long stop, TimeZone zone, int field, int amount) {
+		if (amount <= 0) {
+			throw new IllegalArgumentException("bucket amount must be positive: " + amount);
+		}
+		if (stop < start) {
+			throw new IllegalArgumentException("stop " + stop + " is before start " + start);
+		}
+		this.zone = zone;
+		this.field = field;
+		this.amount = amount;
+
+		Calendar calendar = Calendar.getInstance(zone);
+		calendar.setTimeInMillis(start);
+		truncate(calendar, field);
+
+		long[] bounds = new long[16];
+		int size = 0;
+		long next = calendar.getTimeInMillis();
+		bounds[size++] = next;
+		while (next <= stop) {
+			calendar.add(field, amount);
+			next = calendar.getTimeInMillis();
+			if (size == bounds.length) {
+				bounds = Arrays.copyOf(bounds, size * 2);
+			}
+			bounds[size++] = next;
+		}
+		this.boundaries = Arrays.copyOf(bounds, size);
+	}
+
+	public static CalendarBuckets days(long start, long stop, TimeZone zone) {
+		return new CalendarBuckets(start, stop, zone, Calendar.DAY_OF_MONTH, 1);
+	}
+
+	public static CalendarBuckets weeks(long start, long stop, TimeZone zone) {
+		return new CalendarBuckets(start, stop, zone, Calendar.WEEK_OF_YEAR, 1);
+	}
+
+	public static CalendarBuckets months(long start, long stop, TimeZone zone) {
+		return new CalendarBuckets(start, stop, zone, Calendar.MONTH, 1);
+	}
+
+	/**
+	 * Buckets covering every key in <code>graph</code>
+	 */
+	public static CalendarBuckets forGraph(NavigableGraph<Long, ?, ?> graph, TimeZone zone, int field, int amount) {
+		return new CalendarBuckets(graph.getFirstKey(), graph.getLastKey(), zone, field, amount);
+	}
+
+	@SuppressWarnings("fallthrough")
+	protected static void truncate(Calendar calendar, int field) {
+		switch (field) {
+		case Calendar.YEAR:
+			calendar.set(Calendar.MONTH, Calendar.JANUARY);
+			// fall through to clear the day of the month
+		case Calendar.MONTH:
+			calendar.set(Calendar.DAY_OF_MONTH, 1);
+			// fall through to clear the hour
+		case Calendar.DAY_OF_MONTH:
+		case Calendar.DAY_OF_YEAR:
+		case Calendar.DAY_OF_WEEK:
+			calendar.set(Calendar.HOUR_OF_DAY, 0);
+			// fall through to clear the minutes and below
+		case Calendar.HOUR_OF_DAY:
+		case Calendar.HOUR:
+			calendar.set(Calendar.MINUTE, 0);
+			calendar.set(Calendar.SECOND, 0);
+			calendar.set(Calendar.MILLISECOND, 0);
+			break;
+		case Calendar.WEEK_OF_YEAR:
+		case Calendar.WEEK_OF_MONTH:
+			calendar.set(Calendar.HOUR_OF_DAY, 0);
+			calendar.set(Calendar.MINUTE, 0);
+			calendar.set(Calendar.SECOND, 0);
+			calendar.set(Calendar.MILLISECOND, 0);
+			calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek());
+			break;
+		default:
+			throw new IllegalArgumentException("unsupported calendar field: " + field);
+		}
+		// force recomputation so later adds start from the truncated time
+		calendar.getTimeInMillis();
+	}
+
+	/**
+	 * @return the number of buckets
+	 */
+	public int size() {
+		return this.boundaries.length - 1;
+	}
+
+	public TimeZone getZone() {
+		return this.zone;
+	}
+
+	public long getStart(int bucket) {
+		return this.boundaries[bucket];
+	}
+
+	public long getFinish(int bucket) {
+		return this.boundaries[bucket + 1];
+	}
+
+	public Interval<Long> getInterval(int bucket) {
+		return new Interval<Long>(this.boundaries[bucket], this.boundaries[bucket + 1]);
+	}
+
+	/**
+	 * @return the index of the bucket containing <code>key</code>, or -1 if the
+	 *         key falls outside of every bucket
+	 */
+	public int bucketOf(long key) {
+		if (key < this.boundaries[0] || key >= this.boundaries[this.boundaries.length - 1]) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(this.boundaries, key);
+		if (index >= 0) {
+			return index;
+		}
+		return -index - 2;
+	}
+
+	/**
+	 * @return a copy of the boundaries, <code>size() + 1</code> long
+	 */
+	public long[] getBoundaries() {
+		return this.boundaries.clone();
+	}
+
+	/**
+	 * Boundaries as an iterable of keys, suitable for wrapping in
+	 * <code>IntervalWrapperIterable</code> or
+	 * <code>IntervalWindowIterable</code>
+	 */
+	public Iterable<Long> boundaries() {
+		return new Iterable<Long>() {
+			@Override
+			public Iterator<Long> iterator() {
+				return new Iterator<Long>() {
+					int index = 0;
+
+					@Override
+					public boolean hasNext() {
+						return this.index < CalendarBuckets.this.boundaries.length;
+					}
+
+					@Override
+					public Long next() {
+						if (!this.hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return CalendarBuckets.this.boundaries[this.index++];
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	@Override
+	public Iterator<Interval<Long>> iterator() {
+		return new Iterator<Interval<Long>>() {
+			int bucket = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.bucket < CalendarBuckets.this.size();
+			}
+
+			@Override
+			public Interval<Long> next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return CalendarBuckets.this.getInterval(this.bucket++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Count the edges of <code>graph</code> falling in each bucket. Dyad
+	 * indexed graphs are walked map by map over their already sorted keys,
+	 * other graphs are counted edge by edge.
+	 *
+	 * @return counts indexed by bucket, edges outside every bucket are ignored
+	 */
+	public <V, E> long[] countEdges(NavigableGraph<Long, V, E> graph) {
+		long[] counts = new long[this.size()];
+		if (graph instanceof AbstractDyadNavigableGraph) {
+			AbstractDyadNavigableGraph<Long, V, E> dyadGraph = (AbstractDyadNavigableGraph<Long, V, E>) graph;
+			for (DyadEdgeMap<Long, V, E> map : dyadGraph.getMapGraph().getEdges()) {
+				this.countKeys(map.map.keySet(), counts);
+			}
+		} else {
+			for (EdgeEntry<Long, V, E> edge : graph.getEdges()) {
+				int bucket = this.bucketOf(edge.getKey());
+				if (bucket >= 0) {
+					counts[bucket]++;
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Count the outgoing edges of <code>vertex</code> falling in each bucket.
+	 *
+	 * @return counts indexed by bucket, edges outside every bucket are ignored
+	 */
+	public <V, E> long[] countOutEdges(NavigableGraph<Long, V, E> graph, V vertex) {
+		long[] counts = new long[this.size()];
+		if (graph instanceof AbstractDyadNavigableGraph) {
+			AbstractDyadNavigableGraph<Long, V, E> dyadGraph = (AbstractDyadNavigableGraph<Long, V, E>) graph;
+			for (DyadEdgeMap<Long, V, E> map : dyadGraph.getMapGraph().getOutEdges(vertex)) {
+				this.countKeys(map.map.keySet(), counts);
+			}
+		} else {
+			for (EdgeEntry<Long, V, E> edge : graph.getOutEdges(vertex)) {
+				int bucket = this.bucketOf(edge.getKey());
+				if (bucket >= 0) {
+					counts[bucket]++;
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Count ascending keys with a single forward walk over the boundaries,
+	 * falling back to a binary search only to find the first bucket.
+	 */
+	protected void countKeys(Iterable<Long> sortedKeys, long[] counts) {
+		Iterator<Long> keys = sortedKeys.iterator();
+		if (!keys.hasNext()) {
+			return;
+		}
+		long last = this.boundaries[this.boundaries.length - 1];
+		long key = keys.next();
+		while (key < this.boundaries[0]) {
+			if (!keys.hasNext()) {
+				return;
+			}
+			key = keys.next();
+		}
+		int bucket = this.bucketOf(key);
+		while (key < last) {
+			while (key >= this.boundaries[bucket + 1]) {
+				bucket++;
+			}
+			counts[bucket]++;
+			if (!keys.hasNext()) {
+				return;
+			}
+			key = keys.next();
+		}
+	}
+
+	public static void main(String[] args) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2010, Calendar.FEBRUARY, 20, 13, 45);
+		long start = calendar.getTimeInMillis();
+		calendar.set(2010, Calendar.JUNE, 3, 8, 0);
+		long stop = calendar.getTimeInMillis();
+		for (Interval<Long> interval : CalendarBuckets.months(start, stop, TimeZone.getDefault())) {
+			System.out.println(format.format(new Date(interval.getStart())) + " to "
+			        + format.format(new Date(interval.getFinish())));
+		}
+	}
+}
@@ -10,9 +10,13 @@ public class DateIterator implements Iterator<Date> {
 	public static DateFormat format = new SimpleDateFormat();
 	final Calendar start, finish, iter;
 	Date next = null;
-	final int incrementField;
+	final int incrementField, incrementAmount;
 
 	public DateIterator(Date start, Date finish, int incrementField) {
+		this(start, finish, incrementField, 1);
+	}
+
+	public DateIterator(Date start, Date finish, int incrementField, int incrementAmount) {
 		this.start = Calendar.getInstance();
 		this.start.setTime(start);
 		this.finish = Calendar.getInstance();
@@ -20,6 +24,7 @@ public class DateIterator implements Iterator<Date> {
 		this.iter = Calendar.getInstance();
 		this.iter.setTime(start);
 		this.incrementField = incrementField;
+		this.incrementAmount = incrementAmount;
 		next = iter.getTime();
 	}
 
@@ -33,7 +38,7 @@ public class DateIterator implements Iterator<Date> {
 		Date last = next;
 		next = null;
 		if (iter.before(finish)) {
-			iter.add(this.incrementField, 1);
+			iter.add(this.incrementField, this.incrementAmount);
 			if (iter.after(finish)) {
 				iter.setTime(finish.getTime());
 			}
@@ -0,0 +1,350 @@
+package net.sf.eventgraphj.comparable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.sf.eventgraphj.comparable.AbstractDyadNavigableGraph.DyadEdgeMap;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Sorted primitive key sequences read straight out of a
+ * <code>NavigableGraph</code>. Dyad indexed graphs hand out the keys of their
+ * per dyad maps (merged when a vertex has several), the root of a
+ * <code>NodeNavigableGraph</code> hands out the keys of its per node map, and
+ * any other graph falls back to collecting the keys of its edges and sorting
+ * them as primitives.
+ *
+ * The sequences follow the semantics of <code>getOutEdges</code> and
+ * <code>findEdgeSet</code>: the keys of a vertex are those of its outgoing
+ * directed edges and of its incident undirected edges.
+ *
+ * @author jfolson
+ *
+ * @param <K>
+ * @param <V>
+ * @param <E>
+ */
+public class EventKeys<K extends Number & Comparable<K>, V, E> {
+	public static final long[] EMPTY = new long[0];
+
+	protected final NavigableGraph<K, V, E> graph;
+	protected final AbstractDyadNavigableGraph<K, V, E> dyadGraph;
+	protected final NodeNavigableGraph<K, V, E> nodeGraph;
+
+	public EventKeys(NavigableGraph<K, V, E> graph) {
+		this.graph = graph;
+		if (graph instanceof AbstractDyadNavigableGraph) {
+			this.dyadGraph = (AbstractDyadNavigableGraph<K, V, E>) graph;
+		} else {
+			this.dyadGraph = null;
+		}
+		// the node map only holds edges under their first endpoint and is
+		// only filled for the root graph, so only use it when that is enough
+		if (graph instanceof NodeNavigableGraph && !((NodeNavigableGraph<K, V, E>) graph).map.isEmpty()
+		        && graph.getEdgeCount(EdgeType.UNDIRECTED) == 0) {
+			this.nodeGraph = (NodeNavigableGraph<K, V, E>) graph;
+		} else {
+			this.nodeGraph = null;
+		}
+	}
+
+	public NavigableGraph<K, V, E> getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * @return the ascending keys of every edge leaving <code>vertex</code>
+	 */
+	public long[] vertexKeys(V vertex) {
+		if (this.dyadGraph != null) {
+			Collection<DyadEdgeMap<K, V, E>> maps = this.dyadGraph.mapGraph.getOutEdges(vertex);
+			if (maps == null || maps.isEmpty()) {
+				return EMPTY;
+			}
+			List<long[]> runs = new ArrayList<long[]>(maps.size());
+			for (DyadEdgeMap<K, V, E> map : maps) {
+				runs.add(keys(map.map.keySet()));
+			}
+			return merge(runs);
+		}
+		if (this.nodeGraph != null) {
+			MultiNavigableMap<K, EdgeEntry<K, V, E>> map = this.nodeGraph.map.get(vertex);
+			if (map == null) {
+				return EMPTY;
+			}
+			KeyBuffer keys = new KeyBuffer();
+			for (Entry<K, Collection<EdgeEntry<K, V, E>>> entry : map.entrySet()) {
+				long key = entry.getKey().longValue();
+				for (int i = entry.getValue().size(); i > 0; i--) {
+					keys.add(key);
+				}
+			}
+			return keys.toArray();
+		}
+		Collection<EdgeEntry<K, V, E>> edges = this.graph.getOutEdges(vertex);
+		if (edges == null || edges.isEmpty()) {
+			return EMPTY;
+		}
+		long[] keys = new long[edges.size()];
+		int size = 0;
+		for (EdgeEntry<K, V, E> edge : edges) {
+			keys[size++] = edge.getKey().longValue();
+		}
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	/**
+	 * @return the ascending keys of the edges from <code>from</code> to each of
+	 *         its successors, keyed by successor
+	 */
+	public Map<V, long[]> dyadKeys(V from) {
+		Map<V, long[]> result = new LinkedHashMap<V, long[]>();
+		if (this.dyadGraph != null) {
+			Collection<DyadEdgeMap<K, V, E>> maps = this.dyadGraph.mapGraph.getOutEdges(from);
+			if (maps == null) {
+				return result;
+			}
+			for (DyadEdgeMap<K, V, E> map : maps) {
+				long[] keys = keys(map.map.keySet());
+				if (keys.length == 0) {
+					continue;
+				}
+				V to = from.equals(map.from) ? map.to : map.from;
+				long[] other = result.get(to);
+				if (other != null) {
+					List<long[]> runs = new ArrayList<long[]>(2);
+					runs.add(other);
+					runs.add(keys);
+					keys = merge(runs);
+				}
+				result.put(to, keys);
+			}
+			return result;
+		}
+
+		Map<V, KeyBuffer> buffers = new LinkedHashMap<V, KeyBuffer>();
+		boolean sorted;
+		if (this.nodeGraph != null) {
+			MultiNavigableMap<K, EdgeEntry<K, V, E>> map = this.nodeGraph.map.get(from);
+			if (map == null) {
+				return result;
+			}
+			for (Collection<EdgeEntry<K, V, E>> edges : map.map().values()) {
+				for (EdgeEntry<K, V, E> edge : edges) {
+					bufferFor(buffers, edge.getTo()).add(edge.getKey().longValue());
+				}
+			}
+			sorted = true;
+		} else {
+			Collection<EdgeEntry<K, V, E>> edges = this.graph.getOutEdges(from);
+			if (edges == null) {
+				return result;
+			}
+			for (EdgeEntry<K, V, E> edge : edges) {
+				V to = from.equals(edge.getFrom()) ? edge.getTo() : edge.getFrom();
+				bufferFor(buffers, to).add(edge.getKey().longValue());
+			}
+			sorted = false;
+		}
+		for (Entry<V, KeyBuffer> entry : buffers.entrySet()) {
+			long[] keys = entry.getValue().toArray();
+			if (!sorted) {
+				Arrays.sort(keys);
+			}
+			result.put(entry.getKey(), keys);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the ascending keys of the edges from <code>from</code> to
+	 *         <code>to</code>
+	 */
+	public long[] dyadKeys(V from, V to) {
+		if (this.dyadGraph != null) {
+			Collection<DyadEdgeMap<K, V, E>> maps = this.dyadGraph.mapGraph.findEdgeSet(from, to);
+			if (maps == null || maps.isEmpty()) {
+				return EMPTY;
+			}
+			List<long[]> runs = new ArrayList<long[]>(maps.size());
+			for (DyadEdgeMap<K, V, E> map : maps) {
+				// SparseGraph reports a missing edge as a null entry
+				if (map != null) {
+					runs.add(keys(map.map.keySet()));
+				}
+			}
+			return merge(runs);
+		}
+		long[] keys = this.dyadKeys(from).get(to);
+		return keys == null ? EMPTY : keys;
+	}
+
+	/**
+	 * @return the ascending keys of every edge in the graph
+	 */
+	public long[] allKeys() {
+		if (this.dyadGraph != null) {
+			Collection<DyadEdgeMap<K, V, E>> maps = this.dyadGraph.mapGraph.getEdges();
+			List<long[]> runs = new ArrayList<long[]>(maps.size());
+			for (DyadEdgeMap<K, V, E> map : maps) {
+				runs.add(keys(map.map.keySet()));
+			}
+			return merge(runs);
+		}
+		if (this.nodeGraph != null) {
+			List<long[]> runs = new ArrayList<long[]>(this.nodeGraph.map.size());
+			for (V vertex : this.nodeGraph.map.keySet()) {
+				runs.add(this.vertexKeys(vertex));
+			}
+			return merge(runs);
+		}
+		Collection<EdgeEntry<K, V, E>> edges = this.graph.getEdges();
+		long[] keys = new long[edges.size()];
+		int size = 0;
+		for (EdgeEntry<K, V, E> edge : edges) {
+			keys[size++] = edge.getKey().longValue();
+		}
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	private static <V> KeyBuffer bufferFor(Map<V, KeyBuffer> buffers, V to) {
+		KeyBuffer buffer = buffers.get(to);
+		if (buffer == null) {
+			buffer = new KeyBuffer();
+			buffers.put(to, buffer);
+		}
+		return buffer;
+	}
+
+	public static <K extends Number> long[] keys(Collection<K> sortedKeys) {
+		long[] keys = new long[sortedKeys.size()];
+		int size = 0;
+		for (K key : sortedKeys) {
+			keys[size++] = key.longValue();
+		}
+		return keys;
+	}
+
+	/**
+	 * k-way merge of ascending runs through a binary heap of run indices
+	 */
+	public static long[] merge(List<long[]> runs) {
+		return merge(runs, null);
+	}
+
+	/**
+	 * k-way merge of ascending runs that also writes the index in
+	 * <code>runs</code> of the run each key came from to <code>labels</code>,
+	 * if not null
+	 *
+	 * @param labels
+	 *            as long as all the runs together, or null
+	 */
+	public static long[] merge(List<long[]> runs, int[] labels) {
+		int total = 0;
+		int count = 0;
+		for (long[] run : runs) {
+			total += run.length;
+			if (run.length > 0) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return EMPTY;
+		}
+		long[][] heads = new long[count][];
+		int[] source = new int[count];
+		count = 0;
+		for (int i = 0; i < runs.size(); i++) {
+			long[] run = runs.get(i);
+			if (run.length > 0) {
+				source[count] = i;
+				heads[count++] = run;
+			}
+		}
+		if (count == 1) {
+			if (labels != null) {
+				Arrays.fill(labels, 0, total, source[0]);
+			}
+			return heads[0];
+		}
+		int[] position = new int[count];
+		int[] heap = new int[count];
+		for (int i = 0; i < count; i++) {
+			heap[i] = i;
+		}
+		for (int i = count / 2 - 1; i >= 0; i--) {
+			siftDown(heap, count, i, heads, position);
+		}
+		long[] merged = new long[total];
+		int size = count;
+		for (int i = 0; i < total; i++) {
+			int run = heap[0];
+			merged[i] = heads[run][position[run]++];
+			if (labels != null) {
+				labels[i] = source[run];
+			}
+			if (position[run] == heads[run].length) {
+				heap[0] = heap[--size];
+			}
+			if (size > 0) {
+				siftDown(heap, size, 0, heads, position);
+			}
+		}
+		return merged;
+	}
+
+	private static void siftDown(int[] heap, int size, int index, long[][] heads, int[] position) {
+		int run = heap[index];
+		long key = heads[run][position[run]];
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= size) {
+				break;
+			}
+			int childRun = heap[child];
+			long childKey = heads[childRun][position[childRun]];
+			if (child + 1 < size) {
+				int rightRun = heap[child + 1];
+				long rightKey = heads[rightRun][position[rightRun]];
+				if (rightKey < childKey) {
+					child++;
+					childRun = rightRun;
+					childKey = rightKey;
+				}
+			}
+			if (key <= childKey) {
+				break;
+			}
+			heap[index] = childRun;
+			index = child;
+		}
+		heap[index] = run;
+	}
+
+	/**
+	 * Growable primitive key buffer
+	 */
+	protected static class KeyBuffer {
+		long[] keys = new long[4];
+		int size = 0;
+
+		void add(long key) {
+			if (this.size == this.keys.length) {
+				this.keys = Arrays.copyOf(this.keys, this.size * 2);
+			}
+			this.keys[this.size++] = key;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(this.keys, this.size);
+		}
+	}
+}
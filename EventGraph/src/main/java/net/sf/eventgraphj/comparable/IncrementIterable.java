@@ -57,6 +57,15 @@ public abstract class IncrementIterable<K extends Comparable<K>> implements Iter
 	public static IncrementIterable<Date> fromDate(Date start, Date stop, final int incrementAmount,
 	        final int incrementField) {
 		return new IncrementIterable<Date>(start, stop, null) {
+			/**
+			 * Step with a single calendar per iteration rather than one per
+			 * call to <code>add</code>
+			 */
+			@Override
+			public Iterator<Date> iterator() {
+				return new DateIterator(this.start, this.finish, incrementField, incrementAmount);
+			}
+
 			@Override
 			public Date add(Date init, Date increment) {
 				Calendar next = Calendar.getInstance();
@@ -14,4 +14,18 @@ public interface MapProvider {
 		}
 
 	}
+
+	/**
+	 * Provides {@code AppendNavigableMap}s, for graphs that are mostly filled
+	 * in key order
+	 */
+	public static class AppendMapProvider implements MapProvider, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public <K, V> NavigableMap<K, V> get() {
+			return new AppendNavigableMap<K, V>();
+		}
+
+	}
 }
@@ -568,6 +568,55 @@ public interface NavigableGraph<K extends Comparable<K>, V, E> extends MultiGrap
 	@RJava
 	K getUpperBound();
 
+	/**
+	 * Make the network read only, so that it can be handed to several readers
+	 * at once. Adding or removing vertices or edges throws an
+	 * {@code IllegalStateException} until the network is thawed. Each freeze
+	 * is a hold released by one thaw, so readers that freeze the same network
+	 * independently cannot thaw it under each other. Views share the data of
+	 * the network they were taken from, so freezing a view freezes that
+	 * network.
+	 */
+	void freeze();
+
+	/**
+	 * Release one freeze; the network is writable again once every freeze
+	 * has been released.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the network is not frozen
+	 */
+	void thaw();
+
+	/**
+	 * @return whether the network is frozen
+	 */
+	boolean isFrozen();
+
+	/**
+	 * Returns the edges leaving <code>vertex</code> (including its undirected
+	 * edges, as {@code getOutEdges(V)} does) whose keys are from
+	 * <code>start</code> (inclusive) to <code>stop</code> (exclusive), read
+	 * straight from the graph's own index rather than from a
+	 * <code>subNetwork</code> copy.
+	 * 
+	 * @param start
+	 *            The beginning of the interval, or null for no lower limit
+	 * @param stop
+	 *            The end of the interval, or null for no upper limit
+	 * @return the edges, empty if <code>vertex</code> is not in the graph
+	 */
+	Collection<EdgeEntry<K, V, E>> getOutEdges(V vertex, K start, K stop);
+
+	/**
+	 * Returns the edges entering <code>vertex</code> (including its undirected
+	 * edges) whose keys are from <code>start</code> (inclusive) to
+	 * <code>stop</code> (exclusive).
+	 * 
+	 * @see #getOutEdges(Object, Comparable, Comparable)
+	 */
+	Collection<EdgeEntry<K, V, E>> getInEdges(V vertex, K start, K stop);
+
 	public boolean addEdge(K key, V v1, V v2);
 
 	public boolean addEdge(K key, V v1, V v2, EdgeType edge_type);
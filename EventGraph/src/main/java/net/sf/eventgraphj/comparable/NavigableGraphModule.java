@@ -3,6 +3,7 @@ package net.sf.eventgraphj.comparable;
 import java.util.NavigableMap;
 
 import net.sf.eventgraphj.comparable.GraphProvider.SparseGraphProvider;
+import net.sf.eventgraphj.comparable.MapProvider.AppendMapProvider;
 import net.sf.eventgraphj.comparable.MapProvider.MyMapProvider;
 
 import com.google.inject.AbstractModule;
@@ -19,7 +20,12 @@ public class NavigableGraphModule extends AbstractModule {
 
 	public static final Injector BASIC_NAVIGABLE = Guice.createInjector(new BasicNavigableModule());
 
-	
+	/**
+	 * Dyad indexed graphs whose maps are cheap to fill in key order, e.g. from
+	 * a stream
+	 */
+	public static final Injector APPEND_NAVIGABLE = Guice.createInjector(new AppendNavigableModule());
+
 	public static class EdgeNavigableModule extends NavigableGraphModule {
 		@Override
 		protected void configure() {
@@ -28,6 +34,18 @@ public class NavigableGraphModule extends AbstractModule {
 		}
 	}
 
+	public static class AppendNavigableModule extends NavigableGraphModule {
+		@Override
+		protected void configure() {
+			super.configure();
+			this.bind(NavigableGraph.class).to(DyadNavigableGraph.class);
+		}
+
+		@Override
+		protected Class<? extends MapProvider> getMapProvider() {
+			return AppendMapProvider.class;
+		}
+	}
 	public static class NodeNavigableModule extends NavigableGraphModule {
 		@Override
 		protected void configure() {
@@ -51,7 +69,11 @@ public class NavigableGraphModule extends AbstractModule {
 		this.bind(GraphProvider.class).annotatedWith(Names.named("EdgeGraph")).to(SparseGraphProvider.class);
 		this.bind(Graph.class).to(SparseGraph.class);
 		this.bind(GraphProvider.class).to(SparseGraphProvider.class);
-		this.bind(MapProvider.class).to(MyMapProvider.class);
+		this.bind(MapProvider.class).to(this.getMapProvider());
+	}
+
+	protected Class<? extends MapProvider> getMapProvider() {
+		return MyMapProvider.class;
 	}
 
 	/*public <K, V> NavigableMap<K, V> createTreeMap() {
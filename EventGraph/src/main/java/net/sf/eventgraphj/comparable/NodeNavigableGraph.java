@@ -213,6 +213,31 @@ public class NodeNavigableGraph<K extends Comparable<K>, V, E> extends
 		return new NodeNavigableGraph<K, V, E>(this, null, stop);
 	}
 
+	/**
+	 * Reads the interval from the vertex's own map when every edge is
+	 * directed, so that the map holds exactly its out-edges
+	 */
+	@Override
+	public Collection<EdgeEntry<K, V, E>> getOutEdges(V vertex, K start,
+			K stop) {
+		MultiNavigableMap<K, EdgeEntry<K, V, E>> edges = this.map.get(vertex);
+		if (edges == null || this.isBounded()
+				|| this.getEdgeCount(EdgeType.UNDIRECTED) > 0) {
+			return super.getOutEdges(vertex, start, stop);
+		}
+		if (start != null) {
+			if (stop != null) {
+				if (this.comparator.compare(start, stop) >= 0) {
+					return new ArrayList<EdgeEntry<K, V, E>>();
+				}
+				return edges.subMap(start, true, stop, false).values();
+			}
+			return edges.tailMap(start, true).values();
+		}
+		return stop == null ? edges.values() : edges.headMap(stop, false)
+				.values();
+	}
+
 	@Override
 	protected boolean addVertexData(V vertex) {
 		if (this.map
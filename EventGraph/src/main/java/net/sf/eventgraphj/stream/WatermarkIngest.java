@@ -0,0 +1,252 @@
+package net.sf.eventgraphj.stream;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import net.sf.eventgraphj.analysis.NetworkAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+/**
+ * Front end for feeding a <code>NavigableGraph</code> from a stream of events
+ * that arrive roughly, but not exactly, in time order.
+ *
+ * Events wait in a bounded reorder buffer keyed by event time. The watermark
+ * trails the latest time seen by <code>maxDelay</code>; everything below it is
+ * released to the store in time order, so a store whose maps are
+ * {@code AppendNavigableMap}s (see
+ * {@code NavigableGraphModule.APPEND_NAVIGABLE}) only ever appends. When the
+ * buffer is full the oldest event is released early and the watermark moves
+ * up to it. Events that arrive below the watermark are late: they are still
+ * added to the store, taking the slow insertion path, and counted.
+ *
+ * Window analyses registered with
+ * {@link #addWindowAnalysis(Iterable, NetworkAnalysis, WindowListener)} fire
+ * on <code>subNetwork(start, finish)</code> as soon as the watermark passes
+ * <code>finish</code>, so each window is analyzed once, as soon as it can no
+ * longer change except through late events.
+ *
+ * @author jfolson
+ *
+ * @param <V>
+ * @param <E>
+ */
+public class WatermarkIngest<V, E> {
+	/**
+	 * Receives the result of a window analysis once the window has closed
+	 */
+	public static interface WindowListener<R> {
+		public void windowClosed(Interval<Long> window, R result);
+	}
+
+	protected static class Window<V, E, R> {
+		protected final Iterator<Interval<Long>> windows;
+		protected final NetworkAnalysis<V, EdgeEntry<Long, V, E>, ? super NavigableGraph<Long, V, E>, R> analysis;
+		protected final WindowListener<? super R> listener;
+		protected Interval<Long> next;
+
+		protected Window(Iterable<Interval<Long>> windows,
+		        NetworkAnalysis<V, EdgeEntry<Long, V, E>, ? super NavigableGraph<Long, V, E>, R> analysis,
+		        WindowListener<? super R> listener) {
+			this.windows = windows.iterator();
+			this.analysis = analysis;
+			this.listener = listener;
+			this.next = this.windows.hasNext() ? this.windows.next() : null;
+		}
+
+		/**
+		 * Fire every pending window that ends at or below
+		 * <code>watermark</code>
+		 */
+		protected void advance(NavigableGraph<Long, V, E> store, long watermark) {
+			while (this.next != null && this.next.getFinish() <= watermark) {
+				R result = this.analysis.analyze(store.subNetwork(this.next.getStart(), this.next.getFinish()));
+				this.listener.windowClosed(this.next, result);
+				this.next = this.windows.hasNext() ? this.windows.next() : null;
+			}
+		}
+	}
+
+	private static class Pending<V, E> {
+		final EdgeEntry<Long, V, E> edge;
+		final long sequence;
+
+		Pending(EdgeEntry<Long, V, E> edge, long sequence) {
+			this.edge = edge;
+			this.sequence = sequence;
+		}
+	}
+
+	/**
+	 * Orders by event time, then by arrival so ties keep their arrival order
+	 */
+	private static final Comparator<Pending<?, ?>> PENDING_ORDER = new Comparator<Pending<?, ?>>() {
+		@Override
+		public int compare(Pending<?, ?> o1, Pending<?, ?> o2) {
+			int c = o1.edge.getKey().compareTo(o2.edge.getKey());
+			if (c != 0) {
+				return c;
+			}
+			return o1.sequence < o2.sequence ? -1 : (o1.sequence == o2.sequence ? 0 : 1);
+		}
+	};
+
+	protected final NavigableGraph<Long, V, E> store;
+	protected final long maxDelay;
+	protected final int capacity;
+	protected final PriorityQueue<Pending<V, E>> buffer;
+	protected final List<Window<V, E, ?>> windows = new ArrayList<Window<V, E, ?>>();
+
+	protected long watermark = Long.MIN_VALUE;
+	protected long maxSeen = Long.MIN_VALUE;
+	protected long sequence = 0;
+	protected long released = 0;
+	protected long late = 0;
+	protected long forced = 0;
+
+	/**
+	 * @param store
+	 *            graph receiving the released events
+	 * @param maxDelay
+	 *            how far behind the latest event time an event may arrive and
+	 *            still be put in order
+	 * @param capacity
+	 *            the most events held back at once
+	 */
+	public WatermarkIngest(NavigableGraph<Long, V, E> store, long maxDelay, int capacity) {
+		if (maxDelay < 0) {
+			throw new IllegalArgumentException("maximum delay must not be negative: " + maxDelay);
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("buffer capacity must be positive: " + capacity);
+		}
+		this.store = store;
+		this.maxDelay = maxDelay;
+		this.capacity = capacity;
+		this.buffer = new PriorityQueue<Pending<V, E>>(Math.min(capacity, 1024), PENDING_ORDER);
+	}
+
+	/**
+	 * Ingest into a new dyad indexed graph backed by append optimized maps
+	 */
+	public static <V, E> WatermarkIngest<V, E> withAppendStore(long maxDelay, int capacity) {
+		// the module binds the raw NavigableGraph, which stores any keys and
+		// vertices
+		@SuppressWarnings("unchecked")
+		NavigableGraph<Long, V, E> store = NavigableGraphModule.APPEND_NAVIGABLE.getInstance(NavigableGraph.class);
+		return new WatermarkIngest<V, E>(store, maxDelay, capacity);
+	}
+
+	public NavigableGraph<Long, V, E> getStore() {
+		return this.store;
+	}
+
+	/**
+	 * @return the time below which every event has been released
+	 */
+	public long getWatermark() {
+		return this.watermark;
+	}
+
+	public int getBuffered() {
+		return this.buffer.size();
+	}
+
+	/**
+	 * @return number of events released in order
+	 */
+	public long getReleased() {
+		return this.released;
+	}
+
+	/**
+	 * @return number of events that arrived below the watermark
+	 */
+	public long getLate() {
+		return this.late;
+	}
+
+	/**
+	 * @return number of times a full buffer pushed the watermark forward
+	 */
+	public long getForced() {
+		return this.forced;
+	}
+
+	/**
+	 * Run <code>analysis</code> on each of <code>windows</code>, which must be
+	 * in order of their ends, once the watermark passes its end.
+	 */
+	public <R> void addWindowAnalysis(Iterable<Interval<Long>> windows,
+	        NetworkAnalysis<V, EdgeEntry<Long, V, E>, ? super NavigableGraph<Long, V, E>, R> analysis,
+	        WindowListener<? super R> listener) {
+		Window<V, E, R> window = new Window<V, E, R>(windows, analysis, listener);
+		this.windows.add(window);
+		window.advance(this.store, this.watermark);
+	}
+
+	public void offer(long time, V from, V to) {
+		this.offer(time, from, to, null, EdgeType.DIRECTED);
+	}
+
+	public void offer(long time, V from, V to, E value, EdgeType edgeType) {
+		this.offer(new EdgeEntry<Long, V, E>(from, to, time, value, edgeType));
+	}
+
+	public void offer(EdgeEntry<Long, V, E> edge) {
+		long time = edge.getKey();
+		if (time < this.watermark) {
+			this.late++;
+			this.store.addEdge(edge, edge.getFrom(), edge.getTo(), edge.getEdgetype());
+			return;
+		}
+		this.buffer.add(new Pending<V, E>(edge, this.sequence++));
+		if (time > this.maxSeen) {
+			this.maxSeen = time;
+		}
+		long candidate = this.maxSeen - this.maxDelay;
+		if (this.buffer.size() > this.capacity) {
+			long oldest = this.buffer.peek().edge.getKey();
+			if (oldest >= candidate) {
+				this.forced++;
+				candidate = oldest + 1;
+			}
+		}
+		this.advance(candidate);
+	}
+
+	/**
+	 * Release everything held back and close every window ending at or before
+	 * the last event seen
+	 */
+	public void flush() {
+		if (this.maxSeen != Long.MIN_VALUE) {
+			this.advance(this.maxSeen + 1);
+		}
+	}
+
+	/**
+	 * Move the watermark up to <code>time</code>, e.g. on a heartbeat from a
+	 * quiet source, releasing events and closing windows below it
+	 */
+	public void advance(long time) {
+		if (time <= this.watermark) {
+			return;
+		}
+		this.watermark = time;
+		while (!this.buffer.isEmpty() && this.buffer.peek().edge.getKey() < time) {
+			EdgeEntry<Long, V, E> edge = this.buffer.poll().edge;
+			this.store.addEdge(edge, edge.getFrom(), edge.getTo(), edge.getEdgetype());
+			this.released++;
+		}
+		for (Window<V, E, ?> window : this.windows) {
+			window.advance(this.store, time);
+		}
+	}
+}
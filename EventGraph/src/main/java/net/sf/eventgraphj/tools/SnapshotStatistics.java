@@ -14,6 +14,8 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
@@ -22,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 
 import net.sf.eventgraphj.analysis.CompoundNetworkAnalysis;
 import net.sf.eventgraphj.analysis.NetworkAnalysis;
+import net.sf.eventgraphj.analysis.TriadCensus;
 import net.sf.eventgraphj.analysis.VertexScoreAnalysis;
 import net.sf.eventgraphj.analysis.compare.PoissonNetworkInformation;
 import net.sf.eventgraphj.analysis.iterable.AggregationComparison;
@@ -53,6 +56,7 @@ public class SnapshotStatistics {
 	public static final String TIMESCALE = "scale";
 	public static final String OUTPUT = "output";
 	public static final String POOL_SIZE = "poolSize";
+	public static final String ANALYSIS_THREADS = "analysisThreads";
 	public static final int WAIT_TIME = 100;
 
 	public static void main(String[] args) throws IOException {
@@ -74,6 +78,10 @@ public class SnapshotStatistics {
 		        .create(OUTPUT));
 		options.addOption(OptionBuilder.withArgName("n").hasArg()
 		        .withDescription("use the given number of threads to run analysis").create(POOL_SIZE));
+		Option threadsOption = new Option(ANALYSIS_THREADS, true,
+		        "run the analyses of each snapshot concurrently on the given number of threads");
+		threadsOption.setArgName("n");
+		options.addOption(threadsOption);
 
 		// create the parser
 		CommandLineParser parser = new GnuParser();
@@ -103,8 +111,12 @@ public class SnapshotStatistics {
 				if (line.hasOption(POOL_SIZE)) {
 					poolSize = Integer.parseInt(line.getOptionValue(POOL_SIZE));
 				}
+				Integer analysisThreads = 0;
+				if (line.hasOption(ANALYSIS_THREADS)) {
+					analysisThreads = Integer.parseInt(line.getOptionValue(ANALYSIS_THREADS));
+				}
 				final NavigableGraph<Long, ?, ?> comparableGraph = LoadGraph.loadBinaryJungGraph(filename);
-				computeStatistics(comparableGraph, output, timescale, poolSize);
+				computeStatistics(comparableGraph, output, timescale, poolSize, analysisThreads);
 
 			}
 		} catch (ParseException e) {
@@ -116,6 +128,31 @@ public class SnapshotStatistics {
 
 	public static <V, E> void computeStatistics(final NavigableGraph<Long, V, E> comparableGraph, String outputBase,
 	        Long timescale, Integer poolSize) throws IOException {
+		computeStatistics(comparableGraph, outputBase, timescale, poolSize, 0);
+	}
+
+	/**
+	 * @param analysisThreads
+	 *            if positive, the analyses of each snapshot run concurrently
+	 *            on this many threads, in addition to the snapshots
+	 *            themselves running concurrently on <code>poolSize</code>
+	 *            threads
+	 */
+	public static <V, E> void computeStatistics(final NavigableGraph<Long, V, E> comparableGraph, String outputBase,
+	        Long timescale, Integer poolSize, Integer analysisThreads) throws IOException {
+		ExecutorService analysisExec = null;
+		if ((analysisThreads != null) && (analysisThreads > 0))
+			analysisExec = Executors.newFixedThreadPool(analysisThreads);
+		try {
+			computeStatistics(comparableGraph, outputBase, timescale, poolSize, analysisExec);
+		} finally {
+			if (analysisExec != null)
+				analysisExec.shutdown();
+		}
+	}
+
+	protected static <V, E> void computeStatistics(final NavigableGraph<Long, V, E> comparableGraph,
+	        String outputBase, Long timescale, Integer poolSize, ExecutorService analysisExec) throws IOException {
 
 		ThreadPoolExecutor exec = null;
 		CompletionService<Map<String, RealVector>> completionService = null;
@@ -173,7 +210,8 @@ public class SnapshotStatistics {
 			/*Iterable<Interval<Long>> iterable = IntervalWindowIterable.fromLong(IncrementIterable.fromLong(firstDate,
 			        lastDate, smallestInterval), thisinterval);*/
 
-			final CompoundNetworkAnalysis<V, EdgeEntry<Long, V, E>, NavigableGraph<Long, V, E>> allAnalyses = new CompoundNetworkAnalysis<V, EdgeEntry<Long, V, E>, NavigableGraph<Long, V, E>>();
+			final CompoundNetworkAnalysis<V, EdgeEntry<Long, V, E>, NavigableGraph<Long, V, E>> allAnalyses = new CompoundNetworkAnalysis<V, EdgeEntry<Long, V, E>, NavigableGraph<Long, V, E>>(
+			        analysisExec);
 
 			final HashMap<String, Writer> outMap = new HashMap<String, Writer>();
 
@@ -211,6 +249,10 @@ public class SnapshotStatistics {
 			allAnalyses.addAnalysis("Pagerank", analysis);
 			outMap.put("Pagerank", new FileWriter(new File(outputBase + "_" + (thisinterval) + "_pagerank.txt")));
 
+			analysis = new TriadCensus<V, EdgeEntry<Long, V, E>>();
+			allAnalyses.addAnalysis("Triads", analysis);
+			outMap.put("Triads", new FileWriter(new File(outputBase + "_" + (thisinterval) + "_triads.txt")));
+
 			int futureCount = 0;
 			for (Interval<Long> currInterval : iterable) {
 
@@ -224,7 +266,9 @@ public class SnapshotStatistics {
 						System.out.println("sub network from " + start + " to " + stop + " has "
 						        + subNet.getEdgeCount() + " edges");
 
-						HashMap<String, RealVector> results = allAnalyses.analyze(subNet);
+						CompoundNetworkAnalysis.CompoundResults results = allAnalyses.analyze(subNet);
+						System.out.println("analysis times (ns) from " + start + " to " + stop + ": "
+						        + results.getTimings());
 						/*for (Entry<String, ?> entry : results.entrySet()) {
 						    //System.out.println("printing");
 						    Writer output = outMap.get(entry.getKey());
@@ -5,11 +5,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 
+import net.sf.eventgraphj.analysis.activity.InterEventTimes;
 import net.sf.eventgraphj.comparable.EdgeEntry;
-import net.sf.eventgraphj.comparable.EdgePair;
 import net.sf.eventgraphj.comparable.NavigableGraph;
 
 import org.apache.commons.cli.CommandLine;
@@ -21,8 +20,6 @@ import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
-import edu.uci.ics.jung.graph.util.Pair;
-
 public class SurvivalTimes {
 	public static final String HELP = "help";
 	public static final String FILE = "f";
@@ -93,13 +90,6 @@ public class SurvivalTimes {
 
 	public static <V, E> void printSurvivals(
 			NavigableGraph<Long, V, E> comparableGraph, Type survivalType,boolean showpairs) {
-		int N = comparableGraph.getVertexCount();
-		int M = comparableGraph.getEdgeCount();
-		final Long firstDate = comparableGraph.getFirstKey();
-		final Long lastDate = comparableGraph.getLastKey();
-
-		Long lastTime = null, newTime = null;
-
 		if (survivalType == Type.any) {
 			ArrayList<EdgeEntry<Long, V, E>> allEdges = new ArrayList<EdgeEntry<Long, V, E>>(
 					comparableGraph.getEdges());
@@ -116,112 +106,43 @@ public class SurvivalTimes {
 		}
 
 		final List<V> nodes = new ArrayList<V>(comparableGraph.getVertices());
-		for (V from : nodes) {
-			if (survivalType == Type.sender) {
-				lastTime = null;
-				ArrayList<EdgeEntry<Long, V, E>> allEdges = new ArrayList<EdgeEntry<Long, V, E>>(
-						comparableGraph.getOutEdges(from));
-				Collections.sort(allEdges,
-						new Comparator<EdgeEntry<Long, V, E>>() {
-							@Override
-							public int compare(EdgeEntry<Long, V, E> arg0,
-									EdgeEntry<Long, V, E> arg1) {
-								return arg0.getKey().compareTo(arg1.getKey());
-							}
-						});
-
-				printTimeDiffs(allEdges, showpairs);
-
-			} else {
-				assert (survivalType == Type.pairwise);
-				for (V to : comparableGraph.getSuccessors(from)) {
-					printTimeDiffs(comparableGraph.findEdgeSet(
-							from, to), showpairs);
+		InterEventTimes<Long, V, E> times = new InterEventTimes<Long, V, E>();
+		InterEventTimes.GapSink<V> printer = new InterEventTimes.GapSink<V>() {
+			@Override
+			public void gaps(V from, List<V> to, long[] gaps) {
+				for (int i = 0; i < gaps.length; i++) {
+					System.out.println(from.toString() + "," + to.get(i).toString()
+							+ "," + gaps[i]);
 				}
 			}
+		};
+		if (survivalType == Type.sender) {
+			times.streamVertexGaps(comparableGraph, nodes, printer);
+		} else {
+			assert (survivalType == Type.pairwise);
+			times.streamDyadGaps(comparableGraph, nodes, printer);
 		}
 	}
-	
-	
-	
 
+	/**
+	 * @return for {@code Type.any} a single array of the gaps between
+	 *         consecutive events, for {@code Type.sender} the gaps of each
+	 *         vertex in the order of {@code getVertices()}, and for
+	 *         {@code Type.pairwise} the gaps of each dyad with an event
+	 */
 	public static <V, E> long[][] getSurvivals(
 			NavigableGraph<Long, V, E> comparableGraph, Type survivalType) {
-		int N = comparableGraph.getVertexCount();
-		int M = comparableGraph.getEdgeCount();
-		final Long firstDate = comparableGraph.getFirstKey();
-		final Long lastDate = comparableGraph.getLastKey();
-
-		long[][] survivals;
-		
-		
+		InterEventTimes<Long, V, E> times = new InterEventTimes<Long, V, E>();
 		if (survivalType == Type.any) {
-			survivals = new long[1][];
-			ArrayList<EdgeEntry<Long, V, E>> allEdges = new ArrayList<EdgeEntry<Long, V, E>>(
-					comparableGraph.getEdges());
-			Collections.sort(allEdges, new Comparator<EdgeEntry<Long, V, E>>() {
-				@Override
-				public int compare(EdgeEntry<Long, V, E> arg0,
-						EdgeEntry<Long, V, E> arg1) {
-					return arg0.getKey().compareTo(arg1.getKey());
-				}
-			});
-			survivals[0] = getTimeDiffs(allEdges);
-			return survivals;
+			return new long[][] { times.anyGaps(comparableGraph) };
 		}
-
-		final List<V> nodes = new ArrayList<V>(comparableGraph.getVertices());
 		if (survivalType == Type.sender) {
-			survivals = new long[nodes.size()][];
-		}else{
-			survivals = new long[comparableGraph.getPairs().size()][];
-		}
-		int arrayIdx = 0;
-		for (V from : nodes) {
-			
-			if (survivalType == Type.sender) {
-				ArrayList<EdgeEntry<Long, V, E>> allEdges = new ArrayList<EdgeEntry<Long, V, E>>(
-						comparableGraph.getOutEdges(from));
-				Collections.sort(allEdges,
-						new Comparator<EdgeEntry<Long, V, E>>() {
-							@Override
-							public int compare(EdgeEntry<Long, V, E> arg0,
-									EdgeEntry<Long, V, E> arg1) {
-								return arg0.getKey().compareTo(arg1.getKey());
-							}
-						});
-				survivals[arrayIdx] = getTimeDiffs(allEdges);
-				arrayIdx++;
-			} else {
-				assert (survivalType == Type.pairwise);
-				for (V to : comparableGraph.getSuccessors(from)) {
-					survivals[arrayIdx] = getTimeDiffs(comparableGraph.findEdgeSet(
-							from, to));
-						arrayIdx++;
-						
-				}
-			}
+			return times.vertexGaps(comparableGraph);
 		}
-		return survivals;
+		assert (survivalType == Type.pairwise);
+		return times.dyadGaps(comparableGraph).values().toArray(new long[0][]);
 	}
-	
-	private static <V,E> long[] getTimeDiffs(Collection<EdgeEntry<Long, V, E>> allEdges){
-		Long lastTime = null, newTime = null;
-		int idx = 0;
-		long[] survivals = new long[allEdges.size()-1];
-		for (EdgeEntry<Long, V, E> edge : allEdges) {
-			newTime = edge.getKey();
-			if (lastTime != null) {
-				long diff = newTime - lastTime;
-				assert (diff >= 0);
-				survivals[idx] = diff;
-			}
-			lastTime = newTime;
 
-		}
-		return survivals;
-	}
-	
 	private static <V,E> void printTimeDiffs(Collection<EdgeEntry<Long, V, E>> allEdges,boolean showpairs){
 		Long lastTime = null, newTime = null;
 		for (EdgeEntry<Long, V, E> edge : allEdges) {
@@ -0,0 +1,130 @@
+package net.sf.eventgraphj.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class CompoundNetworkAnalysisTest {
+
+	protected NavigableGraph<Long, Integer, Integer> createGraph() {
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (long i = 0; i < 40; i++) {
+			graph.addEdge(i, (int) (i % 7), (int) ((i * 3) % 11), EdgeType.DIRECTED);
+		}
+		return graph;
+	}
+
+	protected CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>> createAnalysis(
+	        NavigableGraph<Long, Integer, Integer> graph, ExecutorService executor) {
+		CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>> analysis = new CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>>(
+		        executor);
+		analysis.addAnalysis("Degree", VertexScoreAnalysis.newDegreeAnalysis(graph));
+		analysis.addAnalysis("Closeness", VertexScoreAnalysis.newClosenessAnalysis(graph));
+		analysis.addAnalysis("Betweenness", VertexScoreAnalysis.newBetweennessAnalysis(graph));
+		analysis.addAnalysis("Pagerank", VertexScoreAnalysis.newPageRankAnalysis(graph));
+		return analysis;
+	}
+
+	@Test
+	public void testParallelMatchesSequential() {
+		NavigableGraph<Long, Integer, Integer> graph = this.createGraph();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			NavigableGraph<Long, Integer, Integer> snapshot = graph.subNetwork(5l, 35l);
+			HashMap<String, RealVector> sequential = this.createAnalysis(graph, null).analyze(snapshot);
+			CompoundNetworkAnalysis.CompoundResults parallel = this.createAnalysis(graph, executor).analyze(snapshot);
+			assertEquals(sequential, parallel);
+			assertEquals(sequential.keySet(), parallel.getTimings().keySet());
+			assertFalse(snapshot.isFrozen());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSnapshotIsFrozen() {
+		NavigableGraph<Long, Integer, Integer> graph = this.createGraph();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>> analysis = this
+			        .createAnalysis(graph, executor);
+			analysis.addAnalysis("Writer",
+			        new NetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>, RealVector>() {
+				        @Override
+				        public RealVector analyze(NavigableGraph<Long, Integer, Integer> graph) {
+					        assertTrue(graph.isFrozen());
+					        graph.addEdge(100l, 0, 1);
+					        return null;
+				        }
+			        });
+			analysis.analyze(graph);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSnapshotFreezesGraph() {
+		final NavigableGraph<Long, Integer, Integer> graph = this.createGraph();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>> analysis = this
+			        .createAnalysis(graph, executor);
+			analysis.addAnalysis("Writer",
+			        new NetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>, RealVector>() {
+				        @Override
+				        public RealVector analyze(NavigableGraph<Long, Integer, Integer> snapshot) {
+					        // the snapshot reads the graph's edges
+					        graph.addEdge(20l, 0, 1);
+					        return null;
+				        }
+			        });
+			analysis.analyze(graph.subNetwork(5l, 35l));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testOverlappingAnalysesKeepFreeze() {
+		final NavigableGraph<Long, Integer, Integer> graph = this.createGraph();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		final ExecutorService inner = Executors.newFixedThreadPool(2);
+		try {
+			final NavigableGraph<Long, Integer, Integer> snapshot = graph.subNetwork(5l, 35l);
+			CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>> analysis = this
+			        .createAnalysis(graph, executor);
+			analysis.addAnalysis("Overlap",
+			        new NetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>, RealVector>() {
+				        @Override
+				        public RealVector analyze(NavigableGraph<Long, Integer, Integer> view) {
+					        // another analysis of the same graph finishes first
+					        CompoundNetworkAnalysisTest.this.createAnalysis(graph, inner).analyze(graph);
+					        assertTrue(view.isFrozen());
+					        assertTrue(graph.isFrozen());
+					        return null;
+				        }
+			        });
+			analysis.analyze(snapshot);
+			assertFalse(graph.isFrozen());
+			graph.addEdge(20l, 0, 1);
+		} finally {
+			executor.shutdown();
+			inner.shutdown();
+		}
+	}
+}
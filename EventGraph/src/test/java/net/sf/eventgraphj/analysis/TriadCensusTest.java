@@ -0,0 +1,111 @@
+package net.sf.eventgraphj.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import net.sf.eventgraphj.analysis.iterable.IncrementalNetworkAnalysis;
+import net.sf.eventgraphj.analysis.iterable.IncrementalTriadCensusAnalysis;
+import net.sf.eventgraphj.analysis.iterable.SlidingNetworkAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.IncrementIterable;
+import net.sf.eventgraphj.comparable.IntervalWindowIterable;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.metrics.TriadicCensus;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class TriadCensusTest {
+
+	@Test
+	public void testOutStar() {
+		NavigableGraph<Long, String, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		graph.addEdge(0l, "b", "a", EdgeType.DIRECTED);
+		graph.addEdge(1l, "b", "c", EdgeType.DIRECTED);
+		graph.addEdge(2l, "b", "c", EdgeType.DIRECTED);
+		RealVector census = new TriadCensus<String, EdgeEntry<Long, String, Integer>>().analyze(graph);
+		for (int t = 0; t < TriadCensus.TYPES.length; t++) {
+			assertEquals(TriadCensus.TYPES[t], "021D".equals(TriadCensus.TYPES[t]) ? 1 : 0, census.getEntry(t), 0);
+		}
+	}
+
+	@Test
+	public void testMatchesJung() {
+		Random random = new Random(7);
+		DirectedSparseGraph<Integer, Integer> jung = new DirectedSparseGraph<Integer, Integer>();
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (int v = 0; v < 30; v++) {
+			jung.addVertex(v);
+			graph.addVertex(v);
+		}
+		for (int e = 0; e < 120; e++) {
+			int u = random.nextInt(30);
+			int v = random.nextInt(30);
+			if (u == v || jung.isSuccessor(u, v)) {
+				continue;
+			}
+			jung.addEdge(e, u, v);
+			graph.addEdge((long) e, u, v, EdgeType.DIRECTED);
+		}
+		long[] expected = TriadicCensus.getCounts(jung);
+		RealVector census = new TriadCensus<Integer, EdgeEntry<Long, Integer, Integer>>().analyze(graph);
+		for (int t = 0; t < TriadCensus.TYPES.length; t++) {
+			assertEquals(TriadCensus.TYPES[t], expected[t + 1], census.getEntry(t), 0);
+		}
+	}
+
+	@Test
+	public void testSlidingMatchesSnapshots() {
+		Random random = new Random(11);
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (long key = 0; key < 200; key++) {
+			int u = random.nextInt(12);
+			int v = random.nextInt(12);
+			if (u != v) {
+				graph.addEdge(key, u, v, random.nextInt(4) == 0 ? EdgeType.UNDIRECTED : EdgeType.DIRECTED);
+			}
+		}
+		final TriadCensus<Integer, EdgeEntry<Long, Integer, Integer>> census = new TriadCensus<Integer, EdgeEntry<Long, Integer, Integer>>();
+		final IncrementalTriadCensusAnalysis<Long, Integer, Integer> incremental = new IncrementalTriadCensusAnalysis<Long, Integer, Integer>();
+		final List<RealVector> expected = new ArrayList<RealVector>();
+		IncrementalNetworkAnalysis<Long, Integer, Integer, RealVector> recording = new IncrementalNetworkAnalysis<Long, Integer, Integer, RealVector>() {
+			@Override
+			public void reset() {
+				incremental.reset();
+			}
+
+			@Override
+			public RealVector update(NavigableGraph<Long, Integer, Integer> window,
+			        Collection<EdgeEntry<Long, Integer, Integer>> added,
+			        Collection<EdgeEntry<Long, Integer, Integer>> removed) {
+				// the census of the vertices with events in the window
+				NavigableGraph<Long, Integer, Integer> copy = NavigableGraphModule.EDGE_NAVIGABLE
+				        .getInstance(NavigableGraph.class);
+				for (EdgeEntry<Long, Integer, Integer> edge : window.getEdges()) {
+					copy.addEdge(edge.getKey(), edge.getFrom(), edge.getTo(), edge.getEdgetype());
+				}
+				expected.add(census.analyze(copy));
+				return incremental.update(null, added, removed);
+			}
+		};
+		List<RealVector> results = new SlidingNetworkAnalysis<Long, Integer, Integer, RealVector>(recording,
+		        IntervalWindowIterable.fromLong(IncrementIterable.fromLong(20l, 400l, 15l), 40l)).analyze(graph.subNetwork(0l, 200l));
+		assertEquals(expected.size(), results.size());
+		assertTrue(results.size() > 5);
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(expected.get(i), results.get(i));
+		}
+	}
+}
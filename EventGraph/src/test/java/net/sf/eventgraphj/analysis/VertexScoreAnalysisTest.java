@@ -0,0 +1,81 @@
+package net.sf.eventgraphj.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.BetweennessCentrality;
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class VertexScoreAnalysisTest {
+
+	protected Graph<Integer, Integer> createWindow() {
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		graph.addEdge(0, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1, 1, 2, EdgeType.DIRECTED);
+		graph.addEdge(2, 2, 3, EdgeType.DIRECTED);
+		graph.addEdge(3, 1, 3, EdgeType.DIRECTED);
+		return graph;
+	}
+
+	@Test
+	public void testDenseScores() {
+		Graph<Integer, Integer> window = this.createWindow();
+		// 4 is never in the window
+		List<Integer> nodes = Arrays.asList(3, 4, 2, 1, 0);
+		BetweennessCentrality<Integer, Integer> expected = new BetweennessCentrality<Integer, Integer>(window);
+		VertexScoreAnalysis<Integer, Integer> betweenness = new VertexScoreAnalysis.ShortestPathAnalysis<Integer, Integer>(
+		        nodes, VertexScoreAnalysis.ShortestPathAnalysis.Measure.BETWEENNESS);
+
+		RealVector scores = betweenness.analyze(window);
+		for (int i = 0; i < nodes.size(); i++) {
+			Double score = window.containsVertex(nodes.get(i)) ? expected.getVertexScore(nodes.get(i)) : 0.0;
+			assertEquals(score, scores.getEntry(i), 1e-9);
+		}
+
+		double[] buffer = new double[nodes.size()];
+		Arrays.fill(buffer, -1);
+		BitSet present = new BitSet();
+		betweenness.scoreInto(window, buffer, present);
+		assertEquals(4, present.cardinality());
+		assertTrue(!present.get(1));
+		assertEquals(-1, buffer[1], 0);
+		assertEquals(expected.getVertexScore(1), buffer[3], 1e-9);
+	}
+
+	@Test
+	public void testMissingVerticesNotScored() {
+		Graph<Integer, Integer> window = this.createWindow();
+		VertexScoreAnalysis<Integer, Integer> strict = new VertexScoreAnalysis<Integer, Integer>(Arrays.asList(0, 9)) {
+			@Override
+			public VertexScorer<Integer, Integer> createScorer(final Graph<Integer, Integer> graph) {
+				return new VertexScorer<Integer, Integer>() {
+					@Override
+					public Integer getVertexScore(Integer vertex) {
+						if (!graph.containsVertex(vertex)) {
+							throw new IllegalStateException("asked for " + vertex);
+						}
+						return graph.degree(vertex);
+					}
+				};
+			}
+		};
+		RealVector scores = strict.analyze(window);
+		assertEquals(1, scores.getEntry(0), 0);
+		assertEquals(0, scores.getEntry(1), 0);
+
+		RealVector degrees = VertexScoreAnalysis.newDegreeAnalysis(window).analyze(window);
+		for (int i = 0; i < degrees.getDimension(); i++) {
+			assertTrue(degrees.getEntry(i) > 0);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Test;
+
+import com.google.inject.Injector;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+public class InterEventTimesTest {
+
+	protected NavigableGraph<Long, Integer, Integer> createGraph(Injector injector) {
+		NavigableGraph<Long, Integer, Integer> graph = injector.getInstance(NavigableGraph.class);
+		// vertex 0 sends at 1, 5, 11, 100, 104
+		graph.addEdge(11l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(5l, 0, 2, EdgeType.DIRECTED);
+		graph.addEdge(104l, 0, 2, EdgeType.DIRECTED);
+		graph.addEdge(100l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(50l, 1, 0, EdgeType.DIRECTED);
+		return graph;
+	}
+
+	protected void checkGaps(Injector injector) {
+		NavigableGraph<Long, Integer, Integer> graph = this.createGraph(injector);
+		InterEventTimes<Long, Integer, Integer> times = new InterEventTimes<Long, Integer, Integer>(null, 2);
+		List<Integer> nodes = new ArrayList<Integer>();
+		nodes.add(0);
+		nodes.add(1);
+		nodes.add(2);
+
+		assertArrayEquals(new long[] { 4, 6, 39, 50, 4 }, times.anyGaps(graph));
+		long[][] vertex = times.vertexGaps(graph, nodes);
+		assertArrayEquals(new long[] { 4, 6, 89, 4 }, vertex[0]);
+		assertEquals(0, vertex[1].length);
+		assertEquals(0, vertex[2].length);
+
+		Map<Pair<Integer>, long[]> dyads = times.dyadGaps(graph);
+		assertEquals(3, dyads.size());
+		assertArrayEquals(new long[] { 10, 89 }, dyads.get(new Pair<Integer>(0, 1)));
+		assertArrayEquals(new long[] { 99 }, dyads.get(new Pair<Integer>(0, 2)));
+		assertEquals(0, dyads.get(new Pair<Integer>(1, 0)).length);
+
+		final List<String> lines = new ArrayList<String>();
+		InterEventTimes.GapSink<Integer> sink = new InterEventTimes.GapSink<Integer>() {
+			@Override
+			public void gaps(Integer from, List<Integer> to, long[] gaps) {
+				for (int i = 0; i < gaps.length; i++) {
+					lines.add(from + "," + to.get(i) + "," + gaps[i]);
+				}
+			}
+		};
+		times.streamVertexGaps(graph, nodes, sink);
+		assertEquals("[0,2,4, 0,1,6, 0,1,89, 0,2,4]", lines.toString());
+		lines.clear();
+		times.streamDyadGaps(graph.subNetwork(0l, 50l), nodes, sink);
+		assertEquals("[0,1,10]", lines.toString());
+	}
+
+	@Test
+	public void testDyadNavigableGraph() {
+		this.checkGaps(NavigableGraphModule.EDGE_NAVIGABLE);
+	}
+
+	@Test
+	public void testNodeNavigableGraph() {
+		this.checkGaps(NavigableGraphModule.NODE_NAVIGABLE);
+	}
+
+	@Test
+	public void testBasicNavigableGraph() {
+		this.checkGaps(NavigableGraphModule.BASIC_NAVIGABLE);
+	}
+}
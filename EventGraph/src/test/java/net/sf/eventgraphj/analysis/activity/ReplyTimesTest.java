@@ -0,0 +1,88 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Test;
+
+import com.google.inject.Injector;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+public class ReplyTimesTest {
+
+	protected NavigableGraph<Long, Integer, Integer> createGraph(Injector injector) {
+		NavigableGraph<Long, Integer, Integer> graph = injector.getInstance(NavigableGraph.class);
+		graph.addEdge(100l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(200l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(11l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(50l, 1, 0, EdgeType.DIRECTED);
+		graph.addEdge(5l, 1, 0, EdgeType.DIRECTED);
+		graph.addEdge(11l, 1, 0, EdgeType.DIRECTED);
+		graph.addEdge(3l, 0, 2, EdgeType.DIRECTED);
+		return graph;
+	}
+
+	protected void checkReplies(Injector injector) {
+		NavigableGraph<Long, Integer, Integer> graph = this.createGraph(injector);
+		ReplyTimes<Long, Integer, Integer> times = new ReplyTimes<Long, Integer, Integer>();
+		List<Integer> nodes = new ArrayList<Integer>();
+		nodes.add(0);
+		nodes.add(1);
+		nodes.add(2);
+
+		Map<Pair<Integer>, Replies> dyads = times.dyadReplies(graph);
+		assertEquals(3, dyads.size());
+		Replies replies = dyads.get(new Pair<Integer>(0, 1));
+		// an answer at the same key does not count
+		assertArrayEquals(new long[] { 4, 39 }, replies.getLatencies());
+		assertEquals(2, replies.getUnanswered());
+		assertEquals(0.5, replies.getReplyRate(), 0.0);
+		assertArrayEquals(new int[] { 0, 0, 0, 1, 0, 0, 1 }, replies.histogram());
+		assertArrayEquals(new long[] { 6, 89, 50 }, dyads.get(new Pair<Integer>(1, 0)).getLatencies());
+		assertEquals(1, dyads.get(new Pair<Integer>(0, 2)).getUnanswered());
+		assertArrayEquals(new long[] { 4, 39 }, times.dyadReplies(graph, 0, 1).getLatencies());
+		assertEquals(0, times.dyadReplies(graph, 2, 0).getUnanswered());
+
+		Replies[] responders = times.responderReplies(graph, nodes);
+		assertArrayEquals(new long[] { 6, 89, 50 }, responders[0].getLatencies());
+		assertEquals(2, responders[1].getUnanswered());
+		assertEquals(0, responders[2].size());
+		assertEquals(1, responders[2].getUnanswered());
+
+		Replies[] senders = times.senderReplies(graph, nodes);
+		assertArrayEquals(new long[] { 4, 39 }, senders[0].getLatencies());
+		assertEquals(3, senders[0].getUnanswered());
+		assertEquals(0, senders[2].size());
+
+		long[] all = times.allReplies(graph).getLatencies();
+		Arrays.sort(all);
+		assertArrayEquals(new long[] { 4, 6, 39, 50, 89 }, all);
+		assertEquals(3, times.allReplies(graph).getUnanswered());
+	}
+
+	@Test
+	public void testDyadNavigableGraph() {
+		this.checkReplies(NavigableGraphModule.EDGE_NAVIGABLE);
+	}
+
+	@Test
+	public void testNodeNavigableGraph() {
+		this.checkReplies(NavigableGraphModule.NODE_NAVIGABLE);
+	}
+
+	@Test
+	public void testBasicNavigableGraph() {
+		this.checkReplies(NavigableGraphModule.BASIC_NAVIGABLE);
+	}
+}
@@ -0,0 +1,81 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Test;
+
+import com.google.inject.Injector;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+import edu.uci.ics.jung.graph.util.Pair;
+
+public class SessionWindowsTest {
+
+	protected NavigableGraph<Long, Integer, Integer> createGraph(Injector injector) {
+		NavigableGraph<Long, Integer, Integer> graph = injector.getInstance(NavigableGraph.class);
+		// vertex 0 has sessions {1, 5, 11} and {100, 104} when the gap is 10
+		graph.addEdge(11l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(5l, 0, 2, EdgeType.DIRECTED);
+		graph.addEdge(104l, 0, 2, EdgeType.DIRECTED);
+		graph.addEdge(100l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(50l, 1, 0, EdgeType.DIRECTED);
+		return graph;
+	}
+
+	protected void checkSessions(Injector injector) {
+		NavigableGraph<Long, Integer, Integer> graph = this.createGraph(injector);
+		SessionWindows<Long, Integer, Integer> windows = new SessionWindows<Long, Integer, Integer>(10);
+
+		List<Integer> nodes = new ArrayList<Integer>();
+		nodes.add(0);
+		nodes.add(1);
+		nodes.add(2);
+		Sessions[] sessions = windows.vertexSessions(graph, nodes);
+		assertEquals(2, sessions[0].size());
+		assertEquals(1, sessions[0].getStart(0));
+		assertEquals(11, sessions[0].getEnd(0));
+		assertEquals(3, sessions[0].getCount(0));
+		assertEquals(100, sessions[0].getStart(1));
+		assertEquals(104, sessions[0].getEnd(1));
+		assertEquals(2, sessions[0].getCount(1));
+		assertEquals(1, sessions[1].size());
+		assertEquals(0, sessions[2].size());
+
+		Map<Pair<Integer>, Sessions> dyads = windows.dyadSessions(graph);
+		assertEquals(3, dyads.size());
+		Sessions dyad = dyads.get(new Pair<Integer>(0, 1));
+		assertEquals(2, dyad.size());
+		assertEquals(2, dyad.getCount(0));
+		assertEquals(1, dyad.getCount(1));
+		dyad = windows.dyadSessions(graph, 0, 2);
+		assertEquals(2, dyad.size());
+		assertEquals(5, dyad.getStart(0));
+
+		dyad = windows.dyadSessions(graph.subNetwork(0l, 50l), 0, 1);
+		assertEquals(1, dyad.size());
+		assertEquals(2, dyad.getCount(0));
+	}
+
+	@Test
+	public void testDyadNavigableGraph() {
+		this.checkSessions(NavigableGraphModule.EDGE_NAVIGABLE);
+	}
+
+	@Test
+	public void testNodeNavigableGraph() {
+		this.checkSessions(NavigableGraphModule.NODE_NAVIGABLE);
+	}
+
+	@Test
+	public void testBasicNavigableGraph() {
+		this.checkSessions(NavigableGraphModule.BASIC_NAVIGABLE);
+	}
+}
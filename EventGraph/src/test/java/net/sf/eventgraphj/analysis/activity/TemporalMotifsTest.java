@@ -0,0 +1,114 @@
+package net.sf.eventgraphj.analysis.activity;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class TemporalMotifsTest {
+
+	/**
+	 * Every pair and triple of events on at most three nodes within
+	 * <code>delta</code>, by enumerating them
+	 */
+	protected Map<String, Long> bruteForce(int[] sources, int[] targets, long[] times, long delta) {
+		Map<String, Long> counts = new HashMap<String, Long>();
+		int m = times.length;
+		for (int i = 0; i < m; i++) {
+			for (int j = i + 1; j < m && times[j] - times[i] <= delta; j++) {
+				this.add(counts, sources, targets, i, j);
+				for (int k = j + 1; k < m && times[k] - times[i] <= delta; k++) {
+					this.add(counts, sources, targets, i, j, k);
+				}
+			}
+		}
+		return counts;
+	}
+
+	protected void add(Map<String, Long> counts, int[] sources, int[] targets, int... events) {
+		Set<Integer> nodes = new HashSet<Integer>();
+		int[] s = new int[events.length];
+		int[] t = new int[events.length];
+		for (int i = 0; i < events.length; i++) {
+			s[i] = sources[events[i]];
+			t[i] = targets[events[i]];
+			nodes.add(s[i]);
+			nodes.add(t[i]);
+		}
+		if (nodes.size() <= 3) {
+			String code = MotifCounts.code(s, t);
+			Long old = counts.get(code);
+			counts.put(code, old == null ? 1 : old + 1);
+		}
+	}
+
+	protected void assertMatches(int n, int m, long span, long delta, long seed) {
+		Random random = new Random(seed);
+		long[] times = new long[m];
+		for (int a = 0; a < m; a++) {
+			times[a] = (long) (random.nextDouble() * span);
+		}
+		Arrays.sort(times);
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		for (int a = 0; a < m; a++) {
+			sources[a] = random.nextInt(n);
+			do {
+				targets[a] = random.nextInt(n);
+			} while (targets[a] == sources[a]);
+		}
+		MotifCounts counts = new TemporalMotifs<Long, Integer, Integer>(delta, new ForkJoinPool(4)).count(n, sources,
+		        targets, times);
+		assertEquals(this.bruteForce(sources, targets, times, delta), counts.getCounts());
+	}
+
+	@Test
+	public void testMatchesBruteForce() {
+		// dense, with ties
+		this.assertMatches(6, 300, 2000, 100, 44);
+		// many triangles
+		this.assertMatches(12, 600, 600, 40, 45);
+		// long enough to split into time partitions
+		this.assertMatches(40, 20000, 1000000, 300, 46);
+	}
+
+	@Test
+	public void testGraph() {
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		graph.addEdge(0l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1l, 1, 0, EdgeType.DIRECTED);
+		graph.addEdge(2l, 1, 2, EdgeType.UNDIRECTED);
+		graph.addEdge(3l, 0, 2, EdgeType.DIRECTED);
+		graph.addEdge(4l, 2, 2, EdgeType.DIRECTED);
+		graph.addEdge(50l, 0, 1, EdgeType.DIRECTED);
+
+		MotifCounts counts = new TemporalMotifs<Long, Integer, Integer>(10).count(graph);
+		assertEquals(1, counts.getCount(MotifCounts.REPLY));
+		// 0 -> 1 then 1 -> 2, and 1 -> 0 then 0 -> 2
+		assertEquals(2, counts.getCount(MotifCounts.FORWARD));
+		// 0 -> 1 then 0 -> 2, and 1 -> 0 then 1 -> 2
+		assertEquals(2, counts.getCount(MotifCounts.BROADCAST));
+		assertEquals(1, counts.getCount(MotifCounts.GATHER));
+		assertEquals(1, counts.getCount("01 10 12"));
+		assertEquals(1, counts.getCount("01 12 02"));
+		assertEquals(0, counts.getCount(MotifCounts.REPEAT));
+		assertEquals(4, counts.getCounts(3).size());
+
+		MotifCounts later = new TemporalMotifs<Long, Integer, Integer>(10).count(graph, 1l, 100l);
+		assertEquals(0, later.getCount(MotifCounts.REPLY));
+		assertEquals(1, later.getCounts(3).size());
+	}
+}
@@ -0,0 +1,101 @@
+package net.sf.eventgraphj.analysis.community;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.sf.eventgraphj.compact.CompactGraph;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.UndirectedSparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class LouvainCommunitiesTest {
+
+	/**
+	 * <code>groups</code> groups of <code>size</code> vertices, each event
+	 * inside a group with probability <code>inside</code>
+	 */
+	protected Graph<Integer, Integer> createPlanted(int groups, int size, int events, double inside, long seed) {
+		Random random = new Random(seed);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		int n = groups * size;
+		for (int u = 0; u < n; u++) {
+			graph.addVertex(u);
+		}
+		for (int e = 0; e < events; e++) {
+			int u = random.nextInt(n);
+			int v = random.nextDouble() < inside ? (u / size) * size + random.nextInt(size) : random.nextInt(n);
+			if (u != v) {
+				graph.addEdge(e, u, v, EdgeType.DIRECTED);
+			}
+		}
+		return graph;
+	}
+
+	protected static double planted(Graph<Integer, Integer> graph, int size) {
+		LouvainCommunities.Level level = new LouvainCommunities.Level(CompactGraph.fromGraph(graph).toUndirected());
+		int[] membership = new int[graph.getVertexCount()];
+		int i = 0;
+		for (Integer vertex : graph.getVertices()) {
+			membership[i++] = vertex / size;
+		}
+		return LouvainCommunities.modularity(level, membership);
+	}
+
+	@Test
+	public void testTwoCliques() {
+		Graph<Integer, Integer> graph = new UndirectedSparseMultigraph<Integer, Integer>();
+		int e = 0;
+		for (int base = 0; base < 10; base += 5) {
+			for (int u = base; u < base + 5; u++) {
+				for (int v = u + 1; v < base + 5; v++) {
+					graph.addEdge(e++, u, v);
+				}
+			}
+		}
+		graph.addEdge(e++, 4, 5);
+		Communities<Integer> communities = new LouvainCommunities<Integer, Integer>().analyze(graph);
+		assertEquals(2, communities.getCommunityCount());
+		for (int u = 0; u < 10; u++) {
+			assertEquals(communities.getCommunity(u / 5 * 5), communities.getCommunity(u));
+		}
+		assertTrue(communities.getCommunity(0) != communities.getCommunity(5));
+		assertEquals(20 / 21.0 - 0.5, communities.getModularity(), 1e-12);
+	}
+
+	@Test
+	public void testParallelFindsPlanted() {
+		Graph<Integer, Integer> graph = this.createPlanted(8, 600, 40000, 0.9, 1);
+		double planted = planted(graph, 600);
+		LouvainCommunities<Integer, Integer> sequential = new LouvainCommunities<Integer, Integer>(null, false);
+		sequential.parallelMin = Integer.MAX_VALUE;
+		LouvainCommunities<Integer, Integer> parallel = new LouvainCommunities<Integer, Integer>(null, false);
+		parallel.parallelMin = 1;
+		Communities<Integer> one = sequential.analyze(graph);
+		Communities<Integer> many = parallel.analyze(graph);
+		assertTrue(one.getModularity() + " < " + planted, one.getModularity() > planted - 0.01);
+		assertTrue(many.getModularity() + " < " + planted, many.getModularity() > planted - 0.01);
+		// the same again, whatever the scheduling
+		assertEquals(many.getMembership(), parallel.analyze(graph).getMembership());
+	}
+
+	@Test
+	public void testWarmStart() {
+		LouvainCommunities<Integer, Integer> warm = new LouvainCommunities<Integer, Integer>();
+		LouvainCommunities<Integer, Integer> cold = new LouvainCommunities<Integer, Integer>(null, false);
+		Graph<Integer, Integer> graph = this.createPlanted(6, 50, 3000, 0.8, 2);
+		Communities<Integer> first = warm.analyze(graph);
+		assertEquals(first.getMembership(), warm.analyze(graph).getMembership());
+		for (long seed = 3; seed < 8; seed++) {
+			graph = this.createPlanted(6, 50, 3000, 0.8, seed);
+			double warmModularity = warm.analyze(graph).getModularity();
+			double coldModularity = cold.analyze(graph).getModularity();
+			assertTrue(warmModularity + " < " + coldModularity, warmModularity > coldModularity - 0.02);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.IncrementIterable;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.IntervalWindowIterable;
+import net.sf.eventgraphj.comparable.IntervalWrapperIterable;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.cluster.WeakComponentClusterer;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class ComponentAnalysisTest {
+	protected NavigableGraph<Long, Integer, Integer> graph;
+
+	@Before
+	public void setUp() {
+		Random random = new Random(5);
+		NavigableGraph<Long, Integer, Integer> all = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (long key = 0; key < 300; key++) {
+			int u = random.nextInt(40);
+			int v = random.nextInt(40);
+			all.addEdge(key, u, v, random.nextBoolean() ? EdgeType.UNDIRECTED : EdgeType.DIRECTED);
+		}
+		this.graph = all.subNetwork(0l, 300l);
+	}
+
+	/**
+	 * Components of the vertices with events in <code>window</code>
+	 */
+	protected static ComponentSizes components(Graph<Integer, EdgeEntry<Long, Integer, Integer>> window) {
+		Graph<Integer, EdgeEntry<Long, Integer, Integer>> events = new UndirectedSparseMultigraph<Integer, EdgeEntry<Long, Integer, Integer>>();
+		for (EdgeEntry<Long, Integer, Integer> edge : window.getEdges()) {
+			events.addEdge(edge, edge.getFrom(), edge.getTo());
+		}
+		Map<Integer, Integer> sizes = new HashMap<Integer, Integer>();
+		for (Set<Integer> component : new WeakComponentClusterer<Integer, EdgeEntry<Long, Integer, Integer>>()
+		        .transform(events)) {
+			Integer old = sizes.get(component.size());
+			sizes.put(component.size(), old == null ? 1 : old + 1);
+		}
+		return new ComponentSizes(events.getVertexCount(), sizes);
+	}
+
+	@Test
+	public void testSlidingWindows() {
+		Iterable<Interval<Long>> windows = IntervalWindowIterable.fromLong(IncrementIterable.fromLong(10l, 600l, 7l),
+		        30l);
+		final IncrementalComponentAnalysis<Long, Integer, Integer> incremental = new IncrementalComponentAnalysis<Long, Integer, Integer>();
+		final List<ComponentSizes> expected = new ArrayList<ComponentSizes>();
+		IncrementalNetworkAnalysis<Long, Integer, Integer, ComponentSizes> recording = new IncrementalNetworkAnalysis<Long, Integer, Integer, ComponentSizes>() {
+			@Override
+			public void reset() {
+				incremental.reset();
+			}
+
+			@Override
+			public ComponentSizes update(NavigableGraph<Long, Integer, Integer> window,
+			        Collection<EdgeEntry<Long, Integer, Integer>> added,
+			        Collection<EdgeEntry<Long, Integer, Integer>> removed) {
+				expected.add(components(window));
+				return incremental.update(window, added, removed);
+			}
+		};
+		List<ComponentSizes> sliding = new SlidingNetworkAnalysis<Long, Integer, Integer, ComponentSizes>(recording,
+		        windows).analyze(this.graph);
+		List<ComponentSizes> offline = new OfflineComponentAnalysis<Long, Integer, Integer>(windows)
+		        .analyze(this.graph);
+		assertTrue(expected.size() > 20);
+		assertEquals(expected, sliding);
+		assertEquals(expected, offline);
+	}
+
+	@Test
+	public void testRemovalOutOfOrder() {
+		IncrementalComponentAnalysis<Long, Integer, Integer> incremental = new IncrementalComponentAnalysis<Long, Integer, Integer>();
+		List<EdgeEntry<Long, Integer, Integer>> edges = new ArrayList<EdgeEntry<Long, Integer, Integer>>(this.graph
+		        .subNetwork(0l, 100l).getEdges());
+		incremental.update(this.graph, edges, new ArrayList<EdgeEntry<Long, Integer, Integer>>());
+		Random random = new Random(9);
+		while (!edges.isEmpty()) {
+			List<EdgeEntry<Long, Integer, Integer>> removed = new ArrayList<EdgeEntry<Long, Integer, Integer>>();
+			removed.add(edges.remove(random.nextInt(edges.size())));
+			Graph<Integer, EdgeEntry<Long, Integer, Integer>> rest = new UndirectedSparseMultigraph<Integer, EdgeEntry<Long, Integer, Integer>>();
+			for (EdgeEntry<Long, Integer, Integer> edge : edges) {
+				rest.addEdge(edge, edge.getFrom(), edge.getTo());
+			}
+			assertEquals(components(rest), incremental.update(this.graph,
+			        new ArrayList<EdgeEntry<Long, Integer, Integer>>(), removed));
+		}
+	}
+
+	@Test
+	public void testCumulative() {
+		Iterable<Interval<Long>> checkpoints = new IntervalWrapperIterable<Long>(IncrementIterable.fromLong(0l, 300l,
+		        25l));
+		List<ComponentSizes> cumulative = new CumulativeNetworkAnalysis<Long, Integer, Integer, ComponentSizes>(
+		        new IncrementalComponentAnalysis<Long, Integer, Integer>(), checkpoints).analyze(this.graph);
+		int checkpoint = 0;
+		for (Interval<Long> interval : checkpoints) {
+			if (interval.getFinish() == null) {
+				break;
+			}
+			ComponentSizes sizes = cumulative.get(checkpoint++);
+			assertEquals(components(this.graph.headNetwork(interval.getFinish())), sizes);
+		}
+		assertEquals(1, cumulative.get(cumulative.size() - 1).getComponentCount());
+	}
+}
@@ -0,0 +1,56 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.eventgraphj.analysis.VertexScoreAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.IncrementIterable;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.IntervalWrapperIterable;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class CumulativeNetworkAnalysisTest {
+	protected NavigableGraph<Long, Integer, Integer> graph;
+	protected List<Integer> nodes;
+	protected Iterable<Interval<Long>> checkpoints;
+
+	@Before
+	public void setUp() {
+		this.graph = NavigableGraphModule.EDGE_NAVIGABLE.getInstance(NavigableGraph.class);
+		for (long key = 0; key < 40; key++) {
+			this.graph.addEdge(key, (int) (key % 5), (int) ((key * 3 + 1) % 7), EdgeType.DIRECTED);
+		}
+		this.nodes = new ArrayList<Integer>(this.graph.getVertices());
+		this.checkpoints = new IntervalWrapperIterable<Long>(IncrementIterable.fromLong(0l, 40l, 7l));
+	}
+
+	@Test
+	public void testMatchesHeadNetwork() {
+		VertexScoreAnalysis<Integer, EdgeEntry<Long, Integer, Integer>> degree = VertexScoreAnalysis
+		        .newDegreeAnalysis(this.graph);
+		List<RealVector> cumulative = new CumulativeNetworkAnalysis<Long, Integer, Integer, RealVector>(degree,
+		        this.checkpoints).analyze(this.graph);
+		List<RealVector> incremental = new CumulativeNetworkAnalysis<Long, Integer, Integer, RealVector>(
+		        new IncrementalDegreeAnalysis<Long, Integer, Integer>(this.nodes), this.checkpoints)
+		        .analyze(this.graph);
+
+		int checkpoint = 0;
+		for (Interval<Long> interval : this.checkpoints) {
+			RealVector expected = degree.analyze(this.graph.headNetwork(interval.getFinish()));
+			assertEquals(expected, cumulative.get(checkpoint));
+			assertEquals(expected, incremental.get(checkpoint));
+			checkpoint++;
+		}
+		assertEquals(checkpoint, cumulative.size());
+	}
+}
@@ -0,0 +1,110 @@
+package net.sf.eventgraphj.analysis.iterable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.IncrementIterable;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.IntervalWindowIterable;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class SlidingNetworkAnalysisTest {
+	protected NavigableGraph<Long, Integer, Integer> graph;
+
+	@Before
+	public void setUp() {
+		Random random = new Random(13);
+		NavigableGraph<Long, Integer, Integer> all = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (long key = 0; key < 500; key++) {
+			// several events at some keys
+			all.addEdge(key - key % 3, random.nextInt(30), random.nextInt(30), EdgeType.DIRECTED);
+		}
+		this.graph = all.subNetwork(0l, 500l);
+	}
+
+	/**
+	 * Runs <code>windows</code> with an analysis that keeps the events handed
+	 * to it, checking them against each snapshot
+	 *
+	 * @return the number of events handed in and out
+	 */
+	protected int checkSlices(Iterable<Interval<Long>> windows) {
+		final Set<EdgeEntry<Long, Integer, Integer>> current = new HashSet<EdgeEntry<Long, Integer, Integer>>();
+		final int[] handed = new int[1];
+		List<Boolean> results = new SlidingNetworkAnalysis<Long, Integer, Integer, Boolean>(
+		        new IncrementalNetworkAnalysis<Long, Integer, Integer, Boolean>() {
+			        @Override
+			        public void reset() {
+				        current.clear();
+			        }
+
+			        @Override
+			        public Boolean update(NavigableGraph<Long, Integer, Integer> window,
+			                Collection<EdgeEntry<Long, Integer, Integer>> added,
+			                Collection<EdgeEntry<Long, Integer, Integer>> removed) {
+				        handed[0] += added.size() + removed.size();
+				        assertTrue(current.containsAll(removed));
+				        current.removeAll(removed);
+				        current.addAll(added);
+				        return current.equals(new HashSet<EdgeEntry<Long, Integer, Integer>>(window.getEdges()));
+			        }
+		        }, windows).analyze(this.graph);
+		assertTrue(results.size() > 5);
+		assertTrue(!results.contains(false));
+		return handed[0];
+	}
+
+	@Test
+	public void testOverlappingWindows() {
+		int handed = this.checkSlices(IntervalWindowIterable.fromLong(IncrementIterable.fromLong(10l, 600l, 7l), 30l));
+		// each event enters once and leaves at most once
+		assertTrue(handed <= 2 * this.graph.getEdgeCount());
+	}
+
+	@Test
+	public void testDisjointWindows() {
+		this.checkSlices(IntervalWindowIterable.fromLong(IncrementIterable.fromLong(10l, 600l, 40l), 15l));
+	}
+
+	@Test
+	public void testEdgeDrivenAnalysisGetsNoSnapshot() {
+		final int[] events = new int[1];
+		List<Integer> counts = new SlidingNetworkAnalysis<Long, Integer, Integer, Integer>(
+		        new EdgeDrivenAnalysis<Long, Integer, Integer, Integer>() {
+			        @Override
+			        public void reset() {
+				        events[0] = 0;
+			        }
+
+			        @Override
+			        public Integer update(NavigableGraph<Long, Integer, Integer> window,
+			                Collection<EdgeEntry<Long, Integer, Integer>> added,
+			                Collection<EdgeEntry<Long, Integer, Integer>> removed) {
+				        assertNull(window);
+				        events[0] += added.size() - removed.size();
+				        return events[0];
+			        }
+		        }, IntervalWindowIterable.fromLong(IncrementIterable.fromLong(10l, 600l, 7l), 30l)).analyze(this.graph);
+		assertTrue(counts.size() > 5);
+		int step = 0;
+		for (long middle = 10; step < counts.size(); middle += 7) {
+			assertEquals(this.graph.subNetwork(Math.max(0, middle - 15), Math.min(500, middle + 15)).getEdgeCount(),
+			        (int) counts.get(step++));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.BetweennessCentrality;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class ApproximateBetweennessCentralityTest {
+
+	protected Graph<Integer, Integer> createGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < m; e++) {
+			graph.addEdge(e, random.nextInt(n), random.nextInt(n), EdgeType.DIRECTED);
+		}
+		return graph;
+	}
+
+	@Test
+	public void testFullBudgetIsExact() {
+		Graph<Integer, Integer> graph = this.createGraph(40, 120, 1);
+		ApproximateBetweennessCentrality<Integer> approx = ApproximateBetweennessCentrality.forSamples(graph, 1000,
+		        new Random(2));
+		assertTrue(approx.isExact());
+		BetweennessCentrality<Integer, Integer> exact = new BetweennessCentrality<Integer, Integer>(graph);
+		for (Integer v : graph.getVertices()) {
+			assertEquals(exact.getVertexScore(v), approx.getVertexScore(v), 1e-9);
+		}
+	}
+
+	@Test
+	public void testErrorBound() {
+		int n = 1500;
+		Graph<Integer, Integer> graph = this.createGraph(n, 4000, 3);
+		double epsilon = 0.1;
+		ApproximateBetweennessCentrality<Integer> approx = ApproximateBetweennessCentrality.forError(graph, epsilon,
+		        0.01, new Random(4));
+		assertEquals(ApproximateBetweennessCentrality.samplesFor(n, epsilon, 0.01), approx.getSamples());
+		assertTrue(!approx.isExact());
+		BetweennessCentrality<Integer, Integer> exact = new BetweennessCentrality<Integer, Integer>(graph);
+		// errors normalized by the largest possible score, n (n - 2)
+		double norm = n * (double) (n - 2);
+		double max = 0;
+		double mean = 0;
+		for (Integer v : graph.getVertices()) {
+			double error = Math.abs(exact.getVertexScore(v) - approx.getVertexScore(v)) / norm;
+			max = Math.max(max, error);
+			mean += error / n;
+		}
+		assertTrue(max <= epsilon);
+		// with this seed the estimates are much closer than the bound
+		assertEquals(0, max, 0.005);
+		assertEquals(0, mean, 0.001);
+	}
+}
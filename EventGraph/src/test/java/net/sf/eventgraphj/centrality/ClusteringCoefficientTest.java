@@ -0,0 +1,93 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.eventgraphj.analysis.CompoundNetworkAnalysis;
+import net.sf.eventgraphj.analysis.VertexScoreAnalysis;
+import net.sf.eventgraphj.compact.CompactGraph;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.metrics.Metrics;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class ClusteringCoefficientTest {
+
+	/**
+	 * Mixed random graph with parallel edges and a few hubs, so that some
+	 * intersections gallop; no self loops, which JUNG counts as neighbors
+	 */
+	protected Graph<Integer, Integer> createGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < m; e++) {
+			int u = random.nextInt(10) == 0 ? random.nextInt(3) : random.nextInt(n);
+			int v = random.nextInt(n);
+			if (u != v) {
+				graph.addEdge(e, u, v, random.nextInt(4) == 0 ? EdgeType.UNDIRECTED : EdgeType.DIRECTED);
+			}
+		}
+		return graph;
+	}
+
+	@Test
+	public void testTriangle() {
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		graph.addEdge(0, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1, 1, 2, EdgeType.DIRECTED);
+		graph.addEdge(2, 2, 0, EdgeType.UNDIRECTED);
+		graph.addEdge(3, 2, 3, EdgeType.DIRECTED);
+		ClusteringCoefficient<Integer> clustering = ClusteringCoefficient.compute(graph);
+		assertEquals(1, clustering.getTriangleCount());
+		assertEquals(1, clustering.getTriangles(2).longValue());
+		assertEquals(0, clustering.getTriangles(3).longValue());
+		assertEquals(1, clustering.getVertexScore(0), 1e-12);
+		assertEquals(1 / 3.0, clustering.getVertexScore(2), 1e-12);
+		assertEquals(0, clustering.getVertexScore(3), 1e-12);
+		assertEquals(3 / 5.0, clustering.getTransitivity(), 1e-12);
+		assertNull(clustering.getVertexScore(4));
+	}
+
+	@Test
+	public void testMatchesJung() {
+		Graph<Integer, Integer> graph = this.createGraph(400, 4000, 43);
+		Map<Integer, Double> expected = Metrics.clusteringCoefficients(graph);
+		ClusteringCoefficient<Integer> clustering = new ClusteringCoefficient<Integer>(CompactGraph.fromGraph(graph),
+		        ClusteringCoefficient.Measure.CLUSTERING, new ForkJoinPool(4));
+		for (Integer v : graph.getVertices()) {
+			assertEquals(expected.get(v), clustering.getVertexScore(v), 1e-12);
+		}
+	}
+
+	@Test
+	public void testAnalysis() {
+		Graph<Integer, Integer> graph = this.createGraph(100, 600, 44);
+		CompoundNetworkAnalysis<Integer, Integer, Graph<Integer, Integer>> analysis = new CompoundNetworkAnalysis<Integer, Integer, Graph<Integer, Integer>>();
+		analysis.addAnalysis("clustering", VertexScoreAnalysis.newClusteringAnalysis(graph));
+		analysis.addAnalysis("triangles", VertexScoreAnalysis.newClusteringAnalysis(graph,
+		        ClusteringCoefficient.Measure.TRIANGLES));
+		Map<String, RealVector> results = analysis.analyze(graph);
+		ClusteringCoefficient<Integer> clustering = ClusteringCoefficient.compute(graph);
+		List<Integer> nodes = new ArrayList<Integer>(graph.getVertices());
+		long sum = 0;
+		for (int i = 0; i < nodes.size(); i++) {
+			assertEquals(clustering.getVertexScore(nodes.get(i)), results.get("clustering").getEntry(i), 1e-12);
+			assertEquals(clustering.getTriangles(nodes.get(i)), results.get("triangles").getEntry(i), 0);
+			sum += clustering.getTriangles(nodes.get(i));
+		}
+		assertEquals(3 * clustering.getTriangleCount(), sum);
+	}
+}
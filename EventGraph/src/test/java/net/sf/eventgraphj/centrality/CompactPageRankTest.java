@@ -0,0 +1,96 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.PageRank;
+import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class CompactPageRankTest {
+
+	/**
+	 * Random events without self loops, leaving some vertices without out-edges
+	 */
+	protected Graph<Integer, Integer> createGraph(int n, int m, Random random) {
+		Graph<Integer, Integer> graph = new DirectedSparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < m; e++) {
+			this.addEvent(graph, e, random);
+		}
+		return graph;
+	}
+
+	protected void addEvent(Graph<Integer, Integer> graph, int e, Random random) {
+		int n = graph.getVertexCount();
+		int from = random.nextInt(n);
+		int to = (from + 1 + random.nextInt(n - 1)) % n;
+		graph.addEdge(e, from, to, EdgeType.DIRECTED);
+	}
+
+	protected void assertSameScores(Graph<Integer, Integer> graph, CompactPageRank<Integer> expected,
+	        CompactPageRank<Integer> actual, double delta) {
+		for (Integer v : graph.getVertices()) {
+			assertEquals(expected.getVertexScore(v), actual.getVertexScore(v), delta);
+		}
+	}
+
+	@Test
+	public void testMatchesJung() {
+		Graph<Integer, Integer> graph = this.createGraph(200, 500, new Random(5));
+		PageRank<Integer, Integer> expected = new PageRank<Integer, Integer>(graph, 0.15);
+		expected.setTolerance(1e-12);
+		expected.setMaxIterations(10000);
+		expected.evaluate();
+		CompactPageRank<Integer> actual = CompactPageRank.compute(graph, 0.15);
+		for (Integer v : graph.getVertices()) {
+			assertEquals(expected.getVertexScore(v), actual.getVertexScore(v), 1e-7);
+		}
+	}
+
+	@Test
+	public void testWarmStartAndUpdate() {
+		Random random = new Random(9);
+		Graph<Integer, Integer> graph = this.createGraph(3000, 9000, random);
+		CompactPageRank<Integer> first = CompactPageRank.compute(graph, 0.15);
+
+		// a few more events on the same vertices
+		Set<Integer> changed = new HashSet<Integer>();
+		for (int e = 9000; e < 9010; e++) {
+			this.addEvent(graph, e, random);
+			changed.addAll(graph.getEndpoints(e));
+		}
+		CompactPageRank<Integer> cold = CompactPageRank.compute(graph, 0.15);
+		CompactPageRank<Integer> warm = CompactPageRank.compute(graph, 0.15, first);
+		assertTrue(warm.getIterations() < cold.getIterations());
+		this.assertSameScores(graph, cold, warm, 1e-8);
+
+		CompactPageRank<Integer> pushed = first.update(graph);
+		this.assertSameScores(graph, cold, pushed, 1e-8);
+
+		// carries the residual over, correcting only the changed rows
+		Set<Integer> more = new HashSet<Integer>();
+		for (int e = 9010; e < 9015; e++) {
+			this.addEvent(graph, e, random);
+			more.addAll(graph.getEndpoints(e));
+		}
+		more.addAll(graph.getEndpoints(3));
+		graph.removeEdge(3);
+		CompactPageRank<Integer> incremental = pushed.update(graph, more);
+		this.assertSameScores(graph, CompactPageRank.compute(graph, 0.15), incremental, 1e-8);
+		assertTrue(incremental.getPushes() < (long) graph.getVertexCount() * cold.getIterations());
+
+		// new vertices start from scratch residuals
+		graph.addEdge(10000, 0, 3000, EdgeType.DIRECTED);
+		this.assertSameScores(graph, CompactPageRank.compute(graph, 0.15), incremental.update(graph, more), 1e-8);
+	}
+}
@@ -0,0 +1,179 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.sf.eventgraphj.analysis.VertexScoreAnalysis;
+import net.sf.eventgraphj.analysis.iterable.EdgeDrivenAnalysis;
+import net.sf.eventgraphj.analysis.iterable.IncrementalCoreAnalysis;
+import net.sf.eventgraphj.analysis.iterable.IncrementalNetworkAnalysis;
+import net.sf.eventgraphj.analysis.iterable.SlidingNetworkAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.IncrementIterable;
+import net.sf.eventgraphj.comparable.IntervalWindowIterable;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class CoreNumberTest {
+
+	/**
+	 * Core numbers by peeling every vertex of degree below k, for each k
+	 */
+	protected static <V, E> int bruteForce(Graph<V, E> graph, V vertex) {
+		int core = 0;
+		for (int k = 1;; k++) {
+			Set<V> left = new HashSet<V>(graph.getVertices());
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (V v : new ArrayList<V>(left)) {
+					int degree = 0;
+					for (V w : graph.getNeighbors(v)) {
+						if (!w.equals(v) && left.contains(w)) {
+							degree++;
+						}
+					}
+					if (degree < k) {
+						left.remove(v);
+						changed = true;
+					}
+				}
+			}
+			if (!left.contains(vertex)) {
+				return core;
+			}
+			core = k;
+		}
+	}
+
+	@Test
+	public void testCliqueWithTail() {
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		int e = 0;
+		for (int u = 0; u < 4; u++) {
+			for (int v = u + 1; v < 4; v++) {
+				graph.addEdge(e++, u, v, EdgeType.UNDIRECTED);
+			}
+		}
+		graph.addEdge(e++, 3, 4, EdgeType.DIRECTED);
+		graph.addEdge(e++, 4, 3, EdgeType.DIRECTED);
+		graph.addEdge(e++, 4, 4, EdgeType.DIRECTED);
+		graph.addVertex(5);
+		CoreNumber<Integer> cores = CoreNumber.compute(graph);
+		assertEquals(3, cores.getCoreNumber(0).intValue());
+		assertEquals(3, cores.getCoreNumber(3).intValue());
+		assertEquals(1, cores.getCoreNumber(4).intValue());
+		assertEquals(0, cores.getCoreNumber(5).intValue());
+		assertEquals(3, cores.getDegeneracy());
+	}
+
+	@Test
+	public void testMatchesBruteForce() {
+		Random random = new Random(3);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < 60; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < 300; e++) {
+			int u = random.nextInt(5) == 0 ? random.nextInt(8) : random.nextInt(60);
+			graph.addEdge(e, u, random.nextInt(60), random.nextBoolean() ? EdgeType.UNDIRECTED : EdgeType.DIRECTED);
+		}
+		CoreNumber<Integer> cores = CoreNumber.compute(graph);
+		for (Integer vertex : graph.getVertices()) {
+			assertEquals(bruteForce(graph, vertex), cores.getCoreNumber(vertex).intValue());
+		}
+	}
+
+	@Test
+	public void testSlidingMatchesSnapshots() {
+		Random random = new Random(17);
+		NavigableGraph<Long, Integer, Integer> all = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (long key = 0; key < 400; key++) {
+			int u = random.nextInt(4) == 0 ? random.nextInt(5) : random.nextInt(25);
+			all.addEdge(key, u, random.nextInt(25), EdgeType.DIRECTED);
+		}
+		NavigableGraph<Long, Integer, Integer> graph = all.subNetwork(0l, 400l);
+		List<Integer> nodes = new ArrayList<Integer>(graph.getVertices());
+		final VertexScoreAnalysis<Integer, EdgeEntry<Long, Integer, Integer>> snapshot = VertexScoreAnalysis
+		        .newCoreAnalysis(graph);
+		final IncrementalCoreAnalysis<Long, Integer, Integer> incremental = new IncrementalCoreAnalysis<Long, Integer, Integer>(
+		        nodes);
+		final List<RealVector> expected = new ArrayList<RealVector>();
+		IncrementalNetworkAnalysis<Long, Integer, Integer, RealVector> recording = new IncrementalNetworkAnalysis<Long, Integer, Integer, RealVector>() {
+			@Override
+			public void reset() {
+				incremental.reset();
+			}
+
+			@Override
+			public RealVector update(NavigableGraph<Long, Integer, Integer> window,
+			        Collection<EdgeEntry<Long, Integer, Integer>> added,
+			        Collection<EdgeEntry<Long, Integer, Integer>> removed) {
+				expected.add(snapshot.analyze(window));
+				return incremental.update(window, added, removed);
+			}
+		};
+		List<RealVector> results = new SlidingNetworkAnalysis<Long, Integer, Integer, RealVector>(recording,
+		        IntervalWindowIterable.fromLong(IncrementIterable.fromLong(30l, 800l, 3l), 60l)).analyze(graph);
+		assertTrue(results.size() > 100);
+		assertEquals(expected, results);
+	}
+
+	@Test
+	public void testSlidingStepCostsChangedEdges() {
+		// 2000 groups of 4 vertices, with events only within a group, so a
+		// subcore never holds more than 4 vertices
+		Random random = new Random(19);
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		for (long key = 0; key < 20000; key++) {
+			int group = 4 * random.nextInt(2000);
+			graph.addEdge(key, group + random.nextInt(4), group + random.nextInt(4), EdgeType.DIRECTED);
+		}
+		final IncrementalCoreAnalysis<Long, Integer, Integer> incremental = new IncrementalCoreAnalysis<Long, Integer, Integer>(
+		        new ArrayList<Integer>());
+		final int[] steps = new int[1];
+		EdgeDrivenAnalysis<Long, Integer, Integer, RealVector> bounded = new EdgeDrivenAnalysis<Long, Integer, Integer, RealVector>() {
+			@Override
+			public void reset() {
+				incremental.reset();
+			}
+
+			@Override
+			public RealVector update(NavigableGraph<Long, Integer, Integer> window,
+			        Collection<EdgeEntry<Long, Integer, Integer>> added,
+			        Collection<EdgeEntry<Long, Integer, Integer>> removed) {
+				// no snapshot is built
+				assertNull(window);
+				long before = incremental.getVisited();
+				RealVector result = incremental.update(window, added, removed);
+				// the first window enters whole
+				if (steps[0]++ > 0) {
+					assertTrue(added.size() + removed.size() <= 12);
+					assertTrue(incremental.getVisited() - before <= 4 * (added.size() + removed.size()));
+				}
+				return result;
+			}
+		};
+		// windows of 2000 events, moving 5 events at a time
+		List<RealVector> results = new SlidingNetworkAnalysis<Long, Integer, Integer, RealVector>(bounded,
+		        IntervalWindowIterable.fromLong(IncrementIterable.fromLong(1000l, 22000l, 5l), 2000l)).analyze(graph.subNetwork(0l, 20000l));
+		assertTrue(results.size() > 3000);
+	}
+}
@@ -0,0 +1,147 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.collections15.Transformer;
+import org.apache.commons.collections15.functors.ConstantTransformer;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.BetweennessCentrality;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.UndirectedSparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class EgoNetworkBetweennessCentralityTest {
+
+	protected <V, E> void checkAgainstJung(Graph<V, E> graph, ForkJoinPool pool) {
+		BetweennessCentrality<V, E> expected = new BetweennessCentrality<V, E>(graph);
+		EgoNetworkBetweennessCentrality<V, E> actual = new EgoNetworkBetweennessCentrality<V, E>(graph,
+		        Double.POSITIVE_INFINITY, pool);
+		for (V v : graph.getVertices()) {
+			assertEquals(expected.getVertexScore(v), actual.getVertexScore(v), 1e-9);
+		}
+		for (E e : graph.getEdges()) {
+			assertEquals(expected.getEdgeScore(e), actual.getEdgeScore(e), 1e-9);
+		}
+	}
+
+	@Test
+	public void testMatchesJung() {
+		Random random = new Random(17);
+		Graph<Integer, Integer> directed = new SparseMultigraph<Integer, Integer>();
+		Graph<Integer, Integer> undirected = new UndirectedSparseMultigraph<Integer, Integer>();
+		for (int e = 0; e < 400; e++) {
+			int from = random.nextInt(120);
+			int to = random.nextInt(120);
+			directed.addEdge(e, from, to, e % 9 == 0 ? EdgeType.UNDIRECTED : EdgeType.DIRECTED);
+			undirected.addEdge(e, from, to);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			this.checkAgainstJung(directed, pool);
+			this.checkAgainstJung(undirected, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Scores again with the sequential search, as a subclass may
+	 */
+	protected static class Sequential<V, E> extends EgoNetworkBetweennessCentrality<V, E> {
+		@SuppressWarnings("unchecked")
+		public Sequential(Graph<V, E> graph, double egoNetworkSize) {
+			super(graph, egoNetworkSize);
+			this.initialize(graph);
+			this.computeBetweenness(new LinkedList<V>(), new ConstantTransformer(1));
+		}
+	}
+
+	@Test
+	public void testSequentialMatchesParallel() {
+		Random random = new Random(23);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int e = 0; e < 300; e++) {
+			graph.addEdge(e, random.nextInt(80), random.nextInt(80), EdgeType.DIRECTED);
+		}
+		EgoNetworkBetweennessCentrality<Integer, Integer> parallel = new EgoNetworkBetweennessCentrality<Integer, Integer>(
+		        graph, 3);
+		Sequential<Integer, Integer> sequential = new Sequential<Integer, Integer>(graph, 3);
+		for (Integer v : graph.getVertices()) {
+			assertEquals(parallel.getVertexScore(v), sequential.getVertexScore(v), 1e-9);
+		}
+		for (Integer e : graph.getEdges()) {
+			assertEquals(parallel.getEdgeScore(e), sequential.getEdgeScore(e), 1e-9);
+		}
+	}
+
+	@Test
+	public void testEgoNetworkSize() {
+		Graph<Integer, Integer> path = new DirectedSparseGraph<Integer, Integer>();
+		path.addEdge(0, 0, 1);
+		path.addEdge(1, 1, 2);
+		path.addEdge(2, 2, 3);
+		EgoNetworkBetweennessCentrality<Integer, Integer> limited = new EgoNetworkBetweennessCentrality<Integer, Integer>(
+		        path, 2);
+		assertEquals(0.0, limited.getVertexScore(0), 0);
+		assertEquals(1.0, limited.getVertexScore(1), 0);
+		assertEquals(1.0, limited.getVertexScore(2), 0);
+		EgoNetworkBetweennessCentrality<Integer, Integer> unlimited = new EgoNetworkBetweennessCentrality<Integer, Integer>(
+		        path, 3);
+		assertEquals(2.0, unlimited.getVertexScore(1), 0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUnitWeightsMatchJung() {
+		Random random = new Random(23);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int e = 0; e < 300; e++) {
+			graph.addEdge(e, random.nextInt(90), random.nextInt(90), e % 7 == 0 ? EdgeType.UNDIRECTED
+			        : EdgeType.DIRECTED);
+		}
+		BetweennessCentrality<Integer, Integer> expected = new BetweennessCentrality<Integer, Integer>(graph);
+		EgoNetworkBetweennessCentrality<Integer, Integer> actual = new EgoNetworkBetweennessCentrality<Integer, Integer>(
+		        graph, new ConstantTransformer(1.0), Double.POSITIVE_INFINITY, null);
+		for (Integer v : graph.getVertices()) {
+			assertEquals(expected.getVertexScore(v), actual.getVertexScore(v), 1e-9);
+		}
+		for (Integer e : graph.getEdges()) {
+			assertEquals(expected.getEdgeScore(e), actual.getEdgeScore(e), 1e-9);
+		}
+	}
+
+	@Test
+	public void testWeighted() {
+		final Graph<Integer, Integer> diamond = new DirectedSparseGraph<Integer, Integer>();
+		diamond.addEdge(0, 0, 1);
+		diamond.addEdge(1, 1, 3);
+		diamond.addEdge(2, 0, 2);
+		diamond.addEdge(3, 2, 3);
+		diamond.addEdge(4, 0, 3);
+		final double[] weights = { 1, 1, 0.25, 0.5, 3 };
+		Transformer<Integer, Double> weight = new Transformer<Integer, Double>() {
+			@Override
+			public Double transform(Integer edge) {
+				return weights[edge];
+			}
+		};
+		EgoNetworkBetweennessCentrality<Integer, Integer> all = new EgoNetworkBetweennessCentrality<Integer, Integer>(
+		        diamond, weight, Double.POSITIVE_INFINITY, null);
+		assertEquals(0.0, all.getVertexScore(1), 1e-9);
+		assertEquals(1.0, all.getVertexScore(2), 1e-9);
+		assertEquals(2.0, all.getEdgeScore(2), 1e-9);
+		assertEquals(0.0, all.getEdgeScore(4), 1e-9);
+		// 0 -> 2 -> 3 is longer than 0.5, so 3 is out of reach of 0
+		EgoNetworkBetweennessCentrality<Integer, Integer> limited = new EgoNetworkBetweennessCentrality<Integer, Integer>(
+		        diamond, weight, 0.5, null);
+		assertEquals(0.0, limited.getVertexScore(2), 1e-9);
+		assertEquals(1.0, limited.getEdgeScore(2), 1e-9);
+	}
+}
@@ -0,0 +1,63 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class HyperBallCentralityTest {
+
+	protected Graph<Integer, Integer> createGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < m; e++) {
+			graph.addEdge(e, random.nextInt(n), random.nextInt(n), EdgeType.DIRECTED);
+		}
+		return graph;
+	}
+
+	@Test
+	public void testPath() {
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < 4; i++) {
+			graph.addEdge(i, i, i + 1, EdgeType.DIRECTED);
+		}
+		HyperBallCentrality<Integer> harmonic = HyperBallCentrality.compute(graph, 16);
+		// the last iteration finds nothing new
+		assertEquals(5, harmonic.getIterations());
+		assertEquals(4, harmonic.getReachable(0), 0.01);
+		assertEquals(10, harmonic.getDistanceSum(0), 0.05);
+		assertEquals((1 + 1 / 2.0 + 1 / 3.0 + 1 / 4.0) / 4, harmonic.getVertexScore(0), 0.01);
+		assertEquals(0, harmonic.getVertexScore(4), 1e-9);
+		assertNull(harmonic.getVertexScore(5));
+
+		HyperBallCentrality<Integer> closeness = HyperBallCentrality.compute(graph, 16,
+		        HyperBallCentrality.Measure.CLOSENESS);
+		assertEquals(4 / 10.0, closeness.getVertexScore(0), 0.01);
+		assertEquals(1, closeness.getVertexScore(3), 0.01);
+	}
+
+	@Test
+	public void testMatchesExactHarmonic() {
+		Graph<Integer, Integer> graph = this.createGraph(2000, 5000, 5);
+		HyperBallCentrality<Integer> approx = HyperBallCentrality.compute(graph, 10);
+		ShortestPathCentrality<Integer> exact = ShortestPathCentrality.compute(graph);
+		double error = 0;
+		double total = 0;
+		for (Integer v : graph.getVertices()) {
+			error += Math.abs(exact.getCloseness(v) - approx.getVertexScore(v));
+			total += exact.getCloseness(v);
+		}
+		// 1024 registers have a standard error of about 3%
+		assertEquals(0, error / total, 0.06);
+	}
+}
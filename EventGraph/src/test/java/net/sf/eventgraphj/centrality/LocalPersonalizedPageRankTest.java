@@ -0,0 +1,137 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.collections15.Transformer;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.PageRankWithPriors;
+import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class LocalPersonalizedPageRankTest {
+	protected static final long START = 100;
+	protected static final long STOP = 500;
+	protected NavigableGraph<Long, Integer, Integer> graph;
+
+	@Before
+	public void setUp() {
+		this.graph = NavigableGraphModule.EDGE_NAVIGABLE.getInstance(NavigableGraph.class);
+		Random random = new Random(3);
+		for (long key = 0; key < 600; key++) {
+			this.graph.addEdge(key, random.nextInt(60), random.nextInt(60), EdgeType.DIRECTED);
+		}
+	}
+
+	/**
+	 * PageRank restarting at <code>source</code> over a copy of the interval
+	 */
+	protected PageRankWithPriors<Integer, EdgeEntry<Long, Integer, Integer>> reference(final Integer source) {
+		Graph<Integer, EdgeEntry<Long, Integer, Integer>> window = new DirectedSparseMultigraph<Integer, EdgeEntry<Long, Integer, Integer>>();
+		for (Integer v : this.graph.getVertices()) {
+			window.addVertex(v);
+		}
+		for (EdgeEntry<Long, Integer, Integer> edge : this.graph.getEdges()) {
+			// JUNG counts self loops in degrees without following them
+			if (edge.getKey() >= START && edge.getKey() < STOP && !edge.getFrom().equals(edge.getTo())) {
+				window.addEdge(edge, edge.getFrom(), edge.getTo());
+			}
+		}
+		PageRankWithPriors<Integer, EdgeEntry<Long, Integer, Integer>> pageRank = new PageRankWithPriors<Integer, EdgeEntry<Long, Integer, Integer>>(
+		        window, new Transformer<Integer, Double>() {
+			        @Override
+			        public Double transform(Integer v) {
+				        return v.equals(source) ? 1.0 : 0.0;
+			        }
+		        }, 0.15);
+		pageRank.setTolerance(1e-12);
+		pageRank.setMaxIterations(10000);
+		pageRank.evaluate();
+		return pageRank;
+	}
+
+	@Test
+	public void testForwardMatchesJung() {
+		LocalPersonalizedPageRank<Long, Integer, Integer> query = new LocalPersonalizedPageRank<Long, Integer, Integer>(
+		        this.graph, START, STOP, 0.15, 1e-10);
+		for (Integer source : new Integer[] { 0, 7, 42 }) {
+			PageRankWithPriors<Integer, EdgeEntry<Long, Integer, Integer>> expected = this.reference(source);
+			LocalPersonalizedPageRank.Estimate<Integer> actual = query.forward(source);
+			for (Integer v : this.graph.getVertices()) {
+				assertEquals(expected.getVertexScore(v), actual.getVertexScore(v), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void testBackwardMatchesForward() {
+		LocalPersonalizedPageRank<Long, Integer, Integer> query = new LocalPersonalizedPageRank<Long, Integer, Integer>(
+		        this.graph, START, STOP, 0.15, 1e-10);
+		for (Integer target : new Integer[] { 3, 11 }) {
+			LocalPersonalizedPageRank.Estimate<Integer> backward = query.backward(target);
+			for (Integer source : new Integer[] { 0, 3, 25 }) {
+				assertEquals(query.forward(source).getVertexScore(target), backward.getVertexScore(source), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void testBackwardMatchesForwardWithDanglingVertices() {
+		double epsilon = 1e-12;
+		NavigableGraph<Long, Integer, Integer> single = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		single.addEdge(0l, 0, 1, EdgeType.DIRECTED);
+		LocalPersonalizedPageRank<Long, Integer, Integer> query = new LocalPersonalizedPageRank<Long, Integer, Integer>(
+		        single, null, null, 0.15, epsilon);
+		assertEquals(0.1275 / 0.2775, query.forward(0).getVertexScore(1), epsilon);
+		assertEquals(query.forward(0).getVertexScore(1), query.backward(1).getVertexScore(0), epsilon);
+		assertEquals(query.forward(1).getVertexScore(1), query.backward(1).getVertexScore(1), epsilon);
+
+		// the interval leaves vertices 50 to 59 with no events leaving them
+		Random random = new Random(5);
+		for (long key = 600; key < 800; key++) {
+			this.graph.addEdge(key, random.nextInt(50), random.nextInt(60), EdgeType.DIRECTED);
+		}
+		query = new LocalPersonalizedPageRank<Long, Integer, Integer>(this.graph, 600l, 800l, 0.15, epsilon);
+		for (Integer target : new Integer[] { 3, 52, 57 }) {
+			LocalPersonalizedPageRank.Estimate<Integer> backward = query.backward(target);
+			for (Integer source : new Integer[] { 0, 3, 25, 52 }) {
+				assertEquals(query.forward(source).getVertexScore(target), backward.getVertexScore(source), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testCoarseQueryStaysLocal() {
+		LocalPersonalizedPageRank<Long, Integer, Integer> query = new LocalPersonalizedPageRank<Long, Integer, Integer>(
+		        this.graph, START, STOP, 0.15, 1e-2);
+		LocalPersonalizedPageRank.Estimate<Integer> estimate = query.forward(5);
+		assertTrue(estimate.getPushes() < this.graph.getVertexCount());
+		assertEquals(Integer.valueOf(5), estimate.getTop(1).get(0).getKey());
+	}
+
+	@Test
+	public void testCoarseBackwardStaysLocal() {
+		// many vertices with no events leaving them, none reaching 5
+		Random random = new Random(7);
+		for (long key = 200; key < 300; key++) {
+			for (int i = 0; i < 100; i++) {
+				this.graph.addEdge(key, 1000 + random.nextInt(100), 2000 + random.nextInt(10000), EdgeType.DIRECTED);
+			}
+		}
+		LocalPersonalizedPageRank<Long, Integer, Integer> query = new LocalPersonalizedPageRank<Long, Integer, Integer>(
+		        this.graph, START, STOP, 0.15, 1e-2);
+		LocalPersonalizedPageRank.Estimate<Integer> estimate = query.backward(5);
+		assertTrue(estimate.getPushes() < 1000);
+		assertEquals(Integer.valueOf(5), estimate.getTop(1).get(0).getKey());
+	}
+}
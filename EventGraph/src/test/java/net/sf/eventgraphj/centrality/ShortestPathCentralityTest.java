@@ -0,0 +1,83 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import net.sf.eventgraphj.analysis.CompoundNetworkAnalysis;
+import net.sf.eventgraphj.analysis.InverseDistanceCentralityScorer;
+import net.sf.eventgraphj.analysis.VertexScoreAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.BetweennessCentrality;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.UndirectedSparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class ShortestPathCentralityTest {
+
+	protected <V, E> void checkAgainstJung(Graph<V, E> graph) {
+		ShortestPathCentrality<V> fused = ShortestPathCentrality.compute(graph);
+		BetweennessCentrality<V, E> betweenness = new BetweennessCentrality<V, E>(graph);
+		InverseDistanceCentralityScorer<V, E> closeness = new InverseDistanceCentralityScorer<V, E>(graph);
+		for (V v : graph.getVertices()) {
+			assertEquals(betweenness.getVertexScore(v), fused.getBetweenness(v), 1e-9);
+			assertEquals(closeness.getVertexScore(v), fused.getCloseness(v), 1e-9);
+		}
+	}
+
+	@Test
+	public void testDirectedMultigraph() {
+		Random random = new Random(3);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < 30; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < 90; e++) {
+			// mixes parallel edges, self loops and a few undirected edges
+			graph.addEdge(e, random.nextInt(30), random.nextInt(30), e % 10 == 0 ? EdgeType.UNDIRECTED
+			        : EdgeType.DIRECTED);
+		}
+		this.checkAgainstJung(graph);
+		assertNull(ShortestPathCentrality.compute(graph).getCloseness(100));
+	}
+
+	@Test
+	public void testUndirected() {
+		Random random = new Random(5);
+		Graph<Integer, Integer> graph = new UndirectedSparseMultigraph<Integer, Integer>();
+		for (int e = 0; e < 60; e++) {
+			graph.addEdge(e, random.nextInt(25), random.nextInt(25));
+		}
+		this.checkAgainstJung(graph);
+	}
+
+	@Test
+	public void testCompoundSharesPass() {
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		Random random = new Random(11);
+		for (long i = 0; i < 80; i++) {
+			graph.addEdge(i, random.nextInt(20), random.nextInt(20), EdgeType.DIRECTED);
+		}
+		this.checkAgainstJung(graph);
+
+		CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>> compound = new CompoundNetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, NavigableGraph<Long, Integer, Integer>>();
+		compound.addAnalysis("Closeness", VertexScoreAnalysis.newClosenessAnalysis(graph));
+		compound.addAnalysis("Betweenness", VertexScoreAnalysis.newBetweennessAnalysis(graph));
+		NavigableGraph<Long, Integer, Integer> snapshot = graph.subNetwork(10l, 60l);
+		HashMap<String, RealVector> results = compound.analyze(snapshot);
+		RealVector closeness = VertexScoreAnalysis.newClosenessAnalysis(graph).analyze(snapshot);
+		RealVector betweenness = VertexScoreAnalysis.newBetweennessAnalysis(graph).analyze(snapshot);
+		assertEquals(0, closeness.getDistance(results.get("Closeness")), 1e-9);
+		assertEquals(0, betweenness.getDistance(results.get("Betweenness")), 1e-9);
+	}
+}
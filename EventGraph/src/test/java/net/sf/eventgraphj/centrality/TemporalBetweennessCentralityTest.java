@@ -0,0 +1,123 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.sf.eventgraphj.compact.EventStream;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class TemporalBetweennessCentralityTest {
+	static final long DURATION = 1;
+
+	@Test
+	public void testChain() {
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		graph.addEdge(1l, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(2l, 1, 2, EdgeType.DIRECTED);
+		graph.addEdge(3l, 2, 3, EdgeType.DIRECTED);
+		// 1 reaches 3 directly, long before the chain does
+		graph.addEdge(0l, 1, 3, EdgeType.DIRECTED);
+
+		TemporalBetweennessCentrality<Integer> betweenness = TemporalBetweennessCentrality.compute(graph, null, null);
+		assertEquals(0, betweenness.getVertexScore(0), 0);
+		// 0 -> 2 and 0 -> 3
+		assertEquals(2, betweenness.getVertexScore(1), 1e-12);
+		// only 0 -> 3
+		assertEquals(1, betweenness.getVertexScore(2), 1e-12);
+		assertEquals(0, betweenness.getVertexScore(3), 0);
+	}
+
+	@Test
+	public void testBruteForce() {
+		Random random = new Random(41);
+		for (int trial = 0; trial < 20; trial++) {
+			NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+			        .getInstance(NavigableGraph.class);
+			int n = 7;
+			for (int v = 0; v < n; v++) {
+				graph.addVertex(v);
+			}
+			for (int e = 0; e < 25; e++) {
+				graph.addEdge((long) random.nextInt(8), random.nextInt(n), random.nextInt(n),
+				        random.nextBoolean() ? EdgeType.DIRECTED : EdgeType.UNDIRECTED);
+			}
+			EventStream<Integer> stream = EventStream.fromGraph(graph);
+			long from = stream.arcCount() > 0 ? stream.getTimes()[0] : 0;
+			TemporalBetweennessCentrality<Integer> betweenness = new TemporalBetweennessCentrality<Integer>(stream,
+			        from, DURATION, null);
+			double[] expected = bruteForce(stream, from);
+			for (int v = 0; v < n; v++) {
+				assertEquals(expected[v], betweenness.getVertexScore(stream.getVertex(v)), 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * Enumerates every time-respecting path from each source, keeps those
+	 * reaching each vertex on them at its earliest arrival, and shares each
+	 * target among them
+	 */
+	static double[] bruteForce(EventStream<?> stream, long from) {
+		int n = stream.size();
+		double[] scores = new double[n];
+		for (int s = 0; s < n; s++) {
+			long[] earliest = new long[n];
+			Arrays.fill(earliest, Long.MAX_VALUE);
+			earliest[s] = from;
+			// arrivals only drop, so repeating until nothing changes finds them
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int a = 0; a < stream.arcCount(); a++) {
+					int u = stream.getSources()[a];
+					int v = stream.getTargets()[a];
+					long t = stream.getTimes()[a];
+					if (v != s && earliest[u] != Long.MAX_VALUE && t >= earliest[u]
+					        && t + DURATION < earliest[v]) {
+						earliest[v] = t + DURATION;
+						changed = true;
+					}
+				}
+			}
+			double[] paths = new double[n];
+			double[][] through = new double[n][n];
+			walk(stream, s, s, from, earliest, new boolean[n], paths, through);
+			for (int t = 0; t < n; t++) {
+				if (paths[t] > 0) {
+					for (int v = 0; v < n; v++) {
+						scores[v] += through[t][v] / paths[t];
+					}
+				}
+			}
+		}
+		return scores;
+	}
+
+	static void walk(EventStream<?> stream, int s, int u, long arrived, long[] earliest, boolean[] onPath,
+	        double[] paths, double[][] through) {
+		for (int a = 0; a < stream.arcCount(); a++) {
+			int v = stream.getTargets()[a];
+			long t = stream.getTimes()[a];
+			if (stream.getSources()[a] != u || t < arrived || v == s || t + DURATION != earliest[v]) {
+				continue;
+			}
+			paths[v]++;
+			for (int w = 0; w < onPath.length; w++) {
+				if (onPath[w]) {
+					through[v][w]++;
+				}
+			}
+			onPath[v] = true;
+			walk(stream, s, v, t + DURATION, earliest, onPath, paths, through);
+			onPath[v] = false;
+		}
+	}
+}
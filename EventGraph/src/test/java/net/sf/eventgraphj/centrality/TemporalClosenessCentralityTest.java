@@ -0,0 +1,49 @@
+package net.sf.eventgraphj.centrality;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.eventgraphj.analysis.VertexScoreAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.apache.commons.math.linear.RealVector;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class TemporalClosenessCentralityTest {
+
+	@Test
+	public void testLatencies() {
+		NavigableGraph<Long, String, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		graph.addEdge(0l, "c", "a", EdgeType.DIRECTED);
+		graph.addEdge(1l, "a", "b", EdgeType.DIRECTED);
+		graph.addEdge(2l, "b", "c", EdgeType.DIRECTED);
+		graph.addEdge(5l, "a", "c", EdgeType.DIRECTED);
+		graph.addEdge(20l, "b", "a", EdgeType.DIRECTED);
+
+		TemporalClosenessCentrality<String> closeness = TemporalClosenessCentrality.compute(graph, 0l, 10l);
+		// a reaches b at 2 and c at 3 through b
+		assertEquals((1 / 2.0 + 1 / 3.0) / 2, closeness.getVertexScore("a"), 1e-12);
+		// b reaches c at 3, but a only after the interval
+		assertEquals((1 / 3.0) / 2, closeness.getVertexScore("b"), 1e-12);
+		// c reaches a at 1, and b at 2 from there
+		assertEquals((1 + 1 / 2.0) / 2, closeness.getVertexScore("c"), 1e-12);
+
+		VertexScoreAnalysis<String, EdgeEntry<Long, String, Integer>> analysis = VertexScoreAnalysis
+		        .newTemporalClosenessAnalysis(graph);
+		RealVector scores = analysis.analyze(graph);
+		TemporalClosenessCentrality<String> whole = TemporalClosenessCentrality.compute(graph, null, null);
+		List<String> nodes = new ArrayList<String>(graph.getVertices());
+		for (int i = 0; i < nodes.size(); i++) {
+			assertEquals(whole.getVertexScore(nodes.get(i)), scores.getEntry(i), 1e-12);
+		}
+		// b now also reaches a at 21
+		assertEquals((1 / 3.0 + 1 / 21.0) / 2, whole.getVertexScore("b"), 1e-12);
+	}
+}
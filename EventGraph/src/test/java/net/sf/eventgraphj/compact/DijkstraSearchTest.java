@@ -0,0 +1,116 @@
+package net.sf.eventgraphj.compact;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.sf.eventgraphj.centrality.EgoNetworkDistanceCentralityScorer;
+
+import org.apache.commons.collections15.Transformer;
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.shortestpath.DijkstraDistance;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class DijkstraSearchTest {
+
+	@Test
+	public void testEventCountWeights() {
+		Random random = new Random(11);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int e = 0; e < 400; e++) {
+			graph.addEdge(e, random.nextInt(15), random.nextInt(15), e % 5 == 0 ? EdgeType.UNDIRECTED
+			        : EdgeType.DIRECTED);
+		}
+		WeightedCompactGraph<Integer, Integer> weighted = WeightedCompactGraph.fromEventCounts(graph);
+		double[] weights = weighted.getWeights();
+		int[] edgeIds = weighted.getEdgeIds();
+		assertTrue(weights.length > 0);
+		for (int a = 0; a < weights.length; a++) {
+			Integer edge = weighted.getEdges().get(edgeIds[a]);
+			int events = graph.findEdgeSet(graph.getEndpoints(edge).getFirst(), graph.getEndpoints(edge).getSecond())
+			        .size();
+			assertEquals(1.0 / events, weights[a], 1e-12);
+		}
+	}
+
+	@Test
+	public void testHeap() {
+		Random random = new Random(3);
+		int n = 500;
+		IndexedDaryHeap heap = new IndexedDaryHeap(n);
+		double[] keys = new double[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = random.nextDouble();
+			heap.offer(i, keys[i]);
+		}
+		for (int i = 0; i < n; i += 3) {
+			keys[i] /= 2;
+			assertTrue(heap.offer(i, keys[i]));
+			assertTrue(!heap.offer(i, keys[i] + 1));
+		}
+		double[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		for (int i = 0; i < n; i++) {
+			int id = heap.poll();
+			assertEquals(sorted[i], keys[id], 0);
+			assertTrue(!heap.contains(id));
+		}
+		assertTrue(heap.isEmpty());
+	}
+
+	@Test
+	public void testMatchesDijkstraDistance() {
+		Random random = new Random(11);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < 100; i++) {
+			graph.addVertex(i);
+		}
+		final double[] weights = new double[250];
+		for (int e = 0; e < weights.length; e++) {
+			graph.addEdge(e, random.nextInt(100), random.nextInt(100), e % 6 == 0 ? EdgeType.UNDIRECTED
+			        : EdgeType.DIRECTED);
+			weights[e] = 0.1 + random.nextDouble();
+		}
+		Transformer<Integer, Double> weight = new Transformer<Integer, Double>() {
+			@Override
+			public Double transform(Integer edge) {
+				return weights[edge];
+			}
+		};
+		DijkstraDistance<Integer, Integer> distance = new DijkstraDistance<Integer, Integer>(graph, weight);
+		for (boolean averaging : new boolean[] { true, false }) {
+			for (boolean ignoreMissing : new boolean[] { true, false }) {
+				EgoNetworkDistanceCentralityScorer<Integer, Integer> expected = new EgoNetworkDistanceCentralityScorer<Integer, Integer>(
+				        graph, distance, 1, averaging, ignoreMissing, true);
+				EgoNetworkDistanceCentralityScorer<Integer, Integer> actual = new EgoNetworkDistanceCentralityScorer<Integer, Integer>(
+				        graph, weight, 1, averaging, ignoreMissing, true);
+				for (Integer v : graph.getVertices()) {
+					Double e = expected.getVertexScore(v);
+					if (e == null) {
+						assertNull(actual.getVertexScore(v));
+					} else {
+						assertEquals(e, actual.getVertexScore(v), 1e-9);
+					}
+				}
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeWeight() {
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		graph.addEdge(0, 0, 1);
+		WeightedCompactGraph.fromGraph(graph, new Transformer<Integer, Double>() {
+			@Override
+			public Double transform(Integer edge) {
+				return -1.0;
+			}
+		});
+	}
+}
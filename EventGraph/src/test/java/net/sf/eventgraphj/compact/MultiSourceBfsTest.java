@@ -0,0 +1,89 @@
+package net.sf.eventgraphj.compact;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import net.sf.eventgraphj.analysis.InverseDistanceCentralityScorer;
+import net.sf.eventgraphj.centrality.EgoNetworkClosenessCentrality;
+import net.sf.eventgraphj.centrality.EgoNetworkDistanceCentralityScorer;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.algorithms.scoring.VertexScorer;
+import edu.uci.ics.jung.algorithms.shortestpath.UnweightedShortestPath;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.SparseMultigraph;
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class MultiSourceBfsTest {
+
+	/**
+	 * Sparse enough to leave some vertices unreachable, with more than one
+	 * batch of sources
+	 */
+	protected Graph<Integer, Integer> createGraph(int n, int m, long seed) {
+		Random random = new Random(seed);
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			graph.addVertex(i);
+		}
+		for (int e = 0; e < m; e++) {
+			graph.addEdge(e, random.nextInt(n), random.nextInt(n), e % 5 == 0 ? EdgeType.UNDIRECTED
+			        : EdgeType.DIRECTED);
+		}
+		return graph;
+	}
+
+	protected void assertSameScores(Graph<Integer, Integer> graph, VertexScorer<Integer, Double> expected,
+	        VertexScorer<Integer, Double> actual) {
+		for (Integer v : graph.getVertices()) {
+			Double e = expected.getVertexScore(v);
+			Double a = actual.getVertexScore(v);
+			if (e == null) {
+				assertNull(a);
+			} else {
+				assertEquals(e, a, 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testDistanceSums() {
+		Graph<Integer, Integer> graph = new SparseMultigraph<Integer, Integer>();
+		graph.addEdge(0, 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(1, 1, 2, EdgeType.DIRECTED);
+		graph.addEdge(2, 0, 2, EdgeType.DIRECTED);
+		graph.addEdge(3, 2, 3, EdgeType.DIRECTED);
+		graph.addVertex(4);
+		CompactGraph<Integer> compact = CompactGraph.fromGraph(graph);
+		MultiSourceBfs<Integer> bfs = new MultiSourceBfs<Integer>(compact);
+		int zero = compact.indexOf(0);
+		assertEquals(3, bfs.getReached(zero));
+		assertEquals(1 + 1 + 2, bfs.getDistanceSum(zero));
+		assertEquals(1 + 1 + 0.5, bfs.getInverseDistanceSum(zero), 1e-12);
+		assertEquals(0, bfs.getReached(compact.indexOf(4)));
+	}
+
+	@Test
+	public void testMatchesScorers() {
+		Graph<Integer, Integer> graph = this.createGraph(150, 260, 7);
+		UnweightedShortestPath<Integer, Integer> distance = new UnweightedShortestPath<Integer, Integer>(graph);
+
+		this.assertSameScores(graph, new InverseDistanceCentralityScorer<Integer, Integer>(graph, distance, true),
+		        new InverseDistanceCentralityScorer<Integer, Integer>(graph));
+		this.assertSameScores(graph, new EgoNetworkClosenessCentrality<Integer, Integer>(graph, distance),
+		        new EgoNetworkClosenessCentrality<Integer, Integer>(graph));
+		for (boolean averaging : new boolean[] { true, false }) {
+			for (boolean ignoreMissing : new boolean[] { true, false }) {
+				for (boolean ignoreSelf : new boolean[] { true, false }) {
+					this.assertSameScores(graph, new EgoNetworkDistanceCentralityScorer<Integer, Integer>(graph,
+					        distance, 1, averaging, ignoreMissing, ignoreSelf),
+					        new EgoNetworkDistanceCentralityScorer<Integer, Integer>(graph, 1, averaging,
+					                ignoreMissing, ignoreSelf));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package net.sf.eventgraphj.compact;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class TemporalPathSearchTest {
+	protected NavigableGraph<Long, Integer, Integer> graph;
+	protected EventStream<Integer> stream;
+
+	@Before
+	public void setUp() {
+		this.graph = NavigableGraphModule.EDGE_NAVIGABLE.getInstance(NavigableGraph.class);
+		Random random = new Random(11);
+		for (int i = 0; i < 40; i++) {
+			// keys are unique per dyad, so spread them and use the time part
+			long key = 100 * random.nextInt(15) + i;
+			this.graph.addEdge(key, random.nextInt(8), random.nextInt(8), i % 5 == 0 ? EdgeType.UNDIRECTED
+			        : EdgeType.DIRECTED);
+		}
+		this.stream = EventStream.fromGraph(this.graph, 200l, 1300l);
+	}
+
+	/**
+	 * Best values over every time-respecting path, by enumerating them
+	 */
+	protected class BruteForce {
+		final long duration;
+		final long[] arrival, fastest, hops, departure;
+		final int target;
+
+		BruteForce(int source, int target, long duration) {
+			int n = TemporalPathSearchTest.this.stream.size();
+			this.duration = duration;
+			this.target = target;
+			this.arrival = new long[n];
+			this.fastest = new long[n];
+			this.hops = new long[n];
+			this.departure = new long[n];
+			Arrays.fill(this.arrival, TemporalPathSearch.UNREACHED_ARRIVAL);
+			Arrays.fill(this.fastest, TemporalPathSearch.UNREACHED_DURATION);
+			Arrays.fill(this.hops, TemporalPathSearch.UNREACHED_HOPS);
+			Arrays.fill(this.departure, TemporalPathSearch.UNREACHED_DEPARTURE);
+			this.arrival[source] = Long.MIN_VALUE;
+			this.fastest[source] = 0;
+			this.hops[source] = 0;
+			this.visit(source, source, Long.MIN_VALUE, 0, 0, true);
+			for (int u = 0; u < n; u++) {
+				this.walkTo(u, u, 0, true, -1);
+			}
+		}
+
+		void visit(int source, int u, long arrived, long start, int count, boolean first) {
+			EventStream<Integer> stream = TemporalPathSearchTest.this.stream;
+			for (int a = 0; a < stream.arcCount(); a++) {
+				long time = stream.getTimes()[a];
+				if (stream.getSources()[a] != u || (!first && !this.ready(time, arrived))) {
+					continue;
+				}
+				int v = stream.getTargets()[a];
+				long begin = first ? time : start;
+				long end = time + this.duration;
+				if (v != source) {
+					this.arrival[v] = Math.min(this.arrival[v], end);
+					this.fastest[v] = Math.min(this.fastest[v], end - begin);
+					this.hops[v] = Math.min(this.hops[v], count + 1);
+				}
+				this.visit(source, v, end, begin, count + 1, false);
+			}
+		}
+
+		void walkTo(int origin, int u, long arrived, boolean first, long leave) {
+			if (u == this.target) {
+				this.departure[origin] = Math.max(this.departure[origin], first ? Long.MAX_VALUE : leave);
+				if (first) {
+					return;
+				}
+			}
+			EventStream<Integer> stream = TemporalPathSearchTest.this.stream;
+			for (int a = 0; a < stream.arcCount(); a++) {
+				long time = stream.getTimes()[a];
+				if (stream.getSources()[a] != u || (!first && !this.ready(time, arrived))) {
+					continue;
+				}
+				this.walkTo(origin, stream.getTargets()[a], time + this.duration, false, first ? time : leave);
+			}
+		}
+
+		boolean ready(long time, long arrived) {
+			return this.duration > 0 ? time >= arrived : time > arrived;
+		}
+	}
+
+	protected void assertMatches(long duration) {
+		TemporalPathSearch search = new TemporalPathSearch(this.stream, duration);
+		int n = this.stream.size();
+		for (int source = 0; source < n; source++) {
+			BruteForce expected = new BruteForce(source, source, duration);
+			search.earliestArrival(source);
+			search.fastest(source);
+			search.shortest(source);
+			search.latestDeparture(source);
+			for (int v = 0; v < n; v++) {
+				if (v != source) {
+					assertEquals("arrival " + source + "->" + v, expected.arrival[v], search.getArrival(v));
+					assertEquals("departure " + v + "->" + source, expected.departure[v], search.getDeparture(v));
+				}
+				assertEquals("fastest " + source + "->" + v, expected.fastest[v], search.getFastest(v));
+				assertEquals("hops " + source + "->" + v, expected.hops[v], search.getHops(v));
+			}
+		}
+	}
+
+	@Test
+	public void testStream() {
+		int expected = 0;
+		for (EdgeEntry<Long, Integer, Integer> edge : this.graph.getEdges()) {
+			if (edge.getKey() >= 200 && edge.getKey() < 1300 && !edge.getFrom().equals(edge.getTo())) {
+				expected += edge.getEdgetype() == EdgeType.UNDIRECTED ? 2 : 1;
+			}
+		}
+		assertEquals(expected, this.stream.arcCount());
+		long[] times = this.stream.getTimes();
+		for (int a = 0; a < times.length; a++) {
+			assertTrue(times[a] >= 200 && times[a] < 1300);
+			assertTrue(a == 0 || times[a - 1] <= times[a]);
+		}
+	}
+
+	@Test
+	public void testMatchesBruteForce() {
+		this.assertMatches(0);
+		this.assertMatches(100);
+	}
+
+	@Test
+	public void testForEachSource() {
+		final int n = this.stream.size();
+		final AtomicLongArray reached = new AtomicLongArray(n);
+		TemporalPathSearch.forEachSource(this.stream, 0, null, new TemporalPathSearch.SourceBody() {
+			@Override
+			public void run(TemporalPathSearch search, int source) {
+				reached.set(source, search.earliestArrival(source));
+			}
+		});
+		TemporalPathSearch search = new TemporalPathSearch(this.stream);
+		for (int source = 0; source < n; source++) {
+			assertEquals(search.earliestArrival(source), reached.get(source));
+		}
+	}
+}
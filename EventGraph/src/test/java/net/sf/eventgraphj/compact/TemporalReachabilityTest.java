@@ -0,0 +1,98 @@
+package net.sf.eventgraphj.compact;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import net.sf.eventgraphj.comparable.NavigableGraph;
+import net.sf.eventgraphj.comparable.NavigableGraphModule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class TemporalReachabilityTest {
+	protected NavigableGraph<Long, Integer, Integer> graph;
+	protected EventStream<Integer> stream;
+
+	@Before
+	public void setUp() {
+		this.graph = NavigableGraphModule.EDGE_NAVIGABLE.getInstance(NavigableGraph.class);
+		Random random = new Random(42);
+		int n = 300;
+		for (int v = 0; v < n; v++) {
+			this.graph.addVertex(v);
+		}
+		for (int i = 0; i < 1500; i++) {
+			// keys are unique per dyad, so make them unique
+			long key = 10000l * random.nextInt(100) + i;
+			this.graph.addEdge(key, random.nextInt(n), random.nextInt(n), EdgeType.DIRECTED);
+		}
+		this.stream = EventStream.fromGraph(this.graph);
+	}
+
+	@Test
+	public void testHorizon() {
+		TemporalReachability<Integer> reachability = new TemporalReachability<Integer>(this.stream, 5000);
+		TemporalPathSearch search = new TemporalPathSearch(this.stream, 5000);
+		for (int source = 0; source < 30; source++) {
+			long from = 10000l * source;
+			long by = from + 250000l;
+			Map<Integer, Long> reached = reachability.reachable(source, from, by);
+			search.earliestArrival(source, from);
+			int expected = 0;
+			for (int v = 0; v < this.stream.size(); v++) {
+				long arrival = search.getArrival(v);
+				if (arrival <= by) {
+					expected++;
+					assertEquals(arrival, reached.get(this.stream.getVertex(v)).longValue());
+				}
+			}
+			assertEquals(expected, reached.size());
+			assertEquals(expected, reachability.countReachable(source, from, by));
+			long last = Long.MIN_VALUE;
+			for (long arrival : reached.values()) {
+				assertTrue(arrival >= last);
+				last = arrival;
+			}
+			assertEquals(from, reached.get(source).longValue());
+		}
+	}
+
+	@Test
+	public void testSummary() {
+		long[] boundaries = ReachabilitySummary.boundaries(this.stream, 100000);
+		assertEquals(10, boundaries.length);
+		ReachabilitySummary<Integer> summary = new ReachabilitySummary<Integer>(this.stream, boundaries, 10, 0);
+		TemporalReachability<Integer> reachability = new TemporalReachability<Integer>(this.stream);
+		double error = 0;
+		int queries = 0;
+		for (long boundary : boundaries) {
+			for (int v = 0; v < this.stream.size(); v++) {
+				int exact = reachability.countReachable(this.stream.getVertex(v), boundary, Long.MAX_VALUE);
+				double estimate = summary.estimate(this.stream.getVertex(v), boundary);
+				assertEquals(exact, estimate, 0.15 * exact + 1);
+				error += Math.abs(estimate - exact) / exact;
+				queries++;
+				// rounded up to the next boundary
+				assertEquals(summary.estimate(this.stream.getVertex(v), boundary), summary.estimate(
+				        this.stream.getVertex(v), boundary - 1), 0);
+			}
+		}
+		assertTrue(error / queries < 0.04);
+
+		Set<Integer> union = new HashSet<Integer>();
+		for (int source = 0; source < 5; source++) {
+			union.addAll(reachability.reachable(source, boundaries[3], Long.MAX_VALUE).keySet());
+		}
+		assertEquals(union.size(), summary.estimate(Arrays.asList(0, 1, 2, 3, 4), boundaries[3]),
+		        0.15 * union.size());
+		assertEquals(2, summary.estimate(Arrays.asList(0, 1, 1), Long.MAX_VALUE), 0);
+	}
+}
@@ -1,10 +1,13 @@
 package net.sf.eventgraphj.comparable;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -220,6 +223,40 @@ public abstract class AbstractNavigableGraphTest {
 		}
 	}
 
+	protected void assertIntervalEdges(Integer start, Integer stop) {
+		for (Integer v : this.graph.getVertices()) {
+			assertEquals(this.inInterval(this.graph.getOutEdges(v), start, stop),
+					new HashSet<EdgeEntry<Integer, Integer, Integer>>(this.graph.getOutEdges(v, start, stop)));
+			assertEquals(this.inInterval(this.graph.getInEdges(v), start, stop),
+					new HashSet<EdgeEntry<Integer, Integer, Integer>>(this.graph.getInEdges(v, start, stop)));
+		}
+	}
+
+	protected Set<EdgeEntry<Integer, Integer, Integer>> inInterval(
+			Collection<EdgeEntry<Integer, Integer, Integer>> edges, Integer start, Integer stop) {
+		Set<EdgeEntry<Integer, Integer, Integer>> result = new HashSet<EdgeEntry<Integer, Integer, Integer>>();
+		for (EdgeEntry<Integer, Integer, Integer> e : edges) {
+			if ((start == null || e.getKey() >= start) && (stop == null || e.getKey() < stop)) {
+				result.add(e);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testIntervalInOutEdges() {
+		this.assertIntervalEdges(2, 7);
+		this.assertIntervalEdges(null, 5);
+		this.assertIntervalEdges(5, null);
+		this.assertIntervalEdges(9, 9);
+		for (EdgeEntry<Integer, Integer, Integer> e : new ArrayList<EdgeEntry<Integer, Integer, Integer>>(
+				this.graph.getEdges(EdgeType.UNDIRECTED))) {
+			this.graph.removeEdge(e);
+		}
+		this.assertIntervalEdges(2, 7);
+		this.assertIntervalEdges(5, null);
+	}
+
 	@Test
 	public void testSubnetwork() {
 		NavigableGraph<Integer, Integer, Integer> subgraph = this.graph
@@ -250,6 +287,27 @@ public abstract class AbstractNavigableGraphTest {
 		assertEquals("from 4", 0, subgraph.getOutEdges(4).size());
 	}
 
+	@Test
+	public void testFreezeIsCounted() {
+		this.graph.freeze();
+		this.graph.freeze();
+		this.graph.thaw();
+		assertTrue(this.graph.isFrozen());
+		try {
+			this.graph.addEdge(20, 0, 1);
+			assertTrue("added to a frozen graph", false);
+		} catch (IllegalStateException e) {
+		}
+		this.graph.thaw();
+		assertFalse(this.graph.isFrozen());
+		this.graph.addEdge(20, 0, 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testThawUnfrozen() {
+		this.graph.thaw();
+	}
+
 	@Test
 	public void testGetKey() {
 		assertEquals(1, this.graph.getFirstKey().intValue());
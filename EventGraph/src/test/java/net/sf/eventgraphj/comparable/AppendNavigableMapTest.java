@@ -0,0 +1,98 @@
+package net.sf.eventgraphj.comparable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class AppendNavigableMapTest {
+
+	protected void checkSame(NavigableMap<Integer, Integer> expected, NavigableMap<Integer, Integer> actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(expected.descendingMap().toString(), actual.descendingMap().toString());
+		for (int key = -2; key < 52; key++) {
+			assertEquals(expected.floorKey(key), actual.floorKey(key));
+			assertEquals(expected.lowerKey(key), actual.lowerKey(key));
+			assertEquals(expected.ceilingKey(key), actual.ceilingKey(key));
+			assertEquals(expected.higherKey(key), actual.higherKey(key));
+			assertEquals(expected.get(key), actual.get(key));
+		}
+		assertEquals(expected.firstEntry(), actual.firstEntry());
+		assertEquals(expected.lastEntry(), actual.lastEntry());
+	}
+
+	@Test
+	public void testAgainstTreeMap() {
+		Random random = new Random(7);
+		TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+		AppendNavigableMap<Integer, Integer> actual = new AppendNavigableMap<Integer, Integer>();
+		for (int i = 0; i < 500; i++) {
+			int key = random.nextInt(50);
+			if (random.nextInt(4) == 0) {
+				assertEquals(expected.remove(key), actual.remove(key));
+			} else {
+				assertEquals(expected.put(key, i), actual.put(key, i));
+			}
+		}
+		this.checkSame(expected, actual);
+		this.checkSame(expected.subMap(10, true, 30, false), actual.subMap(10, true, 30, false));
+		this.checkSame(expected.headMap(20, true).descendingMap(), actual.headMap(20, true).descendingMap());
+		this.checkSame(expected.tailMap(25, false).descendingMap().headMap(40, true), actual.tailMap(25, false)
+		        .descendingMap().headMap(40, true));
+		this.checkSame(expected.descendingMap().subMap(40, false, 5, true),
+		        actual.descendingMap().subMap(40, false, 5, true));
+		assertEquals(expected.descendingKeySet().headSet(30), actual.descendingKeySet().headSet(30));
+
+		// removal through views and iterators
+		expected.subMap(10, 20).clear();
+		actual.subMap(10, 20).clear();
+		Iterator<Integer> e = expected.descendingMap().values().iterator();
+		Iterator<Integer> a = actual.descendingMap().values().iterator();
+		while (e.hasNext()) {
+			assertEquals(e.next(), a.next());
+			if (random.nextBoolean()) {
+				e.remove();
+				a.remove();
+			}
+		}
+		e = expected.keySet().iterator();
+		a = actual.keySet().iterator();
+		while (e.hasNext()) {
+			assertEquals(e.next(), a.next());
+			if (random.nextBoolean()) {
+				e.remove();
+				a.remove();
+			}
+		}
+		this.checkSame(expected, actual);
+		assertEquals(expected.pollFirstEntry(), actual.pollFirstEntry());
+		assertEquals(expected.descendingMap().pollFirstEntry(), actual.descendingMap().pollFirstEntry());
+		this.checkSame(expected, actual);
+	}
+
+	@Test
+	public void testAppendsAreNotLate() {
+		AppendNavigableMap<Long, Integer> map = new AppendNavigableMap<Long, Integer>();
+		for (long key = 0; key < 1000; key++) {
+			map.put(key, 0);
+		}
+		assertEquals(0, map.getLateInserts());
+		map.put(-1l, 0);
+		map.put(500l, 1);
+		assertEquals(1, map.getLateInserts());
+		assertEquals(1001, map.size());
+		assertEquals(Long.valueOf(-1), map.firstKey());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPutOutOfRange() {
+		AppendNavigableMap<Integer, Integer> map = new AppendNavigableMap<Integer, Integer>();
+		map.headMap(10).put(10, 0);
+	}
+}
@@ -0,0 +1,76 @@
+package net.sf.eventgraphj.comparable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.util.EdgeType;
+
+public class CalendarBucketsTest {
+	protected final TimeZone zone = TimeZone.getTimeZone("America/New_York");
+
+	protected long time(int year, int month, int day, int hour) {
+		Calendar calendar = Calendar.getInstance(this.zone);
+		calendar.clear();
+		calendar.set(year, month, day, hour, 0);
+		return calendar.getTimeInMillis();
+	}
+
+	@Test
+	public void testDaysAcrossDaylightSavings() {
+		// clocks go forward on March 14, 2010 in New York
+		CalendarBuckets buckets = CalendarBuckets.days(this.time(2010, Calendar.MARCH, 13, 9),
+		        this.time(2010, Calendar.MARCH, 15, 9), this.zone);
+		assertEquals(3, buckets.size());
+		assertEquals(this.time(2010, Calendar.MARCH, 13, 0), buckets.getStart(0));
+		assertEquals(24 * 3600 * 1000l, buckets.getFinish(0) - buckets.getStart(0));
+		assertEquals(23 * 3600 * 1000l, buckets.getFinish(1) - buckets.getStart(1));
+		assertEquals(1, buckets.bucketOf(this.time(2010, Calendar.MARCH, 14, 23)));
+		assertEquals(2, buckets.bucketOf(this.time(2010, Calendar.MARCH, 15, 0)));
+		assertEquals(-1, buckets.bucketOf(this.time(2010, Calendar.MARCH, 12, 23)));
+	}
+
+	@Test
+	public void testMonthsAndWeeks() {
+		CalendarBuckets months = CalendarBuckets.months(this.time(2010, Calendar.JANUARY, 20, 5),
+		        this.time(2010, Calendar.MARCH, 1, 0), this.zone);
+		assertEquals(3, months.size());
+		assertEquals(this.time(2010, Calendar.FEBRUARY, 1, 0), months.getStart(1));
+		assertEquals(this.time(2010, Calendar.MARCH, 1, 0), months.getStart(2));
+
+		CalendarBuckets weeks = CalendarBuckets.weeks(this.time(2010, Calendar.JANUARY, 20, 5),
+		        this.time(2010, Calendar.FEBRUARY, 20, 5), this.zone);
+		Calendar calendar = Calendar.getInstance(this.zone);
+		for (Interval<Long> interval : weeks) {
+			calendar.setTimeInMillis(interval.getStart());
+			assertEquals(calendar.getFirstDayOfWeek(), calendar.get(Calendar.DAY_OF_WEEK));
+			assertEquals(0, calendar.get(Calendar.HOUR_OF_DAY));
+		}
+		assertTrue(weeks.getStart(0) <= this.time(2010, Calendar.JANUARY, 20, 5));
+		assertTrue(weeks.getFinish(0) > this.time(2010, Calendar.JANUARY, 20, 5));
+	}
+
+	@Test
+	public void testCountEdges() {
+		NavigableGraph<Long, Integer, Integer> graph = NavigableGraphModule.EDGE_NAVIGABLE
+		        .getInstance(NavigableGraph.class);
+		graph.addEdge(this.time(2010, Calendar.MARCH, 13, 1), 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(this.time(2010, Calendar.MARCH, 13, 20), 0, 1, EdgeType.DIRECTED);
+		graph.addEdge(this.time(2010, Calendar.MARCH, 14, 5), 1, 0, EdgeType.DIRECTED);
+		graph.addEdge(this.time(2010, Calendar.MARCH, 16, 5), 1, 2, EdgeType.DIRECTED);
+		CalendarBuckets buckets = CalendarBuckets.forGraph(graph, this.zone, Calendar.DAY_OF_MONTH, 1);
+		assertEquals(4, buckets.size());
+		long[] counts = buckets.countEdges(graph);
+		assertEquals(2, counts[0]);
+		assertEquals(1, counts[1]);
+		assertEquals(0, counts[2]);
+		assertEquals(1, counts[3]);
+		counts = buckets.countOutEdges(graph, 0);
+		assertEquals(2, counts[0]);
+		assertEquals(0, counts[1]);
+	}
+}
@@ -0,0 +1,71 @@
+package net.sf.eventgraphj.stream;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.eventgraphj.analysis.NetworkAnalysis;
+import net.sf.eventgraphj.comparable.EdgeEntry;
+import net.sf.eventgraphj.comparable.IncrementIterable;
+import net.sf.eventgraphj.comparable.Interval;
+import net.sf.eventgraphj.comparable.IntervalWrapperIterable;
+import net.sf.eventgraphj.comparable.NavigableGraph;
+
+import org.junit.Test;
+
+import edu.uci.ics.jung.graph.Graph;
+
+public class WatermarkIngestTest {
+
+	@Test
+	public void testReorderAndWindows() {
+		WatermarkIngest<Integer, Integer> ingest = WatermarkIngest.withAppendStore(5, 100);
+		final List<Integer> counts = new ArrayList<Integer>();
+		NetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, Graph<Integer, EdgeEntry<Long, Integer, Integer>>, Integer> count = new NetworkAnalysis<Integer, EdgeEntry<Long, Integer, Integer>, Graph<Integer, EdgeEntry<Long, Integer, Integer>>, Integer>() {
+			@Override
+			public Integer analyze(Graph<Integer, EdgeEntry<Long, Integer, Integer>> graph) {
+				return graph.getEdgeCount();
+			}
+		};
+		ingest.addWindowAnalysis(new IntervalWrapperIterable<Long>(IncrementIterable.fromLong(0l, 30l, 10l)), count,
+		        new WatermarkIngest.WindowListener<Integer>() {
+			        @Override
+			        public void windowClosed(Interval<Long> window, Integer result) {
+				        counts.add(result);
+			        }
+		        });
+
+		long[] times = { 3, 1, 2, 8, 6, 12, 9, 15, 11, 21, 17, 4, 29 };
+		for (long time : times) {
+			ingest.offer(time, (int) time % 3, (int) time % 3 + 1);
+		}
+		// the watermark is 29 - 5; only 4 arrived after the watermark passed it
+		assertEquals(24l, ingest.getWatermark());
+		assertEquals(1, ingest.getLate());
+		assertEquals(2, counts.size());
+		assertEquals(Integer.valueOf(6), counts.get(0));
+		assertEquals(Integer.valueOf(4), counts.get(1));
+		ingest.flush();
+		assertEquals(3, counts.size());
+		assertEquals(Integer.valueOf(2), counts.get(2));
+
+		NavigableGraph<Long, Integer, Integer> store = ingest.getStore();
+		assertEquals(times.length, store.getEdgeCount());
+		assertEquals(Long.valueOf(1), store.getFirstKey());
+		assertEquals(Long.valueOf(29), store.getLastKey());
+	}
+
+	@Test
+	public void testFullBufferForcesRelease() {
+		WatermarkIngest<Integer, Integer> ingest = WatermarkIngest.withAppendStore(1000, 2);
+		ingest.offer(10, 0, 1);
+		ingest.offer(5, 0, 1);
+		ingest.offer(7, 0, 1);
+		assertEquals(2, ingest.getBuffered());
+		assertEquals(6l, ingest.getWatermark());
+		assertEquals(1, ingest.getForced());
+		ingest.offer(4, 0, 1);
+		assertEquals(1, ingest.getLate());
+	}
+}